@@ -0,0 +1,23 @@
+package com.example.aiec.modules.inventory.adapter.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 一括仮引当作成リクエスト
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateReservationsRequest {
+
+    @NotEmpty(message = "明細は1件以上必要です")
+    @Valid
+    private List<CreateReservationRequest> items;
+
+}
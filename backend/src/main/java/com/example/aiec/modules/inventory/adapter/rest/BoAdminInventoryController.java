@@ -1,7 +1,15 @@
 package com.example.aiec.modules.inventory.adapter.rest;
 
 import com.example.aiec.modules.shared.dto.ApiResponse;
+import com.example.aiec.modules.inventory.application.port.FlashSaleDto;
+import com.example.aiec.modules.inventory.application.port.InventoryJournalQueryPort;
 import com.example.aiec.modules.inventory.application.port.InventoryStatusDto;
+import com.example.aiec.modules.inventory.application.port.InventoryStatusListResponse;
+import com.example.aiec.modules.inventory.application.port.InventoryStatusSort;
+import com.example.aiec.modules.inventory.application.port.LocationStockBalanceDto;
+import com.example.aiec.modules.inventory.application.port.StockImportCommandPort;
+import com.example.aiec.modules.inventory.application.port.StockImportDto;
+import com.example.aiec.modules.inventory.application.port.StockImportFormat;
 import com.example.aiec.modules.backoffice.domain.entity.BoUser;
 import com.example.aiec.modules.inventory.domain.entity.InventoryAdjustment;
 import com.example.aiec.modules.shared.domain.model.PermissionLevel;
@@ -12,11 +20,24 @@ import com.example.aiec.modules.backoffice.domain.service.BoAuthService;
 import com.example.aiec.modules.inventory.application.port.InventoryQueryPort;
 import com.example.aiec.modules.inventory.application.port.InventoryCommandPort;
 import com.example.aiec.modules.shared.outbox.application.OutboxEventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -27,9 +48,12 @@ import java.util.Map;
 public class BoAdminInventoryController {
     private final InventoryQueryPort inventoryQuery;
     private final InventoryCommandPort inventoryCommand;
+    private final StockImportCommandPort stockImportCommand;
+    private final InventoryJournalQueryPort inventoryJournalQuery;
     private final InventoryAdjustmentRepository adjustmentRepository;
     private final BoAuthService boAuthService;
     private final OutboxEventPublisher outboxEventPublisher;
+    private final ObjectMapper objectMapper;
 
     /**
      * 認可チェック（ADMIN必須）
@@ -72,6 +96,52 @@ public class BoAdminInventoryController {
         return ApiResponse.success(inventories);
     }
 
+    /**
+     * 在庫一覧検索（ページング）
+     */
+    @GetMapping("/status")
+    @Operation(summary = "在庫一覧検索", description = "カテゴリ絞り込み・在庫の少ない順でページ単位に在庫状況を取得")
+    public ApiResponse<InventoryStatusListResponse> searchInventory(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "LOW_STOCK") InventoryStatusSort sort,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        String token = extractToken(authHeader);
+        BoUser boUser = boAuthService.verifyToken(token);
+        requireAdmin(boUser, "/api/bo/admin/inventory/status");
+
+        return ApiResponse.success(inventoryQuery.searchInventoryStatus(categoryId, sort, page, limit));
+    }
+
+    /**
+     * 在庫一覧エクスポート（NDJSON）
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "在庫一覧エクスポート", description = "全商品の在庫状況を 1 行 1 商品の NDJSON でストリーミング出力")
+    public StreamingResponseBody exportInventory(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam(required = false) Long categoryId) {
+
+        String token = extractToken(authHeader);
+        BoUser boUser = boAuthService.verifyToken(token);
+        requireAdmin(boUser, "/api/bo/admin/inventory/export");
+
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            inventoryQuery.exportInventoryStatus(categoryId, inventory -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(inventory));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+    }
+
     /**
      * 在庫調整
      */
@@ -87,6 +157,7 @@ public class BoAdminInventoryController {
 
         InventoryAdjustment adjustment = inventoryCommand.adjustStock(
                 request.getProductId(),
+                request.getLocationId(),
                 request.getQuantityDelta(),
                 request.getReason(),
                 boUser
@@ -107,6 +178,36 @@ public class BoAdminInventoryController {
         return ApiResponse.success(adjustment);
     }
 
+    /**
+     * 在庫一括取込（CSV / NDJSON）
+     * リクエストボディをそのまま取込ファイルとして保存し、取込ジョブを登録する
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "在庫一括取込", description = "在庫調整ファイルを受け付け、バッチ単位で非同期に適用する")
+    public ApiResponse<StockImportDto> importStock(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+
+        String token = extractToken(authHeader);
+        BoUser boUser = boAuthService.verifyToken(token);
+        requireAdmin(boUser, "/api/bo/admin/inventory/import");
+
+        StockImportDto stockImport = stockImportCommand.submitStockImport(
+                StockImportFormat.fromContentType(contentType),
+                body,
+                boUser
+        );
+
+        outboxEventPublisher.publish("OPERATION_PERFORMED", null, Map.of(
+                "operationType", "ADMIN_ACTION",
+                "performedBy", boUser.getEmail(),
+                "requestPath", "/api/bo/admin/inventory/import",
+                "details", "Submitted stock import: " + stockImport.getFileName() + " (jobId=" + stockImport.getJobId() + ")"));
+
+        return ApiResponse.success(stockImport);
+    }
+
     /**
      * 在庫調整履歴取得
      */
@@ -127,12 +228,91 @@ public class BoAdminInventoryController {
         return ApiResponse.success(adjustments);
     }
 
+    /**
+     * 時点在庫取得
+     */
+    @GetMapping("/stock-at")
+    @Operation(summary = "時点在庫取得", description = "スナップショットと在庫仕訳から指定時点の拠点別在庫を取得")
+    public ApiResponse<List<LocationStockBalanceDto>> getStockAt(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestParam Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+
+        String token = extractToken(authHeader);
+        BoUser boUser = boAuthService.verifyToken(token);
+        requireAdmin(boUser, "/api/bo/admin/inventory/stock-at");
+
+        return ApiResponse.success(inventoryJournalQuery.getStockAt(productId, at));
+    }
+
+    /**
+     * フラッシュセール開始
+     */
+    @PostMapping("/flash-sale")
+    @Operation(summary = "フラッシュセール開始", description = "指定商品の有効在庫を在庫バケットへ切り出す")
+    public ApiResponse<FlashSaleDto> enableFlashSale(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody EnableFlashSaleRequest request) {
+
+        String token = extractToken(authHeader);
+        BoUser boUser = boAuthService.verifyToken(token);
+        requireAdmin(boUser, "/api/bo/admin/inventory/flash-sale");
+
+        FlashSaleDto flashSale = inventoryCommand.enableFlashSale(request.getProductId(), request.getBucketCount());
+
+        outboxEventPublisher.publish("OPERATION_PERFORMED", null, Map.of(
+                "operationType", "ADMIN_ACTION",
+                "performedBy", boUser.getEmail(),
+                "requestPath", "/api/bo/admin/inventory/flash-sale",
+                "details", String.format("Enabled flash sale: productId=%d, buckets=%d, allocated=%d",
+                        flashSale.getProductId(),
+                        flashSale.getBucketCount(),
+                        flashSale.getAllocatedQty())));
+
+        return ApiResponse.success(flashSale);
+    }
+
+    /**
+     * フラッシュセール終了
+     */
+    @DeleteMapping("/flash-sale/{productId}")
+    @Operation(summary = "フラッシュセール終了", description = "在庫バケットを拠点在庫へ統合する")
+    public ApiResponse<Void> disableFlashSale(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @PathVariable Long productId) {
+
+        String token = extractToken(authHeader);
+        BoUser boUser = boAuthService.verifyToken(token);
+        String requestPath = "/api/bo/admin/inventory/flash-sale/" + productId;
+        requireAdmin(boUser, requestPath);
+
+        inventoryCommand.disableFlashSale(productId);
+
+        outboxEventPublisher.publish("OPERATION_PERFORMED", null, Map.of(
+                "operationType", "ADMIN_ACTION",
+                "performedBy", boUser.getEmail(),
+                "requestPath", requestPath,
+                "details", "Disabled flash sale: productId=" + productId));
+
+        return ApiResponse.success(null);
+    }
+
+    /**
+     * フラッシュセール開始リクエストDTO
+     */
+    @lombok.Data
+    public static class EnableFlashSaleRequest {
+        private Long productId;
+        private Integer bucketCount;
+    }
+
     /**
      * 在庫調整リクエストDTO
      */
     @lombok.Data
     public static class AdjustStockRequest {
         private Long productId;
+        private Integer locationId;
         private Integer quantityDelta;
         private String reason;
     }
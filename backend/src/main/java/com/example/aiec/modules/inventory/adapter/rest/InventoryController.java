@@ -1,8 +1,11 @@
 package com.example.aiec.modules.inventory.adapter.rest;
 
 import com.example.aiec.modules.inventory.application.port.AvailabilityDto;
+import com.example.aiec.modules.inventory.application.port.AvailabilityStreamPort;
 import com.example.aiec.modules.inventory.adapter.dto.CreateReservationRequest;
+import com.example.aiec.modules.inventory.adapter.dto.CreateReservationsRequest;
 import com.example.aiec.modules.inventory.application.port.ReservationDto;
+import com.example.aiec.modules.inventory.application.port.ReservationLineResultDto;
 import com.example.aiec.modules.shared.dto.ApiResponse;
 import com.example.aiec.modules.inventory.application.port.InventoryQueryPort;
 import com.example.aiec.modules.inventory.application.port.InventoryCommandPort;
@@ -11,9 +14,15 @@ import lombok.RequiredArgsConstructor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * 在庫引当コントローラ
@@ -26,6 +35,7 @@ public class InventoryController {
 
     private final InventoryQueryPort inventoryQuery;
     private final InventoryCommandPort inventoryCommand;
+    private final AvailabilityStreamPort availabilityStream;
 
     /**
      * 仮引当作成
@@ -43,6 +53,23 @@ public class InventoryController {
         return ApiResponse.success(reservation);
     }
 
+    /**
+     * 一括仮引当作成（同一商品の明細は数量を合算）
+     * POST /api/inventory/reservations/batch
+     */
+    @PostMapping("/reservations/batch")
+    @Operation(summary = "一括仮引当作成", description = "カート内の複数商品をまとめて仮引当し、明細ごとの結果を返す")
+    public ApiResponse<List<ReservationLineResultDto>> createReservations(
+            @RequestHeader("X-Session-Id") String sessionId,
+            @Valid @RequestBody CreateReservationsRequest request
+    ) {
+        Map<Long, Integer> quantitiesByProductId = new TreeMap<>();
+        for (CreateReservationRequest item : request.getItems()) {
+            quantitiesByProductId.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return ApiResponse.success(inventoryCommand.createReservations(sessionId, quantitiesByProductId));
+    }
+
     /**
      * 仮引当解除
      * DELETE /api/inventory/reservations
@@ -99,4 +126,27 @@ public class InventoryController {
         return ApiResponse.success(availability);
     }
 
+    /**
+     * 有効在庫の変化購読（Server-Sent Events）
+     * GET /api/inventory/availability/stream?productIds=1,2
+     */
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "有効在庫の変化購読", description = "指定商品の有効在庫数が変化するたびに availability イベントを送信する")
+    public SseEmitter streamAvailability(
+            @RequestParam List<Long> productIds
+    ) {
+        SseEmitter emitter = new SseEmitter(availabilityStream.getTimeoutMillis());
+        AvailabilityStreamPort.Subscription subscription = availabilityStream.subscribe(productIds, change -> {
+            try {
+                emitter.send(SseEmitter.event().name("availability").data(change));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
 }
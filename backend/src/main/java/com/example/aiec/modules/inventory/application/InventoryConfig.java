@@ -0,0 +1,52 @@
+package com.example.aiec.modules.inventory.application;
+
+import com.example.aiec.modules.inventory.application.service.InMemoryTentativeReservationStore;
+import com.example.aiec.modules.inventory.application.service.JpaTentativeReservationStore;
+import com.example.aiec.modules.inventory.application.service.ReservationExpiryScheduler;
+import com.example.aiec.modules.inventory.application.service.ReservationExpiryService;
+import com.example.aiec.modules.inventory.application.service.StockLocations;
+import com.example.aiec.modules.inventory.application.service.TentativeReservationCounter;
+import com.example.aiec.modules.inventory.application.service.TentativeReservationStore;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.inventory.domain.repository.SalesLimitRepository;
+import com.example.aiec.modules.inventory.domain.repository.StockReservationRepository;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(InventoryProperties.class)
+public class InventoryConfig {
+
+    /**
+     * app.inventory.reservation.store に応じて仮引当の保存先を選ぶ
+     */
+    @Bean
+    public TentativeReservationStore tentativeReservationStore(InventoryProperties inventoryProperties,
+                                                               StockReservationRepository stockReservationRepository,
+                                                               ProductRepository productRepository,
+                                                               LocationStockRepository locationStockRepository,
+                                                               SalesLimitRepository salesLimitRepository,
+                                                               ReservationExpiryScheduler reservationExpiryScheduler,
+                                                               ReservationExpiryService reservationExpiryService,
+                                                               TentativeReservationCounter tentativeReservationCounter,
+                                                               StockLocations stockLocations) {
+        return switch (inventoryProperties.getReservation().getStore()) {
+            case JPA -> new JpaTentativeReservationStore(
+                    stockReservationRepository,
+                    locationStockRepository,
+                    salesLimitRepository,
+                    reservationExpiryScheduler,
+                    stockLocations);
+            case MEMORY -> new InMemoryTentativeReservationStore(
+                    productRepository,
+                    locationStockRepository,
+                    salesLimitRepository,
+                    reservationExpiryService,
+                    tentativeReservationCounter,
+                    stockLocations,
+                    inventoryProperties);
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.aiec.modules.inventory.application;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.inventory")
+public class InventoryProperties {
+
+    private Reservation reservation = new Reservation();
+    private Expiry expiry = new Expiry();
+    private FrameAllocation frameAllocation = new FrameAllocation();
+    private AvailabilityStream availabilityStream = new AvailabilityStream();
+    private Locations locations = new Locations();
+    private ChangeNotification changeNotification = new ChangeNotification();
+
+    @Data
+    public static class Reservation {
+        /**
+         * 仮引当の排他方式（LOCKING: 商品行ロック / ATOMIC: 条件付き UPDATE）
+         */
+        private ReservationStrategy strategy = ReservationStrategy.LOCKING;
+        /**
+         * 仮引当の保存先（JPA: stock_reservations テーブル / MEMORY: 単一インスタンスのメモリ上）
+         */
+        private ReservationStore store = ReservationStore.JPA;
+        /**
+         * 単一インスタンス構成であることの明示（MEMORY 保存先は true の場合のみ起動する）
+         * 起動時に共有のカウンタを再計算するため、他インスタンス（ローリングデプロイ中の旧インスタンスを含む）が
+         * 同じ DB で動いていてはならない。
+         */
+        private boolean singleInstance = false;
+    }
+
+    @Data
+    public static class Expiry {
+        /**
+         * 期限管理ホイールによる即時解放を行うか（無効時は release-reservations ジョブのみで解放）
+         */
+        private boolean enabled = true;
+        /**
+         * ホイールの 1 tick の長さ（ミリ秒）
+         */
+        private long tickMillis = 1000;
+        /**
+         * 1 トランザクションで解放する引当の最大件数
+         */
+        private int batchSize = 100;
+    }
+
+    @Data
+    public static class FrameAllocation {
+        /**
+         * 有効在庫増加イベントを商品単位でまとめる待ち時間（ミリ秒）
+         */
+        private long coalesceWindowMillis = 500;
+        /**
+         * 商品ごとの本引当を並列実行するスレッド数
+         */
+        private int parallelism = 4;
+        /**
+         * 実行待ちの本引当の上限（超過分は次回のまとめ処理まで持ち越す）
+         */
+        private int queueCapacity = 1000;
+        /**
+         * 本引当が失敗した商品の再試行回数の上限
+         */
+        private int maxRetries = 5;
+        /**
+         * 再試行までの初回待ち時間（ミリ秒。再試行ごとに倍にする）
+         */
+        private long retryBackoffMillis = 1000;
+    }
+
+    @Data
+    public static class AvailabilityStream {
+        /**
+         * 有効在庫の変化をまとめて配信する間隔（ミリ秒）
+         */
+        private long debounceMillis = 500;
+        /**
+         * 配信接続のタイムアウト（ミリ秒。クライアントは切断後に再接続する）
+         */
+        private long timeoutMillis = 1_800_000;
+        /**
+         * 1 接続で購読できる商品数の上限
+         */
+        private int maxProductsPerSubscription = 100;
+        /**
+         * 購読者への送信スレッド数
+         */
+        private int deliveryThreads = 4;
+        /**
+         * 送信待ちの購読者数の上限（超えた購読者の値は次回の配信で送る）
+         */
+        private int deliveryQueueCapacity = 10_000;
+    }
+
+    @Data
+    public static class Locations {
+        /**
+         * 引当対象の拠点 ID（先頭ほど優先。先頭は管理画面の在庫調整・フラッシュセールの既定拠点）
+         */
+        private List<Integer> priority = new ArrayList<>(List.of(1));
+        /**
+         * 拠点別有効在庫インデックスの保持期間（ミリ秒。他インスタンスからの通知を取りこぼした場合もこの間隔で反映される）
+         */
+        private long indexTtlMillis = 5000;
+    }
+
+    @Data
+    public static class ChangeNotification {
+        /**
+         * 有効在庫が変わった商品を NOTIFY で他インスタンスへ知らせるか
+         */
+        private boolean enabled = true;
+        /**
+         * 通知を待つ最大時間（ミリ秒）
+         */
+        private long listenTimeoutMillis = 10000;
+        /**
+         * 待ち受け接続が切断された場合の再接続までの待ち時間（ミリ秒）
+         */
+        private long listenReconnectDelayMillis = 5000;
+    }
+
+    public enum ReservationStrategy {
+        LOCKING,
+        ATOMIC
+    }
+
+    public enum ReservationStore {
+        JPA,
+        MEMORY
+    }
+}
@@ -1,64 +1,129 @@
 package com.example.aiec.modules.inventory.application.job;
 
-import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.application.service.CommittedQtyRepairService;
+import com.example.aiec.modules.inventory.application.service.StockLocations;
 import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
-import com.example.aiec.modules.purchase.order.entity.Order;
-import com.example.aiec.modules.purchase.order.repository.OrderItemRepository;
 import com.example.aiec.modules.shared.job.JobProperties;
 import com.example.aiec.modules.shared.job.JobRunnerBase;
 import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.jobrunr.jobs.annotations.Job;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 在庫引当整合性検証ジョブ
+ * 商品 ID を範囲で分割し、範囲ごとの集計比較クエリを並列に実行する。
+ * 補正モードでは不一致の商品を 1 件ずつ商品行ロック下で補正する。
  */
 @Service
 @Slf4j
 public class AllocationConsistencyCheckJob extends JobRunnerBase {
 
     private final LocationStockRepository locationStockRepository;
-    private final OrderItemRepository orderItemRepository;
+    private final CommittedQtyRepairService committedQtyRepairService;
+    private final StockLocations stockLocations;
+    private final AtomicInteger lastMismatchCount = new AtomicInteger();
+    private final Counter mismatchDetectedCounter;
+    private final Counter repairedCounter;
 
     public AllocationConsistencyCheckJob(JobRunHistoryRepository jobRunHistoryRepository,
                                          JobProperties jobProperties,
                                          LocationStockRepository locationStockRepository,
-                                         OrderItemRepository orderItemRepository) {
+                                         CommittedQtyRepairService committedQtyRepairService,
+                                         StockLocations stockLocations,
+                                         MeterRegistry meterRegistry) {
         super(jobRunHistoryRepository, jobProperties);
         this.locationStockRepository = locationStockRepository;
-        this.orderItemRepository = orderItemRepository;
+        this.committedQtyRepairService = committedQtyRepairService;
+        this.stockLocations = stockLocations;
+        Gauge.builder("inventory.allocation.mismatch", lastMismatchCount, AtomicInteger::get)
+                .description("直近の整合性検証で検出した引当済数量の不一致件数").register(meterRegistry);
+        this.mismatchDetectedCounter = Counter.builder("inventory.allocation.mismatch.detected")
+                .description("引当済数量の不一致検出数（累計）").register(meterRegistry);
+        this.repairedCounter = Counter.builder("inventory.allocation.mismatch.repaired")
+                .description("引当済数量の補正数（累計）").register(meterRegistry);
     }
 
     @Job(name = "allocation-consistency-check", retries = 0)
-    @Transactional(readOnly = true)
     public void run() {
-        execute("allocation-consistency-check", true, this::checkConsistency);
+        execute(
+                "allocation-consistency-check",
+                getJobProperties().getEnabled().isAllocationConsistencyCheck(),
+                () -> checkConsistency(getJobProperties().getAllocationConsistency().isAutoRepair())
+        );
     }
 
-    int checkConsistency() {
-        List<LocationStock> locationStocks = locationStockRepository.findAll();
-        int mismatched = 0;
+    @Job(name = "allocation-consistency-repair", retries = 0)
+    public void repair() {
+        execute("allocation-consistency-repair", true, () -> checkConsistency(true));
+    }
+
+    int checkConsistency(boolean repair) {
+        List<Object[]> mismatches = findMismatches();
+        lastMismatchCount.set(mismatches.size());
+        mismatchDetectedCounter.increment(mismatches.size());
 
-        for (LocationStock locationStock : locationStocks) {
-            Long productId = locationStock.getProduct().getId();
-            int expectedCommittedQty = orderItemRepository.sumCommittedQuantityByProductExcludingCancelled(
-                    productId,
-                    Order.OrderStatus.CANCELLED
-            );
-            int actualCommittedQty = locationStock.getCommittedQty() != null ? locationStock.getCommittedQty() : 0;
-            if (actualCommittedQty != expectedCommittedQty) {
-                mismatched++;
-                log.warn("Commitment mismatch detected: productId={}, locationCommitted={}, orderItemsCommitted={}",
-                        productId,
-                        actualCommittedQty,
-                        expectedCommittedQty);
+        for (Object[] row : mismatches) {
+            log.warn("Commitment mismatch detected: productId={}, locationId={}, locationCommitted={}, orderItemsCommitted={}",
+                    row[0],
+                    row[1],
+                    row[2],
+                    row[3]);
+        }
+        if (repair) {
+            for (Object[] row : mismatches) {
+                if (committedQtyRepairService.repair(((Number) row[0]).longValue(), ((Number) row[1]).intValue())) {
+                    repairedCounter.increment();
+                }
             }
         }
+        return mismatches.size();
+    }
 
-        return mismatched;
+    /**
+     * 商品 ID 範囲をパーティションに分割し、並列に比較クエリを実行する（結果は商品 ID 順）
+     */
+    List<Object[]> findMismatches() {
+        List<Object[]> range = locationStockRepository.findProductIdRange();
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            return List.of();
+        }
+        long minProductId = ((Number) range.get(0)[0]).longValue();
+        long maxProductId = ((Number) range.get(0)[1]).longValue();
+        JobProperties.AllocationConsistency config = getJobProperties().getAllocationConsistency();
+        Integer primaryLocationId = stockLocations.primaryLocationId();
+        int partitions = Math.max(1, config.getPartitions());
+        long partitionSize = Math.max(1, Math.ceilDiv(maxProductId - minProductId + 1, partitions));
+
+        List<Object[]> mismatches = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(config.getParallelism(), partitions)))) {
+            List<Future<List<Object[]>>> futures = new ArrayList<>();
+            for (long from = minProductId; from <= maxProductId; from += partitionSize) {
+                long fromProductId = from;
+                long toProductId = Math.min(from + partitionSize - 1, maxProductId);
+                futures.add(executor.submit(
+                        () -> locationStockRepository.findCommittedQtyMismatches(fromProductId, toProductId, primaryLocationId)));
+            }
+            for (Future<List<Object[]>> future : futures) {
+                mismatches.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("整合性検証が中断されました", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("整合性検証に失敗しました: " + e.getCause().getMessage(), e.getCause());
+        }
+        return mismatches;
     }
 }
@@ -0,0 +1,66 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.StockBucketService;
+import com.example.aiec.modules.inventory.application.service.StockLocations;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.JobRunnerBase;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.jobs.annotations.Job;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * フラッシュセール在庫バケットの再配分・統合ジョブ
+ * 販売終了日時を過ぎた商品はバケットを拠点在庫へ統合し、それ以外はバケット間の空き数量を均等化する。
+ */
+@Service
+@Slf4j
+public class FlashSaleBucketJob extends JobRunnerBase {
+
+    private final LocationStockRepository locationStockRepository;
+    private final StockBucketService stockBucketService;
+    private final StockLocations stockLocations;
+
+    public FlashSaleBucketJob(JobRunHistoryRepository jobRunHistoryRepository,
+                              JobProperties jobProperties,
+                              LocationStockRepository locationStockRepository,
+                              StockBucketService stockBucketService,
+                              StockLocations stockLocations) {
+        super(jobRunHistoryRepository, jobProperties);
+        this.locationStockRepository = locationStockRepository;
+        this.stockBucketService = stockBucketService;
+        this.stockLocations = stockLocations;
+    }
+
+    @Job(name = "flash-sale-buckets")
+    @Transactional(rollbackFor = Exception.class)
+    public void run() {
+        execute(
+                "flash-sale-buckets",
+                getJobProperties().getEnabled().isFlashSaleBuckets(),
+                this::maintainBuckets
+        );
+    }
+
+    int maintainBuckets() {
+        Instant now = Instant.now();
+        int processed = 0;
+        for (LocationStock locationStock : locationStockRepository.findFlashSaleEnabled(stockLocations.primaryLocationId())) {
+            Long productId = locationStock.getProduct().getId();
+            Instant saleEndAt = locationStock.getProduct().getSaleEndAt();
+            if (saleEndAt != null && !saleEndAt.isAfter(now)) {
+                int mergedQty = stockBucketService.merge(productId);
+                log.info("Flash sale buckets merged: productId={}, mergedQty={}", productId, mergedQty);
+                processed++;
+            } else if (stockBucketService.rebalance(productId)) {
+                processed++;
+            }
+        }
+        return processed;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.AvailabilityChangeTracker;
+import com.example.aiec.modules.inventory.domain.repository.SalesLimitRepository;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.purchase.order.entity.Order;
+import com.example.aiec.modules.purchase.order.repository.OrderItemRepository;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.JobRunnerBase;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.jobs.annotations.Job;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 枠在庫消費数量カウンタの整合性検証・再構築ジョブ
+ */
+@Service
+@Slf4j
+public class FrameConsumedQtyConsistencyJob extends JobRunnerBase {
+
+    private final SalesLimitRepository salesLimitRepository;
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final AvailabilityChangeTracker availabilityChangeTracker;
+
+    public FrameConsumedQtyConsistencyJob(JobRunHistoryRepository jobRunHistoryRepository,
+                                          JobProperties jobProperties,
+                                          SalesLimitRepository salesLimitRepository,
+                                          ProductRepository productRepository,
+                                          OrderItemRepository orderItemRepository,
+                                          AvailabilityChangeTracker availabilityChangeTracker) {
+        super(jobRunHistoryRepository, jobProperties);
+        this.salesLimitRepository = salesLimitRepository;
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.availabilityChangeTracker = availabilityChangeTracker;
+    }
+
+    @Job(name = "frame-consumed-qty-consistency-check", retries = 0)
+    @Transactional(readOnly = true)
+    public void run() {
+        execute(
+                "frame-consumed-qty-consistency-check",
+                getJobProperties().getEnabled().isFrameConsumedQtyConsistencyCheck(),
+                this::checkConsistency
+        );
+    }
+
+    @Job(name = "frame-consumed-qty-rebuild", retries = 0)
+    @Transactional(rollbackFor = Exception.class)
+    public void rebuild() {
+        execute("frame-consumed-qty-rebuild", true, this::rebuildMismatched);
+    }
+
+    int checkConsistency() {
+        List<Object[]> mismatches = salesLimitRepository.findConsumedQtyMismatches();
+        for (Object[] row : mismatches) {
+            log.warn("Frame consumed quantity drift detected: productId={}, consumedQty={}, orderedQty={}",
+                    row[0],
+                    row[1],
+                    row[2]);
+        }
+        return mismatches.size();
+    }
+
+    int rebuildMismatched() {
+        int rebuilt = 0;
+        for (Object[] row : salesLimitRepository.findConsumedQtyMismatches()) {
+            Long productId = ((Number) row[0]).longValue();
+            if (productRepository.findByIdForUpdate(productId).isEmpty()) {
+                continue;
+            }
+            Integer orderedQty = orderItemRepository.sumOrderedQuantityByProductExcludingCancelled(
+                    productId,
+                    Order.OrderStatus.CANCELLED
+            );
+            int consumedQty = orderedQty != null ? orderedQty : 0;
+            salesLimitRepository.updateConsumedQty(productId, consumedQty);
+            availabilityChangeTracker.markChanged(productId);
+            log.info("Frame consumed quantity rebuilt: productId={}, before={}, after={}", productId, row[1], consumedQty);
+            rebuilt++;
+        }
+        return rebuilt;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.FrameAllocationService;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.JobRunnerBase;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.jobs.annotations.Job;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * 枠在庫商品の一括再引当ジョブ
+ * 未引当の注文明細がある商品を古い注文順に取得し、商品単位で fork-join プールに分配して本引当する。
+ * 本引当は商品ごとに 1 トランザクションで行い、一部の商品の失敗は他の商品の処理を止めない。
+ */
+@Service
+@Slf4j
+public class FrameReallocationJob extends JobRunnerBase {
+
+    private final FrameAllocationService frameAllocationService;
+
+    public FrameReallocationJob(JobRunHistoryRepository jobRunHistoryRepository,
+                                JobProperties jobProperties,
+                                FrameAllocationService frameAllocationService) {
+        super(jobRunHistoryRepository, jobProperties);
+        this.frameAllocationService = frameAllocationService;
+    }
+
+    @Job(name = "frame-reallocation", retries = 0)
+    public void run() {
+        executeWithProgress(
+                "frame-reallocation",
+                getJobProperties().getEnabled().isFrameReallocation(),
+                this::reallocate
+        );
+    }
+
+    /**
+     * @return 処理した商品数
+     */
+    int reallocate(IntConsumer progress) {
+        List<Long> productIds = frameAllocationService.findProductIdsWithPendingAllocation();
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+
+        JobProperties.FrameReallocation config = getJobProperties().getFrameReallocation();
+        int progressInterval = Math.max(1, config.getProgressInterval());
+        AtomicInteger processedProducts = new AtomicInteger();
+        AtomicInteger allocatedQty = new AtomicInteger();
+        AtomicInteger failedProducts = new AtomicInteger();
+        long startedAt = System.nanoTime();
+
+        // 非同期モード（FIFO）で投入順 = 古い注文の商品から処理する。close() で全タスクの完了を待つ
+        try (ForkJoinPool pool = new ForkJoinPool(
+                Math.max(1, config.getParallelism()),
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                null,
+                true)) {
+            for (Long productId : productIds) {
+                pool.execute(() -> {
+                    try {
+                        allocatedQty.addAndGet(frameAllocationService.allocatePendingByProductId(productId));
+                    } catch (RuntimeException e) {
+                        failedProducts.incrementAndGet();
+                        log.warn("Frame reallocation failed: productId={}", productId, e);
+                    }
+                    int processed = processedProducts.incrementAndGet();
+                    if (processed % progressInterval == 0) {
+                        reportProgress(progress, processed, productIds.size(), allocatedQty, startedAt);
+                    }
+                });
+            }
+        }
+
+        reportProgress(progress, processedProducts.get(), productIds.size(), allocatedQty, startedAt);
+        if (failedProducts.get() > 0) {
+            log.warn("Frame reallocation finished with failures: failedProducts={}", failedProducts.get());
+        }
+        return processedProducts.get();
+    }
+
+    private synchronized void reportProgress(IntConsumer progress,
+                                             int processed,
+                                             int totalProducts,
+                                             AtomicInteger allocatedQty,
+                                             long startedAt) {
+        double elapsedSeconds = Math.max(1e-3, (System.nanoTime() - startedAt) / 1_000_000_000.0);
+        log.info("Frame reallocation progress: products={}/{}, allocatedQty={}, productsPerSecond={}",
+                processed,
+                totalProducts,
+                allocatedQty.get(),
+                String.format("%.1f", processed / elapsedSeconds));
+        progress.accept(processed);
+    }
+}
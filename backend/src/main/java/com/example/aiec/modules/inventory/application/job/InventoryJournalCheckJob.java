@@ -0,0 +1,98 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.InventoryJournalService;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.JobRunnerBase;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.jobs.annotations.Job;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在庫仕訳照合ジョブ
+ * 拠点在庫の在庫数・引当済数量を、最新スナップショットにそれ以降の仕訳を加えた値と商品 ID 範囲ごとに比較する。
+ * 再生モードでは不一致の拠点在庫を 1 件ずつ商品行ロック下で仕訳の再生結果へ戻す（障害後のカウンタ復旧用）。
+ */
+@Service
+@Slf4j
+public class InventoryJournalCheckJob extends JobRunnerBase {
+
+    private final InventoryJournalService inventoryJournalService;
+    private final LocationStockRepository locationStockRepository;
+    private final AtomicInteger lastMismatchCount = new AtomicInteger();
+
+    public InventoryJournalCheckJob(JobRunHistoryRepository jobRunHistoryRepository,
+                                    JobProperties jobProperties,
+                                    InventoryJournalService inventoryJournalService,
+                                    LocationStockRepository locationStockRepository,
+                                    MeterRegistry meterRegistry) {
+        super(jobRunHistoryRepository, jobProperties);
+        this.inventoryJournalService = inventoryJournalService;
+        this.locationStockRepository = locationStockRepository;
+        Gauge.builder("inventory.journal.mismatch", lastMismatchCount, AtomicInteger::get)
+                .description("直近の在庫仕訳照合で検出した拠点在庫の不一致件数").register(meterRegistry);
+    }
+
+    @Job(name = "inventory-journal-check", retries = 0)
+    public void run() {
+        execute(
+                "inventory-journal-check",
+                getJobProperties().getEnabled().isInventoryJournalCheck(),
+                () -> check(getJobProperties().getInventoryJournal().isAutoRepair())
+        );
+    }
+
+    @Job(name = "inventory-journal-replay", retries = 0)
+    public void replay() {
+        execute("inventory-journal-replay", true, () -> check(true));
+    }
+
+    int check(boolean replay) {
+        List<Object[]> mismatches = findMismatches();
+        lastMismatchCount.set(mismatches.size());
+
+        int replayedCount = 0;
+        for (Object[] row : mismatches) {
+            log.warn("Inventory journal mismatch detected: productId={}, locationId={}, available={}, committed={}, journalAvailable={}, journalCommitted={}",
+                    row[0],
+                    row[1],
+                    row[2],
+                    row[3],
+                    row[4],
+                    row[5]);
+            if (replay && inventoryJournalService.replay(((Number) row[0]).longValue(), ((Number) row[1]).intValue())) {
+                replayedCount++;
+            }
+        }
+        if (replay) {
+            log.info("Inventory journal replay finished: mismatches={}, replayed={}", mismatches.size(), replayedCount);
+        }
+        return mismatches.size();
+    }
+
+    /**
+     * 商品 ID 範囲をチャンクサイズごとに区切って比較クエリを実行する（結果は商品 ID 順）
+     */
+    List<Object[]> findMismatches() {
+        List<Object[]> range = locationStockRepository.findProductIdRange();
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            return List.of();
+        }
+        long minProductId = ((Number) range.get(0)[0]).longValue();
+        long maxProductId = ((Number) range.get(0)[1]).longValue();
+        int chunkSize = Math.max(1, getJobProperties().getInventoryJournal().getChunkSize());
+
+        List<Object[]> mismatches = new ArrayList<>();
+        for (long from = minProductId; from <= maxProductId; from += chunkSize) {
+            mismatches.addAll(inventoryJournalService.findReplayMismatches(from, Math.min(from + chunkSize - 1, maxProductId)));
+        }
+        return mismatches;
+    }
+}
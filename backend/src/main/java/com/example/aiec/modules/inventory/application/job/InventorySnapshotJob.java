@@ -0,0 +1,61 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.InventoryJournalService;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.JobRunnerBase;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.jobs.annotations.Job;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * 在庫スナップショット取得ジョブ
+ * 前回までのスナップショットより後に仕訳のある商品を商品 ID 順に取得し、チャンクごとに 1 トランザクションで記録する。
+ * 時点在庫の算出・仕訳の再生で読む仕訳を、直近のスナップショット以降に限定するために使う。
+ */
+@Service
+@Slf4j
+public class InventorySnapshotJob extends JobRunnerBase {
+
+    private final InventoryJournalService inventoryJournalService;
+
+    public InventorySnapshotJob(JobRunHistoryRepository jobRunHistoryRepository,
+                                JobProperties jobProperties,
+                                InventoryJournalService inventoryJournalService) {
+        super(jobRunHistoryRepository, jobProperties);
+        this.inventoryJournalService = inventoryJournalService;
+    }
+
+    @Job(name = "inventory-snapshot", retries = 0)
+    public void run() {
+        executeWithProgress(
+                "inventory-snapshot",
+                getJobProperties().getEnabled().isInventorySnapshot(),
+                this::takeSnapshots
+        );
+    }
+
+    /**
+     * @return 記録したスナップショット件数
+     */
+    int takeSnapshots(IntConsumer progress) {
+        long watermark = inventoryJournalService.findSnapshotWatermark();
+        int chunkSize = Math.max(1, getJobProperties().getInventoryJournal().getChunkSize());
+        long afterProductId = 0;
+        int snapshotCount = 0;
+        while (true) {
+            List<Long> productIds = inventoryJournalService.findProductIdsToSnapshot(watermark, afterProductId, chunkSize);
+            if (productIds.isEmpty()) {
+                break;
+            }
+            snapshotCount += inventoryJournalService.snapshot(productIds);
+            afterProductId = productIds.getLast();
+            progress.accept(snapshotCount);
+        }
+        log.info("Inventory snapshots taken: snapshots={}, afterJournalId={}", snapshotCount, watermark);
+        return snapshotCount;
+    }
+}
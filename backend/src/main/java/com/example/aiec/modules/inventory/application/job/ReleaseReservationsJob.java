@@ -1,41 +1,83 @@
 package com.example.aiec.modules.inventory.application.job;
 
-import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.application.service.ReservationExpiryService;
 import com.example.aiec.modules.inventory.domain.repository.StockReservationRepository;
-import com.example.aiec.modules.shared.domain.model.ActorType;
 import com.example.aiec.modules.shared.job.JobProperties;
 import com.example.aiec.modules.shared.job.JobRunnerBase;
 import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.jobrunr.jobs.annotations.Job;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.IntConsumer;
 
+/**
+ * 期限切れ仮引当の解放ジョブ（期限管理ホイールの取りこぼしを回収するセーフティネット）
+ * 解放と保持期間切れの物理削除をチャンク単位の独立したトランザクションで行い、
+ * チャンクごとに処理件数を実行履歴へ記録する。
+ */
 @Service
+@Slf4j
 public class ReleaseReservationsJob extends JobRunnerBase {
 
     private final StockReservationRepository stockReservationRepository;
+    private final ReservationExpiryService reservationExpiryService;
 
     public ReleaseReservationsJob(JobRunHistoryRepository jobRunHistoryRepository,
                                   JobProperties jobProperties,
-                                  StockReservationRepository stockReservationRepository) {
+                                  StockReservationRepository stockReservationRepository,
+                                  ReservationExpiryService reservationExpiryService) {
         super(jobRunHistoryRepository, jobProperties);
         this.stockReservationRepository = stockReservationRepository;
+        this.reservationExpiryService = reservationExpiryService;
     }
 
     @Job(name = "release-reservations")
-    @Transactional(rollbackFor = Exception.class)
     public void run() {
-        execute(
+        executeWithProgress(
                 "release-reservations",
                 getJobProperties().getEnabled().isReleaseReservations(),
-                () -> stockReservationRepository.softDeleteExpiredByType(
-                        StockReservation.ReservationType.TENTATIVE,
-                        Instant.now(),
-                        ActorType.SYSTEM,
-                        null
-                )
+                this::releaseAndPurge
         );
     }
+
+    int releaseAndPurge(IntConsumer progress) {
+        JobProperties.Reservations config = getJobProperties().getReservations();
+        int chunkSize = Math.max(1, config.getChunkSize());
+        Instant now = Instant.now();
+
+        int released = 0;
+        while (true) {
+            List<Long> expiredIds = stockReservationRepository.findExpiredTentativeIds(now, chunkSize);
+            if (expiredIds.isEmpty()) {
+                break;
+            }
+            int releasedInChunk = reservationExpiryService.releaseExpired(expiredIds, now).releasedCount();
+            released += releasedInChunk;
+            progress.accept(released);
+            if (expiredIds.size() < chunkSize || releasedInChunk == 0) {
+                break;
+            }
+        }
+
+        Instant cutoff = now.minus(config.getRetentionDays(), ChronoUnit.DAYS);
+        int purged = 0;
+        while (true) {
+            int purgedInChunk = reservationExpiryService.purgeDeletedBefore(cutoff, chunkSize);
+            if (purgedInChunk == 0) {
+                break;
+            }
+            purged += purgedInChunk;
+            progress.accept(released + purged);
+            if (purgedInChunk < chunkSize) {
+                break;
+            }
+        }
+
+        log.info("Expired reservations released: released={}, purged={}", released, purged);
+        return released + purged;
+    }
 }
@@ -0,0 +1,132 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.port.StockImportFormat;
+import com.example.aiec.modules.inventory.application.service.StockImportBatchService;
+import com.example.aiec.modules.inventory.application.service.StockImportFileReader;
+import com.example.aiec.modules.inventory.application.service.StockImportLine;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.JobRunnerBase;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.jobs.annotations.Job;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * 在庫一括取込ジョブ
+ * 取込ファイルを 1 行ずつ読み込んで形式チェックし、batchSize 行ごとに 1 トランザクションで適用する。
+ * 不正な行は読み飛ばしてログに記録し、件数が maxRejects を超えた時点で取込を中断する。
+ * 適用済みのバッチはコミット済みのため、中断・失敗したファイルは取込ディレクトリに残して再実行前に確認できるようにする。
+ */
+@Service
+@Slf4j
+public class StockImportJob extends JobRunnerBase {
+
+    private final StockImportBatchService stockImportBatchService;
+    private final ObjectMapper objectMapper;
+
+    public StockImportJob(JobRunHistoryRepository jobRunHistoryRepository,
+                          JobProperties jobProperties,
+                          StockImportBatchService stockImportBatchService,
+                          ObjectMapper objectMapper) {
+        super(jobRunHistoryRepository, jobProperties);
+        this.stockImportBatchService = stockImportBatchService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Job(name = "stock-import", retries = 0)
+    public void run(String filePath, String adjustedBy) {
+        executeWithProgress(
+                "stock-import",
+                getJobProperties().getEnabled().isStockImport(),
+                progress -> importFile(Paths.get(filePath), adjustedBy, progress)
+        );
+    }
+
+    /**
+     * @return 適用した行数
+     */
+    int importFile(Path file, String adjustedBy, IntConsumer progress) {
+        JobProperties.StockImport config = getJobProperties().getStockImport();
+        int batchSize = Math.max(1, config.getBatchSize());
+        StockImportFormat format = StockImportFormat.fromFileName(file.getFileName().toString());
+        ImportCounter counter = new ImportCounter(file, config.getMaxRejects());
+
+        List<StockImportLine> batch = new ArrayList<>(batchSize);
+        try (StockImportFileReader reader = new StockImportFileReader(
+                Files.newBufferedReader(file, StandardCharsets.UTF_8), format, objectMapper)) {
+            StockImportLine line;
+            while ((line = reader.next()) != null) {
+                if (!line.isValid()) {
+                    counter.reject(line);
+                    continue;
+                }
+                batch.add(line);
+                if (batch.size() >= batchSize) {
+                    applyBatch(batch, adjustedBy, counter);
+                    progress.accept(counter.appliedCount);
+                }
+            }
+            if (!batch.isEmpty()) {
+                applyBatch(batch, adjustedBy, counter);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read stock import file: " + file, e);
+        }
+
+        log.info("Stock import completed: file={}, applied={}, rejected={}",
+                file.getFileName(),
+                counter.appliedCount,
+                counter.rejectedCount);
+        moveToProcessed(file, Paths.get(config.getProcessedDir()));
+        return counter.appliedCount;
+    }
+
+    private void applyBatch(List<StockImportLine> batch, String adjustedBy, ImportCounter counter) {
+        StockImportBatchService.BatchResult result = stockImportBatchService.applyBatch(List.copyOf(batch), adjustedBy);
+        batch.clear();
+        counter.appliedCount += result.appliedCount();
+        result.rejected().forEach(counter::reject);
+    }
+
+    private void moveToProcessed(Path file, Path processedDir) {
+        try {
+            Files.createDirectories(processedDir);
+            Files.move(file, processedDir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Failed to move stock import file: file={}", file, e);
+        }
+    }
+
+    private static final class ImportCounter {
+
+        private final Path file;
+        private final int maxRejects;
+        private int appliedCount;
+        private int rejectedCount;
+
+        private ImportCounter(Path file, int maxRejects) {
+            this.file = file;
+            this.maxRejects = maxRejects;
+        }
+
+        private void reject(StockImportLine line) {
+            log.warn("Stock import line rejected: file={}, line={}, reason={}", file.getFileName(), line.lineNumber(), line.error());
+            rejectedCount++;
+            if (rejectedCount > maxRejects) {
+                throw new IllegalStateException(
+                        "不正な行が上限（" + maxRejects + " 件）を超えたため取込を中断しました: " + file.getFileName());
+            }
+        }
+    }
+}
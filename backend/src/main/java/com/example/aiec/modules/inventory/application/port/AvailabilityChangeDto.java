@@ -0,0 +1,17 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 有効在庫の変化通知DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityChangeDto {
+
+    private Long productId;
+    private Integer availableStock;
+}
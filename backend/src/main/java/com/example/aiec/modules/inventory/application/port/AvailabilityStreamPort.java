@@ -0,0 +1,28 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 有効在庫の変化配信API
+ */
+public interface AvailabilityStreamPort {
+
+    /**
+     * 商品の有効在庫の変化を購読する（購読直後に現在値を 1 回通知する）
+     * 通知処理が例外を投げた購読は解除する。
+     *
+     * @return 購読解除用のハンドル
+     */
+    Subscription subscribe(Collection<Long> productIds, Consumer<AvailabilityChangeDto> listener);
+
+    /**
+     * 1 回の購読を維持する最大時間（ミリ秒）
+     */
+    long getTimeoutMillis();
+
+    interface Subscription {
+
+        void cancel();
+    }
+}
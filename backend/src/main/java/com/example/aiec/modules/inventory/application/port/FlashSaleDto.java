@@ -0,0 +1,19 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * フラッシュセール在庫バケットDTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleDto {
+
+    private Long productId;
+    private Integer bucketCount;
+    private Integer allocatedQty;
+    private Integer reservedQty;
+}
@@ -5,6 +5,9 @@ import com.example.aiec.modules.inventory.application.port.ReservationDto;
 import com.example.aiec.modules.inventory.domain.entity.InventoryAdjustment;
 import com.example.aiec.modules.purchase.order.entity.Order;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 在庫コマンドAPI（公開インターフェース）
  */
@@ -15,6 +18,11 @@ public interface InventoryCommandPort {
      */
     ReservationDto createReservation(String sessionId, Long productId, Integer quantity);
 
+    /**
+     * 複数商品をまとめて仮引当する（カート一括）。商品は ID 昇順でロックし、明細ごとの結果を返す
+     */
+    List<ReservationLineResultDto> createReservations(String sessionId, Map<Long, Integer> quantitiesByProductId);
+
     /**
      * 仮引当を更新する（カート数量変更時）
      */
@@ -42,12 +50,24 @@ public interface InventoryCommandPort {
 
     /**
      * 在庫調整（差分方式）
+     *
+     * @param locationId 調整する拠点（null は既定拠点）
      */
-    InventoryAdjustment adjustStock(Long productId, Integer quantityDelta, String reason, BoUser admin);
+    InventoryAdjustment adjustStock(Long productId, Integer locationId, Integer quantityDelta, String reason, BoUser admin);
 
     /**
      * 管理向け在庫タブを更新する
      */
     AdminItemInventoryDto updateAdminItemInventory(Long productId, UpdateItemInventoryRequest request, BoUser admin);
 
+    /**
+     * フラッシュセールを開始する（有効在庫を在庫バケットへ切り出す）
+     */
+    FlashSaleDto enableFlashSale(Long productId, Integer bucketCount);
+
+    /**
+     * フラッシュセールを終了する（在庫バケットを拠点在庫へ統合する）
+     */
+    void disableFlashSale(Long productId);
+
 }
@@ -0,0 +1,17 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 在庫仕訳照会API（公開インターフェース）
+ */
+public interface InventoryJournalQueryPort {
+
+    /**
+     * 指定時点の拠点別在庫を、スナップショットとそれ以降の在庫仕訳から求める
+     *
+     * @param at 対象時点（在庫仕訳の記録開始より前は指定できない）
+     */
+    List<LocationStockBalanceDto> getStockAt(Long productId, Instant at);
+}
@@ -3,7 +3,10 @@ package com.example.aiec.modules.inventory.application.port;
 import com.example.aiec.modules.inventory.application.port.AvailabilityDto;
 import com.example.aiec.modules.inventory.application.port.InventoryStatusDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 在庫クエリAPI（公開インターフェース）
@@ -20,14 +23,35 @@ public interface InventoryQueryPort {
      */
     List<InventoryStatusDto> getAllInventoryStatus();
 
+    /**
+     * 在庫状況をページ単位で取得（カテゴリ絞り込み・並び順指定）
+     */
+    InventoryStatusListResponse searchInventoryStatus(Long categoryId, InventoryStatusSort sort, int page, int limit);
+
+    /**
+     * 在庫状況を商品 ID 順に 1 件ずつ consumer へ渡す（全件エクスポート用）
+     */
+    void exportInventoryStatus(Long categoryId, Consumer<InventoryStatusDto> consumer);
+
     /**
      * 管理向け在庫タブ情報を取得
      */
     AdminItemInventoryDto getAdminItemInventory(Long productId);
 
+    /**
+     * 引当対象の拠点 ID（優先順）
+     */
+    List<Integer> getStockLocationIds();
+
     /**
      * 商品の有効在庫を算出
      */
     Integer calculateEffectiveStock(Long productId);
 
+    /**
+     * 複数商品の有効在庫を一括算出（商品ID → 有効在庫）
+     * 存在しない商品IDは結果に含まれない。
+     */
+    Map<Long, Integer> calculateEffectiveStocks(Collection<Long> productIds);
+
 }
@@ -8,6 +8,7 @@ import lombok.Data;
 public class InventoryStatusDto {
     private Long productId;
     private String productName;
+    private Long categoryId;
     private Integer physicalStock;
     private Integer tentativeReserved;
     private Integer committedReserved;
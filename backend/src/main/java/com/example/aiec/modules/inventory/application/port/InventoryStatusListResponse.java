@@ -0,0 +1,20 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 在庫状況一覧レスポンス
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryStatusListResponse {
+    private List<InventoryStatusDto> items;
+    private Long total;
+    private Integer page;
+    private Integer limit;
+}
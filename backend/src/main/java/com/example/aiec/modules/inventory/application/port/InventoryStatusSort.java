@@ -0,0 +1,11 @@
+package com.example.aiec.modules.inventory.application.port;
+
+/**
+ * 在庫状況一覧の並び順
+ */
+public enum InventoryStatusSort {
+    /** 有効在庫の少ない順 */
+    LOW_STOCK,
+    /** 商品 ID 順 */
+    PRODUCT_ID
+}
@@ -0,0 +1,20 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 時点在庫DTO（拠点別）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationStockBalanceDto {
+
+    private Integer locationId;
+    private Integer availableQty;
+    private Integer committedQty;
+    private Integer reservedTentativeQty;
+    private Integer remainingQty;
+}
@@ -0,0 +1,30 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一括仮引当の明細ごとの結果DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationLineResultDto {
+
+    private Long productId;
+    private Integer requestedQuantity;
+    private Boolean success;
+    private ReservationDto reservation;
+    private String errorCode;
+    private String errorMessage;
+
+    public static ReservationLineResultDto success(Long productId, Integer requestedQuantity, ReservationDto reservation) {
+        return new ReservationLineResultDto(productId, requestedQuantity, true, reservation, null, null);
+    }
+
+    public static ReservationLineResultDto failure(Long productId, Integer requestedQuantity,
+                                                   String errorCode, String errorMessage) {
+        return new ReservationLineResultDto(productId, requestedQuantity, false, null, errorCode, errorMessage);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import com.example.aiec.modules.backoffice.domain.entity.BoUser;
+
+import java.io.InputStream;
+
+/**
+ * 在庫一括取込API（公開インターフェース）
+ */
+public interface StockImportCommandPort {
+
+    /**
+     * 在庫調整ファイルを取込ディレクトリへ保存し、一括取込ジョブを登録する
+     */
+    StockImportDto submitStockImport(StockImportFormat format, InputStream content, BoUser admin);
+}
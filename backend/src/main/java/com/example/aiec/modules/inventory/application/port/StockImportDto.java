@@ -0,0 +1,18 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 在庫一括取込の受付結果DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockImportDto {
+
+    private String jobId;
+    private String fileName;
+    private StockImportFormat format;
+}
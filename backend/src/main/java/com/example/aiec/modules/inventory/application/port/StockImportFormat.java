@@ -0,0 +1,46 @@
+package com.example.aiec.modules.inventory.application.port;
+
+import org.springframework.http.MediaType;
+
+/**
+ * 在庫一括取込ファイル形式
+ */
+public enum StockImportFormat {
+
+    /** ヘッダー行 product_id,quantity_delta,reason 付きの CSV */
+    CSV(".csv", MediaType.parseMediaType("text/csv")),
+
+    /** 1 行 1 件の JSON（productId, quantityDelta, reason） */
+    NDJSON(".ndjson", MediaType.APPLICATION_NDJSON);
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    StockImportFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static StockImportFormat fromContentType(String contentType) {
+        MediaType requested = MediaType.parseMediaType(contentType);
+        for (StockImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(requested)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("未対応のファイル形式です: " + contentType);
+    }
+
+    public static StockImportFormat fromFileName(String fileName) {
+        for (StockImportFormat format : values()) {
+            if (fileName.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("未対応のファイル形式です: " + fileName);
+    }
+}
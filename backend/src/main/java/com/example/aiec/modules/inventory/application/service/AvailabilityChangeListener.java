@@ -0,0 +1,119 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 他インスタンスからの有効在庫変化の NOTIFY を待ち受け、自インスタンスでの変更と同様に記録する
+ * （拠点別有効在庫インデックスから破棄し、このインスタンスに接続した購読者への配信対象にする）。
+ * 接続プールを占有しないよう LISTEN 専用の接続を 1 本だけ張り、切断時は再接続する。
+ * 切断中の通知は届かないため、接続（再接続）のたびにインデックス全体を破棄し、購読中の商品をすべて再計算の対象にする。
+ */
+@Component
+@Slf4j
+public class AvailabilityChangeListener {
+
+    private final AvailabilityChangeNotifier availabilityChangeNotifier;
+    private final AvailabilityChangeTracker availabilityChangeTracker;
+    private final AvailabilitySubscriptionRegistry availabilitySubscriptionRegistry;
+    private final LocationAvailabilityIndex locationAvailabilityIndex;
+    private final InventoryProperties.ChangeNotification config;
+    private final DataSourceProperties dataSourceProperties;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public AvailabilityChangeListener(AvailabilityChangeNotifier availabilityChangeNotifier,
+                                      AvailabilityChangeTracker availabilityChangeTracker,
+                                      AvailabilitySubscriptionRegistry availabilitySubscriptionRegistry,
+                                      LocationAvailabilityIndex locationAvailabilityIndex,
+                                      InventoryProperties inventoryProperties,
+                                      DataSourceProperties dataSourceProperties) {
+        this.availabilityChangeNotifier = availabilityChangeNotifier;
+        this.availabilityChangeTracker = availabilityChangeTracker;
+        this.availabilitySubscriptionRegistry = availabilitySubscriptionRegistry;
+        this.locationAvailabilityIndex = locationAvailabilityIndex;
+        this.config = inventoryProperties.getChangeNotification();
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!availabilityChangeNotifier.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform().name("availability-change-listener").daemon().start(this::listen);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * 受信した通知を反映する
+     */
+    void onNotification(String payload) {
+        availabilityChangeTracker.markChangedRemotely(availabilityChangeNotifier.remoteProductIds(payload));
+    }
+
+    /**
+     * 待ち受けを開始（再開）した時点で、それまでに届かなかった他インスタンスの変更を反映する
+     */
+    void onConnected() {
+        locationAvailabilityIndex.evictAll();
+        availabilityChangeTracker.markChangedRemotely(availabilitySubscriptionRegistry.watchedProductIds());
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + AvailabilityChangeNotifier.NOTIFY_CHANNEL);
+                }
+                log.info("有効在庫変化の通知の待ち受けを開始: channel={}", AvailabilityChangeNotifier.NOTIFY_CHANNEL);
+                onConnected();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(
+                            (int) Math.max(1, config.getListenTimeoutMillis()));
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        onNotification(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("有効在庫変化の通知の待ち受け接続が切断されました。再接続します", e);
+                try {
+                    Thread.sleep(Math.max(1, config.getListenReconnectDelayMillis()));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 有効在庫が変わった商品を他インスタンスへ NOTIFY で知らせる
+ * ペイロードは「送信元インスタンス ID:商品 ID,商品 ID,...」とし、NOTIFY のペイロード上限を超えないよう分割して送る。
+ * トランザクション内で送った通知は PostgreSQL がコミット時に配信するため、ロールバックした変更は届かない。
+ */
+@Component
+public class AvailabilityChangeNotifier {
+
+    static final String NOTIFY_CHANNEL = "inventory_availability";
+    static final int MAX_PRODUCTS_PER_NOTIFICATION = 300;
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+    private static final ResultSetExtractor<Void> IGNORE_RESULT = resultSet -> null;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public AvailabilityChangeNotifier(JdbcTemplate jdbcTemplate, InventoryProperties inventoryProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = inventoryProperties.getChangeNotification().isEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void notifyChanged(Collection<Long> productIds) {
+        if (!enabled || productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += MAX_PRODUCTS_PER_NOTIFICATION) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_PRODUCTS_PER_NOTIFICATION));
+            String payload = instanceId + ":" + chunk.stream().map(String::valueOf).collect(Collectors.joining(","));
+            jdbcTemplate.query(NOTIFY_SQL, IGNORE_RESULT, NOTIFY_CHANNEL, payload);
+        }
+    }
+
+    /**
+     * 他インスタンスから届いた通知の商品 ID（自インスタンスが送った通知・解釈できない通知は空）
+     */
+    Set<Long> remoteProductIds(String payload) {
+        int separator = payload != null ? payload.indexOf(':') : -1;
+        if (separator < 0 || payload.substring(0, separator).equals(instanceId)) {
+            return Set.of();
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (String id : payload.substring(separator + 1).split(",")) {
+            try {
+                productIds.add(Long.valueOf(id));
+            } catch (NumberFormatException e) {
+                // 解釈できない ID は読み飛ばす（保持期間の経過で反映される）
+            }
+        }
+        return productIds;
+    }
+}
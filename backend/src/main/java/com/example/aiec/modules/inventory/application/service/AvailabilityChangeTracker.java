@@ -0,0 +1,104 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.shared.transaction.TransactionScoped;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 有効在庫が変わった可能性のある商品の記録
+ * 在庫・枠在庫・引当カウンタを更新する処理から呼び出し、トランザクションのコミット後に商品 ID を記録する。
+ * 記録した商品は在庫変化の配信処理がまとめて取り出し、同じ商品の連続した変更は 1 回の再計算に集約される。
+ * あわせて拠点別有効在庫インデックスから該当商品を破棄する（ロールバック時も、トランザクション内で読み込んだ値を残さないよう破棄する）。
+ * 他インスタンスのインデックス破棄と在庫変化の配信のため、コミット直前に AvailabilityChangeNotifier で商品 ID を通知する。
+ * 他インスタンスからの通知は AvailabilityChangeListener が markChangedRemotely() で記録するため、
+ * どのインスタンスに接続した購読者にも変更が配信される。
+ */
+@Component
+@RequiredArgsConstructor
+public class AvailabilityChangeTracker {
+
+    private final LocationAvailabilityIndex locationAvailabilityIndex;
+    private final AvailabilityChangeNotifier availabilityChangeNotifier;
+    private final Set<Long> changedProductIds = ConcurrentHashMap.newKeySet();
+
+    public void markChanged(Long productId) {
+        if (productId != null) {
+            markChanged(List.of(productId));
+        }
+    }
+
+    /**
+     * トランザクション内ではコミット後に記録し、ロールバックした変更は記録しない
+     */
+    public void markChanged(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        TransactionScoped.resource(PendingChanges.class, PendingChanges::new).ifPresentOrElse(
+                pending -> pending.productIds.addAll(productIds),
+                () -> {
+                    locationAvailabilityIndex.evict(productIds);
+                    changedProductIds.addAll(productIds);
+                    availabilityChangeNotifier.notifyChanged(productIds);
+                });
+    }
+
+    /**
+     * 他インスタンスでコミットされた変更を記録する（送信元が通知済みのため再通知しない）
+     */
+    public void markChangedRemotely(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        locationAvailabilityIndex.evict(productIds);
+        changedProductIds.addAll(productIds);
+    }
+
+    /**
+     * 記録済みの商品 ID を取り出して記録を空にする
+     */
+    public Set<Long> drain() {
+        Set<Long> drained = new HashSet<>();
+        for (Long productId : changedProductIds) {
+            if (changedProductIds.remove(productId)) {
+                drained.add(productId);
+            }
+        }
+        return drained;
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Set<Long> productIds = new HashSet<>();
+
+        /**
+         * 読み取り専用トランザクションでは NOTIFY を発行できず、更新もないため通知しない
+         */
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!readOnly) {
+                availabilityChangeNotifier.notifyChanged(productIds);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            locationAvailabilityIndex.evict(productIds);
+            changedProductIds.addAll(productIds);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED) {
+                locationAvailabilityIndex.evict(productIds);
+            }
+        }
+    }
+}
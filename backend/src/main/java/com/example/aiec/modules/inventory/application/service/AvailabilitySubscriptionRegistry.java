@@ -0,0 +1,190 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.application.port.AvailabilityChangeDto;
+import com.example.aiec.modules.inventory.application.port.AvailabilityStreamPort.Subscription;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 有効在庫の変化を購読するリスナーの登録簿（アプリケーションインスタンス内のメモリ上で保持する）
+ * 商品ごとに前回配信した値を覚えておき、値が変わった商品だけを購読者へ配信する。
+ * 送信は上限付きの専用スレッドプールで購読者ごとに行い、送信待ちの間に届いた同じ商品の値は最新値で上書きする。
+ */
+@Component
+@Slf4j
+public class AvailabilitySubscriptionRegistry {
+
+    private final Map<Long, Set<Subscriber>> subscribersByProductId = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> lastPublishedStocks = new ConcurrentHashMap<>();
+    private final Executor deliveryExecutor;
+
+    @Autowired
+    public AvailabilitySubscriptionRegistry(InventoryProperties inventoryProperties) {
+        this(newDeliveryExecutor(inventoryProperties.getAvailabilityStream()));
+    }
+
+    /**
+     * @param deliveryExecutor 購読者への送信を実行する Executor
+     */
+    public AvailabilitySubscriptionRegistry(Executor deliveryExecutor) {
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    public Subscription register(Set<Long> productIds, Consumer<AvailabilityChangeDto> listener) {
+        Subscriber subscriber = new Subscriber(Set.copyOf(productIds), listener);
+        for (Long productId : subscriber.productIds) {
+            subscribersByProductId.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        return subscriber;
+    }
+
+    /**
+     * 指定商品のうち購読者のいる商品を返す
+     */
+    public Set<Long> filterWatched(Collection<Long> productIds) {
+        Set<Long> watched = new HashSet<>(productIds);
+        watched.retainAll(subscribersByProductId.keySet());
+        return watched;
+    }
+
+    /**
+     * 購読者のいる商品
+     */
+    public Set<Long> watchedProductIds() {
+        return Set.copyOf(subscribersByProductId.keySet());
+    }
+
+    /**
+     * 前回配信から値が変わった商品を購読者の送信待ちに積む（送信の完了は待たない）
+     * 通知処理が例外を投げた購読は解除する。
+     */
+    public void publish(Map<Long, Integer> stocksByProductId) {
+        stocksByProductId.forEach((productId, stock) -> {
+            Set<Subscriber> subscribers = subscribersByProductId.get(productId);
+            if (subscribers == null || stock.equals(lastPublishedStocks.put(productId, stock))) {
+                return;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(productId, stock);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (deliveryExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    int subscriberCount(Long productId) {
+        return subscribersByProductId.getOrDefault(productId, Set.of()).size();
+    }
+
+    private static ExecutorService newDeliveryExecutor(InventoryProperties.AvailabilityStream config) {
+        int threads = Math.max(1, config.getDeliveryThreads());
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, config.getDeliveryQueueCapacity())),
+                Thread.ofPlatform().name("availability-stream-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    private void unregister(Subscriber subscriber) {
+        for (Long productId : subscriber.productIds) {
+            subscribersByProductId.computeIfPresent(productId, (id, subscribers) -> {
+                subscribers.remove(subscriber);
+                if (!subscribers.isEmpty()) {
+                    return subscribers;
+                }
+                lastPublishedStocks.remove(id);
+                return null;
+            });
+        }
+    }
+
+    private final class Subscriber implements Subscription {
+
+        private final Set<Long> productIds;
+        private final Consumer<AvailabilityChangeDto> listener;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final Map<Long, Integer> pendingStocks = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(Set<Long> productIds, Consumer<AvailabilityChangeDto> listener) {
+            this.productIds = productIds;
+            this.listener = listener;
+        }
+
+        private void enqueue(Long productId, Integer stock) {
+            if (cancelled.get()) {
+                return;
+            }
+            pendingStocks.put(productId, stock);
+            scheduleDrain();
+        }
+
+        /**
+         * 送信タスクは購読者ごとに同時に 1 つまでとする（送信順序を保ち、遅い購読者がスレッドを占有し続けないようにする）
+         */
+        private void scheduleDrain() {
+            if (pendingStocks.isEmpty() || cancelled.get() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                deliveryExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 送信待ちの値は残し、次回の配信で再度送信を試みる
+                draining.set(false);
+                log.debug("Availability delivery queue is full, deferring: products={}", pendingStocks.size());
+            }
+        }
+
+        private void drain() {
+            try {
+                for (Long productId : pendingStocks.keySet()) {
+                    Integer stock = pendingStocks.remove(productId);
+                    if (stock == null || cancelled.get()) {
+                        continue;
+                    }
+                    listener.accept(new AvailabilityChangeDto(productId, stock));
+                }
+            } catch (RuntimeException e) {
+                log.debug("Availability listener failed, cancelling subscription", e);
+                cancel();
+            } finally {
+                draining.set(false);
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                pendingStocks.clear();
+                unregister(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry.EntryType;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.purchase.order.entity.Order;
+import com.example.aiec.modules.purchase.order.repository.OrderItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * 拠点在庫の引当済数量の補正サービス
+ * 商品行ロックで注文確定と直列化したうえで同じ拠点の注文明細から期待値を再計算し、ずれていれば上書きする。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CommittedQtyRepairService {
+
+    private final ProductRepository productRepository;
+    private final LocationStockRepository locationStockRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final AvailabilityChangeTracker availabilityChangeTracker;
+    private final StockLocations stockLocations;
+    private final InventoryJournal inventoryJournal;
+
+    /**
+     * @return 補正した場合 true（ロック取得後に一致していた場合は false）
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public boolean repair(Long productId, Integer locationId) {
+        if (productRepository.findByIdForUpdate(productId).isEmpty()) {
+            return false;
+        }
+        Optional<LocationStock> locationStock =
+                locationStockRepository.findByProductIdAndLocationIdForUpdate(productId, locationId);
+        if (locationStock.isEmpty()) {
+            return false;
+        }
+
+        Integer orderedCommittedQty = orderItemRepository.sumCommittedQuantityByProductAndLocationExcludingCancelled(
+                productId,
+                locationId,
+                stockLocations.primaryLocationId(),
+                Order.OrderStatus.CANCELLED
+        );
+        int expectedCommittedQty = orderedCommittedQty != null ? orderedCommittedQty : 0;
+        LocationStock stock = locationStock.get();
+        int actualCommittedQty = stock.getCommittedQty() != null ? stock.getCommittedQty() : 0;
+        if (actualCommittedQty == expectedCommittedQty) {
+            return false;
+        }
+
+        stock.setCommittedQty(expectedCommittedQty);
+        locationStockRepository.save(stock);
+        inventoryJournal.record(productId, locationId, EntryType.CORRECTION, 0, expectedCommittedQty - actualCommittedQty, 0);
+        availabilityChangeTracker.markChanged(productId);
+        log.info("Location committed quantity repaired: productId={}, locationId={}, before={}, after={}",
+                productId,
+                locationId,
+                actualCommittedQty,
+                expectedCommittedQty);
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 枠在庫商品の本引当エンジン
+ * 有効在庫増加の通知を商品単位で一定時間まとめ、商品ごとに 1 回だけ本引当を実行する。
+ * 異なる商品は上限付きのスレッドプールで並列に処理し、同じ商品の本引当は同時に 1 つまでとする。
+ * 本引当が失敗した商品は待ち時間を倍にしながら上限回数まで再試行する。
+ * 通知はメモリ上で保持するため、停止時に未実行の商品は次の在庫増加イベントで再試行される。
+ */
+@Component
+@Slf4j
+public class FrameAllocationEngine {
+
+    private final FrameAllocationService frameAllocationService;
+    private final MeterRegistry meterRegistry;
+    private final long coalesceWindowMillis;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+    private final Set<Long> pendingProductIds = ConcurrentHashMap.newKeySet();
+    private final Set<Long> runningProductIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Integer> failureCounts = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService coalescer;
+    private final ThreadPoolExecutor workers;
+
+    public FrameAllocationEngine(FrameAllocationService frameAllocationService,
+                                 InventoryProperties inventoryProperties,
+                                 MeterRegistry meterRegistry) {
+        InventoryProperties.FrameAllocation config = inventoryProperties.getFrameAllocation();
+        int parallelism = Math.max(1, config.getParallelism());
+        this.frameAllocationService = frameAllocationService;
+        this.meterRegistry = meterRegistry;
+        this.coalesceWindowMillis = Math.max(0, config.getCoalesceWindowMillis());
+        this.maxRetries = Math.max(0, config.getMaxRetries());
+        this.retryBackoffMillis = Math.max(0, config.getRetryBackoffMillis());
+        this.coalescer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("frame-allocation-coalescer").daemon().factory());
+        // キューが満杯の場合はまとめ処理のスレッドで実行せず、次回のまとめ処理へ持ち越す
+        this.workers = new ThreadPoolExecutor(
+                parallelism,
+                parallelism,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                Thread.ofPlatform().name("frame-allocation-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * 商品の本引当を予約する（待ち時間内の同一商品の通知は 1 回にまとめる）
+     */
+    public void submit(Long productId) {
+        pendingProductIds.add(productId);
+        scheduleFlush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coalescer.shutdownNow();
+        workers.shutdown();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            coalescer.schedule(this::flush, coalesceWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<Long> productIds = new ArrayList<>(pendingProductIds);
+        pendingProductIds.removeAll(productIds);
+
+        boolean deferred = false;
+        for (Long productId : productIds) {
+            if (!runningProductIds.add(productId)) {
+                // 実行中の本引当が終わってから再実行する
+                pendingProductIds.add(productId);
+                deferred = true;
+                continue;
+            }
+            try {
+                workers.execute(() -> allocate(productId));
+            } catch (RejectedExecutionException e) {
+                runningProductIds.remove(productId);
+                pendingProductIds.add(productId);
+                deferred = true;
+            }
+        }
+        if (deferred) {
+            scheduleFlush();
+        }
+    }
+
+    private void allocate(Long productId) {
+        try {
+            int allocated = frameAllocationService.allocatePendingByProductId(productId);
+            failureCounts.remove(productId);
+            log.debug("Frame allocation completed: productId={}, allocatedQty={}", productId, allocated);
+        } catch (RuntimeException e) {
+            scheduleRetry(productId, e);
+        } finally {
+            runningProductIds.remove(productId);
+        }
+    }
+
+    private void scheduleRetry(Long productId, RuntimeException cause) {
+        int failures = failureCounts.merge(productId, 1, Integer::sum);
+        if (failures > maxRetries) {
+            failureCounts.remove(productId);
+            countFailure("gave_up");
+            log.error("Frame allocation failed, giving up: productId={}, attempts={}", productId, failures, cause);
+            return;
+        }
+        countFailure("retry");
+        long delayMillis = retryBackoffMillis << Math.min(failures - 1, 20);
+        log.warn("Frame allocation failed, retrying: productId={}, attempt={}/{}, delayMillis={}",
+                productId, failures, maxRetries, delayMillis, cause);
+        coalescer.schedule(() -> submit(productId), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void countFailure(String outcome) {
+        Counter.builder("inventory.frame_allocation.failed")
+                .description("枠在庫商品の本引当の失敗数")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.aiec.modules.inventory.application.service;
 
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry.EntryType;
 import com.example.aiec.modules.inventory.domain.entity.LocationStock;
 import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
 import com.example.aiec.modules.product.domain.entity.AllocationType;
@@ -13,24 +14,36 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * 枠在庫商品の非同期本引当サービス
+ * 明細ごとに 1 拠点から引き当てる。引当済みの明細は同じ拠点から、未引当の明細は不足数量を満たせる拠点を優先順に選ぶ。
  */
 @Service
 @RequiredArgsConstructor
 public class FrameAllocationService {
 
-    private static final int DEFAULT_LOCATION_ID = 1;
     private static final List<Order.OrderStatus> ELIGIBLE_ORDER_STATUSES = List.copyOf(
             EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING_SHIPMENT));
 
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final LocationStockRepository locationStockRepository;
+    private final StockLocations stockLocations;
+    private final InventoryJournal inventoryJournal;
+
+    /**
+     * 未引当の注文明細がある枠在庫商品の ID を、最も古い注文の順に取得する
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findProductIdsWithPendingAllocation() {
+        return orderItemRepository.findProductIdsWithPendingAllocation(AllocationType.FRAME, ELIGIBLE_ORDER_STATUSES);
+    }
 
     @Transactional(rollbackFor = Exception.class)
     public int allocatePendingByProductId(Long productId) {
@@ -63,9 +76,10 @@ public class FrameAllocationService {
         int updatedCount = 0;
         for (Map.Entry<Long, List<OrderItem>> entry : itemsByProduct.entrySet()) {
             Long productId = entry.getKey();
-            LocationStock locationStock = findOrCreateLocationStockForUpdate(productId);
-            int remainingQty = locationStock.remainingQty();
-            if (remainingQty <= 0) {
+            Map<Integer, LocationStock> locationStocks = findOrCreateLocationStocksForUpdate(productId);
+            Map<Integer, Integer> remainingByLocation = new LinkedHashMap<>();
+            locationStocks.forEach((locationId, locationStock) -> remainingByLocation.put(locationId, locationStock.remainingQty()));
+            if (remainingByLocation.values().stream().allMatch(remainingQty -> remainingQty <= 0)) {
                 continue;
             }
 
@@ -73,35 +87,79 @@ public class FrameAllocationService {
                 int currentCommitted = orderItem.getCommittedQty() != null ? orderItem.getCommittedQty() : 0;
                 int orderQuantity = orderItem.getQuantity() != null ? orderItem.getQuantity() : 0;
                 int shortfall = Math.max(0, orderQuantity - currentCommitted);
-                if (shortfall == 0 || remainingQty == 0) {
+                if (shortfall == 0) {
+                    continue;
+                }
+                Integer locationId = selectLocation(orderItem, currentCommitted, shortfall, remainingByLocation);
+                if (locationId == null) {
                     continue;
                 }
 
-                int allocateQty = Math.min(shortfall, remainingQty);
+                int allocateQty = Math.min(shortfall, remainingByLocation.get(locationId));
+                LocationStock locationStock = locationStocks.get(locationId);
+                orderItem.setLocationId(locationId);
                 orderItem.setCommittedQty(currentCommitted + allocateQty);
                 locationStock.setCommittedQty(locationStock.getCommittedQty() + allocateQty);
-                remainingQty -= allocateQty;
+                remainingByLocation.merge(locationId, -allocateQty, Integer::sum);
+                inventoryJournal.record(productId, locationId, EntryType.ALLOCATION,
+                        0, allocateQty, 0, orderItem.getOrder().getId());
                 updatedCount += allocateQty;
             }
 
-            locationStockRepository.save(locationStock);
+            locationStocks.values().forEach(locationStockRepository::save);
             orderItemRepository.saveAll(entry.getValue());
         }
 
         return updatedCount;
     }
 
-    private LocationStock findOrCreateLocationStockForUpdate(Long productId) {
-        return locationStockRepository.findByProductIdAndLocationIdForUpdate(productId, DEFAULT_LOCATION_ID)
-                .orElseGet(() -> {
-                    Product product = productRepository.findByIdForUpdate(productId)
-                            .orElseThrow();
-                    LocationStock locationStock = new LocationStock();
-                    locationStock.setProduct(product);
-                    locationStock.setLocationId(DEFAULT_LOCATION_ID);
-                    locationStock.setAvailableQty(0);
-                    locationStock.setCommittedQty(0);
-                    return locationStockRepository.save(locationStock);
-                });
+    /**
+     * 引当済みの明細は同じ拠点、未引当の明細は不足数量を満たせる拠点、なければ残数のある拠点を優先順に選ぶ
+     */
+    private Integer selectLocation(OrderItem orderItem, int currentCommitted, int shortfall,
+                                   Map<Integer, Integer> remainingByLocation) {
+        if (currentCommitted > 0) {
+            Integer locationId = stockLocations.resolve(orderItem.getLocationId());
+            return remainingByLocation.getOrDefault(locationId, 0) > 0 ? locationId : null;
+        }
+        Integer partialLocationId = null;
+        for (Map.Entry<Integer, Integer> remaining : remainingByLocation.entrySet()) {
+            if (remaining.getValue() >= shortfall) {
+                return remaining.getKey();
+            }
+            if (partialLocationId == null && remaining.getValue() > 0) {
+                partialLocationId = remaining.getKey();
+            }
+        }
+        return partialLocationId;
+    }
+
+    /**
+     * 商品の全拠点の拠点在庫を行ロックし（拠点の優先順）、既定拠点の行がなければ作成する
+     */
+    private Map<Integer, LocationStock> findOrCreateLocationStocksForUpdate(Long productId) {
+        Map<Integer, LocationStock> lockedByLocationId = locationStockRepository
+                .findByProductIdInAndLocationIdInForUpdate(List.of(productId), stockLocations.locationIds()).stream()
+                .collect(Collectors.toMap(LocationStock::getLocationId, Function.identity()));
+        Integer primaryLocationId = stockLocations.primaryLocationId();
+        if (!lockedByLocationId.containsKey(primaryLocationId)) {
+            Product product = productRepository.findByIdForUpdate(productId)
+                    .orElseThrow();
+            LocationStock locationStock = new LocationStock();
+            locationStock.setProduct(product);
+            locationStock.setLocationId(primaryLocationId);
+            locationStock.setAvailableQty(0);
+            locationStock.setCommittedQty(0);
+            lockedByLocationId.put(primaryLocationId, locationStockRepository.save(locationStock));
+        }
+
+        Map<Integer, LocationStock> locationStocks = new LinkedHashMap<>();
+        for (Integer locationId : stockLocations.locationIds()) {
+            LocationStock locationStock = lockedByLocationId.get(locationId);
+            if (locationStock != null) {
+                locationStocks.put(locationId, locationStock);
+            }
+        }
+        return locationStocks;
     }
 }
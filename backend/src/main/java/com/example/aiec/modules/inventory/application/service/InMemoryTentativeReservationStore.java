@@ -0,0 +1,416 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation.ReservationType;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.inventory.domain.repository.SalesLimitRepository;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.purchase.order.entity.Order;
+import com.example.aiec.modules.shared.exception.BusinessException;
+import com.example.aiec.modules.shared.transaction.TransactionScoped;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * 仮引当をメモリ上に保持する実装
+ * 明細はセッション ID でストライプ分割したマップに置き、ストライプごとのロックで排他する。
+ * 商品ごとの仮引当合計は既存のカウンタ（拠点在庫・枠在庫・バケット）で DB に永続化する。
+ * トランザクション内の変更は取消ログに記録し、ロールバック時に逆順で戻す。
+ * 期限切れの明細はホイールで検出して取り除き、カウンタを別トランザクションで戻す（失敗時は次の tick で再試行）。
+ * 明細はプロセス内にしかないため単一インスタンス構成専用。起動時にカウンタを DB 上の仮引当から再計算する。
+ * 再計算は他インスタンスの仮引当分も消してしまうため、app.inventory.reservation.single-instance=true が
+ * 明示されていない場合は起動を失敗させる。
+ */
+@Slf4j
+public class InMemoryTentativeReservationStore implements TentativeReservationStore {
+
+    private static final int STRIPE_COUNT = 64;
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 3;
+
+    private final ProductRepository productRepository;
+    private final LocationStockRepository locationStockRepository;
+    private final SalesLimitRepository salesLimitRepository;
+    private final ReservationExpiryService reservationExpiryService;
+    private final TentativeReservationCounter tentativeReservationCounter;
+    private final StockLocations stockLocations;
+    private final boolean singleInstance;
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final Map<Long, String> sessionIdByReservationId = new ConcurrentHashMap<>();
+    private final AtomicLong reservationIdSequence = new AtomicLong();
+    private final ConcurrentLinkedQueue<Map<Long, Map<TentativeSlot, Integer>>> pendingReleases = new ConcurrentLinkedQueue<>();
+    private final ReservationExpiryWheel wheel;
+
+    public InMemoryTentativeReservationStore(ProductRepository productRepository,
+                                             LocationStockRepository locationStockRepository,
+                                             SalesLimitRepository salesLimitRepository,
+                                             ReservationExpiryService reservationExpiryService,
+                                             TentativeReservationCounter tentativeReservationCounter,
+                                             StockLocations stockLocations,
+                                             InventoryProperties inventoryProperties) {
+        this.productRepository = productRepository;
+        this.locationStockRepository = locationStockRepository;
+        this.salesLimitRepository = salesLimitRepository;
+        this.reservationExpiryService = reservationExpiryService;
+        this.tentativeReservationCounter = tentativeReservationCounter;
+        this.stockLocations = stockLocations;
+        this.singleInstance = inventoryProperties.getReservation().isSingleInstance();
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.wheel = new ReservationExpiryWheel(
+                inventoryProperties.getExpiry().getTickMillis(),
+                WHEEL_SIZE,
+                WHEEL_LEVELS,
+                System.currentTimeMillis()
+        );
+    }
+
+    /**
+     * 前回プロセスのメモリ上の仮引当は失われているため、カウンタを DB 上の仮引当だけの値に戻す
+     */
+    @PostConstruct
+    public void resetCounters() {
+        if (!singleInstance) {
+            throw new IllegalStateException("メモリ上の仮引当は単一インスタンス構成専用です。"
+                    + "他インスタンスの仮引当を消さないよう、app.inventory.reservation.single-instance=true を明示してください");
+        }
+        tentativeReservationCounter.resetToPersistedReservations();
+        log.info("Tentative reservation counters reset for in-memory reservation store");
+    }
+
+    @Override
+    public Optional<StockReservation> findActive(String sessionId, Long productId, Instant now) {
+        return withStripe(sessionId, stripe -> stripe.holdsOf(sessionId).values().stream()
+                .filter(hold -> hold.productId().equals(productId) && hold.isActive(now))
+                .findFirst())
+                .map(this::toReservation);
+    }
+
+    @Override
+    public List<StockReservation> findAllActiveBySession(String sessionId, Instant now) {
+        List<Hold> holds = withStripe(sessionId, stripe -> stripe.holdsOf(sessionId).values().stream()
+                .filter(hold -> hold.isActive(now))
+                .toList());
+        return holds.stream().map(this::toReservation).toList();
+    }
+
+    @Override
+    public StockReservation save(StockReservation reservation) {
+        if (reservation.getId() == null) {
+            reservation.setId(reservationIdSequence.incrementAndGet());
+            reservation.setType(ReservationType.TENTATIVE);
+            reservation.setCreatedAt(Instant.now());
+        }
+        reservation.setUpdatedAt(Instant.now());
+        Hold hold = Hold.from(reservation);
+        Hold previous = put(hold);
+        recordUndo(() -> {
+            if (previous != null) {
+                put(previous);
+            } else {
+                remove(hold.id());
+            }
+        });
+        return toReservation(hold);
+    }
+
+    @Override
+    public void delete(StockReservation reservation) {
+        Hold removed = remove(reservation.getId());
+        if (removed != null) {
+            recordUndo(() -> put(removed));
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<StockReservation> reservations) {
+        reservations.forEach(this::delete);
+    }
+
+    /**
+     * 商品（REAL 商品は商品・引当拠点）ごとに仮引当数量を集計し、その単位の UPDATE でカウンタを振り替える
+     */
+    @Override
+    public void commit(Collection<StockReservation> realReservations, Collection<StockReservation> frameReservations, Order order) {
+        removeForCommit(realReservations);
+        removeForCommit(frameReservations);
+        Map<Long, Map<Integer, Integer>> realQuantities = new TreeMap<>();
+        for (StockReservation reservation : realReservations) {
+            realQuantities.computeIfAbsent(reservation.getProduct().getId(), id -> new TreeMap<>())
+                    .merge(stockLocations.resolve(reservation.getLocationId()), reservation.getQuantity(), Integer::sum);
+        }
+        realQuantities.forEach((productId, quantityByLocation) -> quantityByLocation.forEach((locationId, quantity) ->
+                locationStockRepository.commitReservedQtyByProductId(productId, locationId, quantity)));
+        sumByProductId(frameReservations).forEach((productId, quantity) ->
+                salesLimitRepository.commitReservedQtyByProductId(productId, quantity, order.getId()));
+    }
+
+    /**
+     * 本引当する仮引当を取り除く。期限切れで解放済みのものが含まれていれば本引当を失敗させる
+     */
+    private void removeForCommit(Collection<StockReservation> reservations) {
+        for (StockReservation reservation : reservations) {
+            Hold removed = remove(reservation.getId());
+            if (removed == null) {
+                throw new BusinessException("RESERVATION_EXPIRED", "仮引当の有効期限が切れています。もう一度お試しください");
+            }
+            recordUndo(() -> put(removed));
+        }
+    }
+
+    @Override
+    public void clearBucketNo(Long productId) {
+        replaceHolds(hold -> hold.productId().equals(productId) && hold.bucketNo() != null, Hold::withoutBucket);
+    }
+
+    @Override
+    public void clearLocationId(Long productId) {
+        replaceHolds(hold -> hold.productId().equals(productId) && hold.locationId() != null, Hold::withoutLocation);
+    }
+
+    @Override
+    public boolean isDurable() {
+        return false;
+    }
+
+    /**
+     * 期限に達した仮引当を取り除き、商品・計上先別の数量をまとめてカウンタへ戻す
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.expiry.tick-millis:1000}")
+    public void tick() {
+        long nowMillis = System.currentTimeMillis();
+        Instant now = Instant.ofEpochMilli(nowMillis);
+        Map<Long, Map<TentativeSlot, Integer>> releasedByProduct = new TreeMap<>();
+        for (Long reservationId : wheel.advance(nowMillis)) {
+            Hold expired = removeIfExpired(reservationId, now);
+            if (expired != null) {
+                releasedByProduct
+                        .computeIfAbsent(expired.productId(), id -> new HashMap<>())
+                        .merge(new TentativeSlot(expired.locationId(), expired.bucketNo()), expired.quantity(), Integer::sum);
+            }
+        }
+        if (!releasedByProduct.isEmpty()) {
+            pendingReleases.add(releasedByProduct);
+        }
+
+        Map<Long, Map<TentativeSlot, Integer>> pending;
+        while ((pending = pendingReleases.peek()) != null) {
+            try {
+                reservationExpiryService.releaseQuantities(pending);
+                pendingReleases.poll();
+            } catch (RuntimeException e) {
+                log.warn("Failed to release expired in-memory reservations, retrying on next tick: products={}",
+                        pending.keySet(), e);
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return sessionIdByReservationId.size();
+    }
+
+    private void replaceHolds(Predicate<Hold> target, UnaryOperator<Hold> replacement) {
+        for (Stripe stripe : stripes) {
+            List<Hold> replaced = new ArrayList<>();
+            stripe.lock.lock();
+            try {
+                for (Map<Long, Hold> holds : stripe.holdsBySession.values()) {
+                    holds.replaceAll((id, hold) -> {
+                        if (!target.test(hold)) {
+                            return hold;
+                        }
+                        replaced.add(hold);
+                        return replacement.apply(hold);
+                    });
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            replaced.forEach(hold -> recordUndo(() -> put(hold)));
+        }
+    }
+
+    private Hold removeIfExpired(Long reservationId, Instant now) {
+        String sessionId = sessionIdByReservationId.get(reservationId);
+        if (sessionId == null) {
+            return null;
+        }
+        return withStripe(sessionId, stripe -> {
+            Hold hold = stripe.holdsOf(sessionId).get(reservationId);
+            if (hold == null) {
+                return null;
+            }
+            if (hold.isActive(now)) {
+                wheel.schedule(reservationId, hold.expiresAt().toEpochMilli());
+                return null;
+            }
+            stripe.removeLocked(hold);
+            sessionIdByReservationId.remove(reservationId);
+            return hold;
+        });
+    }
+
+    private Hold put(Hold hold) {
+        Hold previous = withStripe(hold.sessionId(), stripe -> stripe.holdsBySession
+                .computeIfAbsent(hold.sessionId(), key -> new HashMap<>())
+                .put(hold.id(), hold));
+        sessionIdByReservationId.put(hold.id(), hold.sessionId());
+        if (hold.expiresAt() != null) {
+            wheel.schedule(hold.id(), hold.expiresAt().toEpochMilli());
+        }
+        return previous;
+    }
+
+    private Hold remove(Long reservationId) {
+        String sessionId = reservationId != null ? sessionIdByReservationId.remove(reservationId) : null;
+        if (sessionId == null) {
+            return null;
+        }
+        wheel.cancel(reservationId);
+        return withStripe(sessionId, stripe -> {
+            Hold hold = stripe.holdsOf(sessionId).get(reservationId);
+            if (hold != null) {
+                stripe.removeLocked(hold);
+            }
+            return hold;
+        });
+    }
+
+    private <T> T withStripe(String sessionId, Function<Stripe, T> action) {
+        Stripe stripe = stripes[Math.floorMod(String.valueOf(sessionId).hashCode(), STRIPE_COUNT)];
+        stripe.lock.lock();
+        try {
+            return action.apply(stripe);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * トランザクション内の変更を取消ログに積む（トランザクション外の呼び出しは即時確定）
+     */
+    private void recordUndo(Runnable undo) {
+        TransactionScoped.resource(UndoLog.class, UndoLog::new).ifPresent(undoLog -> undoLog.entries.push(undo));
+    }
+
+    private StockReservation toReservation(Hold hold) {
+        StockReservation reservation = new StockReservation();
+        reservation.setId(hold.id());
+        reservation.setProduct(productRepository.getReferenceById(hold.productId()));
+        reservation.setSessionId(hold.sessionId());
+        reservation.setUserId(hold.userId());
+        reservation.setQuantity(hold.quantity());
+        reservation.setType(ReservationType.TENTATIVE);
+        reservation.setExpiresAt(hold.expiresAt());
+        reservation.setBucketNo(hold.bucketNo());
+        reservation.setLocationId(hold.locationId());
+        reservation.setCreatedAt(hold.createdAt());
+        reservation.setUpdatedAt(hold.updatedAt());
+        return reservation;
+    }
+
+    private static Map<Long, Integer> sumByProductId(Collection<StockReservation> reservations) {
+        Map<Long, Integer> quantityByProductId = new TreeMap<>();
+        for (StockReservation reservation : reservations) {
+            quantityByProductId.merge(reservation.getProduct().getId(), reservation.getQuantity(), Integer::sum);
+        }
+        return quantityByProductId;
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Map<Long, Hold>> holdsBySession = new HashMap<>();
+
+        private Map<Long, Hold> holdsOf(String sessionId) {
+            return holdsBySession.getOrDefault(sessionId, Map.of());
+        }
+
+        private void removeLocked(Hold hold) {
+            Map<Long, Hold> holds = holdsBySession.get(hold.sessionId());
+            if (holds == null) {
+                return;
+            }
+            holds.remove(hold.id());
+            if (holds.isEmpty()) {
+                holdsBySession.remove(hold.sessionId());
+            }
+        }
+    }
+
+    private record Hold(Long id,
+                        String sessionId,
+                        Long userId,
+                        Long productId,
+                        Integer bucketNo,
+                        Integer locationId,
+                        int quantity,
+                        Instant expiresAt,
+                        Instant createdAt,
+                        Instant updatedAt) {
+
+        private static Hold from(StockReservation reservation) {
+            return new Hold(
+                    reservation.getId(),
+                    reservation.getSessionId(),
+                    reservation.getUserId(),
+                    reservation.getProduct().getId(),
+                    reservation.getBucketNo(),
+                    reservation.getLocationId(),
+                    reservation.getQuantity(),
+                    reservation.getExpiresAt(),
+                    reservation.getCreatedAt(),
+                    reservation.getUpdatedAt());
+        }
+
+        private boolean isActive(Instant now) {
+            return expiresAt != null && expiresAt.isAfter(now);
+        }
+
+        private Hold withoutBucket() {
+            return new Hold(id, sessionId, userId, productId, null, locationId, quantity, expiresAt, createdAt, updatedAt);
+        }
+
+        private Hold withoutLocation() {
+            return new Hold(id, sessionId, userId, productId, bucketNo, null, quantity, expiresAt, createdAt, updatedAt);
+        }
+    }
+
+    /**
+     * ロールバック時に取消ログを新しい順に適用する
+     */
+    private static final class UndoLog implements TransactionSynchronization {
+
+        private final Deque<Runnable> entries = new ArrayDeque<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_ROLLED_BACK) {
+                entries.forEach(Runnable::run);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry.EntryType;
+import com.example.aiec.modules.shared.transaction.TransactionScoped;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 在庫仕訳の記録
+ * 拠点在庫の available / committed / reserved_tentative を更新する処理から、更新と同じ単位（商品・拠点）で呼び出す。
+ * トランザクション内ではコミット直前に JDBC のバッチ INSERT でまとめて書き込むため、仕訳は拠点在庫の行ロックを
+ * 保持したまま同じトランザクションでコミットされる（ロールバックした更新の仕訳は残らない）。
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryJournal {
+
+    private static final String INSERT_JOURNAL_SQL = """
+            INSERT INTO inventory_journal
+                (product_id, location_id, entry_type, available_delta, committed_delta, tentative_delta, order_id, recorded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void record(Long productId, Integer locationId, EntryType entryType,
+                       int availableDelta, int committedDelta, int tentativeDelta) {
+        record(productId, locationId, entryType, availableDelta, committedDelta, tentativeDelta, null);
+    }
+
+    /**
+     * 増減がすべて 0 の仕訳は記録しない
+     */
+    public void record(Long productId, Integer locationId, EntryType entryType,
+                       int availableDelta, int committedDelta, int tentativeDelta, Long orderId) {
+        if (availableDelta == 0 && committedDelta == 0 && tentativeDelta == 0) {
+            return;
+        }
+        Object[] entry = {productId, locationId, entryType.name(), availableDelta, committedDelta, tentativeDelta, orderId, null};
+        TransactionScoped.resource(PendingEntries.class, PendingEntries::new).ifPresentOrElse(
+                pending -> pending.entries.add(entry),
+                () -> write(List.<Object[]>of(entry)));
+    }
+
+    /**
+     * 記録日時は書き込み時点とする（スナップショットとの前後関係を書き込み順に揃える）
+     */
+    private void write(List<Object[]> entries) {
+        Timestamp recordedAt = Timestamp.from(Instant.now());
+        for (Object[] entry : entries) {
+            entry[7] = recordedAt;
+        }
+        jdbcTemplate.batchUpdate(INSERT_JOURNAL_SQL, entries);
+    }
+
+    private final class PendingEntries implements TransactionSynchronization {
+
+        private final List<Object[]> entries = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!entries.isEmpty()) {
+                write(entries);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.InventorySnapshot;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.InventoryJournalRepository;
+import com.example.aiec.modules.inventory.domain.repository.InventorySnapshotRepository;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * 在庫仕訳のスナップショット・時点在庫・再生サービス
+ * 時点在庫は指定時点以前で最新のスナップショットに、それ以降指定時点までの仕訳を加えて求める。
+ * 再生は最新のスナップショットに以降の全仕訳を加えた値で、拠点在庫の在庫数・引当済数量を復元する。
+ * 仮引当カウンタは仮引当の明細から再計算できるため、再生の対象外とする。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryJournalService {
+
+    private final InventoryJournalRepository inventoryJournalRepository;
+    private final InventorySnapshotRepository inventorySnapshotRepository;
+    private final LocationStockRepository locationStockRepository;
+    private final ProductRepository productRepository;
+    private final AvailabilityChangeTracker availabilityChangeTracker;
+
+    /**
+     * スナップショットへ反映済みの仕訳 ID の最大値（これより後に仕訳のある商品がスナップショットの対象）
+     */
+    @Transactional(readOnly = true)
+    public long findSnapshotWatermark() {
+        return inventorySnapshotRepository.findMaxLastJournalId();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findProductIdsToSnapshot(long afterJournalId, long afterProductId, int limit) {
+        return inventoryJournalRepository.findProductIdsJournaledAfter(afterJournalId, afterProductId, limit);
+    }
+
+    /**
+     * 商品の全拠点の拠点在庫を共有ロックし、仕訳を書き込み中のトランザクションの完了を待ってから記録する
+     *
+     * @return 記録したスナップショット件数
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public int snapshot(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        locationStockRepository.lockByProductIdInForShare(productIds);
+        return inventorySnapshotRepository.insertFromLocationStocks(productIds, Instant.now());
+    }
+
+    /**
+     * 仕訳の記録開始日時（最初のスナップショットの取得日時）
+     */
+    @Transactional(readOnly = true)
+    public Optional<Instant> findJournalStartedAt() {
+        return inventorySnapshotRepository.findEarliestTakenAt();
+    }
+
+    /**
+     * 指定時点の拠点別の在庫数・引当済数量・仮引当数量（拠点 ID 昇順）
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Balance> balancesAt(Long productId, Instant at) {
+        Map<Integer, Balance> balances = new TreeMap<>();
+        for (InventorySnapshot snapshot : inventorySnapshotRepository.findLatestByProductIdAt(productId, at)) {
+            balances.put(snapshot.getLocationId(), new Balance(
+                    snapshot.getAvailableQty(),
+                    snapshot.getCommittedQty(),
+                    snapshot.getReservedTentativeQty()));
+        }
+        for (Object[] row : inventoryJournalRepository.sumDeltasSinceSnapshot(productId, at)) {
+            Balance delta = new Balance(
+                    ((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue(),
+                    ((Number) row[3]).intValue());
+            balances.merge(((Number) row[0]).intValue(), delta, Balance::plus);
+        }
+        return balances;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> findReplayMismatches(long fromProductId, long toProductId) {
+        return inventoryJournalRepository.findReplayMismatches(fromProductId, toProductId);
+    }
+
+    /**
+     * 拠点在庫の在庫数・引当済数量を仕訳の再生結果で上書きする（商品行ロックで在庫更新と直列化する）
+     *
+     * @return 上書きした場合 true（ロック取得後に一致していた場合は false）
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public boolean replay(Long productId, Integer locationId) {
+        if (productRepository.findByIdForUpdate(productId).isEmpty()) {
+            return false;
+        }
+        Optional<LocationStock> locationStock =
+                locationStockRepository.findByProductIdAndLocationIdForUpdate(productId, locationId);
+        List<Object[]> replayed = inventoryJournalRepository.findReplayedBalance(productId, locationId);
+        if (locationStock.isEmpty() || replayed.isEmpty()) {
+            return false;
+        }
+
+        LocationStock stock = locationStock.get();
+        int availableQty = ((Number) replayed.get(0)[2]).intValue();
+        int committedQty = ((Number) replayed.get(0)[3]).intValue();
+        if (stock.getAvailableQty() == availableQty && stock.getCommittedQty() == committedQty) {
+            return false;
+        }
+        log.info("Location stock replayed from inventory journal: productId={}, locationId={}, available={} -> {}, committed={} -> {}",
+                productId,
+                locationId,
+                stock.getAvailableQty(),
+                availableQty,
+                stock.getCommittedQty(),
+                committedQty);
+        stock.setAvailableQty(availableQty);
+        stock.setCommittedQty(committedQty);
+        locationStockRepository.save(stock);
+        availabilityChangeTracker.markChanged(productId);
+        return true;
+    }
+
+    /**
+     * @param availableQty         在庫数
+     * @param committedQty         引当済数量
+     * @param reservedTentativeQty 仮引当数量
+     */
+    public record Balance(int availableQty, int committedQty, int reservedTentativeQty) {
+
+        Balance plus(Balance delta) {
+            return new Balance(
+                    availableQty + delta.availableQty,
+                    committedQty + delta.committedQty,
+                    reservedTentativeQty + delta.reservedTentativeQty);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.inventory.domain.repository.SalesLimitRepository;
+import com.example.aiec.modules.inventory.domain.repository.StockReservationRepository;
+import com.example.aiec.modules.purchase.order.entity.Order;
+import com.example.aiec.modules.shared.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 仮引当を stock_reservations テーブルに保存する実装（既定）
+ * 期限切れの解放は期限管理ホイールと release-reservations ジョブが行う。
+ */
+@RequiredArgsConstructor
+public class JpaTentativeReservationStore implements TentativeReservationStore {
+
+    private final StockReservationRepository reservationRepository;
+    private final LocationStockRepository locationStockRepository;
+    private final SalesLimitRepository salesLimitRepository;
+    private final ReservationExpiryScheduler reservationExpiryScheduler;
+    private final StockLocations stockLocations;
+
+    @Override
+    public Optional<StockReservation> findActive(String sessionId, Long productId, Instant now) {
+        return reservationRepository.findActiveTentative(sessionId, productId, now);
+    }
+
+    @Override
+    public List<StockReservation> findAllActiveBySession(String sessionId, Instant now) {
+        return reservationRepository.findAllActiveTentativeBySession(sessionId, now);
+    }
+
+    @Override
+    public StockReservation save(StockReservation reservation) {
+        StockReservation saved = reservationRepository.save(reservation);
+        reservationExpiryScheduler.track(saved);
+        return saved;
+    }
+
+    @Override
+    public void delete(StockReservation reservation) {
+        reservationRepository.delete(reservation);
+    }
+
+    @Override
+    public void deleteAll(Collection<StockReservation> reservations) {
+        reservationRepository.deleteAll(reservations);
+    }
+
+    /**
+     * 拠点在庫・枠在庫への振り替えと仮引当の削除は、明細数によらずそれぞれ 1 文で行う
+     * 期限切れで解放済みの仮引当は振り替えず、1 件でも含まれていれば本引当を失敗させる。
+     */
+    @Override
+    public void commit(Collection<StockReservation> realReservations, Collection<StockReservation> frameReservations, Order order) {
+        List<Long> realReservationIds = realReservations.stream().map(StockReservation::getId).toList();
+        List<Long> frameReservationIds = frameReservations.stream().map(StockReservation::getId).toList();
+        if (!realReservationIds.isEmpty()) {
+            locationStockRepository.commitReservedQty(realReservationIds, stockLocations.primaryLocationId());
+        }
+        if (!frameReservationIds.isEmpty()) {
+            salesLimitRepository.commitReservedQty(frameReservationIds, order.getId());
+        }
+        List<Long> committedReservationIds = new ArrayList<>(realReservationIds);
+        committedReservationIds.addAll(frameReservationIds);
+        if (!committedReservationIds.isEmpty()
+                && reservationRepository.softDeleteByIdIn(committedReservationIds) != committedReservationIds.size()) {
+            // 期限切れで解放済みの仮引当が含まれる（振り替えも含めてロールバックする）
+            throw new BusinessException("RESERVATION_EXPIRED", "仮引当の有効期限が切れています。もう一度お試しください");
+        }
+    }
+
+    @Override
+    public void clearBucketNo(Long productId) {
+        reservationRepository.clearBucketNoByProductId(productId);
+    }
+
+    @Override
+    public void clearLocationId(Long productId) {
+        reservationRepository.clearLocationIdByProductId(productId);
+    }
+
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+}
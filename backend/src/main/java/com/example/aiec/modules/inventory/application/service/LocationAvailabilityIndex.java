@@ -0,0 +1,150 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 拠点別有効在庫インデックス
+ * 商品ごとに引当対象拠点の有効在庫（バケット空き数量を除く）をメモリ上に保持し、未保持の商品は全拠点分を 1 文で読み込む。
+ * 在庫・カウンタを更新した商品は AvailabilityChangeTracker がコミット後に破棄し、次の参照で読み直す。
+ * 他インスタンスでの更新は AvailabilityChangeListener が通知を受けて破棄し、通知を取りこぼした場合も保持期間の経過で反映する。
+ * 引当の成否はカウンタへの条件付き UPDATE で判定するため、
+ * インデックスは引当拠点の選択順と有効在庫の集計にのみ使う。
+ */
+@Component
+public class LocationAvailabilityIndex {
+
+    private final LocationStockRepository locationStockRepository;
+    private final StockLocations stockLocations;
+    private final long ttlMillis;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public LocationAvailabilityIndex(LocationStockRepository locationStockRepository,
+                                     StockLocations stockLocations,
+                                     InventoryProperties inventoryProperties) {
+        this.locationStockRepository = locationStockRepository;
+        this.stockLocations = stockLocations;
+        this.ttlMillis = inventoryProperties.getLocations().getIndexTtlMillis();
+    }
+
+    public LocationAvailability get(Long productId) {
+        return get(List.of(productId)).get(productId);
+    }
+
+    /**
+     * 商品ごとの拠点別有効在庫（保持期間切れ・未保持の商品だけをまとめて読み込む）
+     */
+    public Map<Long, LocationAvailability> get(Collection<Long> productIds) {
+        long nowMillis = System.currentTimeMillis();
+        Map<Long, LocationAvailability> result = new HashMap<>();
+        List<Long> missingProductIds = new ArrayList<>();
+        for (Long productId : new HashSet<>(productIds)) {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.expiresAtMillis() > nowMillis) {
+                result.put(productId, entry.availability());
+            } else {
+                missingProductIds.add(productId);
+            }
+        }
+        if (!missingProductIds.isEmpty()) {
+            result.putAll(load(missingProductIds, nowMillis));
+        }
+        return result;
+    }
+
+    /**
+     * 仮引当を試す拠点を優先順で返す（数量が足りる拠点のみ）
+     * インデックス上で足りる拠点がない場合は 1 回だけ読み直して判定する。
+     */
+    public List<Integer> candidateLocations(Long productId, int quantity) {
+        List<Integer> candidates = get(productId).locationsCovering(quantity);
+        if (candidates.isEmpty()) {
+            evict(List.of(productId));
+            candidates = get(productId).locationsCovering(quantity);
+        }
+        return candidates;
+    }
+
+    public void evict(Collection<Long> productIds) {
+        evictionCount.incrementAndGet();
+        productIds.forEach(entries::remove);
+    }
+
+    public void evictAll() {
+        evictionCount.incrementAndGet();
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * 読み込み中に破棄が行われた場合、読み込んだ値は古い可能性があるため保持せずに返す
+     */
+    private Map<Long, LocationAvailability> load(List<Long> productIds, long nowMillis) {
+        long evictionsBefore = evictionCount.get();
+        Map<Long, Map<Integer, LocationStock>> stocksByProductId = new HashMap<>();
+        for (LocationStock stock : locationStockRepository.findByProductIdInAndLocationIdIn(productIds, stockLocations.locationIds())) {
+            stocksByProductId.computeIfAbsent(stock.getProduct().getId(), id -> new HashMap<>())
+                    .put(stock.getLocationId(), stock);
+        }
+
+        Map<Long, LocationAvailability> loaded = new HashMap<>();
+        for (Long productId : productIds) {
+            Map<Integer, LocationStock> stocks = stocksByProductId.getOrDefault(productId, Map.of());
+            Map<Integer, Integer> freeQtyByLocation = new LinkedHashMap<>();
+            for (Integer locationId : stockLocations.locationIds()) {
+                LocationStock stock = stocks.get(locationId);
+                freeQtyByLocation.put(locationId, stock != null ? stock.effectiveQty() : 0);
+            }
+            LocationStock primary = stocks.get(stockLocations.primaryLocationId());
+            loaded.put(productId, new LocationAvailability(
+                    freeQtyByLocation,
+                    primary != null && primary.isFlashSaleEnabled()));
+        }
+        if (evictionCount.get() == evictionsBefore) {
+            long expiresAtMillis = nowMillis + ttlMillis;
+            loaded.forEach((productId, availability) -> entries.put(productId, new Entry(availability, expiresAtMillis)));
+        }
+        return loaded;
+    }
+
+    /**
+     * @param freeQtyByLocation 拠点 ID（優先順）→ 有効在庫（バケット空き数量を除く）
+     * @param flashSaleEnabled 既定拠点でフラッシュセール中か
+     */
+    public record LocationAvailability(Map<Integer, Integer> freeQtyByLocation, boolean flashSaleEnabled) {
+
+        public int totalFreeQty() {
+            return freeQtyByLocation.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        public int freeQty(Integer locationId) {
+            return freeQtyByLocation.getOrDefault(locationId, 0);
+        }
+
+        List<Integer> locationsCovering(int quantity) {
+            return freeQtyByLocation.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= quantity)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+    }
+
+    private record Entry(LocationAvailability availability, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation.ReservationType;
+import com.example.aiec.modules.inventory.domain.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 仮引当の期限管理スケジューラ
+ * 起動時に未削除の仮引当からホイールを再構築し、以降は引当の作成・延長時に登録する。
+ * tick ごとに期限へ達した引当を小さなバッチに分けて解放する。
+ * ホイールはインスタンスごとのメモリ上の管理のため、取りこぼしは release-reservations ジョブが回収する。
+ */
+@Component
+@Slf4j
+public class ReservationExpiryScheduler {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 3;
+
+    private final StockReservationRepository reservationRepository;
+    private final ReservationExpiryService reservationExpiryService;
+    private final InventoryProperties.Expiry expiryProperties;
+    private final ReservationExpiryWheel wheel;
+
+    public ReservationExpiryScheduler(StockReservationRepository reservationRepository,
+                                      ReservationExpiryService reservationExpiryService,
+                                      InventoryProperties inventoryProperties) {
+        this.reservationRepository = reservationRepository;
+        this.reservationExpiryService = reservationExpiryService;
+        this.expiryProperties = inventoryProperties.getExpiry();
+        this.wheel = new ReservationExpiryWheel(
+                expiryProperties.getTickMillis(),
+                WHEEL_SIZE,
+                WHEEL_LEVELS,
+                System.currentTimeMillis()
+        );
+    }
+
+    /**
+     * 仮引当の有効期限を登録する（コミット前に登録しても解放時に DB で再確認するため問題ない）
+     */
+    public void track(StockReservation reservation) {
+        if (!expiryProperties.isEnabled() || reservation == null
+                || reservation.getId() == null || reservation.getExpiresAt() == null) {
+            return;
+        }
+        wheel.schedule(reservation.getId(), reservation.getExpiresAt().toEpochMilli());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!expiryProperties.isEnabled()) {
+            return;
+        }
+        List<Object[]> rows = reservationRepository.findIdAndExpiresAtByType(ReservationType.TENTATIVE);
+        for (Object[] row : rows) {
+            wheel.schedule(((Number) row[0]).longValue(), ((Instant) row[1]).toEpochMilli());
+        }
+        log.info("Reservation expiry wheel rebuilt: tracked={}", rows.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.expiry.tick-millis:1000}")
+    public void tick() {
+        if (!expiryProperties.isEnabled()) {
+            return;
+        }
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        int batchSize = Math.max(1, expiryProperties.getBatchSize());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                reservationExpiryService.releaseExpired(batch, Instant.now()).extended()
+                        .forEach((reservationId, expiresAt) -> wheel.schedule(reservationId, expiresAt.toEpochMilli()));
+            } catch (RuntimeException e) {
+                log.warn("Failed to release expired reservations, leaving them to release-reservations job: ids={}",
+                        batch, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation.ReservationType;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.inventory.domain.repository.StockReservationRepository;
+import com.example.aiec.modules.product.domain.entity.AllocationType;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.shared.outbox.application.OutboxEventPublisher;
+import com.example.aiec.modules.shared.outbox.application.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 期限切れ仮引当の解放サービス
+ * 期限管理ホイールから渡された引当を行ロック下で再確認し、期限を過ぎたものだけを解放する。
+ * 行ロックは本引当と同じ商品→拠点在庫→引当の順に取り、解放と本引当が競合してもデッドロックしないようにする。
+ * 解放した商品ごとに STOCK_AVAILABILITY_INCREASED を発行し、枠在庫待ちの注文へ割当を促す。
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationExpiryService {
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final LocationStockRepository locationStockRepository;
+    private final StockLocations stockLocations;
+    private final TentativeReservationCounter tentativeReservationCounter;
+    private final OutboxEventPublisher outboxEventPublisher;
+
+    /**
+     * 指定した引当のうち期限切れのものを解放する（呼び出しごとに独立したトランザクションでコミット）
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public ReleaseResult releaseExpired(Collection<Long> reservationIds, Instant now) {
+        if (reservationIds.isEmpty()) {
+            return new ReleaseResult(0, Map.of());
+        }
+
+        // 本引当（commitReservations）と同じく商品→拠点在庫→引当の順に行ロックを取る
+        List<StockReservation> candidates = reservationRepository.findByIdInAndType(reservationIds, ReservationType.TENTATIVE);
+        if (candidates.isEmpty()) {
+            return new ReleaseResult(0, Map.of());
+        }
+        Map<Long, Product> productsById = productRepository.findAllByIdInForUpdate(
+                        candidates.stream().map(r -> r.getProduct().getId()).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        lockLocationStocks(candidates, productsById);
+
+        Map<Long, Instant> extended = new HashMap<>();
+        List<StockReservation> expired = new ArrayList<>();
+        for (StockReservation reservation : reservationRepository.findByIdInAndTypeForUpdate(
+                candidates.stream().map(StockReservation::getId).toList(), ReservationType.TENTATIVE)) {
+            if (reservation.getExpiresAt() != null && reservation.getExpiresAt().isAfter(now)) {
+                extended.put(reservation.getId(), reservation.getExpiresAt());
+            } else {
+                expired.add(reservation);
+            }
+        }
+        if (expired.isEmpty()) {
+            return new ReleaseResult(0, extended);
+        }
+
+        Map<Long, Map<TentativeSlot, Integer>> releasedByProduct = new TreeMap<>();
+        for (StockReservation reservation : expired) {
+            releasedByProduct
+                    .computeIfAbsent(reservation.getProduct().getId(), id -> new HashMap<>())
+                    .merge(TentativeSlot.of(reservation), reservation.getQuantity(), Integer::sum);
+        }
+
+        reservationRepository.softDeleteByIdIn(expired.stream().map(StockReservation::getId).toList());
+
+        releaseCounters(releasedByProduct, productsById);
+        return new ReleaseResult(expired.size(), extended);
+    }
+
+    /**
+     * 保存先から取り除き済みの仮引当の数量をカウンタへ戻す（引当明細を DB に持たない保存先用）
+     *
+     * @param releasedByProduct 商品 ID → 計上先（引当拠点・バケット番号）→ 解放数量
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void releaseQuantities(Map<Long, Map<TentativeSlot, Integer>> releasedByProduct) {
+        if (releasedByProduct.isEmpty()) {
+            return;
+        }
+        Map<Long, Product> productsById = productRepository.findAllById(releasedByProduct.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        releaseCounters(new TreeMap<>(releasedByProduct), productsById);
+    }
+
+    /**
+     * 保持期間を過ぎた soft delete 済みの引当を最大 limit 件物理削除する
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public int purgeDeletedBefore(Instant cutoff, int limit) {
+        return reservationRepository.purgeDeletedBefore(cutoff, limit);
+    }
+
+    private void lockLocationStocks(List<StockReservation> reservations, Map<Long, Product> productsById) {
+        List<Long> realProductIds = productsById.values().stream()
+                .filter(product -> product.getAllocationType() == AllocationType.REAL)
+                .map(Product::getId)
+                .sorted()
+                .toList();
+        if (realProductIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> locationIds = reservations.stream()
+                .map(reservation -> stockLocations.resolve(reservation.getLocationId()))
+                .collect(Collectors.toCollection(TreeSet::new));
+        locationStockRepository.findByProductIdInAndLocationIdInForUpdate(realProductIds, locationIds);
+    }
+
+    private void releaseCounters(Map<Long, Map<TentativeSlot, Integer>> releasedByProduct, Map<Long, Product> productsById) {
+        releasedByProduct.forEach((productId, releasedBySlot) -> {
+            Product product = productsById.get(productId);
+            if (product == null) {
+                return;
+            }
+            int releasedQty = 0;
+            for (Map.Entry<TentativeSlot, Integer> entry : releasedBySlot.entrySet()) {
+                tentativeReservationCounter.add(productId, product.getAllocationType(), entry.getKey(), -entry.getValue());
+                releasedQty += entry.getValue();
+            }
+            publishStockAvailabilityIncreased(productId, releasedQty);
+        });
+    }
+
+    private void publishStockAvailabilityIncreased(Long productId, int increasedBy) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("productId", productId);
+        payload.put("reason", "RESERVATION_EXPIRED");
+        payload.put("increasedBy", increasedBy);
+        outboxEventPublisher.publish("STOCK_AVAILABILITY_INCREASED", OutboxMessage.aggregateKey("product", productId), payload);
+    }
+
+    /**
+     * @param releasedCount 解放した引当件数
+     * @param extended 期限が延長されていたため解放しなかった引当（ID → 新しい有効期限）
+     */
+    public record ReleaseResult(int releasedCount, Map<Long, Instant> extended) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 仮引当の有効期限を管理する階層型タイミングホイール
+ * レベル n の 1 スロットは tick × wheelSize^n の時間幅を持ち、下位レベルが 1 周するたびに
+ * 上位レベルのスロットを下位へ再配置する。登録・取り出しは件数に依存しない定数時間で行う。
+ * 同じ引当を再登録した場合は最新の期限のみ有効とし、古いエントリは取り出し時に読み捨てる。
+ */
+public class ReservationExpiryWheel {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelSpans;
+    private final List<List<Map<Long, Long>>> levels;
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    private final Map<Long, Long> overdue = new HashMap<>();
+    private long currentTick;
+
+    public ReservationExpiryWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("tickMillis > 0, wheelSize >= 2, levelCount >= 1 が必要です");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelSpans = new long[levelCount];
+        this.levels = new ArrayList<>(levelCount);
+        long span = 1;
+        for (int level = 0; level < levelCount; level++) {
+            levelSpans[level] = span;
+            span *= wheelSize;
+            List<Map<Long, Long>> slots = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new HashMap<>());
+            }
+            levels.add(slots);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * 引当の期限を登録する（登録済みの場合は期限を置き換える）
+     */
+    public synchronized void schedule(Long reservationId, long expiresAtMillis) {
+        deadlines.put(reservationId, expiresAtMillis);
+        place(reservationId, expiresAtMillis);
+    }
+
+    /**
+     * 引当を期限管理の対象から外す
+     */
+    public synchronized void cancel(Long reservationId) {
+        deadlines.remove(reservationId);
+    }
+
+    /**
+     * 指定時刻まで時計を進め、期限に達した引当の ID を返す
+     */
+    public synchronized List<Long> advance(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        collect(overdue, expired);
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = levelSpans.length - 1; level > 0; level--) {
+                if (currentTick % levelSpans[level] == 0) {
+                    Map<Long, Long> slot = slotOf(level, currentTick);
+                    Map<Long, Long> cascaded = new HashMap<>(slot);
+                    slot.clear();
+                    cascaded.forEach(this::place);
+                }
+            }
+            collect(slotOf(0, currentTick), expired);
+            collect(overdue, expired);
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    private void place(Long reservationId, long expiresAtMillis) {
+        long deadlineTick = Math.ceilDiv(expiresAtMillis, tickMillis);
+        long delta = deadlineTick - currentTick;
+        if (delta <= 0) {
+            overdue.put(reservationId, expiresAtMillis);
+            return;
+        }
+        int level = 0;
+        while (level < levelSpans.length - 1 && delta >= levelSpans[level] * wheelSize) {
+            level++;
+        }
+        slotOf(level, deadlineTick).put(reservationId, expiresAtMillis);
+    }
+
+    private void collect(Map<Long, Long> slot, List<Long> expired) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> entries = new HashMap<>(slot);
+        slot.clear();
+        entries.forEach((reservationId, expiresAtMillis) -> {
+            if (!expiresAtMillis.equals(deadlines.get(reservationId))) {
+                return;
+            }
+            if (Math.ceilDiv(expiresAtMillis, tickMillis) > currentTick) {
+                place(reservationId, expiresAtMillis);
+                return;
+            }
+            deadlines.remove(reservationId);
+            expired.add(reservationId);
+        });
+    }
+
+    private Map<Long, Long> slotOf(int level, long tick) {
+        return levels.get(level).get((int) Math.floorMod(tick / levelSpans[level], (long) wheelSize));
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry.EntryType;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.entity.StockBucket;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.inventory.domain.repository.StockBucketRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * フラッシュセール用在庫バケットの管理サービス
+ * 切り出し時に既定拠点の有効在庫をバケットへ均等配分し、切り出し分は既定拠点の仮引当カウンタへ計上する。
+ * ロック順序は 商品 → 拠点在庫 → バケット（bucket_no 昇順）。
+ */
+@Service
+@RequiredArgsConstructor
+public class StockBucketService {
+
+    private final StockBucketRepository stockBucketRepository;
+    private final TentativeReservationStore tentativeReservationStore;
+    private final LocationStockRepository locationStockRepository;
+    private final ProductRepository productRepository;
+    private final AvailabilityChangeTracker availabilityChangeTracker;
+    private final StockLocations stockLocations;
+    private final InventoryJournal inventoryJournal;
+
+    /**
+     * 拠点在庫の有効在庫を全量バケットへ切り出す（呼び出し側で商品・拠点在庫の行ロックを取得済みであること）
+     */
+    public List<StockBucket> carve(Product product, LocationStock locationStock, int bucketCount) {
+        int carvedQty = locationStock.effectiveQty();
+        List<StockBucket> buckets = new ArrayList<>();
+        for (int bucketNo = 0; bucketNo < bucketCount; bucketNo++) {
+            StockBucket bucket = new StockBucket();
+            bucket.setProduct(product);
+            bucket.setBucketNo(bucketNo);
+            bucket.setAllocatedQty(share(carvedQty, bucketCount, bucketNo));
+            bucket.setReservedQty(0);
+            buckets.add(bucket);
+        }
+        locationStockRepository.addReservedTentativeQty(product.getId(), locationStock.getLocationId(), carvedQty);
+        inventoryJournal.record(product.getId(), locationStock.getLocationId(), EntryType.RESERVATION, 0, 0, carvedQty);
+        locationStock.setFlashBucketCount(bucketCount);
+        locationStockRepository.save(locationStock);
+        availabilityChangeTracker.markChanged(product.getId());
+        return stockBucketRepository.saveAll(buckets);
+    }
+
+    /**
+     * バケットの空き数量を拠点在庫へ戻してバケットを削除する
+     *
+     * @return 拠点在庫へ戻した数量
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int merge(Long productId) {
+        if (productRepository.findByIdForUpdate(productId).isEmpty()) {
+            return 0;
+        }
+        LocationStock locationStock = locationStockRepository.findByProductIdAndLocationIdForUpdate(productId, stockLocations.primaryLocationId())
+                .orElse(null);
+        if (locationStock == null || !locationStock.isFlashSaleEnabled()) {
+            return 0;
+        }
+
+        List<StockBucket> buckets = stockBucketRepository.findByProductIdForUpdate(productId);
+        int freeQty = buckets.stream().mapToInt(StockBucket::freeQty).sum();
+        locationStockRepository.addReservedTentativeQty(productId, locationStock.getLocationId(), -freeQty);
+        inventoryJournal.record(productId, locationStock.getLocationId(), EntryType.RELEASE, 0, 0, -freeQty);
+        tentativeReservationStore.clearBucketNo(productId);
+        stockBucketRepository.deleteAll(buckets);
+        locationStock.setFlashBucketCount(0);
+        locationStockRepository.save(locationStock);
+        availabilityChangeTracker.markChanged(productId);
+        return freeQty;
+    }
+
+    /**
+     * バケット間で空き数量を均等に配り直す（割当数量の合計は変わらない）
+     *
+     * @return 配分を変更した場合 true
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public boolean rebalance(Long productId) {
+        List<StockBucket> buckets = stockBucketRepository.findByProductIdForUpdate(productId);
+        if (buckets.size() < 2) {
+            return false;
+        }
+
+        int freeQty = buckets.stream().mapToInt(StockBucket::freeQty).sum();
+        boolean changed = false;
+        for (int i = 0; i < buckets.size(); i++) {
+            StockBucket bucket = buckets.get(i);
+            int allocatedQty = bucket.getReservedQty() + share(freeQty, buckets.size(), i);
+            if (allocatedQty != bucket.getAllocatedQty()) {
+                bucket.setAllocatedQty(allocatedQty);
+                changed = true;
+            }
+        }
+        if (changed) {
+            stockBucketRepository.saveAll(buckets);
+        }
+        return changed;
+    }
+
+    /**
+     * セッションのハッシュで決まるバケットから順に引当を試みる
+     *
+     * @return 引き当てたバケット番号。全バケットで空きが足りない場合 null
+     */
+    public Integer reserve(Long productId, String sessionId, int bucketCount, int quantity) {
+        int start = Math.floorMod(sessionId.hashCode(), bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            int bucketNo = (start + i) % bucketCount;
+            if (stockBucketRepository.reserveIfAvailable(productId, bucketNo, quantity) > 0) {
+                availabilityChangeTracker.markChanged(productId);
+                return bucketNo;
+            }
+        }
+        return null;
+    }
+
+    public boolean reserveIn(Long productId, Integer bucketNo, int quantity) {
+        if (stockBucketRepository.reserveIfAvailable(productId, bucketNo, quantity) > 0) {
+            availabilityChangeTracker.markChanged(productId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 本引当に伴いバケットの割当・引当数量を消費する（拠点在庫カウンタの減算は呼び出し側で行う）
+     */
+    public void consume(Long productId, Integer bucketNo, int quantity) {
+        stockBucketRepository.consume(productId, bucketNo, quantity);
+    }
+
+    public int freeQty(Long productId) {
+        return Math.max(0, stockBucketRepository.sumFreeQtyByProductId(productId).intValue());
+    }
+
+    public Map<Long, Integer> freeQtyByProductIds(Collection<Long> productIds) {
+        Map<Long, Integer> freeQtyByProductId = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return freeQtyByProductId;
+        }
+        for (Object[] row : stockBucketRepository.sumFreeQtyByProductIds(productIds)) {
+            freeQtyByProductId.put(((Number) row[0]).longValue(), Math.max(0, ((Number) row[1]).intValue()));
+        }
+        return freeQtyByProductId;
+    }
+
+    private int share(int totalQty, int bucketCount, int index) {
+        return totalQty / bucketCount + (index < totalQty % bucketCount ? 1 : 0);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry.EntryType;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.shared.outbox.application.OutboxEventPublisher;
+import com.example.aiec.modules.shared.outbox.application.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 在庫一括取込のバッチ適用サービス
+ * 1 バッチを 1 トランザクションで適用する。商品と既定拠点の拠点在庫は ID 昇順でまとめて行ロックし、
+ * 在庫調整履歴は JDBC のバッチ INSERT で書き込む。有効在庫増加イベントはバッチ内で商品ごとに 1 件にまとめる。
+ */
+@Service
+@RequiredArgsConstructor
+public class StockImportBatchService {
+
+    private static final String INSERT_ADJUSTMENT_SQL = """
+            INSERT INTO inventory_adjustments
+                (product_id, quantity_before, quantity_after, quantity_delta, reason, adjusted_by, adjusted_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final ProductRepository productRepository;
+    private final LocationStockRepository locationStockRepository;
+    private final OutboxEventPublisher outboxEventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final AvailabilityChangeTracker availabilityChangeTracker;
+    private final StockLocations stockLocations;
+    private final InventoryJournal inventoryJournal;
+
+    /**
+     * 形式チェック済みの行を適用する（商品が存在しない行・調整後に負数となる行は不採用として返す）
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public BatchResult applyBatch(List<StockImportLine> lines, String adjustedBy) {
+        TreeSet<Long> productIds = lines.stream()
+                .map(StockImportLine::productId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Product> productsById = productRepository.findAllByIdInForUpdate(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, LocationStock> locationStockByProductId = findOrCreateLocationStocksForUpdate(productsById.values());
+        Map<Long, Integer> remainingBeforeByProductId = new LinkedHashMap<>();
+
+        Instant adjustedAt = Instant.now();
+        List<Object[]> adjustments = new ArrayList<>();
+        List<StockImportLine> rejected = new ArrayList<>();
+        for (StockImportLine line : lines) {
+            LocationStock locationStock = locationStockByProductId.get(line.productId());
+            if (locationStock == null) {
+                rejected.add(StockImportLine.invalid(line.lineNumber(), "商品が見つかりません: productId=" + line.productId()));
+                continue;
+            }
+            int quantityBefore = valueOrZero(locationStock.getAvailableQty());
+            int quantityAfter = quantityBefore + line.quantityDelta();
+            if (quantityAfter < 0) {
+                rejected.add(StockImportLine.invalid(line.lineNumber(),
+                        "在庫調整後の数量が負になります（現在: " + quantityBefore + ", 調整: " + line.quantityDelta() + "）"));
+                continue;
+            }
+
+            remainingBeforeByProductId.putIfAbsent(line.productId(), locationStock.remainingQty());
+            locationStock.setAvailableQty(quantityAfter);
+            inventoryJournal.record(line.productId(), locationStock.getLocationId(), EntryType.ADJUSTMENT, line.quantityDelta(), 0, 0);
+            adjustments.add(new Object[]{
+                    line.productId(),
+                    quantityBefore,
+                    quantityAfter,
+                    line.quantityDelta(),
+                    line.reason(),
+                    adjustedBy,
+                    Timestamp.from(adjustedAt)
+            });
+        }
+
+        if (adjustments.isEmpty()) {
+            return new BatchResult(0, rejected);
+        }
+        locationStockRepository.saveAll(remainingBeforeByProductId.keySet().stream()
+                .map(locationStockByProductId::get)
+                .toList());
+        jdbcTemplate.batchUpdate(INSERT_ADJUSTMENT_SQL, adjustments);
+        availabilityChangeTracker.markChanged(remainingBeforeByProductId.keySet());
+
+        List<OutboxMessage> increasedEvents = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : remainingBeforeByProductId.entrySet()) {
+            int increasedBy = locationStockByProductId.get(entry.getKey()).remainingQty() - entry.getValue();
+            if (increasedBy > 0) {
+                increasedEvents.add(new OutboxMessage("STOCK_AVAILABILITY_INCREASED", OutboxMessage.aggregateKey("product", entry.getKey()), Map.of(
+                        "productId", entry.getKey(),
+                        "reason", "INVENTORY_IMPORTED",
+                        "increasedBy", increasedBy)));
+            }
+        }
+        outboxEventPublisher.publishAll(increasedEvents);
+        return new BatchResult(adjustments.size(), rejected);
+    }
+
+    private Map<Long, LocationStock> findOrCreateLocationStocksForUpdate(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return Map.of();
+        }
+        Integer primaryLocationId = stockLocations.primaryLocationId();
+        Map<Long, LocationStock> locationStockByProductId = locationStockRepository.findByProductIdInAndLocationIdForUpdate(
+                        products.stream().map(Product::getId).toList(), primaryLocationId).stream()
+                .collect(Collectors.toMap(stock -> stock.getProduct().getId(), Function.identity()));
+        List<LocationStock> created = new ArrayList<>();
+        for (Product product : products) {
+            if (!locationStockByProductId.containsKey(product.getId())) {
+                LocationStock locationStock = new LocationStock();
+                locationStock.setProduct(product);
+                locationStock.setLocationId(primaryLocationId);
+                locationStock.setAvailableQty(0);
+                locationStock.setCommittedQty(0);
+                created.add(locationStock);
+            }
+        }
+        for (LocationStock locationStock : locationStockRepository.saveAll(created)) {
+            locationStockByProductId.put(locationStock.getProduct().getId(), locationStock);
+        }
+        return locationStockByProductId;
+    }
+
+    private int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * @param appliedCount 適用した行数
+     * @param rejected     不採用とした行（error に理由を持つ）
+     */
+    public record BatchResult(int appliedCount, List<StockImportLine> rejected) {
+    }
+}
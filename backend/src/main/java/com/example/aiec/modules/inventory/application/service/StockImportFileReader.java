@@ -0,0 +1,119 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.port.StockImportFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 在庫一括取込ファイルのストリーミングリーダー
+ * 1 行ずつ読み込んで形式チェックし、ファイル全体をメモリに載せない。
+ * CSV は reason を最終列とし、reason 内のカンマはそのまま値として扱う。
+ */
+public class StockImportFileReader implements Closeable {
+
+    static final String CSV_HEADER = "product_id,quantity_delta,reason";
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final BufferedReader reader;
+    private final StockImportFormat format;
+    private final ObjectMapper objectMapper;
+    private int lineNumber;
+
+    public StockImportFileReader(BufferedReader reader, StockImportFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 次の行を読み込む（空行は読み飛ばす）
+     *
+     * @return 読み込んだ行。ファイル終端では null
+     * @throws IllegalArgumentException CSV のヘッダー行が不正な場合
+     */
+    public StockImportLine next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == StockImportFormat.CSV && lineNumber == 1) {
+                if (!CSV_HEADER.equalsIgnoreCase(stripBom(line).trim())) {
+                    throw new IllegalArgumentException("CSV ヘッダーが不正です（期待値: " + CSV_HEADER + "）");
+                }
+                continue;
+            }
+            return format == StockImportFormat.CSV ? parseCsv(line) : parseNdjson(line);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private StockImportLine parseCsv(String line) {
+        String[] columns = line.split(",", 3);
+        if (columns.length < 3) {
+            return StockImportLine.invalid(lineNumber, "列数が不足しています");
+        }
+        Long productId;
+        Integer quantityDelta;
+        try {
+            productId = Long.valueOf(columns[0].trim());
+            quantityDelta = Integer.valueOf(columns[1].trim());
+        } catch (NumberFormatException e) {
+            return StockImportLine.invalid(lineNumber, "商品IDまたは調整数が数値ではありません");
+        }
+        return validate(productId, quantityDelta, unquote(columns[2].trim()));
+    }
+
+    private StockImportLine parseNdjson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return StockImportLine.invalid(lineNumber, "JSON として解析できません");
+        }
+        JsonNode productId = node.path("productId");
+        JsonNode quantityDelta = node.path("quantityDelta");
+        if (!productId.canConvertToLong() || !quantityDelta.canConvertToInt()) {
+            return StockImportLine.invalid(lineNumber, "商品IDまたは調整数が数値ではありません");
+        }
+        return validate(productId.asLong(), quantityDelta.asInt(), node.path("reason").asText(""));
+    }
+
+    private StockImportLine validate(Long productId, Integer quantityDelta, String reason) {
+        if (productId <= 0) {
+            return StockImportLine.invalid(lineNumber, "商品IDが不正です");
+        }
+        if (quantityDelta == 0) {
+            return StockImportLine.invalid(lineNumber, "調整数は0以外である必要があります");
+        }
+        if (reason.isBlank()) {
+            return StockImportLine.invalid(lineNumber, "調整理由は必須です");
+        }
+        if (reason.length() > MAX_REASON_LENGTH) {
+            return StockImportLine.invalid(lineNumber, "調整理由は" + MAX_REASON_LENGTH + "文字以内である必要があります");
+        }
+        return StockImportLine.valid(lineNumber, productId, quantityDelta, reason);
+    }
+
+    private String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value;
+    }
+
+    private String stripBom(String value) {
+        return value.startsWith("\uFEFF") ? value.substring(1) : value;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.aiec.modules.inventory.application.service;
+
+/**
+ * 在庫一括取込ファイルの 1 行
+ * 形式チェックに失敗した行は error に理由を持ち、他の項目は null になる。
+ */
+public record StockImportLine(int lineNumber, Long productId, Integer quantityDelta, String reason, String error) {
+
+    public static StockImportLine valid(int lineNumber, Long productId, Integer quantityDelta, String reason) {
+        return new StockImportLine(lineNumber, productId, quantityDelta, reason, null);
+    }
+
+    public static StockImportLine invalid(int lineNumber, String error) {
+        return new StockImportLine(lineNumber, null, null, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.shared.exception.BusinessException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 引当対象の拠点（app.inventory.locations.priority の優先順）
+ * 先頭の拠点を既定拠点とし、引当拠点を持たない仮引当・注文明細やフラッシュセールのバケットはこの拠点に属する。
+ */
+@Component
+public class StockLocations {
+
+    private final List<Integer> locationIds;
+
+    public StockLocations(InventoryProperties inventoryProperties) {
+        List<Integer> configured = List.copyOf(new LinkedHashSet<>(inventoryProperties.getLocations().getPriority()));
+        if (configured.isEmpty()) {
+            throw new IllegalStateException("app.inventory.locations.priority に拠点を 1 つ以上指定してください");
+        }
+        this.locationIds = configured;
+    }
+
+    /**
+     * 引当対象の拠点 ID（優先順）
+     */
+    public List<Integer> locationIds() {
+        return locationIds;
+    }
+
+    public Integer primaryLocationId() {
+        return locationIds.get(0);
+    }
+
+    /**
+     * 引当拠点が null の場合は既定拠点として扱う
+     */
+    public Integer resolve(Integer locationId) {
+        return locationId != null ? locationId : primaryLocationId();
+    }
+
+    /**
+     * 管理操作で指定された拠点を検証する（未指定は既定拠点）
+     */
+    public Integer require(Integer locationId) {
+        if (locationId == null) {
+            return primaryLocationId();
+        }
+        if (!locationIds.contains(locationId)) {
+            throw new BusinessException("INVALID_LOCATION", "引当対象外の拠点です: " + locationId);
+        }
+        return locationId;
+    }
+}
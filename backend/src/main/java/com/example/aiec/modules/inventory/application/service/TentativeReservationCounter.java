@@ -0,0 +1,120 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry.EntryType;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.inventory.domain.repository.SalesLimitRepository;
+import com.example.aiec.modules.inventory.domain.repository.StockBucketRepository;
+import com.example.aiec.modules.product.domain.entity.AllocationType;
+import com.example.aiec.modules.product.domain.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 仮引当数量カウンタの更新サービス
+ * REAL 商品は引当拠点の拠点在庫、FRAME 商品は枠在庫の reserved_tentative_qty を加減算する。
+ * フラッシュセールのバケットから引き当てた分はバケットの reserved_qty を加減算する。
+ * 拠点在庫のカウンタを加減算した分は在庫仕訳に記録する。
+ */
+@Service
+@RequiredArgsConstructor
+public class TentativeReservationCounter {
+
+    private final LocationStockRepository locationStockRepository;
+    private final SalesLimitRepository salesLimitRepository;
+    private final StockBucketRepository stockBucketRepository;
+    private final AvailabilityChangeTracker availabilityChangeTracker;
+    private final StockLocations stockLocations;
+    private final LocationAvailabilityIndex locationAvailabilityIndex;
+    private final InventoryJournal inventoryJournal;
+
+    public void add(StockReservation reservation, int delta) {
+        Product product = reservation.getProduct();
+        add(product.getId(), product.getAllocationType(), TentativeSlot.of(reservation), delta);
+    }
+
+    /**
+     * バケット引当分はバケットへ戻す。バケットが統合済みの場合は既定拠点のカウンタへ戻す
+     */
+    public void add(Long productId, AllocationType allocationType, TentativeSlot slot, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (slot.bucketNo() != null && stockBucketRepository.addReservedQty(productId, slot.bucketNo(), delta) > 0) {
+            availabilityChangeTracker.markChanged(productId);
+            return;
+        }
+        add(productId, allocationType, slot.locationId(), delta);
+    }
+
+    public void add(Long productId, AllocationType allocationType, Integer locationId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (allocationType == AllocationType.FRAME) {
+            salesLimitRepository.addReservedTentativeQty(productId, delta);
+        } else {
+            Integer resolvedLocationId = stockLocations.resolve(locationId);
+            locationStockRepository.addReservedTentativeQty(productId, resolvedLocationId, delta);
+            inventoryJournal.record(productId, resolvedLocationId, delta > 0 ? EntryType.RESERVATION : EntryType.RELEASE, 0, 0, delta);
+        }
+        availabilityChangeTracker.markChanged(productId);
+    }
+
+    /**
+     * 全商品の仮引当カウンタを DB 上の未削除仮引当から再計算する
+     * 仮引当をメモリ上に保持する保存先の起動時に、前回プロセスで失われた仮引当分をカウンタから取り除くために使う。
+     * バケット切り出し数量は既定拠点のカウンタへ戻すため、既定拠点以外にバケットがある場合は再計算しない。
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void resetToPersistedReservations() {
+        Integer primaryLocationId = stockLocations.primaryLocationId();
+        long misplacedBuckets = locationStockRepository.countFlashSaleEnabledOutside(primaryLocationId);
+        if (misplacedBuckets > 0) {
+            throw new IllegalStateException("既定拠点以外の拠点在庫にフラッシュセールのバケットがあるため、仮引当カウンタを再計算できません: count="
+                    + misplacedBuckets);
+        }
+        stockBucketRepository.resetReservedQty();
+        locationStockRepository.resetReservedTentativeQty(primaryLocationId);
+        salesLimitRepository.resetReservedTentativeQty();
+    }
+
+    /**
+     * 有効在庫が足りる場合のみ仮引当数量を加算する（条件付き UPDATE 1 文で判定）
+     *
+     * @param locationId REAL 商品の引当拠点（null は既定拠点）
+     * @return 加算できた場合 true
+     */
+    public boolean tryReserve(Product product, Integer locationId, int quantity) {
+        if (product.getAllocationType() == AllocationType.FRAME) {
+            if (salesLimitRepository.reserveTentativeQtyIfAvailable(product.getId(), quantity) == 0) {
+                return false;
+            }
+        } else {
+            Integer resolvedLocationId = stockLocations.resolve(locationId);
+            if (locationStockRepository.reserveTentativeQtyIfAvailable(product.getId(), resolvedLocationId, quantity) == 0) {
+                return false;
+            }
+            inventoryJournal.record(product.getId(), resolvedLocationId, EntryType.RESERVATION, 0, 0, quantity);
+        }
+        availabilityChangeTracker.markChanged(product.getId());
+        return true;
+    }
+
+    /**
+     * REAL 商品の仮引当数量を、拠点別有効在庫インデックス上で数量が足りる拠点へ優先順に加算を試みる
+     * 1 つの仮引当は 1 拠点から引き当てる（拠点をまたいだ分割はしない）。
+     *
+     * @return 加算した拠点。どの拠点でも足りない場合 null
+     */
+    public Integer tryReserveByPriority(Product product, int quantity) {
+        for (Integer locationId : locationAvailabilityIndex.candidateLocations(product.getId(), quantity)) {
+            if (tryReserve(product, locationId, quantity)) {
+                return locationId;
+            }
+        }
+        return null;
+    }
+}
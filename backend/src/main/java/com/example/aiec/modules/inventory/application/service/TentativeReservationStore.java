@@ -0,0 +1,57 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.purchase.order.entity.Order;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 仮引当（セッション×商品の一時確保）の保存先
+ * 商品ごとの仮引当合計は保存先によらず拠点在庫・枠在庫・バケットのカウンタで永続化し、
+ * ここではセッションごとの明細だけを扱う。本引当は常に DB に保存する。
+ * 返却する引当は保存先から切り離されたコピーのため、変更は save するまで反映されない実装もある。
+ */
+public interface TentativeReservationStore {
+
+    /**
+     * セッション×商品の有効な仮引当を検索
+     */
+    Optional<StockReservation> findActive(String sessionId, Long productId, Instant now);
+
+    /**
+     * セッションの全有効仮引当を取得
+     */
+    List<StockReservation> findAllActiveBySession(String sessionId, Instant now);
+
+    /**
+     * 仮引当を保存し、有効期限を期限管理へ登録する
+     */
+    StockReservation save(StockReservation reservation);
+
+    void delete(StockReservation reservation);
+
+    void deleteAll(Collection<StockReservation> reservations);
+
+    /**
+     * 注文確定した仮引当を取り除き、仮引当カウンタを本引当数量（REAL）・消費数量（FRAME）へ振り替える
+     */
+    void commit(Collection<StockReservation> realReservations, Collection<StockReservation> frameReservations, Order order);
+
+    /**
+     * フラッシュセール終了時に商品の仮引当からバケット番号を外す
+     */
+    void clearBucketNo(Long productId);
+
+    /**
+     * 引当区分を FRAME へ変更した商品の仮引当から引当拠点を外す
+     */
+    void clearLocationId(Long productId);
+
+    /**
+     * 仮引当の明細を DB に保存しているか（整合性検証で明細の合計とカウンタを比較できるか）
+     */
+    boolean isDurable();
+}
@@ -0,0 +1,16 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+
+/**
+ * 仮引当数量を計上するカウンタの位置
+ *
+ * @param locationId 引当拠点（null は既定拠点。FRAME 商品では使わない）
+ * @param bucketNo フラッシュセールのバケット番号（バケット外は null）
+ */
+public record TentativeSlot(Integer locationId, Integer bucketNo) {
+
+    public static TentativeSlot of(StockReservation reservation) {
+        return new TentativeSlot(reservation.getLocationId(), reservation.getBucketNo());
+    }
+}
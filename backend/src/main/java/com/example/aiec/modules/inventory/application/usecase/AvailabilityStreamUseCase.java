@@ -0,0 +1,89 @@
+package com.example.aiec.modules.inventory.application.usecase;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.application.port.AvailabilityChangeDto;
+import com.example.aiec.modules.inventory.application.port.AvailabilityStreamPort;
+import com.example.aiec.modules.inventory.application.port.InventoryQueryPort;
+import com.example.aiec.modules.inventory.application.service.AvailabilityChangeTracker;
+import com.example.aiec.modules.inventory.application.service.AvailabilitySubscriptionRegistry;
+import com.example.aiec.modules.shared.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 有効在庫の変化配信ユースケース（Port実装）
+ * debounce 間隔ごとに変更のあった商品を取り出し、購読者のいる商品だけを 1 回の集計で再計算して配信する。
+ * 購読者数によらず DB への問い合わせは間隔ごとに 1 回となる。
+ * 変更の記録には他インスタンスでの変更も含まれる（AvailabilityChangeListener が NOTIFY で受け取って記録する）。
+ * 購読者への送信は AvailabilitySubscriptionRegistry の送信スレッドで行い、スケジューラスレッドを送信で塞がない。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+class AvailabilityStreamUseCase implements AvailabilityStreamPort {
+
+    private final InventoryQueryPort inventoryQuery;
+    private final AvailabilityChangeTracker availabilityChangeTracker;
+    private final AvailabilitySubscriptionRegistry availabilitySubscriptionRegistry;
+    private final InventoryProperties inventoryProperties;
+
+    @Override
+    public Subscription subscribe(Collection<Long> productIds, Consumer<AvailabilityChangeDto> listener) {
+        Set<Long> uniqueProductIds = productIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (uniqueProductIds.isEmpty()) {
+            throw new BusinessException("INVALID_REQUEST", "商品IDを指定してください");
+        }
+        int maxProducts = inventoryProperties.getAvailabilityStream().getMaxProductsPerSubscription();
+        if (uniqueProductIds.size() > maxProducts) {
+            throw new BusinessException("TOO_MANY_PRODUCTS", "購読できる商品は " + maxProducts + " 件までです");
+        }
+
+        // 登録後に現在値を取得し、取得までの間の変更は次回の配信で拾う
+        Subscription subscription = availabilitySubscriptionRegistry.register(uniqueProductIds, listener);
+        try {
+            inventoryQuery.calculateEffectiveStocks(uniqueProductIds)
+                    .forEach((productId, stock) -> listener.accept(new AvailabilityChangeDto(productId, stock)));
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            throw e;
+        }
+        return subscription;
+    }
+
+    @Override
+    public long getTimeoutMillis() {
+        return inventoryProperties.getAvailabilityStream().getTimeoutMillis();
+    }
+
+    /**
+     * 変更のあった商品のうち購読者のいるものを再計算し、値が変わった商品を送信待ちに積む
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.availability-stream.debounce-millis:500}")
+    public void flush() {
+        Set<Long> changedProductIds = availabilitySubscriptionRegistry.filterWatched(availabilityChangeTracker.drain());
+        if (changedProductIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> stocks;
+        try {
+            stocks = inventoryQuery.calculateEffectiveStocks(changedProductIds);
+        } catch (RuntimeException e) {
+            log.warn("Failed to calculate availability for stream, skipping: products={}", changedProductIds.size(), e);
+            return;
+        }
+        availabilitySubscriptionRegistry.publish(stocks);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.aiec.modules.inventory.application.usecase;
+
+import com.example.aiec.modules.inventory.application.port.InventoryJournalQueryPort;
+import com.example.aiec.modules.inventory.application.port.LocationStockBalanceDto;
+import com.example.aiec.modules.inventory.application.service.InventoryJournalService;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.shared.exception.BusinessException;
+import com.example.aiec.modules.shared.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 在庫仕訳照会ユースケース（Port実装）
+ */
+@Service
+@RequiredArgsConstructor
+class InventoryJournalUseCase implements InventoryJournalQueryPort {
+
+    private final InventoryJournalService inventoryJournalService;
+    private final ProductRepository productRepository;
+
+    @Override
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    public List<LocationStockBalanceDto> getStockAt(Long productId, Instant at) {
+        if (at == null) {
+            throw new BusinessException("INVALID_REQUEST", "対象時点を指定してください");
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません");
+        }
+        inventoryJournalService.findJournalStartedAt()
+                .filter(at::isBefore)
+                .ifPresent(startedAt -> {
+                    throw new BusinessException("INVALID_REQUEST", "在庫仕訳の記録開始（" + startedAt + "）より前の時点は指定できません");
+                });
+
+        return inventoryJournalService.balancesAt(productId, at).entrySet().stream()
+                .map(entry -> new LocationStockBalanceDto(
+                        entry.getKey(),
+                        entry.getValue().availableQty(),
+                        entry.getValue().committedQty(),
+                        entry.getValue().reservedTentativeQty(),
+                        entry.getValue().availableQty() - entry.getValue().committedQty()))
+                .toList();
+    }
+}
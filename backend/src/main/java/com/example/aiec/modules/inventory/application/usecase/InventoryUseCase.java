@@ -1,19 +1,34 @@
 package com.example.aiec.modules.inventory.application.usecase;
 
 import com.example.aiec.modules.backoffice.domain.entity.BoUser;
+import com.example.aiec.modules.inventory.application.InventoryProperties;
 import com.example.aiec.modules.inventory.application.port.AdminItemInventoryDto;
 import com.example.aiec.modules.inventory.application.port.AvailabilityDto;
+import com.example.aiec.modules.inventory.application.port.FlashSaleDto;
 import com.example.aiec.modules.inventory.application.port.InventoryCommandPort;
 import com.example.aiec.modules.inventory.application.port.InventoryQueryPort;
 import com.example.aiec.modules.inventory.application.port.InventoryStatusDto;
+import com.example.aiec.modules.inventory.application.port.InventoryStatusListResponse;
+import com.example.aiec.modules.inventory.application.port.InventoryStatusSort;
 import com.example.aiec.modules.inventory.application.port.LocationStockDto;
 import com.example.aiec.modules.inventory.application.port.ReservationDto;
+import com.example.aiec.modules.inventory.application.port.ReservationLineResultDto;
 import com.example.aiec.modules.inventory.application.port.SalesLimitDto;
 import com.example.aiec.modules.inventory.application.port.StockShortageDetail;
 import com.example.aiec.modules.inventory.application.port.UpdateItemInventoryRequest;
+import com.example.aiec.modules.inventory.application.service.AvailabilityChangeTracker;
+import com.example.aiec.modules.inventory.application.service.InventoryJournal;
+import com.example.aiec.modules.inventory.application.service.LocationAvailabilityIndex;
+import com.example.aiec.modules.inventory.application.service.LocationAvailabilityIndex.LocationAvailability;
+import com.example.aiec.modules.inventory.application.service.StockBucketService;
+import com.example.aiec.modules.inventory.application.service.StockLocations;
+import com.example.aiec.modules.inventory.application.service.TentativeReservationCounter;
+import com.example.aiec.modules.inventory.application.service.TentativeReservationStore;
 import com.example.aiec.modules.inventory.domain.entity.InventoryAdjustment;
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry.EntryType;
 import com.example.aiec.modules.inventory.domain.entity.LocationStock;
 import com.example.aiec.modules.inventory.domain.entity.SalesLimit;
+import com.example.aiec.modules.inventory.domain.entity.StockBucket;
 import com.example.aiec.modules.inventory.domain.entity.StockReservation;
 import com.example.aiec.modules.inventory.domain.entity.StockReservation.ReservationType;
 import com.example.aiec.modules.inventory.domain.repository.InventoryAdjustmentRepository;
@@ -32,29 +47,40 @@ import com.example.aiec.modules.shared.exception.ConflictException;
 import com.example.aiec.modules.shared.exception.InsufficientStockException;
 import com.example.aiec.modules.shared.exception.ResourceNotFoundException;
 import com.example.aiec.modules.shared.outbox.application.OutboxEventPublisher;
+import com.example.aiec.modules.shared.outbox.application.OutboxMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 在庫ユースケース（Port実装）
+ * REAL 商品は app.inventory.locations.priority の拠点から優先順に、1 つの仮引当を 1 拠点で引き当てる。
  */
 @Service
 @RequiredArgsConstructor
 class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
 
     private static final int RESERVATION_EXPIRY_MINUTES = 30;
-    private static final int DEFAULT_LOCATION_ID = 1;
+    private static final int MAX_FLASH_BUCKET_COUNT = 64;
+    private static final int MAX_INVENTORY_STATUS_PAGE_SIZE = 200;
 
     private final StockReservationRepository reservationRepository;
     private final ProductRepository productRepository;
@@ -64,22 +90,54 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
     private final LocationStockRepository locationStockRepository;
     private final SalesLimitRepository salesLimitRepository;
     private final OutboxEventPublisher outboxEventPublisher;
+    private final TentativeReservationCounter tentativeReservationCounter;
+    private final InventoryProperties inventoryProperties;
+    private final StockBucketService stockBucketService;
+    private final TentativeReservationStore tentativeReservationStore;
+    private final AvailabilityChangeTracker availabilityChangeTracker;
+    private final StockLocations stockLocations;
+    private final LocationAvailabilityIndex locationAvailabilityIndex;
+    private final InventoryJournal inventoryJournal;
 
     @Override
-    @Transactional(rollbackFor = Exception.class, isolation = Isolation.REPEATABLE_READ)
+    @Transactional(rollbackFor = Exception.class)
     public ReservationDto createReservation(String sessionId, Long productId, Integer quantity) {
+        int flashBucketCount = locationStockRepository.findFlashBucketCount(productId, stockLocations.primaryLocationId()).orElse(0);
+        if (flashBucketCount > 0) {
+            ReservationDto reserved = createFlashSaleReservation(sessionId, productId, quantity, flashBucketCount);
+            if (reserved != null) {
+                return reserved;
+            }
+        }
+
+        if (isAtomicReservation()) {
+            return createReservationAtomically(sessionId, productId, quantity);
+        }
+
         Product product = productRepository.findByIdForUpdate(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
 
         Instant now = Instant.now();
-        var existingReservation = reservationRepository.findActiveTentative(sessionId, productId, now);
+        var existingReservation = tentativeReservationStore.findActive(sessionId, productId, now);
         if (existingReservation.isPresent()) {
             return updateReservation(sessionId, productId, existingReservation.get().getQuantity() + quantity);
         }
 
-        int availableStock = calculateEffectiveStock(product, now);
-        if (quantity > availableStock) {
-            throw new ConflictException("INSUFFICIENT_STOCK", "有効在庫が不足しています");
+        Integer locationId = null;
+        int availableStock;
+        if (product.getAllocationType() == AllocationType.FRAME) {
+            availableStock = calculateFrameEffectiveStock(productId);
+            if (quantity > availableStock) {
+                throw new ConflictException("INSUFFICIENT_STOCK", "有効在庫が不足しています");
+            }
+        } else {
+            Map<Integer, Integer> reservableQtyByLocation = reservableQtyByLocation(productId);
+            locationId = reservableQtyByLocation.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= quantity)
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElseThrow(() -> new ConflictException("INSUFFICIENT_STOCK", "有効在庫が不足しています"));
+            availableStock = sum(reservableQtyByLocation);
         }
 
         StockReservation reservation = new StockReservation();
@@ -87,10 +145,64 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
         reservation.setSessionId(sessionId);
         reservation.setQuantity(quantity);
         reservation.setType(ReservationType.TENTATIVE);
+        reservation.setLocationId(locationId);
         reservation.setExpiresAt(now.plus(RESERVATION_EXPIRY_MINUTES, ChronoUnit.MINUTES));
 
-        reservation = reservationRepository.save(reservation);
-        return ReservationDto.fromEntity(reservation, calculateEffectiveStock(product, Instant.now()));
+        reservation = tentativeReservationStore.save(reservation);
+        tentativeReservationCounter.add(reservation, quantity);
+        return ReservationDto.fromEntity(reservation, availableStock - quantity);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<ReservationLineResultDto> createReservations(String sessionId, Map<Long, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId == null || quantitiesByProductId.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> sortedQuantities = new TreeMap<>(quantitiesByProductId);
+        // フラッシュセール中の商品はバケットから引き当てるため、商品の行ロックを取らない
+        Map<Long, Integer> flashBucketCountByProductId = locationStockRepository.findFlashBucketCounts(
+                        List.copyOf(sortedQuantities.keySet()), stockLocations.primaryLocationId()).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Integer) row[1]));
+        Map<Boolean, List<Long>> productIdsByFlashSale = sortedQuantities.keySet().stream()
+                .collect(Collectors.partitioningBy(flashBucketCountByProductId::containsKey));
+        Map<Long, Product> productsById = new HashMap<>();
+        if (!productIdsByFlashSale.get(false).isEmpty()) {
+            productRepository.findAllByIdInForUpdate(productIdsByFlashSale.get(false))
+                    .forEach(product -> productsById.put(product.getId(), product));
+        }
+        if (!productIdsByFlashSale.get(true).isEmpty()) {
+            productRepository.findAllById(productIdsByFlashSale.get(true))
+                    .forEach(product -> productsById.put(product.getId(), product));
+        }
+
+        Instant now = Instant.now();
+        Map<Long, StockReservation> existingByProductId = tentativeReservationStore.findAllActiveBySession(sessionId, now).stream()
+                .collect(Collectors.toMap(reservation -> reservation.getProduct().getId(), Function.identity(), (left, right) -> left));
+
+        List<ReservationLineResultDto> results = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : sortedQuantities.entrySet()) {
+            Long productId = entry.getKey();
+            Integer quantity = entry.getValue();
+            Product product = productsById.get(productId);
+            if (product == null) {
+                results.add(ReservationLineResultDto.failure(productId, quantity, "ITEM_NOT_FOUND", "商品が見つかりません"));
+                continue;
+            }
+            if (quantity == null || quantity < 1) {
+                results.add(ReservationLineResultDto.failure(productId, quantity, "INVALID_QUANTITY", "数量は1以上である必要があります"));
+                continue;
+            }
+            try {
+                ReservationDto reservation = reserveLine(sessionId, product, existingByProductId.get(productId), quantity,
+                        flashBucketCountByProductId.getOrDefault(productId, 0), now);
+                results.add(ReservationLineResultDto.success(productId, quantity, reservation));
+            } catch (ConflictException e) {
+                results.add(ReservationLineResultDto.failure(productId, quantity, e.getErrorCode(), e.getErrorMessage()));
+            }
+        }
+        return results;
     }
 
     @Override
@@ -98,32 +210,58 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
     public ReservationDto updateReservation(String sessionId, Long productId, Integer newQuantity) {
         Instant now = Instant.now();
 
-        StockReservation reservation = reservationRepository.findActiveTentative(sessionId, productId, now)
+        StockReservation reservation = tentativeReservationStore.findActive(sessionId, productId, now)
                 .orElseThrow(() -> new ResourceNotFoundException("RESERVATION_NOT_FOUND", "引当が見つかりません"));
 
         int diff = newQuantity - reservation.getQuantity();
-        if (diff > 0) {
-            int availableStock = calculateEffectiveStock(reservation.getProduct(), now);
-            if (diff > availableStock) {
-                throw new ConflictException("INSUFFICIENT_STOCK", "有効在庫が不足しています");
-            }
+        if (reservation.getBucketNo() != null) {
+            reserveBucketQty(reservation, diff);
+            reservation.setQuantity(newQuantity);
+            reservation.setExpiresAt(now.plus(RESERVATION_EXPIRY_MINUTES, ChronoUnit.MINUTES));
+            reservation = tentativeReservationStore.save(reservation);
+            return ReservationDto.fromEntity(reservation, calculateEffectiveStock(reservation.getProduct()));
+        }
+        if (isAtomicReservation()) {
+            reserveTentativeQtyAtomically(reservation, diff);
+            reservation.setQuantity(newQuantity);
+            reservation.setExpiresAt(now.plus(RESERVATION_EXPIRY_MINUTES, ChronoUnit.MINUTES));
+            reservation = tentativeReservationStore.save(reservation);
+            return ReservationDto.fromEntity(reservation, calculateEffectiveStock(reservation.getProduct()));
+        }
+
+        // 数量変更は仮引当済みの拠点内で行う
+        Product product = reservation.getProduct();
+        int availableStock;
+        int reservableStock;
+        if (product.getAllocationType() == AllocationType.FRAME) {
+            availableStock = calculateFrameEffectiveStock(productId);
+            reservableStock = availableStock;
+        } else {
+            Map<Integer, Integer> reservableQtyByLocation = reservableQtyByLocation(productId);
+            availableStock = sum(reservableQtyByLocation);
+            reservableStock = reservableQtyByLocation.getOrDefault(stockLocations.resolve(reservation.getLocationId()), 0);
+        }
+        if (diff > reservableStock) {
+            throw new ConflictException("INSUFFICIENT_STOCK", "有効在庫が不足しています");
         }
 
         reservation.setQuantity(newQuantity);
         reservation.setExpiresAt(now.plus(RESERVATION_EXPIRY_MINUTES, ChronoUnit.MINUTES));
-        reservation = reservationRepository.save(reservation);
+        reservation = tentativeReservationStore.save(reservation);
+        tentativeReservationCounter.add(reservation, diff);
 
-        return ReservationDto.fromEntity(reservation, calculateEffectiveStock(reservation.getProduct(), Instant.now()));
+        return ReservationDto.fromEntity(reservation, Math.max(0, availableStock - diff));
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void releaseReservation(String sessionId, Long productId) {
         Instant now = Instant.now();
-        StockReservation reservation = reservationRepository.findActiveTentative(sessionId, productId, now)
+        StockReservation reservation = tentativeReservationStore.findActive(sessionId, productId, now)
                 .orElse(null);
         if (reservation != null) {
-            reservationRepository.delete(reservation);
+            tentativeReservationCounter.add(reservation, -reservation.getQuantity());
+            tentativeReservationStore.delete(reservation);
         }
     }
 
@@ -131,15 +269,20 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
     @Transactional(rollbackFor = Exception.class)
     public void releaseAllReservations(String sessionId) {
         Instant now = Instant.now();
-        List<StockReservation> reservations = reservationRepository.findAllActiveTentativeBySession(sessionId, now);
-        reservationRepository.deleteAll(reservations);
+        List<StockReservation> reservations = tentativeReservationStore.findAllActiveBySession(sessionId, now);
+        for (StockReservation reservation : reservations) {
+            tentativeReservationCounter.add(reservation, -reservation.getQuantity());
+        }
+        tentativeReservationStore.deleteAll(reservations);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void commitReservations(String sessionId, Order order) {
         Instant now = Instant.now();
-        List<StockReservation> tentativeReservations = reservationRepository.findAllActiveTentativeBySession(sessionId, now);
+        List<StockReservation> tentativeReservations = tentativeReservationStore.findAllActiveBySession(sessionId, now).stream()
+                .sorted(Comparator.comparing(reservation -> reservation.getProduct().getId()))
+                .toList();
 
         if (tentativeReservations.isEmpty()) {
             throw new BusinessException("NO_RESERVATIONS", "仮引当が存在しません");
@@ -147,22 +290,41 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
 
         Map<Long, OrderItem> orderItemsByProductId = order.getItems().stream()
                 .collect(Collectors.toMap(item -> item.getProduct().getId(), Function.identity(), (left, right) -> left));
-        List<StockShortageDetail> shortages = new ArrayList<>();
-        Map<Long, LocationStock> locationStockByProductId = new HashMap<>();
+        List<Long> productIds = tentativeReservations.stream()
+                .map(reservation -> reservation.getProduct().getId())
+                .distinct()
+                .toList();
+        Map<Long, Product> productsById = productRepository.findAllByIdInForUpdate(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (productsById.size() != productIds.size()) {
+            throw new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません");
+        }
+        Map<Long, Map<Integer, LocationStock>> locationStocksByProductId = findOrCreateLocationStocksForUpdate(productsById.values().stream()
+                .filter(product -> product.getAllocationType() == AllocationType.REAL)
+                .toList());
+        List<Long> frameProductIds = productsById.values().stream()
+                .filter(product -> product.getAllocationType() != AllocationType.REAL)
+                .map(Product::getId)
+                .toList();
+        Map<Long, SalesLimit> salesLimitByProductId = frameProductIds.isEmpty()
+                ? Map.of()
+                : salesLimitRepository.findByProductIdIn(frameProductIds).stream()
+                        .collect(Collectors.toMap(limit -> limit.getProduct().getId(), Function.identity()));
 
+        List<StockShortageDetail> shortages = new ArrayList<>();
         for (StockReservation reservation : tentativeReservations) {
-            Product product = productRepository.findByIdForUpdate(reservation.getProduct().getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
+            Product product = productsById.get(reservation.getProduct().getId());
             int quantity = reservation.getQuantity();
 
             if (product.getAllocationType() == AllocationType.REAL) {
-                LocationStock locationStock = findOrCreateLocationStockForUpdate(product);
-                locationStockByProductId.put(product.getId(), locationStock);
-                if (quantity > locationStock.remainingQty()) {
-                    shortages.add(new StockShortageDetail(product.getId(), product.getName(), quantity, locationStock.remainingQty()));
+                LocationStock locationStock = locationStocksByProductId.get(product.getId())
+                        .get(stockLocations.resolve(reservation.getLocationId()));
+                int remainingQty = locationStock != null ? locationStock.remainingQty() : 0;
+                if (quantity > remainingQty) {
+                    shortages.add(new StockShortageDetail(product.getId(), product.getName(), quantity, remainingQty));
                 }
             } else {
-                int remainingFrameQty = calculateFrameRemainingQtyExcludingOrder(product.getId(), order.getId());
+                int remainingFrameQty = frameRemainingQty(salesLimitByProductId.get(product.getId()));
                 if (quantity > remainingFrameQty) {
                     shortages.add(new StockShortageDetail(product.getId(), product.getName(), quantity, remainingFrameQty));
                 }
@@ -173,26 +335,35 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
             throw new InsufficientStockException("OUT_OF_STOCK", "在庫が不足している商品があります", shortages);
         }
 
+        List<StockReservation> realReservations = new ArrayList<>();
+        List<StockReservation> frameReservations = new ArrayList<>();
         for (StockReservation reservation : tentativeReservations) {
-            Product product = reservation.getProduct();
+            Product product = productsById.get(reservation.getProduct().getId());
             OrderItem orderItem = orderItemsByProductId.get(product.getId());
             if (orderItem == null) {
                 continue;
             }
 
             if (product.getAllocationType() == AllocationType.REAL) {
-                LocationStock locationStock = locationStockByProductId.get(product.getId());
                 int currentCommitted = orderItem.getCommittedQty() != null ? orderItem.getCommittedQty() : 0;
-                int allocateQty = reservation.getQuantity();
-                orderItem.setCommittedQty(Math.min(orderItem.getQuantity(), currentCommitted + allocateQty));
-                locationStock.setCommittedQty(locationStock.getCommittedQty() + allocateQty);
-                locationStockRepository.save(locationStock);
+                orderItem.setCommittedQty(Math.min(orderItem.getQuantity(), currentCommitted + reservation.getQuantity()));
+                orderItem.setLocationId(stockLocations.resolve(reservation.getLocationId()));
+                if (reservation.getBucketNo() != null) {
+                    stockBucketService.consume(product.getId(), reservation.getBucketNo(), reservation.getQuantity());
+                }
+                realReservations.add(reservation);
             } else {
                 orderItem.setCommittedQty(0);
+                frameReservations.add(reservation);
             }
+        }
 
-            reservationRepository.delete(reservation);
+        tentativeReservationStore.commit(realReservations, frameReservations, order);
+        for (StockReservation reservation : realReservations) {
+            inventoryJournal.record(reservation.getProduct().getId(), stockLocations.resolve(reservation.getLocationId()),
+                    EntryType.COMMIT, 0, reservation.getQuantity(), -reservation.getQuantity(), order.getId());
         }
+        availabilityChangeTracker.markChanged(productIds);
     }
 
     @Override
@@ -209,32 +380,50 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
             throw new BusinessException("ORDER_NOT_CANCELLABLE", "この注文はキャンセルできません");
         }
 
-        Map<Long, Integer> releasedQtyByProductId = new HashMap<>();
+        Map<Long, Map<Integer, Integer>> releasedQtyByProductId = new TreeMap<>();
+        Map<Long, Integer> releasedFrameQtyByProductId = new TreeMap<>();
         for (OrderItem orderItem : order.getItems()) {
             int committedQty = valueOrZero(orderItem.getCommittedQty());
             if (committedQty > 0) {
-                releasedQtyByProductId.merge(orderItem.getProduct().getId(), committedQty, Integer::sum);
+                releasedQtyByProductId.computeIfAbsent(orderItem.getProduct().getId(), id -> new TreeMap<>())
+                        .merge(stockLocations.resolve(orderItem.getLocationId()), committedQty, Integer::sum);
                 orderItem.setCommittedQty(0);
             }
+            if (orderItem.getProduct().getAllocationType() == AllocationType.FRAME) {
+                releasedFrameQtyByProductId.merge(orderItem.getProduct().getId(), valueOrZero(orderItem.getQuantity()), Integer::sum);
+            }
         }
 
-        for (Map.Entry<Long, Integer> entry : releasedQtyByProductId.entrySet()) {
+        for (Map.Entry<Long, Map<Integer, Integer>> entry : releasedQtyByProductId.entrySet()) {
             Long productId = entry.getKey();
-            Integer releasedQty = entry.getValue();
             Product product = productRepository.findByIdForUpdate(productId)
                     .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
-            LocationStock locationStock = findOrCreateLocationStockForUpdate(product);
-            int beforeRemaining = locationStock.remainingQty();
-            locationStock.setCommittedQty(Math.max(0, locationStock.getCommittedQty() - releasedQty));
-            locationStockRepository.save(locationStock);
-            int afterRemaining = locationStock.remainingQty();
-            if (afterRemaining > beforeRemaining) {
-                publishStockAvailabilityIncreased(productId, "ORDER_CANCELLED", releasedQty, orderId);
+            for (Map.Entry<Integer, Integer> released : entry.getValue().entrySet()) {
+                Integer releasedQty = released.getValue();
+                LocationStock locationStock = findOrCreateLocationStockForUpdate(product, released.getKey());
+                int beforeRemaining = locationStock.remainingQty();
+                int committedBefore = locationStock.getCommittedQty();
+                locationStock.setCommittedQty(Math.max(0, committedBefore - releasedQty));
+                locationStockRepository.save(locationStock);
+                inventoryJournal.record(productId, released.getKey(), EntryType.COMMIT_RELEASE,
+                        0, locationStock.getCommittedQty() - committedBefore, 0, orderId);
+                int afterRemaining = locationStock.remainingQty();
+                if (afterRemaining > beforeRemaining) {
+                    publishStockAvailabilityIncreased(productId, "ORDER_CANCELLED", releasedQty, orderId);
+                }
             }
         }
 
+        for (Map.Entry<Long, Integer> entry : releasedFrameQtyByProductId.entrySet()) {
+            productRepository.findByIdForUpdate(entry.getKey())
+                    .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
+            salesLimitRepository.addConsumedQty(entry.getKey(), -entry.getValue());
+        }
+
         List<StockReservation> committedReservations = reservationRepository.findByOrderIdAndType(orderId, ReservationType.COMMITTED);
         reservationRepository.deleteAll(committedReservations);
+        availabilityChangeTracker.markChanged(releasedQtyByProductId.keySet());
+        availabilityChangeTracker.markChanged(releasedFrameQtyByProductId.keySet());
 
         order.setStatus(Order.OrderStatus.CANCELLED);
         orderRepository.save(order);
@@ -246,26 +435,28 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
 
-        Instant now = Instant.now();
-        int tentativeReserved = valueOrZero(reservationRepository.sumTentativeReserved(productId, now));
+        int tentativeReserved;
         int physicalStock;
         int committedReserved;
         int availableStock;
 
         if (product.getAllocationType() == AllocationType.REAL) {
-            LocationStock locationStock = locationStockRepository.findByProductIdAndLocationId(productId, DEFAULT_LOCATION_ID)
-                    .orElse(null);
-            physicalStock = locationStock != null ? valueOrZero(locationStock.getAvailableQty()) : 0;
-            committedReserved = locationStock != null ? valueOrZero(locationStock.getCommittedQty()) : 0;
-            availableStock = Math.max(0, physicalStock - committedReserved - tentativeReserved);
+            physicalStock = 0;
+            committedReserved = 0;
+            tentativeReserved = 0;
+            availableStock = 0;
+            for (LocationStock locationStock : locationStockRepository.findByProductIdAndLocationIdIn(productId, stockLocations.locationIds())) {
+                int bucketFreeQty = bucketFreeQty(locationStock);
+                physicalStock += valueOrZero(locationStock.getAvailableQty());
+                committedReserved += valueOrZero(locationStock.getCommittedQty());
+                tentativeReserved += Math.max(0, valueOrZero(locationStock.getReservedTentativeQty()) - bucketFreeQty);
+                availableStock += locationStock.effectiveQty(bucketFreeQty);
+            }
         } else {
             SalesLimit salesLimit = salesLimitRepository.findByProductId(productId).orElse(null);
             physicalStock = salesLimit != null ? valueOrZero(salesLimit.getFrameLimitQty()) : 0;
-            committedReserved = valueOrZero(orderItemRepository.sumOrderedQuantityByProductAndAllocationType(
-                    productId,
-                    AllocationType.FRAME,
-                    Order.OrderStatus.CANCELLED
-            ));
+            tentativeReserved = salesLimit != null ? valueOrZero(salesLimit.getReservedTentativeQty()) : 0;
+            committedReserved = salesLimit != null ? valueOrZero(salesLimit.getConsumedQty()) : 0;
             availableStock = Math.max(0, physicalStock - committedReserved - tentativeReserved);
         }
 
@@ -281,35 +472,61 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
     @Override
     @Transactional(readOnly = true, rollbackFor = Exception.class)
     public List<InventoryStatusDto> getAllInventoryStatus() {
-        List<Product> products = productRepository.findAll();
-        Instant now = Instant.now();
+        try (Stream<Object[]> rows = locationStockRepository.streamInventoryStatuses(stockLocations.locationIds(), null)) {
+            return rows.map(this::toInventoryStatus).collect(Collectors.toList());
+        }
+    }
 
-        return products.stream().map(product -> {
-            Long productId = product.getId();
-            int tentative = valueOrZero(reservationRepository.sumTentativeReserved(productId, now));
-            LocationStock locationStock = locationStockRepository.findByProductIdAndLocationId(productId, DEFAULT_LOCATION_ID)
-                    .orElse(null);
-            int physicalStock = locationStock != null ? valueOrZero(locationStock.getAvailableQty()) : 0;
-            int committed = locationStock != null ? valueOrZero(locationStock.getCommittedQty()) : 0;
-
-            return InventoryStatusDto.builder()
-                    .productId(productId)
-                    .productName(product.getName())
-                    .physicalStock(physicalStock)
-                    .tentativeReserved(tentative)
-                    .committedReserved(committed)
-                    .availableStock(calculateEffectiveStock(product, now))
-                    .build();
-        }).collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    public InventoryStatusListResponse searchInventoryStatus(Long categoryId, InventoryStatusSort sort, int page, int limit) {
+        int safePage = Math.max(page, 1);
+        int safeLimit = Math.min(Math.max(limit, 1), MAX_INVENTORY_STATUS_PAGE_SIZE);
+        List<InventoryStatusDto> items = locationStockRepository.findInventoryStatuses(
+                        stockLocations.locationIds(),
+                        categoryId,
+                        sort != InventoryStatusSort.PRODUCT_ID,
+                        safeLimit,
+                        (long) (safePage - 1) * safeLimit)
+                .stream()
+                .map(this::toInventoryStatus)
+                .collect(Collectors.toList());
+        return new InventoryStatusListResponse(
+                items,
+                locationStockRepository.countInventoryStatuses(categoryId),
+                safePage,
+                safeLimit
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    public void exportInventoryStatus(Long categoryId, Consumer<InventoryStatusDto> consumer) {
+        try (Stream<Object[]> rows = locationStockRepository.streamInventoryStatuses(stockLocations.locationIds(), categoryId)) {
+            rows.map(this::toInventoryStatus).forEach(consumer);
+        }
+    }
+
+    private InventoryStatusDto toInventoryStatus(Object[] row) {
+        return InventoryStatusDto.builder()
+                .productId(((Number) row[0]).longValue())
+                .productName((String) row[1])
+                .categoryId(row[2] != null ? ((Number) row[2]).longValue() : null)
+                .physicalStock(((Number) row[3]).intValue())
+                .tentativeReserved(((Number) row[4]).intValue())
+                .committedReserved(((Number) row[5]).intValue())
+                .availableStock(((Number) row[6]).intValue())
+                .build();
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public InventoryAdjustment adjustStock(Long productId, Integer quantityDelta, String reason, BoUser admin) {
+    public InventoryAdjustment adjustStock(Long productId, Integer locationId, Integer quantityDelta, String reason, BoUser admin) {
+        Integer targetLocationId = stockLocations.require(locationId);
         Product product = productRepository.findByIdForUpdate(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("PRODUCT_NOT_FOUND", "商品が見つかりません"));
 
-        LocationStock locationStock = findOrCreateLocationStockForUpdate(product);
+        LocationStock locationStock = findOrCreateLocationStockForUpdate(product, targetLocationId);
         Integer quantityBefore = valueOrZero(locationStock.getAvailableQty());
         Integer quantityAfter = quantityBefore + quantityDelta;
         if (quantityAfter < 0) {
@@ -320,6 +537,8 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
         int remainingBefore = locationStock.remainingQty();
         locationStock.setAvailableQty(quantityAfter);
         locationStockRepository.save(locationStock);
+        inventoryJournal.record(productId, targetLocationId, EntryType.ADJUSTMENT, quantityDelta, 0, 0);
+        availabilityChangeTracker.markChanged(productId);
         int remainingAfter = locationStock.remainingQty();
 
         if (remainingAfter > remainingBefore) {
@@ -344,11 +563,11 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
 
-        LocationStock locationStock = locationStockRepository.findByProductIdAndLocationId(productId, DEFAULT_LOCATION_ID)
+        LocationStock locationStock = locationStockRepository.findByProductIdAndLocationId(productId, stockLocations.primaryLocationId())
                 .orElseGet(() -> {
                     LocationStock emptyStock = new LocationStock();
                     emptyStock.setProduct(product);
-                    emptyStock.setLocationId(DEFAULT_LOCATION_ID);
+                    emptyStock.setLocationId(stockLocations.primaryLocationId());
                     emptyStock.setAvailableQty(0);
                     emptyStock.setCommittedQty(0);
                     return emptyStock;
@@ -361,11 +580,9 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
                     return emptyLimit;
                 });
 
-        int consumedQty = valueOrZero(orderItemRepository.sumOrderedQuantityByProductAndAllocationType(
-                productId,
-                AllocationType.FRAME,
-                Order.OrderStatus.CANCELLED
-        ));
+        int consumedQty = product.getAllocationType() == AllocationType.FRAME
+                ? valueOrZero(salesLimit.getConsumedQty())
+                : 0;
 
         return new AdminItemInventoryDto(
                 productId,
@@ -384,12 +601,67 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
         );
     }
 
+    @Override
+    public List<Integer> getStockLocationIds() {
+        return stockLocations.locationIds();
+    }
+
     @Override
     @Transactional(readOnly = true, rollbackFor = Exception.class)
     public Integer calculateEffectiveStock(Long productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
-        return calculateEffectiveStock(product, Instant.now());
+        if (product.getAllocationType() == AllocationType.FRAME) {
+            return calculateFrameEffectiveStock(productId);
+        }
+        LocationAvailability availability = locationAvailabilityIndex.get(productId);
+        return availability.totalFreeQty() + (availability.flashSaleEnabled() ? stockBucketService.freeQty(productId) : 0);
+    }
+
+    @Override
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    public Map<Long, Integer> calculateEffectiveStocks(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<Long> distinctProductIds = new HashSet<>(productIds);
+        List<Product> products = productRepository.findAllById(distinctProductIds);
+        List<Long> realProductIds = products.stream()
+                .filter(product -> product.getAllocationType() != AllocationType.FRAME)
+                .map(Product::getId)
+                .toList();
+        List<Long> frameProductIds = products.stream()
+                .filter(product -> product.getAllocationType() == AllocationType.FRAME)
+                .map(Product::getId)
+                .toList();
+
+        Map<Long, LocationAvailability> availabilityByProductId = realProductIds.isEmpty()
+                ? Map.of()
+                : locationAvailabilityIndex.get(realProductIds);
+        Map<Long, Integer> bucketFreeQtyByProductId = stockBucketService.freeQtyByProductIds(
+                availabilityByProductId.entrySet().stream()
+                        .filter(entry -> entry.getValue().flashSaleEnabled())
+                        .map(Map.Entry::getKey)
+                        .toList());
+        Map<Long, SalesLimit> salesLimitByProductId = frameProductIds.isEmpty()
+                ? Map.of()
+                : salesLimitRepository.findByProductIdIn(frameProductIds).stream()
+                        .collect(Collectors.toMap(limit -> limit.getProduct().getId(), Function.identity()));
+
+        Map<Long, Integer> effectiveStocks = new HashMap<>();
+        for (Product product : products) {
+            Long productId = product.getId();
+            if (product.getAllocationType() == AllocationType.FRAME) {
+                effectiveStocks.put(productId, frameEffectiveStock(salesLimitByProductId.get(productId)));
+            } else {
+                LocationAvailability availability = availabilityByProductId.get(productId);
+                effectiveStocks.put(productId, availability != null
+                        ? availability.totalFreeQty() + bucketFreeQtyByProductId.getOrDefault(productId, 0)
+                        : 0);
+            }
+        }
+        return effectiveStocks;
     }
 
     @Override
@@ -398,12 +670,19 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
         Product product = productRepository.findByIdForUpdate(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
 
-        LocationStock locationStock = findOrCreateLocationStockForUpdate(product);
+        LocationStock locationStock = findOrCreateLocationStockForUpdate(product, stockLocations.primaryLocationId());
         SalesLimit salesLimit = findOrCreateSalesLimitForUpdate(product);
         int remainingBefore = locationStock.remainingQty();
 
-        if (request.getAllocationType() != null) {
+        if (request.getAllocationType() != null && request.getAllocationType() != product.getAllocationType()) {
+            if (locationStock.isFlashSaleEnabled()) {
+                throw new BusinessException("FLASH_SALE_ACTIVE", "フラッシュセール中は引当区分を変更できません");
+            }
+            moveReservedTentativeQty(product, salesLimit, request.getAllocationType());
             product.setAllocationType(request.getAllocationType());
+            if (product.getAllocationType() == AllocationType.FRAME) {
+                rebuildConsumedQty(product, salesLimit);
+            }
         }
         if (request.getLocationStock() != null && request.getLocationStock().getAvailableQty() != null) {
             Integer availableQty = request.getLocationStock().getAvailableQty();
@@ -413,6 +692,8 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
                 throw new BusinessException("INVALID_STOCK_ADJUSTMENT",
                         "在庫調整後の数量が負になります（現在: " + current + ", 調整: " + delta + "）");
             }
+            inventoryJournal.record(productId, locationStock.getLocationId(), EntryType.ADJUSTMENT,
+                    availableQty - valueOrZero(locationStock.getAvailableQty()), 0, 0);
             locationStock.setAvailableQty(availableQty);
         }
         if (request.getSalesLimit() != null && request.getSalesLimit().getFrameLimitQty() != null) {
@@ -429,6 +710,7 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
         productRepository.save(product);
         locationStockRepository.save(locationStock);
         salesLimitRepository.save(salesLimit);
+        availabilityChangeTracker.markChanged(productId);
 
         int remainingAfter = locationStock.remainingQty();
         if (remainingAfter > remainingBefore) {
@@ -438,57 +720,303 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
         return getAdminItemInventory(productId);
     }
 
-    private int calculateEffectiveStock(Product product, Instant now) {
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FlashSaleDto enableFlashSale(Long productId, Integer bucketCount) {
+        if (bucketCount == null || bucketCount < 1 || bucketCount > MAX_FLASH_BUCKET_COUNT) {
+            throw new BusinessException("INVALID_BUCKET_COUNT",
+                    "バケット数は1〜" + MAX_FLASH_BUCKET_COUNT + "の範囲で指定してください");
+        }
+
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
+        if (product.getAllocationType() != AllocationType.REAL) {
+            throw new BusinessException("FLASH_SALE_NOT_SUPPORTED", "フラッシュセールは実在庫商品のみ対象です");
+        }
+
+        LocationStock locationStock = findOrCreateLocationStockForUpdate(product, stockLocations.primaryLocationId());
+        if (locationStock.isFlashSaleEnabled()) {
+            throw new ConflictException("FLASH_SALE_ALREADY_ENABLED", "フラッシュセールは既に開始されています");
+        }
+
+        List<StockBucket> buckets = stockBucketService.carve(product, locationStock, bucketCount);
+        return new FlashSaleDto(
+                productId,
+                bucketCount,
+                buckets.stream().mapToInt(StockBucket::getAllocatedQty).sum(),
+                0
+        );
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void disableFlashSale(Long productId) {
+        productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
+        stockBucketService.merge(productId);
+    }
+
+    /**
+     * フラッシュセール中の商品は、商品行ロックを取らずセッションに対応するバケットから引き当てる。
+     * バケット外の既存引当がある場合や全バケットの空きが足りない場合は null を返し、通常の引当へ委ねる。
+     */
+    private ReservationDto createFlashSaleReservation(String sessionId, Long productId, Integer quantity, int bucketCount) {
+        Instant now = Instant.now();
+        StockReservation existing = tentativeReservationStore.findActive(sessionId, productId, now).orElse(null);
+        if (existing != null) {
+            if (existing.getBucketNo() == null) {
+                return null;
+            }
+            return updateReservation(sessionId, productId, existing.getQuantity() + quantity);
+        }
+
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
+        Integer bucketNo = stockBucketService.reserve(productId, sessionId, bucketCount, quantity);
+        if (bucketNo == null) {
+            return null;
+        }
+
+        StockReservation reservation = new StockReservation();
+        reservation.setProduct(product);
+        reservation.setSessionId(sessionId);
+        reservation.setQuantity(quantity);
+        reservation.setType(ReservationType.TENTATIVE);
+        reservation.setBucketNo(bucketNo);
+        reservation.setExpiresAt(now.plus(RESERVATION_EXPIRY_MINUTES, ChronoUnit.MINUTES));
+
+        reservation = tentativeReservationStore.save(reservation);
+        return ReservationDto.fromEntity(reservation, calculateEffectiveStock(product));
+    }
+
+    /**
+     * 一括引当の 1 明細分の仮引当を追加する（在庫判定はカウンタへの条件付き UPDATE で行う）
+     * フラッシュセール中の商品の新規引当はバケットから行い、全バケットで足りない場合のみ拠点在庫から引き当てる。
+     * フラッシュセール中でない商品は行ロック取得済みであること。
+     */
+    private ReservationDto reserveLine(String sessionId, Product product, StockReservation existing,
+                                       int quantity, int flashBucketCount, Instant now) {
+        StockReservation reservation = existing;
+        Integer bucketNo = null;
+        if (reservation == null && flashBucketCount > 0) {
+            bucketNo = stockBucketService.reserve(product.getId(), sessionId, flashBucketCount, quantity);
+        }
+        if (reservation != null && reservation.getBucketNo() != null) {
+            reserveBucketQty(reservation, quantity);
+        } else if (reservation != null) {
+            reserveTentativeQtyAtomically(reservation, quantity);
+        } else if (bucketNo != null) {
+            reservation = new StockReservation();
+            reservation.setProduct(product);
+            reservation.setSessionId(sessionId);
+            reservation.setQuantity(0);
+            reservation.setType(ReservationType.TENTATIVE);
+            reservation.setBucketNo(bucketNo);
+        } else {
+            Integer locationId = reserveNewTentativeQtyAtomically(product, quantity);
+            reservation = new StockReservation();
+            reservation.setProduct(product);
+            reservation.setSessionId(sessionId);
+            reservation.setQuantity(0);
+            reservation.setType(ReservationType.TENTATIVE);
+            reservation.setLocationId(locationId);
+        }
+        reservation.setQuantity(reservation.getQuantity() + quantity);
+        reservation.setExpiresAt(now.plus(RESERVATION_EXPIRY_MINUTES, ChronoUnit.MINUTES));
+        reservation = tentativeReservationStore.save(reservation);
+        return ReservationDto.fromEntity(reservation, calculateEffectiveStock(product));
+    }
+
+    /**
+     * バケット引当の数量変更は同じバケット内で行う
+     */
+    private void reserveBucketQty(StockReservation reservation, int delta) {
+        if (delta <= 0) {
+            tentativeReservationCounter.add(reservation, delta);
+            return;
+        }
+        if (!stockBucketService.reserveIn(reservation.getProduct().getId(), reservation.getBucketNo(), delta)) {
+            throw new ConflictException("INSUFFICIENT_STOCK", "有効在庫が不足しています");
+        }
+    }
+
+    /**
+     * 商品行ロックを取らず、カウンタ行への条件付き UPDATE で在庫判定と加算を同時に行う。
+     * 同一セッションの同時追加はカウンタ行の行ロックで直列化されるため、既存引当の検索は加算後に行う。
+     * 既存引当と異なる拠点に加算した場合は、既存引当の拠点へ付け替える。
+     */
+    private ReservationDto createReservationAtomically(String sessionId, Long productId, Integer quantity) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("ITEM_NOT_FOUND", "商品が見つかりません"));
+
+        Integer locationId = reserveNewTentativeQtyAtomically(product, quantity);
+
+        Instant now = Instant.now();
+        StockReservation existing = tentativeReservationStore.findActive(sessionId, productId, now).orElse(null);
+        StockReservation reservation;
+        if (existing != null) {
+            if (!Objects.equals(stockLocations.resolve(existing.getLocationId()), stockLocations.resolve(locationId))) {
+                tentativeReservationCounter.add(productId, product.getAllocationType(), locationId, -quantity);
+                reserveTentativeQtyAtomically(existing, quantity);
+            }
+            reservation = existing;
+        } else {
+            reservation = new StockReservation();
+            reservation.setProduct(product);
+            reservation.setSessionId(sessionId);
+            reservation.setQuantity(0);
+            reservation.setType(ReservationType.TENTATIVE);
+            reservation.setLocationId(locationId);
+        }
+        reservation.setQuantity(reservation.getQuantity() + quantity);
+        reservation.setExpiresAt(now.plus(RESERVATION_EXPIRY_MINUTES, ChronoUnit.MINUTES));
+
+        reservation = tentativeReservationStore.save(reservation);
+        return ReservationDto.fromEntity(reservation, calculateEffectiveStock(product));
+    }
+
+    /**
+     * 新規の仮引当数量を加算する（REAL 商品は数量が足りる拠点を優先順に選ぶ）
+     *
+     * @return REAL 商品は加算した拠点、FRAME 商品は null
+     */
+    private Integer reserveNewTentativeQtyAtomically(Product product, int quantity) {
         if (product.getAllocationType() == AllocationType.FRAME) {
-            return calculateFrameEffectiveStock(product.getId(), now);
+            if (!tentativeReservationCounter.tryReserve(product, null, quantity)) {
+                throw new ConflictException("INSUFFICIENT_STOCK", "有効在庫が不足しています");
+            }
+            return null;
+        }
+        Integer locationId = tentativeReservationCounter.tryReserveByPriority(product, quantity);
+        if (locationId == null) {
+            throw new ConflictException("INSUFFICIENT_STOCK", "有効在庫が不足しています");
         }
-        return calculateRealEffectiveStock(product.getId(), now);
+        return locationId;
     }
 
-    private int calculateRealEffectiveStock(Long productId, Instant now) {
-        LocationStock locationStock = locationStockRepository.findByProductIdAndLocationId(productId, DEFAULT_LOCATION_ID)
-                .orElse(null);
-        int remainingQty = locationStock != null ? locationStock.remainingQty() : 0;
-        int tentativeQty = valueOrZero(reservationRepository.sumTentativeReserved(productId, now));
-        return Math.max(0, remainingQty - tentativeQty);
+    /**
+     * 既存の仮引当の数量を仮引当済みの拠点内で増減する
+     */
+    private void reserveTentativeQtyAtomically(StockReservation reservation, int delta) {
+        if (delta <= 0) {
+            tentativeReservationCounter.add(reservation, delta);
+            return;
+        }
+        if (!tentativeReservationCounter.tryReserve(reservation.getProduct(), reservation.getLocationId(), delta)) {
+            throw new ConflictException("INSUFFICIENT_STOCK", "有効在庫が不足しています");
+        }
     }
 
-    private int calculateFrameEffectiveStock(Long productId, Instant now) {
-        SalesLimit salesLimit = salesLimitRepository.findByProductId(productId).orElse(null);
-        int frameLimitQty = salesLimit != null ? valueOrZero(salesLimit.getFrameLimitQty()) : 0;
-        int consumedQty = valueOrZero(orderItemRepository.sumOrderedQuantityByProductAndAllocationType(
-                productId,
-                AllocationType.FRAME,
-                Order.OrderStatus.CANCELLED
-        ));
-        int tentativeQty = valueOrZero(reservationRepository.sumTentativeReserved(productId, now));
+    private boolean isAtomicReservation() {
+        return inventoryProperties.getReservation().getStrategy() == InventoryProperties.ReservationStrategy.ATOMIC;
+    }
+
+    private int calculateEffectiveStock(Product product) {
+        if (product.getAllocationType() == AllocationType.FRAME) {
+            return calculateFrameEffectiveStock(product.getId());
+        }
+        return calculateRealEffectiveStock(product.getId());
+    }
+
+    /**
+     * 拠点在庫のカウンタだけで引き当てられる拠点別の数量（優先順、フラッシュセールのバケット空き数量は含めない）
+     */
+    private Map<Integer, Integer> reservableQtyByLocation(Long productId) {
+        Map<Integer, LocationStock> locationStockByLocationId = locationStockRepository
+                .findByProductIdAndLocationIdIn(productId, stockLocations.locationIds()).stream()
+                .collect(Collectors.toMap(LocationStock::getLocationId, Function.identity()));
+        Map<Integer, Integer> reservableQtyByLocation = new LinkedHashMap<>();
+        for (Integer locationId : stockLocations.locationIds()) {
+            LocationStock locationStock = locationStockByLocationId.get(locationId);
+            reservableQtyByLocation.put(locationId, locationStock != null ? locationStock.effectiveQty() : 0);
+        }
+        return reservableQtyByLocation;
+    }
+
+    /**
+     * 引当直後の応答に使うため、インデックスを介さず拠点在庫を読んで集計する
+     */
+    private int calculateRealEffectiveStock(Long productId) {
+        return locationStockRepository.findByProductIdAndLocationIdIn(productId, stockLocations.locationIds()).stream()
+                .mapToInt(locationStock -> locationStock.effectiveQty(bucketFreeQty(locationStock)))
+                .sum();
+    }
+
+    /**
+     * フラッシュセール中はバケットへ切り出した数量が仮引当カウンタに含まれるため、バケットの空き数量を有効在庫へ戻す
+     */
+    private int bucketFreeQty(LocationStock locationStock) {
+        if (!locationStock.isFlashSaleEnabled()) {
+            return 0;
+        }
+        return stockBucketService.freeQty(locationStock.getProduct().getId());
+    }
+
+    private int calculateFrameEffectiveStock(Long productId) {
+        return frameEffectiveStock(salesLimitRepository.findByProductId(productId).orElse(null));
+    }
+
+    private int frameEffectiveStock(SalesLimit salesLimit) {
+        if (salesLimit == null) {
+            return 0;
+        }
+        int frameLimitQty = valueOrZero(salesLimit.getFrameLimitQty());
+        int consumedQty = valueOrZero(salesLimit.getConsumedQty());
+        int tentativeQty = valueOrZero(salesLimit.getReservedTentativeQty());
         return Math.max(0, frameLimitQty - consumedQty - tentativeQty);
     }
 
-    private int calculateFrameRemainingQtyExcludingOrder(Long productId, Long excludedOrderId) {
-        SalesLimit salesLimit = salesLimitRepository.findByProductId(productId).orElse(null);
-        int frameLimitQty = salesLimit != null ? valueOrZero(salesLimit.getFrameLimitQty()) : 0;
-        int consumedQty = valueOrZero(orderItemRepository.sumOrderedQuantityByProductAndAllocationTypeExcludingOrder(
-                productId,
-                AllocationType.FRAME,
-                Order.OrderStatus.CANCELLED,
-                excludedOrderId
-        ));
-        return Math.max(0, frameLimitQty - consumedQty);
+    private int frameRemainingQty(SalesLimit salesLimit) {
+        if (salesLimit == null) {
+            return 0;
+        }
+        return Math.max(0, valueOrZero(salesLimit.getFrameLimitQty()) - valueOrZero(salesLimit.getConsumedQty()));
     }
 
-    private LocationStock findOrCreateLocationStockForUpdate(Product product) {
-        return locationStockRepository.findByProductIdAndLocationIdForUpdate(product.getId(), DEFAULT_LOCATION_ID)
+    private LocationStock findOrCreateLocationStockForUpdate(Product product, Integer locationId) {
+        return locationStockRepository.findByProductIdAndLocationIdForUpdate(product.getId(), locationId)
                 .orElseGet(() -> {
                     LocationStock created = new LocationStock();
                     created.setProduct(product);
-                    created.setLocationId(DEFAULT_LOCATION_ID);
+                    created.setLocationId(locationId);
                     created.setAvailableQty(0);
                     created.setCommittedQty(0);
                     return locationStockRepository.save(created);
                 });
     }
 
+    /**
+     * 複数商品の全拠点の拠点在庫を 1 文で行ロックし（商品ID → 拠点ID → 拠点在庫）、既定拠点の行がなければ作成する
+     */
+    private Map<Long, Map<Integer, LocationStock>> findOrCreateLocationStocksForUpdate(List<Product> products) {
+        if (products.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Map<Integer, LocationStock>> locationStocksByProductId = new HashMap<>();
+        for (LocationStock locationStock : locationStockRepository.findByProductIdInAndLocationIdInForUpdate(
+                products.stream().map(Product::getId).toList(), stockLocations.locationIds())) {
+            locationStocksByProductId.computeIfAbsent(locationStock.getProduct().getId(), id -> new HashMap<>())
+                    .put(locationStock.getLocationId(), locationStock);
+        }
+        Integer primaryLocationId = stockLocations.primaryLocationId();
+        List<LocationStock> created = new ArrayList<>();
+        for (Product product : products) {
+            if (!locationStocksByProductId.getOrDefault(product.getId(), Map.of()).containsKey(primaryLocationId)) {
+                LocationStock locationStock = new LocationStock();
+                locationStock.setProduct(product);
+                locationStock.setLocationId(primaryLocationId);
+                locationStock.setAvailableQty(0);
+                locationStock.setCommittedQty(0);
+                created.add(locationStock);
+            }
+        }
+        for (LocationStock locationStock : locationStockRepository.saveAll(created)) {
+            locationStocksByProductId.computeIfAbsent(locationStock.getProduct().getId(), id -> new HashMap<>())
+                    .put(locationStock.getLocationId(), locationStock);
+        }
+        return locationStocksByProductId;
+    }
+
     private SalesLimit findOrCreateSalesLimitForUpdate(Product product) {
         return salesLimitRepository.findByProductIdForUpdate(product.getId())
                 .orElseGet(() -> {
@@ -499,6 +1027,40 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
                 });
     }
 
+    /**
+     * 引当区分の変更に合わせて仮引当カウンタを保持先（拠点在庫 / 枠在庫）間で付け替える
+     * 枠在庫から戻す分は既定拠点に計上し、枠在庫へ移した仮引当からは引当拠点を外す。
+     */
+    private void moveReservedTentativeQty(Product product, SalesLimit salesLimit, AllocationType newAllocationType) {
+        Integer primaryLocationId = stockLocations.primaryLocationId();
+        if (product.getAllocationType() == AllocationType.FRAME) {
+            int reservedQty = valueOrZero(salesLimit.getReservedTentativeQty());
+            tentativeReservationCounter.add(product.getId(), AllocationType.FRAME, primaryLocationId, -reservedQty);
+            tentativeReservationCounter.add(product.getId(), newAllocationType, primaryLocationId, reservedQty);
+            return;
+        }
+        int reservedQty = 0;
+        for (LocationStock locationStock : locationStockRepository.findByProductIdAndLocationIdIn(product.getId(), stockLocations.locationIds())) {
+            int locationReservedQty = valueOrZero(locationStock.getReservedTentativeQty());
+            tentativeReservationCounter.add(product.getId(), product.getAllocationType(), locationStock.getLocationId(), -locationReservedQty);
+            reservedQty += locationReservedQty;
+        }
+        tentativeReservationCounter.add(product.getId(), newAllocationType, primaryLocationId, reservedQty);
+        tentativeReservationStore.clearLocationId(product.getId());
+    }
+
+    /**
+     * 枠在庫へ切り替えた商品の消費数量カウンタを注文明細から再計算する
+     */
+    private void rebuildConsumedQty(Product product, SalesLimit salesLimit) {
+        int consumedQty = valueOrZero(orderItemRepository.sumOrderedQuantityByProductExcludingCancelled(
+                product.getId(),
+                Order.OrderStatus.CANCELLED
+        ));
+        salesLimitRepository.updateConsumedQty(product.getId(), consumedQty);
+        salesLimit.setConsumedQty(consumedQty);
+    }
+
     private void publishStockAvailabilityIncreased(Long productId, String reason, Integer increasedBy, Long orderId) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("productId", productId);
@@ -507,7 +1069,11 @@ class InventoryUseCase implements InventoryQueryPort, InventoryCommandPort {
         if (orderId != null) {
             payload.put("orderId", orderId);
         }
-        outboxEventPublisher.publish("STOCK_AVAILABILITY_INCREASED", String.valueOf(productId), payload);
+        outboxEventPublisher.publish("STOCK_AVAILABILITY_INCREASED", OutboxMessage.aggregateKey("product", productId), payload);
+    }
+
+    private int sum(Map<Integer, Integer> quantities) {
+        return quantities.values().stream().mapToInt(Integer::intValue).sum();
     }
 
     private int valueOrZero(Integer value) {
@@ -0,0 +1,70 @@
+package com.example.aiec.modules.inventory.application.usecase;
+
+import com.example.aiec.modules.backoffice.domain.entity.BoUser;
+import com.example.aiec.modules.inventory.application.job.StockImportJob;
+import com.example.aiec.modules.inventory.application.port.StockImportCommandPort;
+import com.example.aiec.modules.inventory.application.port.StockImportDto;
+import com.example.aiec.modules.inventory.application.port.StockImportFormat;
+import com.example.aiec.modules.shared.job.JobProperties;
+import lombok.RequiredArgsConstructor;
+import org.jobrunr.jobs.JobId;
+import org.jobrunr.scheduling.JobScheduler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * 在庫一括取込ユースケース（Port実装）
+ * 受け付けたファイルは取込ディレクトリへ書き出してから取込ジョブに渡す。
+ */
+@Service
+@RequiredArgsConstructor
+class StockImportUseCase implements StockImportCommandPort {
+
+    private static final DateTimeFormatter FILE_TS_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    private final JobProperties jobProperties;
+    private final JobScheduler jobScheduler;
+    private final StockImportJob stockImportJob;
+
+    @Override
+    public StockImportDto submitStockImport(StockImportFormat format, InputStream content, BoUser admin) {
+        Path inputDir = Paths.get(jobProperties.getStockImport().getInputDir());
+        String fileName = "stock-import-" + FILE_TS_FORMATTER.format(Instant.now()) + "-"
+                + UUID.randomUUID().toString().substring(0, 8) + format.getExtension();
+        Path file = inputDir.resolve(fileName);
+        Path tempFile = inputDir.resolve(fileName + ".tmp");
+
+        try {
+            Files.createDirectories(inputDir);
+            Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            moveAtomically(tempFile, file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to store stock import file: " + fileName, e);
+        }
+
+        String filePath = file.toString();
+        String adjustedBy = admin.getEmail();
+        JobId jobId = jobScheduler.enqueue(() -> stockImportJob.run(filePath, adjustedBy));
+        return new StockImportDto(jobId.toString(), fileName, format);
+    }
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
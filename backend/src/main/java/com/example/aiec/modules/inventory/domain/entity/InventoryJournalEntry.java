@@ -0,0 +1,60 @@
+package com.example.aiec.modules.inventory.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 在庫仕訳
+ * 拠点在庫の有効在庫を構成する各数量の増減を 1 行で表す（追記のみで更新・削除しない）。
+ */
+@Entity
+@Table(name = "inventory_journal")
+@Data
+@NoArgsConstructor
+public class InventoryJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "location_id", nullable = false)
+    private Integer locationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 30)
+    private EntryType entryType;
+
+    @Column(name = "available_delta", nullable = false)
+    private Integer availableDelta;
+
+    @Column(name = "committed_delta", nullable = false)
+    private Integer committedDelta;
+
+    @Column(name = "tentative_delta", nullable = false)
+    private Integer tentativeDelta;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+
+    /**
+     * 仕訳種別
+     */
+    public enum EntryType {
+        ADJUSTMENT,      // 在庫数の調整（available）
+        RESERVATION,     // 仮引当（tentative +）
+        RELEASE,         // 仮引当の解放（tentative -）
+        COMMIT,          // 本引当への振り替え（tentative - / committed +）
+        COMMIT_RELEASE,  // 本引当の解放（committed -）
+        ALLOCATION,      // 枠在庫商品の本引当（committed +）
+        CORRECTION       // 整合性検証による補正
+    }
+}
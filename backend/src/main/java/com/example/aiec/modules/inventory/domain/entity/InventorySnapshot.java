@@ -0,0 +1,43 @@
+package com.example.aiec.modules.inventory.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 拠点在庫スナップショット
+ * last_journal_id までの在庫仕訳を反映済みの拠点在庫の値。時点在庫はこの値と以降の仕訳の合計で求める。
+ */
+@Entity
+@Table(name = "inventory_snapshots")
+@Data
+@NoArgsConstructor
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "location_id", nullable = false)
+    private Integer locationId;
+
+    @Column(name = "available_qty", nullable = false)
+    private Integer availableQty;
+
+    @Column(name = "committed_qty", nullable = false)
+    private Integer committedQty;
+
+    @Column(name = "reserved_tentative_qty", nullable = false)
+    private Integer reservedTentativeQty;
+
+    @Column(name = "last_journal_id", nullable = false)
+    private Long lastJournalId;
+
+    @Column(name = "taken_at", nullable = false)
+    private Instant takenAt;
+}
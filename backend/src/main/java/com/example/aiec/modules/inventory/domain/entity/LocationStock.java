@@ -42,6 +42,18 @@ public class LocationStock {
     @Column(name = "committed_qty", nullable = false)
     private Integer committedQty;
 
+    /**
+     * 仮引当数量（集計カウンタ）。更新は LocationStockRepository の原子的 UPDATE のみで行う
+     */
+    @Column(name = "reserved_tentative_qty", nullable = false, insertable = false, updatable = false)
+    private Integer reservedTentativeQty = 0;
+
+    /**
+     * フラッシュセールのバケット数（0 は無効）。バケットへ切り出した数量は reservedTentativeQty に含まれる
+     */
+    @Column(name = "flash_bucket_count", nullable = false)
+    private Integer flashBucketCount = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -93,4 +105,20 @@ public class LocationStock {
     public int remainingQty() {
         return Math.max(0, availableQty - committedQty);
     }
+
+    public int effectiveQty() {
+        return effectiveQty(0);
+    }
+
+    /**
+     * フラッシュセール中のバケット空き数量を含めた有効在庫
+     */
+    public int effectiveQty(int bucketFreeQty) {
+        int tentativeQty = reservedTentativeQty != null ? reservedTentativeQty : 0;
+        return Math.max(0, availableQty - committedQty - tentativeQty + bucketFreeQty);
+    }
+
+    public boolean isFlashSaleEnabled() {
+        return flashBucketCount != null && flashBucketCount > 0;
+    }
 }
@@ -36,6 +36,18 @@ public class SalesLimit {
     @Column(name = "frame_limit_qty", nullable = false)
     private Integer frameLimitQty;
 
+    /**
+     * 仮引当数量（集計カウンタ）。更新は SalesLimitRepository の原子的 UPDATE のみで行う
+     */
+    @Column(name = "reserved_tentative_qty", nullable = false, insertable = false, updatable = false)
+    private Integer reservedTentativeQty = 0;
+
+    /**
+     * 消費数量（キャンセル以外の注文数量の集計カウンタ）。更新は SalesLimitRepository の原子的 UPDATE のみで行う
+     */
+    @Column(name = "consumed_qty", nullable = false, insertable = false, updatable = false)
+    private Integer consumedQty = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
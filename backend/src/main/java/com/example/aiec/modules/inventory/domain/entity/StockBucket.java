@@ -0,0 +1,61 @@
+package com.example.aiec.modules.inventory.domain.entity;
+
+import com.example.aiec.modules.product.domain.entity.Product;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * フラッシュセール用在庫バケット
+ * 拠点在庫の有効在庫を複数行に切り出し、仮引当の更新先を分散させる。
+ */
+@Entity
+@Table(name = "stock_buckets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_buckets_product_bucket", columnNames = {"product_id", "bucket_no"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "bucket_no", nullable = false)
+    private Integer bucketNo;
+
+    @Column(name = "allocated_qty", nullable = false)
+    private Integer allocatedQty;
+
+    @Column(name = "reserved_qty", nullable = false)
+    private Integer reservedQty;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+        updatedAt = Instant.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = Instant.now();
+    }
+
+    public int freeQty() {
+        return Math.max(0, allocatedQty - reservedQty);
+    }
+}
@@ -52,6 +52,18 @@ public class StockReservation {
     @Column(name = "expires_at")
     private Instant expiresAt;
 
+    /**
+     * フラッシュセールのバケット番号（バケットから仮引当した場合のみ）
+     */
+    @Column(name = "bucket_no")
+    private Integer bucketNo;
+
+    /**
+     * 引当拠点（null は既定拠点。FRAME 商品とバケット引当では使わない）
+     */
+    @Column(name = "location_id")
+    private Integer locationId;
+
     // 監査カラム
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -0,0 +1,112 @@
+package com.example.aiec.modules.inventory.domain.repository;
+
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 在庫仕訳リポジトリ
+ * 仕訳の書き込みは InventoryJournal が JDBC のバッチ INSERT で行う。
+ */
+@Repository
+public interface InventoryJournalRepository extends JpaRepository<InventoryJournalEntry, Long> {
+
+    /**
+     * 指定時点で最新のスナップショット以降、指定時点までの仕訳の拠点別合計
+     *
+     * @return [locationId, availableDelta, committedDelta, tentativeDelta] の配列リスト
+     */
+    @Query(value = """
+            SELECT j.location_id, SUM(j.available_delta), SUM(j.committed_delta), SUM(j.tentative_delta)
+            FROM inventory_journal j
+            LEFT JOIN (
+                SELECT DISTINCT ON (s.location_id) s.location_id, s.last_journal_id
+                FROM inventory_snapshots s
+                WHERE s.product_id = :productId AND s.taken_at <= :at
+                ORDER BY s.location_id, s.taken_at DESC, s.id DESC
+            ) b ON b.location_id = j.location_id
+            WHERE j.product_id = :productId
+              AND j.recorded_at <= :at
+              AND j.id > COALESCE(b.last_journal_id, 0)
+            GROUP BY j.location_id
+            """, nativeQuery = true)
+    List<Object[]> sumDeltasSinceSnapshot(@Param("productId") Long productId, @Param("at") Instant at);
+
+    /**
+     * 指定 ID より後に仕訳のある商品 ID を昇順で取得（商品 ID によるキーセットページング）
+     */
+    @Query(value = """
+            SELECT DISTINCT product_id
+            FROM inventory_journal
+            WHERE id > :afterJournalId AND product_id > :afterProductId
+            ORDER BY product_id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findProductIdsJournaledAfter(@Param("afterJournalId") long afterJournalId,
+                                            @Param("afterProductId") long afterProductId,
+                                            @Param("limit") int limit);
+
+    /**
+     * 拠点在庫の現在値と、最新スナップショットにそれ以降の全仕訳を適用した値
+     *
+     * @return [availableQty, committedQty, journalAvailableQty, journalCommittedQty]（拠点在庫がない場合は空）
+     */
+    @Query(value = """
+            SELECT ls.available_qty, ls.committed_qty,
+                   COALESCE(s.available_qty, 0) + COALESCE(t.available_delta, 0),
+                   COALESCE(s.committed_qty, 0) + COALESCE(t.committed_delta, 0)
+            FROM location_stocks ls
+            LEFT JOIN LATERAL (
+                SELECT s.available_qty, s.committed_qty, s.last_journal_id
+                FROM inventory_snapshots s
+                WHERE s.product_id = ls.product_id AND s.location_id = ls.location_id
+                ORDER BY s.id DESC
+                LIMIT 1
+            ) s ON TRUE
+            LEFT JOIN LATERAL (
+                SELECT SUM(j.available_delta) AS available_delta, SUM(j.committed_delta) AS committed_delta
+                FROM inventory_journal j
+                WHERE j.product_id = ls.product_id AND j.location_id = ls.location_id
+                  AND j.id > COALESCE(s.last_journal_id, 0)
+            ) t ON TRUE
+            WHERE ls.product_id = :productId AND ls.location_id = :locationId AND ls.is_deleted = FALSE
+            """, nativeQuery = true)
+    List<Object[]> findReplayedBalance(@Param("productId") Long productId, @Param("locationId") Integer locationId);
+
+    /**
+     * 商品 ID 範囲内で、在庫数・引当済数量が仕訳の再生結果と一致しない拠点在庫を取得
+     *
+     * @return [productId, locationId, availableQty, committedQty, journalAvailableQty, journalCommittedQty] の配列リスト
+     */
+    @Query(value = """
+            SELECT ls.product_id, ls.location_id, ls.available_qty, ls.committed_qty,
+                   COALESCE(s.available_qty, 0) + COALESCE(t.available_delta, 0) AS journal_available_qty,
+                   COALESCE(s.committed_qty, 0) + COALESCE(t.committed_delta, 0) AS journal_committed_qty
+            FROM location_stocks ls
+            LEFT JOIN LATERAL (
+                SELECT s.available_qty, s.committed_qty, s.last_journal_id
+                FROM inventory_snapshots s
+                WHERE s.product_id = ls.product_id AND s.location_id = ls.location_id
+                ORDER BY s.id DESC
+                LIMIT 1
+            ) s ON TRUE
+            LEFT JOIN LATERAL (
+                SELECT SUM(j.available_delta) AS available_delta, SUM(j.committed_delta) AS committed_delta
+                FROM inventory_journal j
+                WHERE j.product_id = ls.product_id AND j.location_id = ls.location_id
+                  AND j.id > COALESCE(s.last_journal_id, 0)
+            ) t ON TRUE
+            WHERE ls.product_id BETWEEN :fromProductId AND :toProductId
+              AND ls.is_deleted = FALSE
+              AND (ls.available_qty <> COALESCE(s.available_qty, 0) + COALESCE(t.available_delta, 0)
+                   OR ls.committed_qty <> COALESCE(s.committed_qty, 0) + COALESCE(t.committed_delta, 0))
+            ORDER BY ls.product_id, ls.location_id
+            """, nativeQuery = true)
+    List<Object[]> findReplayMismatches(@Param("fromProductId") long fromProductId,
+                                        @Param("toProductId") long toProductId);
+}
@@ -0,0 +1,63 @@
+package com.example.aiec.modules.inventory.domain.repository;
+
+import com.example.aiec.modules.inventory.domain.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 拠点在庫スナップショットリポジトリ
+ */
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    /**
+     * 指定時点以前で拠点ごとに最新のスナップショット
+     */
+    @Query(value = """
+            SELECT DISTINCT ON (s.location_id) s.*
+            FROM inventory_snapshots s
+            WHERE s.product_id = :productId AND s.taken_at <= :at
+            ORDER BY s.location_id, s.taken_at DESC, s.id DESC
+            """, nativeQuery = true)
+    List<InventorySnapshot> findLatestByProductIdAt(@Param("productId") Long productId, @Param("at") Instant at);
+
+    /**
+     * 最初のスナップショットの取得日時（仕訳の記録開始時点）
+     */
+    @Query("SELECT MIN(s.takenAt) FROM InventorySnapshot s")
+    Optional<Instant> findEarliestTakenAt();
+
+    /**
+     * スナップショットへ反映済みの仕訳 ID の最大値
+     */
+    @Query("SELECT COALESCE(MAX(s.lastJournalId), 0) FROM InventorySnapshot s")
+    long findMaxLastJournalId();
+
+    /**
+     * 商品の全拠点の拠点在庫の現在値を、反映済みの仕訳 ID とあわせて記録する
+     * 呼び出し側で拠点在庫の行ロックを取得し、仕訳を書き込み中のトランザクションの完了を待ってから実行すること。
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO inventory_snapshots
+                (product_id, location_id, available_qty, committed_qty, reserved_tentative_qty, last_journal_id, taken_at)
+            SELECT ls.product_id, ls.location_id, ls.available_qty, ls.committed_qty, ls.reserved_tentative_qty,
+                   COALESCE((
+                       SELECT MAX(j.id)
+                       FROM inventory_journal j
+                       WHERE j.product_id = ls.product_id AND j.location_id = ls.location_id
+                   ), 0),
+                   :takenAt
+            FROM location_stocks ls
+            WHERE ls.product_id IN (:productIds) AND ls.is_deleted = FALSE
+            """, nativeQuery = true)
+    int insertFromLocationStocks(@Param("productIds") Collection<Long> productIds, @Param("takenAt") Instant takenAt);
+}
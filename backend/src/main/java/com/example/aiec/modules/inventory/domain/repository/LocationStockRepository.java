@@ -2,13 +2,20 @@ package com.example.aiec.modules.inventory.domain.repository;
 
 import com.example.aiec.modules.inventory.domain.entity.LocationStock;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 拠点在庫リポジトリ
@@ -16,10 +23,258 @@ import java.util.Optional;
 @Repository
 public interface LocationStockRepository extends JpaRepository<LocationStock, Long> {
 
+    /**
+     * 在庫状況の集計 SQL（[productId, productName, categoryId, physicalStock, tentativeReserved, committedReserved, availableStock]）
+     * 引当対象拠点の合計・枠在庫・バケット空き数量を LEFT JOIN し、商品ごとの在庫状況を 1 文で算出する。
+     * REAL 商品の有効在庫は拠点ごとに 0 で下限を取った値の合計にバケット空き数量を加えたもの。
+     */
+    String INVENTORY_STATUS_SQL = """
+            SELECT * FROM (
+                SELECT p.id AS product_id,
+                       p.name AS product_name,
+                       p.category_id,
+                       COALESCE(ls.available_qty, 0) AS physical_stock,
+                       CASE WHEN p.allocation_type = 'FRAME'
+                            THEN COALESCE(sl.reserved_tentative_qty, 0)
+                            ELSE GREATEST(COALESCE(ls.reserved_tentative_qty, 0) - COALESCE(b.free_qty, 0), 0)
+                       END AS tentative_reserved,
+                       COALESCE(ls.committed_qty, 0) AS committed_reserved,
+                       CASE WHEN p.allocation_type = 'FRAME'
+                            THEN GREATEST(COALESCE(sl.frame_limit_qty, 0) - COALESCE(sl.consumed_qty, 0)
+                                          - COALESCE(sl.reserved_tentative_qty, 0), 0)
+                            ELSE COALESCE(ls.free_qty, 0) + COALESCE(b.free_qty, 0)
+                       END AS available_stock
+                FROM products p
+                LEFT JOIN (
+                    SELECT product_id,
+                           SUM(available_qty) AS available_qty,
+                           SUM(committed_qty) AS committed_qty,
+                           SUM(reserved_tentative_qty) AS reserved_tentative_qty,
+                           SUM(GREATEST(available_qty - committed_qty - reserved_tentative_qty, 0)) AS free_qty
+                    FROM location_stocks
+                    WHERE location_id IN (:locationIds) AND is_deleted = FALSE
+                    GROUP BY product_id
+                ) ls ON ls.product_id = p.id
+                LEFT JOIN sales_limits sl
+                       ON sl.product_id = p.id AND sl.is_deleted = FALSE
+                LEFT JOIN (
+                    SELECT product_id, SUM(allocated_qty - reserved_qty) AS free_qty
+                    FROM stock_buckets
+                    GROUP BY product_id
+                ) b ON b.product_id = p.id
+                WHERE p.is_deleted = FALSE
+                  AND (CAST(:categoryId AS BIGINT) IS NULL OR p.category_id = :categoryId)
+            ) s
+            """;
+
     Optional<LocationStock> findByProductIdAndLocationId(Long productId, Integer locationId);
 
+    List<LocationStock> findByProductIdInAndLocationId(Collection<Long> productIds, Integer locationId);
+
+    List<LocationStock> findByProductIdAndLocationIdIn(Long productId, Collection<Integer> locationIds);
+
+    /**
+     * 複数商品の複数拠点の在庫を 1 文で取得（拠点別有効在庫インデックスの読み込み用）
+     */
+    List<LocationStock> findByProductIdInAndLocationIdIn(Collection<Long> productIds, Collection<Integer> locationIds);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT ls FROM LocationStock ls WHERE ls.product.id = :productId AND ls.locationId = :locationId")
     Optional<LocationStock> findByProductIdAndLocationIdForUpdate(@Param("productId") Long productId,
                                                                    @Param("locationId") Integer locationId);
+
+    /**
+     * 在庫状況を 1 ページ分取得（lowStockFirst の場合は有効在庫の少ない順）
+     */
+    @Query(value = INVENTORY_STATUS_SQL + """
+            ORDER BY CASE WHEN :lowStockFirst THEN s.available_stock END, s.product_id
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<Object[]> findInventoryStatuses(@Param("locationIds") Collection<Integer> locationIds,
+                                         @Param("categoryId") Long categoryId,
+                                         @Param("lowStockFirst") boolean lowStockFirst,
+                                         @Param("limit") int limit,
+                                         @Param("offset") long offset);
+
+    @Query(value = """
+            SELECT COUNT(*) FROM products p
+            WHERE p.is_deleted = FALSE
+              AND (CAST(:categoryId AS BIGINT) IS NULL OR p.category_id = :categoryId)
+            """, nativeQuery = true)
+    long countInventoryStatuses(@Param("categoryId") Long categoryId);
+
+    /**
+     * 在庫状況を商品 ID 順に逐次取得（エクスポート用。呼び出し元のトランザクション内で消費すること）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(value = INVENTORY_STATUS_SQL + """
+            ORDER BY s.product_id
+            """, nativeQuery = true)
+    Stream<Object[]> streamInventoryStatuses(@Param("locationIds") Collection<Integer> locationIds,
+                                             @Param("categoryId") Long categoryId);
+
+    /**
+     * 商品の全拠点の拠点在庫を共有ロックする（ロック順序は 商品 ID → 拠点 ID）
+     * 在庫を更新中のトランザクションの完了を待ち、ロック中は更新を止める。
+     */
+    @Query(value = "SELECT ls.id FROM location_stocks ls WHERE ls.product_id IN (:productIds) " +
+            "ORDER BY ls.product_id, ls.location_id FOR SHARE", nativeQuery = true)
+    List<Long> lockByProductIdInForShare(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * 拠点在庫の商品 ID の範囲（[minProductId, maxProductId]）
+     */
+    @Query(value = "SELECT MIN(product_id), MAX(product_id) FROM location_stocks WHERE is_deleted = FALSE",
+            nativeQuery = true)
+    List<Object[]> findProductIdRange();
+
+    /**
+     * 商品 ID 範囲内で、引当済数量が同じ拠点の注文明細（キャンセル除く）の引当済数量合計と一致しない拠点在庫を取得
+     * （[productId, locationId, committedQty, orderItemsCommittedQty]）
+     */
+    @Query(value = """
+            SELECT ls.product_id, ls.location_id, ls.committed_qty, COALESCE(oi.committed_qty, 0)
+            FROM location_stocks ls
+            LEFT JOIN (
+                SELECT oi.product_id, COALESCE(oi.location_id, :primaryLocationId) AS location_id,
+                       SUM(oi.committed_qty) AS committed_qty
+                FROM order_items oi
+                JOIN orders o ON o.id = oi.order_id AND o.is_deleted = FALSE
+                WHERE oi.is_deleted = FALSE
+                  AND o.status <> 'CANCELLED'
+                  AND oi.product_id BETWEEN :fromProductId AND :toProductId
+                GROUP BY oi.product_id, COALESCE(oi.location_id, :primaryLocationId)
+            ) oi ON oi.product_id = ls.product_id AND oi.location_id = ls.location_id
+            WHERE ls.is_deleted = FALSE
+              AND ls.product_id BETWEEN :fromProductId AND :toProductId
+              AND ls.committed_qty <> COALESCE(oi.committed_qty, 0)
+            ORDER BY ls.product_id
+            """, nativeQuery = true)
+    List<Object[]> findCommittedQtyMismatches(@Param("fromProductId") Long fromProductId,
+                                              @Param("toProductId") Long toProductId,
+                                              @Param("primaryLocationId") Integer primaryLocationId);
+
+    /**
+     * 複数商品の拠点在庫を商品 ID 昇順で行ロック
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ls FROM LocationStock ls WHERE ls.product.id IN :productIds AND ls.locationId = :locationId " +
+            "ORDER BY ls.product.id")
+    List<LocationStock> findByProductIdInAndLocationIdForUpdate(@Param("productIds") Collection<Long> productIds,
+                                                                @Param("locationId") Integer locationId);
+
+    /**
+     * 複数商品の複数拠点の在庫を商品 ID・拠点 ID 昇順で行ロック
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ls FROM LocationStock ls WHERE ls.product.id IN :productIds AND ls.locationId IN :locationIds " +
+            "ORDER BY ls.product.id, ls.locationId")
+    List<LocationStock> findByProductIdInAndLocationIdInForUpdate(@Param("productIds") Collection<Long> productIds,
+                                                                  @Param("locationIds") Collection<Integer> locationIds);
+
+    /**
+     * 仮引当を本引当数量へ一括で振り替える（商品・引当拠点ごとの引当合計を committed に加算し、仮引当カウンタから減算）
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE location_stocks ls
+            SET committed_qty = ls.committed_qty + r.quantity,
+                reserved_tentative_qty = GREATEST(ls.reserved_tentative_qty - r.quantity, 0)
+            FROM (
+                SELECT product_id, COALESCE(location_id, :primaryLocationId) AS location_id, SUM(quantity) AS quantity
+                FROM stock_reservations
+                WHERE id IN (:reservationIds) AND is_deleted = FALSE
+                GROUP BY product_id, COALESCE(location_id, :primaryLocationId)
+            ) r
+            WHERE ls.product_id = r.product_id AND ls.location_id = r.location_id AND ls.is_deleted = FALSE
+            """, nativeQuery = true)
+    int commitReservedQty(@Param("reservationIds") Collection<Long> reservationIds,
+                          @Param("primaryLocationId") Integer primaryLocationId);
+
+    /**
+     * 商品の仮引当数量を本引当数量へ振り替える（仮引当明細を DB に持たない保存先用）
+     */
+    @Modifying
+    @Query("UPDATE LocationStock ls SET ls.committedQty = ls.committedQty + :quantity, " +
+            "ls.reservedTentativeQty = CASE WHEN ls.reservedTentativeQty < :quantity THEN 0 ELSE ls.reservedTentativeQty - :quantity END " +
+            "WHERE ls.product.id = :productId AND ls.locationId = :locationId")
+    int commitReservedQtyByProductId(@Param("productId") Long productId,
+                                     @Param("locationId") Integer locationId,
+                                     @Param("quantity") int quantity);
+
+    /**
+     * 全拠点の仮引当数量カウンタを DB 上の未削除仮引当（バケット外）の拠点別合計で再設定
+     * バケット切り出し数量は既定拠点のカウンタに加える（バケットは既定拠点の拠点在庫からのみ切り出すため。
+     * 呼び出し元は countFlashSaleEnabledOutside() で既定拠点以外にバケットがないことを確認する）。
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE location_stocks ls
+            SET reserved_tentative_qty = COALESCE((
+                    SELECT SUM(r.quantity)
+                    FROM stock_reservations r
+                    JOIN products p ON p.id = r.product_id
+                    WHERE r.product_id = ls.product_id
+                      AND COALESCE(r.location_id, :primaryLocationId) = ls.location_id
+                      AND r.reservation_type = 'TENTATIVE'
+                      AND r.is_deleted = FALSE
+                      AND r.bucket_no IS NULL
+                      AND p.allocation_type <> 'FRAME'
+                ), 0) + CASE WHEN ls.location_id = :primaryLocationId THEN COALESCE((
+                    SELECT SUM(b.allocated_qty)
+                    FROM stock_buckets b
+                    WHERE b.product_id = ls.product_id
+                ), 0) ELSE 0 END
+            WHERE ls.is_deleted = FALSE
+            """, nativeQuery = true)
+    int resetReservedTentativeQty(@Param("primaryLocationId") Integer primaryLocationId);
+
+    /**
+     * 指定拠点以外でフラッシュセール中（バケット切り出し済み）の拠点在庫の件数
+     */
+    @Query("SELECT COUNT(ls) FROM LocationStock ls WHERE ls.locationId <> :locationId AND ls.flashBucketCount > 0")
+    long countFlashSaleEnabledOutside(@Param("locationId") Integer locationId);
+
+    /**
+     * フラッシュセール中の拠点在庫を商品とあわせて取得
+     */
+    @Query("SELECT ls FROM LocationStock ls JOIN FETCH ls.product " +
+            "WHERE ls.locationId = :locationId AND ls.flashBucketCount > 0 ORDER BY ls.product.id")
+    List<LocationStock> findFlashSaleEnabled(@Param("locationId") Integer locationId);
+
+    /**
+     * フラッシュセールのバケット数を取得（永続化コンテキストを経由せず最新値を読む）
+     */
+    @Query("SELECT ls.flashBucketCount FROM LocationStock ls WHERE ls.product.id = :productId AND ls.locationId = :locationId")
+    Optional<Integer> findFlashBucketCount(@Param("productId") Long productId, @Param("locationId") Integer locationId);
+
+    /**
+     * 指定商品のうちフラッシュセール中のものについて、商品 ID とバケット数を取得
+     */
+    @Query("SELECT ls.product.id, ls.flashBucketCount FROM LocationStock ls " +
+            "WHERE ls.product.id IN :productIds AND ls.locationId = :locationId AND ls.flashBucketCount > 0")
+    List<Object[]> findFlashBucketCounts(@Param("productIds") Collection<Long> productIds,
+                                         @Param("locationId") Integer locationId);
+
+    /**
+     * 仮引当数量カウンタを加減算（0未満にはならない）
+     */
+    @Modifying
+    @Query("UPDATE LocationStock ls SET ls.reservedTentativeQty = " +
+            "CASE WHEN ls.reservedTentativeQty + :delta < 0 THEN 0 ELSE ls.reservedTentativeQty + :delta END " +
+            "WHERE ls.product.id = :productId AND ls.locationId = :locationId")
+    int addReservedTentativeQty(@Param("productId") Long productId,
+                                @Param("locationId") Integer locationId,
+                                @Param("delta") int delta);
+
+    /**
+     * 有効在庫が足りる場合のみ仮引当数量カウンタを加算（更新件数 0 は在庫不足）
+     */
+    @Modifying
+    @Query("UPDATE LocationStock ls SET ls.reservedTentativeQty = ls.reservedTentativeQty + :quantity " +
+            "WHERE ls.product.id = :productId AND ls.locationId = :locationId " +
+            "AND ls.availableQty - ls.committedQty - ls.reservedTentativeQty >= :quantity")
+    int reserveTentativeQtyIfAvailable(@Param("productId") Long productId,
+                                       @Param("locationId") Integer locationId,
+                                       @Param("quantity") int quantity);
 }
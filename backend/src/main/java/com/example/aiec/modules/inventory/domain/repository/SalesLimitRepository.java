@@ -4,10 +4,13 @@ import com.example.aiec.modules.inventory.domain.entity.SalesLimit;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -18,7 +21,127 @@ public interface SalesLimitRepository extends JpaRepository<SalesLimit, Long> {
 
     Optional<SalesLimit> findByProductId(Long productId);
 
+    List<SalesLimit> findByProductIdIn(Collection<Long> productIds);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT sl FROM SalesLimit sl WHERE sl.product.id = :productId")
     Optional<SalesLimit> findByProductIdForUpdate(@Param("productId") Long productId);
+
+    /**
+     * 仮引当数量カウンタを加減算（0未満にはならない）
+     */
+    @Modifying
+    @Query("UPDATE SalesLimit sl SET sl.reservedTentativeQty = " +
+            "CASE WHEN sl.reservedTentativeQty + :delta < 0 THEN 0 ELSE sl.reservedTentativeQty + :delta END " +
+            "WHERE sl.product.id = :productId")
+    int addReservedTentativeQty(@Param("productId") Long productId, @Param("delta") int delta);
+
+    /**
+     * 枠の残数が足りる場合のみ仮引当数量カウンタを加算（更新件数 0 は在庫不足）
+     */
+    @Modifying
+    @Query("UPDATE SalesLimit sl SET sl.reservedTentativeQty = sl.reservedTentativeQty + :quantity " +
+            "WHERE sl.product.id = :productId " +
+            "AND sl.frameLimitQty - sl.consumedQty - sl.reservedTentativeQty >= :quantity")
+    int reserveTentativeQtyIfAvailable(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * 消費数量カウンタを加減算（0未満にはならない）
+     */
+    @Modifying
+    @Query("UPDATE SalesLimit sl SET sl.consumedQty = " +
+            "CASE WHEN sl.consumedQty + :delta < 0 THEN 0 ELSE sl.consumedQty + :delta END " +
+            "WHERE sl.product.id = :productId")
+    int addConsumedQty(@Param("productId") Long productId, @Param("delta") int delta);
+
+    /**
+     * 仮引当を枠在庫の消費へ一括で振り替える（仮引当カウンタから引当合計を減算し、注文明細数量を消費数量へ加算）
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE sales_limits sl
+            SET reserved_tentative_qty = GREATEST(sl.reserved_tentative_qty - r.quantity, 0),
+                consumed_qty = sl.consumed_qty + COALESCE(oi.quantity, 0)
+            FROM (
+                SELECT product_id, SUM(quantity) AS quantity
+                FROM stock_reservations
+                WHERE id IN (:reservationIds) AND is_deleted = FALSE
+                GROUP BY product_id
+            ) r
+            LEFT JOIN (
+                SELECT product_id, SUM(quantity) AS quantity
+                FROM order_items
+                WHERE order_id = :orderId AND is_deleted = FALSE
+                GROUP BY product_id
+            ) oi ON oi.product_id = r.product_id
+            WHERE sl.product_id = r.product_id AND sl.is_deleted = FALSE
+            """, nativeQuery = true)
+    int commitReservedQty(@Param("reservationIds") Collection<Long> reservationIds,
+                          @Param("orderId") Long orderId);
+
+    /**
+     * 商品の仮引当数量を枠在庫の消費へ振り替える（仮引当明細を DB に持たない保存先用）
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE sales_limits sl
+            SET reserved_tentative_qty = GREATEST(sl.reserved_tentative_qty - :quantity, 0),
+                consumed_qty = sl.consumed_qty + COALESCE((
+                    SELECT SUM(oi.quantity)
+                    FROM order_items oi
+                    WHERE oi.order_id = :orderId AND oi.product_id = :productId AND oi.is_deleted = FALSE
+                ), 0)
+            WHERE sl.product_id = :productId AND sl.is_deleted = FALSE
+            """, nativeQuery = true)
+    int commitReservedQtyByProductId(@Param("productId") Long productId,
+                                     @Param("quantity") int quantity,
+                                     @Param("orderId") Long orderId);
+
+    /**
+     * 枠在庫商品の仮引当数量カウンタを DB 上の未削除仮引当の合計で再設定
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE sales_limits sl
+            SET reserved_tentative_qty = COALESCE((
+                    SELECT SUM(r.quantity)
+                    FROM stock_reservations r
+                    WHERE r.product_id = sl.product_id
+                      AND r.reservation_type = 'TENTATIVE'
+                      AND r.is_deleted = FALSE
+                ), 0)
+            WHERE sl.is_deleted = FALSE
+              AND sl.product_id IN (SELECT id FROM products WHERE allocation_type = 'FRAME')
+            """, nativeQuery = true)
+    int resetReservedTentativeQty();
+
+    /**
+     * 消費数量カウンタを再設定
+     */
+    @Modifying
+    @Query("UPDATE SalesLimit sl SET sl.consumedQty = :consumedQty WHERE sl.product.id = :productId")
+    int updateConsumedQty(@Param("productId") Long productId, @Param("consumedQty") int consumedQty);
+
+    /**
+     * 消費数量カウンタと注文明細の合計が一致しない枠在庫商品を取得（[productId, consumedQty, orderedQty]）
+     */
+    @Query(value = """
+            SELECT sl.product_id, sl.consumed_qty, COALESCE(agg.quantity, 0) AS ordered_qty
+            FROM sales_limits sl
+            JOIN products p ON p.id = sl.product_id
+            LEFT JOIN (
+                SELECT oi.product_id, SUM(oi.quantity) AS quantity
+                FROM order_items oi
+                JOIN orders o ON o.id = oi.order_id
+                WHERE oi.is_deleted = FALSE
+                  AND o.is_deleted = FALSE
+                  AND o.status <> 'CANCELLED'
+                GROUP BY oi.product_id
+            ) agg ON agg.product_id = sl.product_id
+            WHERE sl.is_deleted = FALSE
+              AND p.allocation_type = 'FRAME'
+              AND sl.consumed_qty <> COALESCE(agg.quantity, 0)
+            ORDER BY sl.product_id
+            """, nativeQuery = true)
+    List<Object[]> findConsumedQtyMismatches();
 }
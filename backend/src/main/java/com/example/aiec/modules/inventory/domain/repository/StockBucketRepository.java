@@ -0,0 +1,90 @@
+package com.example.aiec.modules.inventory.domain.repository;
+
+import com.example.aiec.modules.inventory.domain.entity.StockBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * フラッシュセール用在庫バケットリポジトリ
+ */
+@Repository
+public interface StockBucketRepository extends JpaRepository<StockBucket, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StockBucket b WHERE b.product.id = :productId ORDER BY b.bucketNo")
+    List<StockBucket> findByProductIdForUpdate(@Param("productId") Long productId);
+
+    /**
+     * バケットの空き数量（allocated - reserved）の合計
+     */
+    @Query("SELECT COALESCE(SUM(b.allocatedQty - b.reservedQty), 0) FROM StockBucket b WHERE b.product.id = :productId")
+    Long sumFreeQtyByProductId(@Param("productId") Long productId);
+
+    /**
+     * 商品ごとのバケット空き数量合計
+     *
+     * @return [productId, freeQty] の配列リスト
+     */
+    @Query("SELECT b.product.id, SUM(b.allocatedQty - b.reservedQty) FROM StockBucket b " +
+            "WHERE b.product.id IN :productIds GROUP BY b.product.id")
+    List<Object[]> sumFreeQtyByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * バケットの空きが足りる場合のみ引当数量を加算（更新件数 0 は空き不足またはバケットなし）
+     */
+    @Modifying
+    @Query("UPDATE StockBucket b SET b.reservedQty = b.reservedQty + :quantity " +
+            "WHERE b.product.id = :productId AND b.bucketNo = :bucketNo " +
+            "AND b.allocatedQty - b.reservedQty >= :quantity")
+    int reserveIfAvailable(@Param("productId") Long productId,
+                           @Param("bucketNo") Integer bucketNo,
+                           @Param("quantity") int quantity);
+
+    /**
+     * バケットの引当数量を加減算（0未満にはならない）
+     */
+    @Modifying
+    @Query("UPDATE StockBucket b SET b.reservedQty = " +
+            "CASE WHEN b.reservedQty + :delta < 0 THEN 0 ELSE b.reservedQty + :delta END " +
+            "WHERE b.product.id = :productId AND b.bucketNo = :bucketNo")
+    int addReservedQty(@Param("productId") Long productId,
+                       @Param("bucketNo") Integer bucketNo,
+                       @Param("delta") int delta);
+
+    /**
+     * バケットの引当数量を DB 上の未削除仮引当の合計で再設定
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE stock_buckets b
+            SET reserved_qty = COALESCE((
+                    SELECT SUM(r.quantity)
+                    FROM stock_reservations r
+                    WHERE r.product_id = b.product_id
+                      AND r.bucket_no = b.bucket_no
+                      AND r.reservation_type = 'TENTATIVE'
+                      AND r.is_deleted = FALSE
+                ), 0)
+            """, nativeQuery = true)
+    int resetReservedQty();
+
+    /**
+     * 本引当に伴いバケットの割当数量と引当数量を同時に減算（0未満にはならない）
+     */
+    @Modifying
+    @Query("UPDATE StockBucket b SET " +
+            "b.allocatedQty = CASE WHEN b.allocatedQty < :quantity THEN 0 ELSE b.allocatedQty - :quantity END, " +
+            "b.reservedQty = CASE WHEN b.reservedQty < :quantity THEN 0 ELSE b.reservedQty - :quantity END " +
+            "WHERE b.product.id = :productId AND b.bucketNo = :bucketNo")
+    int consume(@Param("productId") Long productId,
+                @Param("bucketNo") Integer bucketNo,
+                @Param("quantity") int quantity);
+}
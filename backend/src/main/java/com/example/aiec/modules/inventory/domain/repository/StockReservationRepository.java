@@ -3,13 +3,16 @@ package com.example.aiec.modules.inventory.domain.repository;
 import com.example.aiec.modules.shared.domain.model.ActorType;
 import com.example.aiec.modules.inventory.domain.entity.StockReservation;
 import com.example.aiec.modules.inventory.domain.entity.StockReservation.ReservationType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,11 +23,41 @@ import java.util.Optional;
 public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
 
     /**
-     * 仮引当の合計数量を取得
+     * 仮引当カウンタと実際の仮引当合計が一致しない商品を取得（[productId, counterQty, reservedQty]）
+     * REAL 商品は引当対象の拠点のカウンタ合計で比較し、フラッシュセール中はバケット空き数量を除く。
      */
-    @Query("SELECT COALESCE(SUM(r.quantity), 0) FROM StockReservation r " +
-            "WHERE r.product.id = :productId AND r.type = 'TENTATIVE' AND r.expiresAt > :now")
-    Integer sumTentativeReserved(@Param("productId") Long productId, @Param("now") Instant now);
+    @Query(value = """
+            SELECT p.id,
+                   CASE WHEN p.allocation_type = 'FRAME'
+                        THEN COALESCE(sl.reserved_tentative_qty, 0)
+                        ELSE COALESCE(ls.reserved_tentative_qty, 0) - COALESCE(b.free_qty, 0) END AS counter_qty,
+                   COALESCE(r.quantity, 0) AS reserved_qty
+            FROM products p
+            LEFT JOIN (
+                SELECT product_id, SUM(reserved_tentative_qty) AS reserved_tentative_qty
+                FROM location_stocks
+                WHERE location_id IN (:locationIds) AND is_deleted = FALSE
+                GROUP BY product_id
+            ) ls ON ls.product_id = p.id
+            LEFT JOIN sales_limits sl
+                   ON sl.product_id = p.id AND sl.is_deleted = FALSE
+            LEFT JOIN (
+                SELECT product_id, SUM(quantity) AS quantity
+                FROM stock_reservations
+                WHERE reservation_type = 'TENTATIVE' AND is_deleted = FALSE
+                GROUP BY product_id
+            ) r ON r.product_id = p.id
+            LEFT JOIN (
+                SELECT product_id, SUM(allocated_qty - reserved_qty) AS free_qty
+                FROM stock_buckets
+                GROUP BY product_id
+            ) b ON b.product_id = p.id
+            WHERE CASE WHEN p.allocation_type = 'FRAME'
+                       THEN COALESCE(sl.reserved_tentative_qty, 0)
+                       ELSE COALESCE(ls.reserved_tentative_qty, 0) - COALESCE(b.free_qty, 0) END <> COALESCE(r.quantity, 0)
+            ORDER BY p.id
+            """, nativeQuery = true)
+    List<Object[]> findTentativeCounterMismatches(@Param("locationIds") Collection<Integer> locationIds);
 
     /**
      * 本引当の合計数量を取得
@@ -70,14 +103,73 @@ public interface StockReservationRepository extends JpaRepository<StockReservati
     List<StockReservation> findExpiredByType(@Param("type") ReservationType type, @Param("now") Instant now);
 
     /**
-     * 期限切れの仮引当を soft delete
+     * 未削除の仮引当の ID と有効期限を取得（期限管理ホイールの再構築用）
+     */
+    @Query("SELECT r.id, r.expiresAt FROM StockReservation r WHERE r.type = :type AND r.expiresAt IS NOT NULL")
+    List<Object[]> findIdAndExpiresAtByType(@Param("type") ReservationType type);
+
+    /**
+     * ID 指定で未削除の引当を取得（行ロックなし）
+     */
+    List<StockReservation> findByIdInAndType(Collection<Long> ids, ReservationType type);
+
+    /**
+     * ID 指定で未削除の引当を行ロック付きで取得（ID 順）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.id IN :ids AND r.type = :type ORDER BY r.id")
+    List<StockReservation> findByIdInAndTypeForUpdate(@Param("ids") Collection<Long> ids,
+                                                      @Param("type") ReservationType type);
+
+    /**
+     * 期限切れの未削除仮引当 ID を期限の古い順に取得（部分インデックス idx_stock_reservations_active_expiry を使用）
+     */
+    @Query(value = """
+            SELECT id FROM stock_reservations
+            WHERE reservation_type = 'TENTATIVE' AND is_deleted = FALSE AND expires_at < :now
+            ORDER BY expires_at
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findExpiredTentativeIds(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * 保持期間を過ぎた soft delete 済みの引当を物理削除（最大 limit 件）
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM stock_reservations
+            WHERE id IN (
+                SELECT id FROM stock_reservations
+                WHERE is_deleted = TRUE AND deleted_at < :cutoff
+                ORDER BY deleted_at
+                LIMIT :limit
+            )
+            """, nativeQuery = true)
+    int purgeDeletedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    /**
+     * ID 指定で一括 soft delete（削除済みの引当は対象外）
+     *
+     * @return soft delete した件数
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.isDeleted = TRUE, r.deletedAt = CURRENT_TIMESTAMP " +
+            "WHERE r.id IN :ids AND r.isDeleted = FALSE")
+    int softDeleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * フラッシュセール終了時に商品の仮引当からバケット番号を外す
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.bucketNo = NULL WHERE r.product.id = :productId AND r.bucketNo IS NOT NULL")
+    int clearBucketNoByProductId(@Param("productId") Long productId);
+
+    /**
+     * 引当区分を FRAME へ変更した商品の仮引当から引当拠点を外す
      */
     @Modifying
-    @Query("UPDATE StockReservation r SET r.isDeleted = TRUE, r.deletedAt = CURRENT_TIMESTAMP, r.deletedByType = :deletedByType, r.deletedById = :deletedById WHERE r.type = :type AND r.expiresAt < :now AND r.isDeleted = FALSE")
-    int softDeleteExpiredByType(@Param("type") ReservationType type,
-                                @Param("now") Instant now,
-                                @Param("deletedByType") ActorType deletedByType,
-                                @Param("deletedById") Long deletedById);
+    @Query("UPDATE StockReservation r SET r.locationId = NULL WHERE r.product.id = :productId AND r.locationId IS NOT NULL")
+    int clearLocationIdByProductId(@Param("productId") Long productId);
 
     @Modifying
     @Query("UPDATE StockReservation r SET r.isDeleted = TRUE, r.deletedAt = CURRENT_TIMESTAMP, r.deletedByType = :deletedByType, r.deletedById = :deletedById WHERE r.id = :id")
@@ -2,12 +2,10 @@ package com.example.aiec.modules.product.application.spec;
 
 import com.example.aiec.modules.inventory.domain.entity.LocationStock;
 import com.example.aiec.modules.inventory.domain.entity.SalesLimit;
-import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.domain.entity.StockBucket;
 import com.example.aiec.modules.product.application.port.AdminProductSearchParams;
 import com.example.aiec.modules.product.domain.entity.AllocationType;
 import com.example.aiec.modules.product.domain.entity.Product;
-import com.example.aiec.modules.purchase.order.entity.Order;
-import com.example.aiec.modules.purchase.order.entity.OrderItem;
 import org.springframework.data.jpa.domain.Specification;
 
 import jakarta.persistence.criteria.Expression;
@@ -16,18 +14,23 @@ import jakarta.persistence.criteria.Root;
 import jakarta.persistence.criteria.Subquery;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * 管理向け商品検索 Specification
  */
 public final class ProductSpecifications {
-    private static final int DEFAULT_LOCATION_ID = 1;
 
     private ProductSpecifications() {
     }
 
-    public static Specification<Product> byAdminSearchParams(AdminProductSearchParams searchParams, Instant now) {
+    /**
+     * @param locationIds 有効在庫を集計する拠点 ID
+     */
+    public static Specification<Product> byAdminSearchParams(AdminProductSearchParams searchParams,
+                                                             Collection<Integer> locationIds,
+                                                             Instant now) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -69,7 +72,7 @@ public final class ProductSpecifications {
                 threshold = searchParams.getStockThreshold();
             }
             if (threshold != null) {
-                Expression<Integer> effectiveStockExpression = effectiveStockExpression(root, query.subquery(Integer.class), cb, now);
+                Expression<Integer> effectiveStockExpression = effectiveStockExpression(root, query.subquery(Integer.class), locationIds, cb);
                 predicates.add(cb.lessThanOrEqualTo(effectiveStockExpression, threshold));
             }
 
@@ -80,14 +83,14 @@ public final class ProductSpecifications {
     private static Expression<Integer> effectiveStockExpression(
             Root<Product> root,
             Subquery<Integer> subquery,
-            jakarta.persistence.criteria.CriteriaBuilder cb,
-            Instant now
+            Collection<Integer> locationIds,
+            jakarta.persistence.criteria.CriteriaBuilder cb
     ) {
         Root<Product> productRoot = subquery.from(Product.class);
         subquery.select(cb.<Integer>selectCase()
                 .when(cb.equal(productRoot.get("allocationType"), AllocationType.REAL),
-                        realEffectiveStock(productRoot, subquery, cb, now))
-                .otherwise(frameEffectiveStock(productRoot, subquery, cb, now)));
+                        realEffectiveStock(productRoot, subquery, locationIds, cb))
+                .otherwise(frameEffectiveStock(productRoot, subquery, cb)));
         subquery.where(cb.equal(productRoot.get("id"), root.get("id")));
         return cb.coalesce(subquery.getSelection(), 0);
     }
@@ -95,32 +98,39 @@ public final class ProductSpecifications {
     private static Expression<Integer> realEffectiveStock(
             Root<Product> productRoot,
             Subquery<Integer> parentSubquery,
-            jakarta.persistence.criteria.CriteriaBuilder cb,
-            Instant now
+            Collection<Integer> locationIds,
+            jakarta.persistence.criteria.CriteriaBuilder cb
     ) {
+        // 拠点ごとに負数を 0 に丸めてから合算する
         Subquery<Integer> remainingSubquery = parentSubquery.subquery(Integer.class);
         Root<LocationStock> locationStockRoot = remainingSubquery.from(LocationStock.class);
-        remainingSubquery.select(cb.diff(
-                cb.coalesce(locationStockRoot.get("availableQty"), 0),
-                cb.coalesce(locationStockRoot.get("committedQty"), 0)
-        ));
+        Expression<Integer> locationRemaining = cb.diff(
+                cb.diff(
+                        cb.coalesce(locationStockRoot.get("availableQty"), 0),
+                        cb.coalesce(locationStockRoot.get("committedQty"), 0)
+                ),
+                cb.coalesce(locationStockRoot.get("reservedTentativeQty"), 0)
+        );
+        remainingSubquery.select(cb.sum(cb.<Integer>selectCase()
+                .when(cb.lessThan(locationRemaining, 0), cb.literal(0))
+                .otherwise(locationRemaining)));
         remainingSubquery.where(
                 cb.equal(locationStockRoot.get("product").get("id"), productRoot.get("id")),
-                cb.equal(locationStockRoot.get("locationId"), DEFAULT_LOCATION_ID)
+                locationStockRoot.get("locationId").in(locationIds)
         );
 
-        Subquery<Integer> tentativeSubquery = parentSubquery.subquery(Integer.class);
-        Root<StockReservation> tentativeRoot = tentativeSubquery.from(StockReservation.class);
-        tentativeSubquery.select(cb.coalesce(cb.sum(tentativeRoot.get("quantity")), 0));
-        tentativeSubquery.where(
-                cb.equal(tentativeRoot.get("product").get("id"), productRoot.get("id")),
-                cb.equal(tentativeRoot.get("type"), StockReservation.ReservationType.TENTATIVE),
-                cb.greaterThan(tentativeRoot.get("expiresAt"), now)
-        );
+        // フラッシュセール中はバケットへ切り出した数量が仮引当に含まれるため、バケットの空き数量を戻す
+        Subquery<Integer> bucketFreeSubquery = parentSubquery.subquery(Integer.class);
+        Root<StockBucket> bucketRoot = bucketFreeSubquery.from(StockBucket.class);
+        bucketFreeSubquery.select(cb.sum(cb.diff(
+                bucketRoot.<Integer>get("allocatedQty"),
+                bucketRoot.<Integer>get("reservedQty")
+        )));
+        bucketFreeSubquery.where(cb.equal(bucketRoot.get("product").get("id"), productRoot.get("id")));
 
-        Expression<Integer> raw = cb.diff(
+        Expression<Integer> raw = cb.sum(
                 cb.coalesce(remainingSubquery.getSelection(), 0),
-                cb.coalesce(tentativeSubquery.getSelection(), 0)
+                cb.coalesce(bucketFreeSubquery.getSelection(), 0)
         );
         return cb.<Integer>selectCase()
                 .when(cb.lessThan(raw, 0), cb.literal(0))
@@ -130,39 +140,20 @@ public final class ProductSpecifications {
     private static Expression<Integer> frameEffectiveStock(
             Root<Product> productRoot,
             Subquery<Integer> parentSubquery,
-            jakarta.persistence.criteria.CriteriaBuilder cb,
-            Instant now
+            jakarta.persistence.criteria.CriteriaBuilder cb
     ) {
-        Subquery<Integer> frameLimitSubquery = parentSubquery.subquery(Integer.class);
-        Root<SalesLimit> salesLimitRoot = frameLimitSubquery.from(SalesLimit.class);
-        frameLimitSubquery.select(cb.coalesce(salesLimitRoot.get("frameLimitQty"), 0));
-        frameLimitSubquery.where(cb.equal(salesLimitRoot.get("product").get("id"), productRoot.get("id")));
-
-        Subquery<Integer> consumedSubquery = parentSubquery.subquery(Integer.class);
-        Root<OrderItem> consumedRoot = consumedSubquery.from(OrderItem.class);
-        consumedSubquery.select(cb.coalesce(cb.sum(consumedRoot.get("quantity")), 0));
-        consumedSubquery.where(
-                cb.equal(consumedRoot.get("product").get("id"), productRoot.get("id")),
-                cb.equal(consumedRoot.get("product").get("allocationType"), AllocationType.FRAME),
-                cb.notEqual(consumedRoot.get("order").get("status"), Order.OrderStatus.CANCELLED)
-        );
-
-        Subquery<Integer> tentativeSubquery = parentSubquery.subquery(Integer.class);
-        Root<StockReservation> tentativeRoot = tentativeSubquery.from(StockReservation.class);
-        tentativeSubquery.select(cb.coalesce(cb.sum(tentativeRoot.get("quantity")), 0));
-        tentativeSubquery.where(
-                cb.equal(tentativeRoot.get("product").get("id"), productRoot.get("id")),
-                cb.equal(tentativeRoot.get("type"), StockReservation.ReservationType.TENTATIVE),
-                cb.greaterThan(tentativeRoot.get("expiresAt"), now)
-        );
-
-        Expression<Integer> raw = cb.diff(
+        Subquery<Integer> frameRemainingSubquery = parentSubquery.subquery(Integer.class);
+        Root<SalesLimit> salesLimitRoot = frameRemainingSubquery.from(SalesLimit.class);
+        frameRemainingSubquery.select(cb.diff(
                 cb.diff(
-                        cb.coalesce(frameLimitSubquery.getSelection(), 0),
-                        cb.coalesce(consumedSubquery.getSelection(), 0)
+                        cb.coalesce(salesLimitRoot.get("frameLimitQty"), 0),
+                        cb.coalesce(salesLimitRoot.get("consumedQty"), 0)
                 ),
-                cb.coalesce(tentativeSubquery.getSelection(), 0)
-        );
+                cb.coalesce(salesLimitRoot.get("reservedTentativeQty"), 0)
+        ));
+        frameRemainingSubquery.where(cb.equal(salesLimitRoot.get("product").get("id"), productRoot.get("id")));
+
+        Expression<Integer> raw = cb.coalesce(frameRemainingSubquery.getSelection(), 0);
         return cb.<Integer>selectCase()
                 .when(cb.lessThan(raw, 0), cb.literal(0))
                 .otherwise(raw);
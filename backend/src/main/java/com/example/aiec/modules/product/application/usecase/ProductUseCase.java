@@ -57,12 +57,13 @@ class ProductUseCase implements ProductQueryPort, ProductCommandPort {
         Instant now = Instant.now();
         Page<Product> productPage = productRepository.findPublishedForCustomer(now, pageable);
         Map<Long, String> categoryNames = loadCategoryNames(productPage.getContent());
+        Map<Long, Integer> effectiveStocks = loadEffectiveStocks(productPage.getContent());
 
         List<ProductDto> items = productPage.getContent().stream()
                 .map(product -> ProductDto.fromEntity(
                         product,
                         categoryNames.get(product.getCategoryId()),
-                        inventoryQueryPort.calculateEffectiveStock(product.getId())))
+                        effectiveStocks.getOrDefault(product.getId(), 0)))
                 .collect(Collectors.toList());
 
         return new ProductListResponse(
@@ -90,14 +91,16 @@ class ProductUseCase implements ProductQueryPort, ProductCommandPort {
         int safeLimit = Math.max(limit, 1);
         Pageable pageable = PageRequest.of(safePage - 1, safeLimit);
         Instant now = Instant.now();
-        Specification<Product> specification = ProductSpecifications.byAdminSearchParams(searchParams, now);
+        Specification<Product> specification = ProductSpecifications.byAdminSearchParams(
+                searchParams, inventoryQueryPort.getStockLocationIds(), now);
         Page<Product> productPage = productRepository.findAll(specification, pageable);
         Map<Long, String> categoryNames = loadCategoryNames(productPage.getContent());
+        Map<Long, Integer> effectiveStocks = loadEffectiveStocks(productPage.getContent());
         List<ProductDto> items = productPage.getContent().stream()
                 .map(product -> ProductDto.fromEntity(
                         product,
                         categoryNames.get(product.getCategoryId()),
-                        inventoryQueryPort.calculateEffectiveStock(product.getId())))
+                        effectiveStocks.getOrDefault(product.getId(), 0)))
                 .collect(Collectors.toList());
         return new ProductListResponse(items, productPage.getTotalElements(), safePage, safeLimit);
     }
@@ -290,6 +293,16 @@ class ProductUseCase implements ProductQueryPort, ProductCommandPort {
                 .collect(Collectors.toMap(ProductCategory::getId, ProductCategory::getName));
     }
 
+    private Map<Long, Integer> loadEffectiveStocks(List<Product> products) {
+        if (products.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .toList();
+        return inventoryQueryPort.calculateEffectiveStocks(productIds);
+    }
+
     private String loadCategoryName(Long categoryId) {
         return productCategoryRepository.findById(categoryId)
                 .map(ProductCategory::getName)
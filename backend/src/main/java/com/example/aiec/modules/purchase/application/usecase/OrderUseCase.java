@@ -28,6 +28,7 @@ import com.example.aiec.modules.shared.exception.InsufficientStockException;
 import com.example.aiec.modules.shared.exception.ItemNotAvailableException;
 import com.example.aiec.modules.shared.exception.ResourceNotFoundException;
 import com.example.aiec.modules.shared.outbox.application.OutboxEventPublisher;
+import com.example.aiec.modules.shared.outbox.application.OutboxMessage;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -139,7 +140,7 @@ class OrderUseCase implements OrderQueryPort, OrderCommandPort {
             Order savedOrder = orderRepository.save(order);
 
             inventoryCommand.commitReservations(sessionId, savedOrder);
-            outboxEventPublisher.publish("ORDER_PLACED", String.valueOf(savedOrder.getId()), Map.of(
+            outboxEventPublisher.publish("ORDER_PLACED", OutboxMessage.aggregateKey("order", savedOrder.getId()), Map.of(
                     "orderId", savedOrder.getId(),
                     "orderNumber", savedOrder.getOrderNumber()
             ));
@@ -231,7 +232,7 @@ class OrderUseCase implements OrderQueryPort, OrderCommandPort {
         order = orderRepository.save(order);
 
         // 同一トランザクションでOutboxに書き込む（コミット成功時のみイベントが残る）
-        outboxEventPublisher.publish("ORDER_CONFIRMED", String.valueOf(order.getId()), Map.of(
+        outboxEventPublisher.publish("ORDER_CONFIRMED", OutboxMessage.aggregateKey("order", order.getId()), Map.of(
             "orderId", order.getId(),
             "orderNumber", order.getOrderNumber(),
             "customerEmail", order.getUser() != null ? order.getUser().getEmail() : "",
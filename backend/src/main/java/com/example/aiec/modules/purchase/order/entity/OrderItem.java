@@ -48,6 +48,12 @@ public class OrderItem {
     @Column(name = "committed_qty", nullable = false)
     private Integer committedQty = 0;
 
+    /**
+     * 引当拠点（null は既定拠点）
+     */
+    @Column(name = "location_id")
+    private Integer locationId;
+
     @Column(precision = 10, scale = 2, nullable = false)
     private BigDecimal subtotal;
 
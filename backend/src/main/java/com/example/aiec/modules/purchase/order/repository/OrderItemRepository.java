@@ -52,15 +52,48 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
                                                                         @Param("cancelledStatus") Order.OrderStatus cancelledStatus,
                                                                         @Param("excludedOrderId") Long excludedOrderId);
 
+    @Query("""
+            SELECT COALESCE(SUM(oi.quantity), 0)
+            FROM OrderItem oi
+            JOIN oi.order o
+            WHERE oi.product.id = :productId
+              AND o.status <> :cancelledStatus
+            """)
+    Integer sumOrderedQuantityByProductExcludingCancelled(@Param("productId") Long productId,
+                                                          @Param("cancelledStatus") Order.OrderStatus cancelledStatus);
+
+    /**
+     * 指定拠点から引き当てた注文明細の引当済数量合計（引当拠点が null の明細は既定拠点として数える）
+     */
     @Query("""
             SELECT COALESCE(SUM(oi.committedQty), 0)
             FROM OrderItem oi
             JOIN oi.order o
             WHERE oi.product.id = :productId
+              AND COALESCE(oi.locationId, :primaryLocationId) = :locationId
               AND o.status <> :cancelledStatus
             """)
-    Integer sumCommittedQuantityByProductExcludingCancelled(@Param("productId") Long productId,
-                                                            @Param("cancelledStatus") Order.OrderStatus cancelledStatus);
+    Integer sumCommittedQuantityByProductAndLocationExcludingCancelled(@Param("productId") Long productId,
+                                                                       @Param("locationId") Integer locationId,
+                                                                       @Param("primaryLocationId") Integer primaryLocationId,
+                                                                       @Param("cancelledStatus") Order.OrderStatus cancelledStatus);
+
+    /**
+     * 未引当数量のある注文明細を持つ商品 ID を、最も古い注文の作成日時順に取得する
+     */
+    @Query("""
+            SELECT p.id
+            FROM OrderItem oi
+            JOIN oi.order o
+            JOIN oi.product p
+            WHERE p.allocationType = :allocationType
+              AND o.status IN :statuses
+              AND oi.committedQty < oi.quantity
+            GROUP BY p.id
+            ORDER BY MIN(o.createdAt) ASC, p.id ASC
+            """)
+    List<Long> findProductIdsWithPendingAllocation(@Param("allocationType") AllocationType allocationType,
+                                                   @Param("statuses") List<Order.OrderStatus> statuses);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
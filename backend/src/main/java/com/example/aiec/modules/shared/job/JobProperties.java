@@ -17,20 +17,49 @@ public class JobProperties {
 
     private Sftp sftp = new Sftp();
 
+    private Reservations reservations = new Reservations();
+
+    private AllocationConsistency allocationConsistency = new AllocationConsistency();
+
+    private FrameReallocation frameReallocation = new FrameReallocation();
+
+    private StockImport stockImport = new StockImport();
+
+    private InventoryJournal inventoryJournal = new InventoryJournal();
+
+    private OutboxPartition outboxPartition = new OutboxPartition();
+
     @Data
     public static class Enabled {
         private boolean releaseReservations = true;
         private boolean createShipment = true;
         private boolean exportShipmentFile = true;
         private boolean sftpPut = true;
+        private boolean flashSaleBuckets = true;
+        private boolean allocationConsistencyCheck = true;
+        private boolean tentativeReservationConsistencyCheck = true;
+        private boolean frameConsumedQtyConsistencyCheck = true;
+        private boolean frameReallocation = true;
+        private boolean stockImport = true;
+        private boolean inventorySnapshot = true;
+        private boolean inventoryJournalCheck = true;
+        private boolean outboxPartitionMaintenance = true;
     }
 
     @Data
     public static class Schedule {
-        private String releaseReservations = "0 */5 * * * *";
+        private String releaseReservations = "0 */15 * * * *";
         private String createShipment = "0 0 1 * * *";
         private String exportShipmentFile = "0 */10 * * * *";
         private String sftpPut = "0 */15 * * * *";
+        private String flashSaleBuckets = "0 * * * * *";
+        private String allocationConsistencyCheck = "0 0 * * * *";
+        private String tentativeReservationConsistencyCheck = "0 15 * * * *";
+        private String frameConsumedQtyConsistencyCheck = "0 20 * * * *";
+        private String frameReallocation = "0 30 * * * *";
+        private String inventorySnapshot = "0 45 * * * *";
+        private String inventoryJournalCheck = "0 0 4 * * *";
+        private String outboxPartitionMaintenance = "0 30 3 * * *";
     }
 
     @Data
@@ -47,4 +76,44 @@ public class JobProperties {
         private String strategy = "local";
         private String sentDir = "/tmp/aiec/shipments/sent";
     }
+
+    @Data
+    public static class Reservations {
+        private int chunkSize = 5000;
+        private int retentionDays = 30;
+    }
+
+    @Data
+    public static class AllocationConsistency {
+        private int partitions = 8;
+        private int parallelism = 4;
+        private boolean autoRepair = false;
+    }
+
+    @Data
+    public static class FrameReallocation {
+        private int parallelism = 4;
+        private int progressInterval = 100;
+    }
+
+    @Data
+    public static class StockImport {
+        private String inputDir = "/tmp/aiec/stock-import/in";
+        private String processedDir = "/tmp/aiec/stock-import/processed";
+        private int batchSize = 500;
+        private int maxRejects = 1000;
+    }
+
+    @Data
+    public static class InventoryJournal {
+        private int chunkSize = 500;
+        private boolean autoRepair = false;
+    }
+
+    @Data
+    public static class OutboxPartition {
+        private int monthsAhead = 6;
+        private int retentionMonths = 3;
+        private String archiveDir = "/tmp/aiec/outbox/archive";
+    }
 }
@@ -6,6 +6,8 @@ import lombok.RequiredArgsConstructor;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 
 @RequiredArgsConstructor
@@ -15,32 +17,41 @@ public abstract class JobRunnerBase {
     private final JobProperties jobProperties;
 
     protected int execute(String jobType, boolean enabled, Supplier<Integer> processor) {
-        JobRunHistory history = new JobRunHistory();
-        history.setRunId(UUID.randomUUID().toString());
-        history.setJobType(jobType);
-        history.setEnvironment(jobProperties.getEnv());
-        history.setStartedAt(Instant.now());
-        history.setProcessedCount(0);
+        JobRunHistory history = newHistory(jobType);
+
+        if (!enabled) {
+            return finishSkipped(history);
+        }
+
+        try {
+            return finishSuccess(history, processor.get());
+        } catch (Exception e) {
+            finishFailed(history, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 進捗を記録しながら実行する
+     * 開始時に RUNNING で履歴を保存し、processor が通知した処理件数をその都度保存する。
+     * チャンクごとにコミットするジョブ向けのため、呼び出し元はトランザクション外で実行すること。
+     */
+    protected int executeWithProgress(String jobType, boolean enabled, Function<IntConsumer, Integer> processor) {
+        JobRunHistory history = newHistory(jobType);
 
         if (!enabled) {
-            history.setStatus(JobRunHistory.RunStatus.SKIPPED);
-            history.setFinishedAt(Instant.now());
-            jobRunHistoryRepository.save(history);
-            return 0;
+            return finishSkipped(history);
         }
 
+        history.setStatus(JobRunHistory.RunStatus.RUNNING);
+        jobRunHistoryRepository.save(history);
         try {
-            int processedCount = processor.get();
-            history.setProcessedCount(processedCount);
-            history.setStatus(JobRunHistory.RunStatus.SUCCESS);
-            history.setFinishedAt(Instant.now());
-            jobRunHistoryRepository.save(history);
-            return processedCount;
+            return finishSuccess(history, processor.apply(processedCount -> {
+                history.setProcessedCount(processedCount);
+                jobRunHistoryRepository.save(history);
+            }));
         } catch (Exception e) {
-            history.setStatus(JobRunHistory.RunStatus.FAILED);
-            history.setFinishedAt(Instant.now());
-            history.setErrorMessage(truncateErrorMessage(e.getMessage()));
-            jobRunHistoryRepository.save(history);
+            finishFailed(history, e);
             throw e;
         }
     }
@@ -49,6 +60,38 @@ public abstract class JobRunnerBase {
         return jobProperties;
     }
 
+    private JobRunHistory newHistory(String jobType) {
+        JobRunHistory history = new JobRunHistory();
+        history.setRunId(UUID.randomUUID().toString());
+        history.setJobType(jobType);
+        history.setEnvironment(jobProperties.getEnv());
+        history.setStartedAt(Instant.now());
+        history.setProcessedCount(0);
+        return history;
+    }
+
+    private int finishSkipped(JobRunHistory history) {
+        history.setStatus(JobRunHistory.RunStatus.SKIPPED);
+        history.setFinishedAt(Instant.now());
+        jobRunHistoryRepository.save(history);
+        return 0;
+    }
+
+    private int finishSuccess(JobRunHistory history, int processedCount) {
+        history.setProcessedCount(processedCount);
+        history.setStatus(JobRunHistory.RunStatus.SUCCESS);
+        history.setFinishedAt(Instant.now());
+        jobRunHistoryRepository.save(history);
+        return processedCount;
+    }
+
+    private void finishFailed(JobRunHistory history, Exception e) {
+        history.setStatus(JobRunHistory.RunStatus.FAILED);
+        history.setFinishedAt(Instant.now());
+        history.setErrorMessage(truncateErrorMessage(e.getMessage()));
+        jobRunHistoryRepository.save(history);
+    }
+
     private String truncateErrorMessage(String message) {
         if (message == null) {
             return null;
@@ -1,9 +1,17 @@
 package com.example.aiec.modules.shared.job;
 
+import com.example.aiec.modules.inventory.application.job.AllocationConsistencyCheckJob;
+import com.example.aiec.modules.inventory.application.job.FlashSaleBucketJob;
+import com.example.aiec.modules.inventory.application.job.FrameConsumedQtyConsistencyJob;
+import com.example.aiec.modules.inventory.application.job.FrameReallocationJob;
+import com.example.aiec.modules.inventory.application.job.InventoryJournalCheckJob;
+import com.example.aiec.modules.inventory.application.job.InventorySnapshotJob;
 import com.example.aiec.modules.inventory.application.job.ReleaseReservationsJob;
+import com.example.aiec.modules.inventory.application.job.TentativeReservationConsistencyCheckJob;
 import com.example.aiec.modules.purchase.application.job.CreateShipmentJob;
 import com.example.aiec.modules.purchase.application.job.ExportShipmentFileJob;
 import com.example.aiec.modules.purchase.application.job.SftpPutJob;
+import com.example.aiec.modules.shared.outbox.application.job.OutboxPartitionMaintenanceJob;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.jobrunr.scheduling.JobScheduler;
@@ -21,6 +29,14 @@ public class JobRunrConfig {
     private final CreateShipmentJob createShipmentJob;
     private final ExportShipmentFileJob exportShipmentFileJob;
     private final SftpPutJob sftpPutJob;
+    private final FlashSaleBucketJob flashSaleBucketJob;
+    private final AllocationConsistencyCheckJob allocationConsistencyCheckJob;
+    private final TentativeReservationConsistencyCheckJob tentativeReservationConsistencyCheckJob;
+    private final FrameConsumedQtyConsistencyJob frameConsumedQtyConsistencyJob;
+    private final FrameReallocationJob frameReallocationJob;
+    private final InventorySnapshotJob inventorySnapshotJob;
+    private final InventoryJournalCheckJob inventoryJournalCheckJob;
+    private final OutboxPartitionMaintenanceJob outboxPartitionMaintenanceJob;
 
     @PostConstruct
     public void registerRecurringJobs() {
@@ -44,5 +60,45 @@ public class JobRunrConfig {
                 jobProperties.getSchedule().getSftpPut(),
                 () -> sftpPutJob.run()
         );
+        jobScheduler.scheduleRecurrently(
+                "flash-sale-buckets",
+                jobProperties.getSchedule().getFlashSaleBuckets(),
+                () -> flashSaleBucketJob.run()
+        );
+        jobScheduler.scheduleRecurrently(
+                "allocation-consistency-check",
+                jobProperties.getSchedule().getAllocationConsistencyCheck(),
+                () -> allocationConsistencyCheckJob.run()
+        );
+        jobScheduler.scheduleRecurrently(
+                "tentative-reservation-consistency-check",
+                jobProperties.getSchedule().getTentativeReservationConsistencyCheck(),
+                () -> tentativeReservationConsistencyCheckJob.run()
+        );
+        jobScheduler.scheduleRecurrently(
+                "frame-consumed-qty-consistency-check",
+                jobProperties.getSchedule().getFrameConsumedQtyConsistencyCheck(),
+                () -> frameConsumedQtyConsistencyJob.run()
+        );
+        jobScheduler.scheduleRecurrently(
+                "frame-reallocation",
+                jobProperties.getSchedule().getFrameReallocation(),
+                () -> frameReallocationJob.run()
+        );
+        jobScheduler.scheduleRecurrently(
+                "inventory-snapshot",
+                jobProperties.getSchedule().getInventorySnapshot(),
+                () -> inventorySnapshotJob.run()
+        );
+        jobScheduler.scheduleRecurrently(
+                "inventory-journal-check",
+                jobProperties.getSchedule().getInventoryJournalCheck(),
+                () -> inventoryJournalCheckJob.run()
+        );
+        jobScheduler.scheduleRecurrently(
+                "outbox-partition-maintenance",
+                jobProperties.getSchedule().getOutboxPartitionMaintenance(),
+                () -> outboxPartitionMaintenanceJob.run()
+        );
     }
 }
@@ -66,6 +66,7 @@ public class JobRunHistory {
     }
 
     public enum RunStatus {
+        RUNNING,
         SUCCESS,
         FAILED,
         SKIPPED
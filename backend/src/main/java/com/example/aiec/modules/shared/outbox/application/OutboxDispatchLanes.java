@@ -0,0 +1,82 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outboxイベントの処理レーン。
+ * 集約 ID のハッシュで K 本の単一スレッドのレーンへ振り分け、同じ集約のイベントは投入順に、
+ * 異なる集約のイベントは並行に処理する。集約 ID のないイベントは順番にレーンへ割り当てる。
+ * レーンごとの待ち件数（outbox.lane.depth）と投入から処理完了までの時間（outbox.lane.latency）を公開する。
+ */
+@Component
+public class OutboxDispatchLanes {
+
+    private final ThreadPoolExecutor[] lanes;
+    private final Timer[] latencyTimers;
+    private final AtomicInteger unkeyedCursor = new AtomicInteger();
+
+    public OutboxDispatchLanes(OutboxProperties outboxProperties, MeterRegistry meterRegistry) {
+        int laneCount = Math.max(1, outboxProperties.getLanes());
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        this.latencyTimers = new Timer[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(
+                    1,
+                    1,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    Thread.ofPlatform().name("outbox-lane-" + i).daemon().factory()
+            );
+            String laneTag = String.valueOf(i);
+            lanes[i] = lane;
+            Gauge.builder("outbox.lane.depth", lane, executor -> executor.getQueue().size() + executor.getActiveCount())
+                    .description("レーンで処理待ち・処理中の Outbox イベント件数")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+            latencyTimers[i] = Timer.builder("outbox.lane.latency")
+                    .description("レーンへの投入から処理完了までの時間")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 集約キー（集約種別:ID）に対応するレーンへ処理を投入する
+     */
+    public CompletableFuture<Void> submit(String aggregateId, Runnable task) {
+        int lane = laneOf(aggregateId);
+        Timer.Sample sample = Timer.start();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                task.run();
+            } finally {
+                sample.stop(latencyTimers[lane]);
+            }
+        }, lanes[lane]);
+    }
+
+    int laneOf(String aggregateId) {
+        if (aggregateId == null) {
+            return Math.floorMod(unkeyedCursor.getAndIncrement(), lanes.length);
+        }
+        return Math.floorMod(aggregateId.hashCode(), lanes.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
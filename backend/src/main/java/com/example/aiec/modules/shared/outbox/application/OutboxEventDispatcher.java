@@ -3,18 +3,30 @@ package com.example.aiec.modules.shared.outbox.application;
 import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent;
 import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent.OutboxStatus;
 import com.example.aiec.modules.shared.outbox.domain.repository.OutboxEventRepository;
+import com.example.aiec.modules.shared.outbox.handler.BatchOutboxEventHandler;
 import com.example.aiec.modules.shared.outbox.handler.OutboxEventHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Outboxイベントの個別処理（トランザクション分離のため OutboxProcessor から切り出し）。
  * processOne() を別クラスに置くことで Spring AOP が @Transactional を正常にインターセプトする。
+ * ハンドラの処理時間（outbox.handler.duration: handler, outcome）と再試行・DEAD 遷移の件数を記録する。
+ * 処理結果はリースを持つワーカーの行だけに書き込む（リース期限切れ後に他ワーカーが確保し直した行は上書きしない）。
+ * outbox_events は created_at の月次パーティションのため、状態の更新は id とあわせて created_at を条件にする。
  */
 @Service
 @RequiredArgsConstructor
@@ -22,25 +34,59 @@ import java.util.Map;
 public class OutboxEventDispatcher {
 
     private final OutboxEventRepository outboxEventRepository;
+    private final MeterRegistry meterRegistry;
 
+    /**
+     * PENDING イベントを最大 limit 件取得し、owner のリースを付けて PROCESSING にする。
+     * FOR UPDATE SKIP LOCKED で取得するため、複数ワーカー・複数ノードで同じイベントを取り合わない。
+     */
     @Transactional
-    public void processOne(OutboxEvent event, Map<String, OutboxEventHandler> handlerMap) {
-        event.setStatus(OutboxStatus.PROCESSING);
-        outboxEventRepository.save(event);
+    public List<OutboxEvent> claim(String owner, int limit, Duration leaseDuration) {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = outboxEventRepository.findPendingEventsForClaim(now, limit);
+        if (events.isEmpty()) {
+            return events;
+        }
+        Instant lockedUntil = now.plus(leaseDuration);
+        outboxEventRepository.lease(ids(events), earliestCreatedAt(events), latestCreatedAt(events), owner, lockedUntil);
+        for (OutboxEvent event : events) {
+            event.lease(owner, lockedUntil);
+        }
+        return events;
+    }
+
+    /**
+     * リース期限切れの PROCESSING イベントを PENDING へ戻す（処理中に停止したワーカーの回収）
+     */
+    @Transactional
+    public int releaseExpiredLeases() {
+        return outboxEventRepository.releaseExpiredLeases(Instant.now());
+    }
 
+    /**
+     * 確保済み（PROCESSING）のイベントを 1 件処理し、結果を 1 回の UPDATE で記録する
+     */
+    @Transactional
+    public void processOne(OutboxEvent event, Map<String, OutboxEventHandler> handlerMap) {
+        String owner = event.getLockedBy();
         OutboxEventHandler handler = handlerMap.get(event.getEventType());
         if (handler == null) {
             log.warn("未知のイベントタイプ: {}", event.getEventType());
             event.setStatus(OutboxStatus.DEAD);
             event.setErrorMessage("No handler for event type: " + event.getEventType());
-            outboxEventRepository.save(event);
+            event.releaseLease();
+            saveResult(event, owner);
+            countDead(event.getEventType());
             return;
         }
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome;
         try {
             handler.handle(event);
             event.setStatus(OutboxStatus.PROCESSED);
             event.setProcessedAt(Instant.now());
+            outcome = "success";
             log.info("Outboxイベント処理完了: id={}, type={}", event.getId(), event.getEventType());
         } catch (Exception e) {
             int newRetryCount = event.getRetryCount() + 1;
@@ -49,15 +95,94 @@ public class OutboxEventDispatcher {
 
             if (newRetryCount >= event.getMaxRetries()) {
                 event.setStatus(OutboxStatus.DEAD);
+                outcome = "dead";
+                countDead(event.getEventType());
                 log.error("Outboxイベント最大リトライ到達（DEAD）: id={}, type={}",
                         event.getId(), event.getEventType(), e);
             } else {
                 event.setStatus(OutboxStatus.PENDING);
                 event.setScheduledAt(Instant.now().plusSeconds(30L * newRetryCount));
+                outcome = "retry";
+                Counter.builder("outbox.event.retry")
+                        .description("Outboxイベントの再試行スケジュール数")
+                        .tag("event_type", event.getEventType())
+                        .register(meterRegistry)
+                        .increment();
                 log.warn("Outboxイベント再試行スケジュール: id={}, type={}, retryCount={}/{}",
                         event.getId(), event.getEventType(), newRetryCount, event.getMaxRetries(), e);
             }
         }
-        outboxEventRepository.save(event);
+        sample.stop(handlerTimer(handler, outcome));
+        event.releaseLease();
+        saveResult(event, owner);
+    }
+
+    /**
+     * 同じイベントタイプの確保済みイベントをまとめて処理し、一括 UPDATE で処理完了にする。
+     * バッチ処理が失敗した場合は例外を投げてトランザクションごとロールバックする
+     * （呼び出し元が processOne() で 1 件ずつ別トランザクションで処理し直す）。
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void processBatch(List<OutboxEvent> events, BatchOutboxEventHandler handler) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            handler.handleBatch(events);
+        } catch (Exception e) {
+            sample.stop(handlerTimer(handler, "batch_failed"));
+            throw e;
+        }
+        sample.stop(handlerTimer(handler, "batch_success"));
+        Instant processedAt = Instant.now();
+        events.stream()
+                .collect(Collectors.groupingBy(OutboxEvent::getLockedBy))
+                .forEach((owner, ownedEvents) -> {
+                    int updated = outboxEventRepository.markProcessed(ids(ownedEvents),
+                            earliestCreatedAt(ownedEvents), latestCreatedAt(ownedEvents), owner, processedAt);
+                    if (updated < ownedEvents.size()) {
+                        log.warn("リースを失ったOutboxイベントの処理結果を破棄: owner={}, count={}",
+                                owner, ownedEvents.size() - updated);
+                    }
+                });
+        log.info("Outboxイベント一括処理完了: type={}, count={}", handler.getSupportedEventType(), events.size());
+    }
+
+    private void saveResult(OutboxEvent event, String owner) {
+        int updated = event.getStatus() == OutboxStatus.PROCESSED
+                ? outboxEventRepository.markProcessed(Collections.singletonList(event.getId()),
+                        event.getCreatedAt(), event.getCreatedAt(), owner, event.getProcessedAt())
+                : outboxEventRepository.markFailed(event.getId(), event.getCreatedAt(), owner, event.getStatus().name(),
+                        event.getRetryCount(), event.getErrorMessage(), event.getScheduledAt());
+        if (updated == 0) {
+            log.warn("リースを失ったOutboxイベントの処理結果を破棄: id={}, owner={}, status={}",
+                    event.getId(), owner, event.getStatus());
+        }
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getId).toList();
+    }
+
+    private static Instant earliestCreatedAt(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getCreatedAt).min(Comparator.naturalOrder()).orElseThrow();
+    }
+
+    private static Instant latestCreatedAt(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getCreatedAt).max(Comparator.naturalOrder()).orElseThrow();
+    }
+
+    private Timer handlerTimer(OutboxEventHandler handler, String outcome) {
+        return Timer.builder("outbox.handler.duration")
+                .description("Outboxイベントハンドラの処理時間")
+                .tag("handler", handler.getClass().getSimpleName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void countDead(String eventType) {
+        Counter.builder("outbox.event.dead")
+                .description("DEAD に遷移した Outboxイベント数")
+                .tag("event_type", eventType)
+                .register(meterRegistry)
+                .increment();
     }
 }
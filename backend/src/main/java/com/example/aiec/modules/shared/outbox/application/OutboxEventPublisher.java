@@ -1,25 +1,79 @@
 package com.example.aiec.modules.shared.outbox.application;
 
-import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent;
-import com.example.aiec.modules.shared.outbox.domain.repository.OutboxEventRepository;
+import com.example.aiec.modules.shared.transaction.TransactionScoped;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Outboxへのイベント書き込みサービス。
  * 呼び出し元のトランザクション内で実行されるため、メイン処理と同一トランザクションに参加する。
+ * ペイロードは JsonNode を経由せず JSON 文字列へ直接変換し、JDBC のバッチ INSERT でまとめて書き込む。
+ * 書き込んだトランザクションのコミット直前に NOTIFY を 1 回発行し、LISTEN 中の OutboxNotificationListener を起こす
+ * （PostgreSQL は NOTIFY をコミット時に配信するため、ロールバックしたイベントでワーカーは起きない）。
  */
 @Service
 @RequiredArgsConstructor
 public class OutboxEventPublisher {
 
-    private final OutboxEventRepository outboxEventRepository;
+    static final String NOTIFY_CHANNEL = "outbox_events";
+
+    private static final String INSERT_EVENT_SQL = """
+            INSERT INTO outbox_events (event_type, aggregate_id, payload)
+            VALUES (?, ?, CAST(? AS JSONB))
+            """;
+
     private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
 
     public void publish(String eventType, String aggregateId, Object payloadObject) {
-        com.fasterxml.jackson.databind.JsonNode payload = objectMapper.valueToTree(payloadObject);
-        OutboxEvent event = OutboxEvent.create(eventType, aggregateId, payload);
-        outboxEventRepository.save(event);
+        publishAll(List.of(new OutboxMessage(eventType, aggregateId, payloadObject)));
+    }
+
+    /**
+     * 複数のイベントを 1 回のバッチ INSERT で書き込む
+     */
+    public void publishAll(List<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            rows.add(new Object[]{message.eventType(), message.aggregateId(), toJson(message)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, rows);
+        notifyOnCommit();
+    }
+
+    private String toJson(OutboxMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message.payload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outboxイベントのペイロードを JSON に変換できません: " + message.eventType(), e);
+        }
+    }
+
+    private void notifyOnCommit() {
+        if (TransactionScoped.resource(PendingNotify.class, PendingNotify::new).isEmpty()) {
+            sendNotify();
+        }
+    }
+
+    private void sendNotify() {
+        jdbcTemplate.execute("NOTIFY " + NOTIFY_CHANNEL);
+    }
+
+    private final class PendingNotify implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            sendNotify();
+        }
     }
 }
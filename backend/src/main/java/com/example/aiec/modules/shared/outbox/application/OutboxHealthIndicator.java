@@ -0,0 +1,39 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Outboxのヘルス（/actuator/health の outbox）。
+ * 最古の処理待ちイベントの遅延が app.outbox.lag-threshold-seconds 以上なら DEGRADED とする。
+ * DEGRADED は HTTP 200 のまま返すため、遅延だけでインスタンスを停止・切り離しの対象にはしない。
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxHealthIndicator implements HealthIndicator {
+
+    static final Status DEGRADED = new Status("DEGRADED", "Outboxイベントの処理が遅延しています");
+
+    private final OutboxMetrics outboxMetrics;
+    private final OutboxProperties outboxProperties;
+
+    @Override
+    public Health health() {
+        if (outboxMetrics.getRefreshedAt() == null) {
+            return Health.unknown().build();
+        }
+        long oldestPendingAgeSeconds = outboxMetrics.getOldestPendingAgeSeconds();
+        Health.Builder builder = oldestPendingAgeSeconds >= outboxProperties.getLagThresholdSeconds()
+                ? Health.status(DEGRADED)
+                : Health.up();
+        return builder
+                .withDetail("pending", outboxMetrics.getPendingCount())
+                .withDetail("oldestPendingAgeSeconds", oldestPendingAgeSeconds)
+                .withDetail("lagThresholdSeconds", outboxProperties.getLagThresholdSeconds())
+                .withDetail("refreshedAt", outboxMetrics.getRefreshedAt())
+                .build();
+    }
+}
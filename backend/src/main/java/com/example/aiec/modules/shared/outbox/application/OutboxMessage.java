@@ -0,0 +1,16 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+/**
+ * Outboxへ書き込むイベント（OutboxEventPublisher.publishAll の入力）
+ *
+ * @param aggregateId 処理順序を保つ単位のキー（aggregateKey で「集約種別:ID」の形にする）
+ */
+public record OutboxMessage(String eventType, String aggregateId, Object payload) {
+
+    /**
+     * 集約種別を含めた集約キーを返す（種別の異なる集約が同じ ID でも順序待ち・レーンを共有しないようにする）
+     */
+    public static String aggregateKey(String aggregateType, Object id) {
+        return aggregateType + ":" + id;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import com.example.aiec.modules.shared.outbox.domain.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outboxの滞留状況メトリクス。
+ * 一定間隔で PENDING イベントを集計し、イベントタイプ別の件数（outbox.pending）と
+ * 処理予定時刻を過ぎた最古のイベントの遅延（outbox.pending.oldest.age）を公開する。
+ * OutboxHealthIndicator は DB に問い合わせず、ここで集計した値を参照する。
+ */
+@Component
+@Slf4j
+public class OutboxMetrics {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MultiGauge pendingGauge;
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+    private volatile Instant refreshedAt;
+
+    public OutboxMetrics(OutboxEventRepository outboxEventRepository, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.pendingGauge = MultiGauge.builder("outbox.pending")
+                .description("イベントタイプ別の処理待ち Outbox イベント件数")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending.oldest.age", oldestPendingAgeSeconds, AtomicLong::get)
+                .description("処理予定時刻を過ぎた最古の Outbox イベントの遅延")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.metrics-refresh-interval-millis:15000}")
+    public void refresh() {
+        Instant now = Instant.now();
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        long total = 0;
+        long oldestAge = 0;
+        for (Object[] summary : outboxEventRepository.summarizePendingEvents(now)) {
+            long count = ((Number) summary[1]).longValue();
+            rows.add(MultiGauge.Row.of(Tags.of("event_type", (String) summary[0]), count));
+            total += count;
+            if (summary[2] != null) {
+                oldestAge = Math.max(oldestAge, ((Number) summary[2]).longValue());
+            }
+        }
+        pendingGauge.register(rows, true);
+        pendingCount.set(total);
+        oldestPendingAgeSeconds.set(oldestAge);
+        refreshedAt = now;
+    }
+
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public long getOldestPendingAgeSeconds() {
+        return oldestPendingAgeSeconds.get();
+    }
+
+    /**
+     * 最後に集計した日時（未集計の場合は null）
+     */
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Outboxイベントの NOTIFY を待ち受け、OutboxProcessor のワーカーを起こす。
+ * 接続プールを占有しないよう LISTEN 専用の接続を 1 本だけ張り、切断時は再接続する。
+ * 通知を取りこぼしてもワーカーのポーリング（app.outbox.poll-interval-millis）で拾われる。
+ */
+@Component
+@Slf4j
+public class OutboxNotificationListener {
+
+    private final OutboxProcessor outboxProcessor;
+    private final OutboxProperties outboxProperties;
+    private final DataSourceProperties dataSourceProperties;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public OutboxNotificationListener(OutboxProcessor outboxProcessor,
+                                      OutboxProperties outboxProperties,
+                                      DataSourceProperties dataSourceProperties) {
+        this.outboxProcessor = outboxProcessor;
+        this.outboxProperties = outboxProperties;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!outboxProperties.isListenEnabled() || outboxProperties.getWorkers() <= 0 || running) {
+            return;
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform().name("outbox-listener").daemon().start(this::listen);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + OutboxEventPublisher.NOTIFY_CHANNEL);
+                }
+                log.info("Outbox通知の待ち受けを開始: channel={}", OutboxEventPublisher.NOTIFY_CHANNEL);
+                // 待ち受け開始前に書き込まれたイベントを拾う
+                outboxProcessor.wakeUp();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(
+                            (int) Math.max(1, outboxProperties.getListenTimeoutMillis()));
+                    if (notifications != null && notifications.length > 0) {
+                        outboxProcessor.wakeUp();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Outbox通知の待ち受け接続が切断されました。再接続します", e);
+                try {
+                    Thread.sleep(Math.max(1, outboxProperties.getListenReconnectDelayMillis()));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
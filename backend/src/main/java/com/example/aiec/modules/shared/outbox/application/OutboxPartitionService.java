@@ -0,0 +1,202 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * outbox_events の月次パーティション操作。
+ * パーティションは outbox_events_pYYYYMM（UTC の月境界）で、既定パーティション outbox_events_default は
+ * 月次パーティション一覧の対象外とし、保持期間を過ぎた行だけを行単位で書き出して削除する。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxPartitionService {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("outbox_events_p(\\d{6})");
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    public static final String DEFAULT_PARTITION = "outbox_events_default";
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 月次パーティション名を古い順に取得
+     */
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList("""
+                        SELECT child.relname
+                        FROM pg_inherits i
+                        JOIN pg_class child ON child.oid = i.inhrelid
+                        JOIN pg_class parent ON parent.oid = i.inhparent
+                        WHERE parent.relname = 'outbox_events'
+                        ORDER BY child.relname
+                        """, String.class).stream()
+                .filter(name -> PARTITION_NAME.matcher(name).matches())
+                .toList();
+    }
+
+    public static String partitionName(YearMonth month) {
+        return "outbox_events_p" + month.format(MONTH_SUFFIX);
+    }
+
+    public static Optional<YearMonth> partitionMonth(String partitionName) {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        return matcher.matches() ? Optional.of(YearMonth.parse(matcher.group(1), MONTH_SUFFIX)) : Optional.empty();
+    }
+
+    /**
+     * 月次パーティションを作成する
+     * 通常は保守ジョブが数か月先まで作成しておくため、既定パーティションにその月の行はない。
+     * 保守ジョブが長く止まっていてその月の行が既定パーティションに入っている場合（障害からの復旧時）に限り、
+     * 既定パーティションを切り離してから作成し、該当行を新しいパーティションへ移して付け直す
+     * （切り離している間は既定パーティションへの書き込みが待たされる）。
+     */
+    @Transactional
+    public void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        Timestamp from = monthStart(month);
+        Timestamp to = monthStart(month.plusMonths(1));
+        String createSql = "CREATE TABLE IF NOT EXISTS %s PARTITION OF outbox_events FOR VALUES FROM ('%s') TO ('%s')"
+                .formatted(partition, from.toInstant(), to.toInstant());
+
+        Boolean hasDefaultRows = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE created_at >= ? AND created_at < ?)",
+                Boolean.class, from, to);
+        if (!Boolean.TRUE.equals(hasDefaultRows)) {
+            jdbcTemplate.execute(createSql);
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE outbox_events DETACH PARTITION " + DEFAULT_PARTITION);
+        jdbcTemplate.execute(createSql);
+        int moved = jdbcTemplate.update(
+                "INSERT INTO " + partition + " SELECT * FROM " + DEFAULT_PARTITION + " WHERE created_at >= ? AND created_at < ?",
+                from, to);
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE created_at >= ? AND created_at < ?", from, to);
+        jdbcTemplate.execute("ALTER TABLE outbox_events ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+        log.warn("Outbox rows moved from default partition: partition={}, rows={}", partition, moved);
+    }
+
+    /**
+     * 未処理・処理中のイベント件数（0 件でなければアーカイブしない）
+     */
+    public long countActiveEvents(String partitionName) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + validated(partitionName) + " WHERE status IN ('PENDING', 'PROCESSING')",
+                Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * パーティションの全行を 1 行 1 JSON の gzip ファイルへ書き出す
+     *
+     * @return 書き出した行数
+     */
+    @Transactional(readOnly = true)
+    public long exportPartition(String partitionName, Path file) {
+        return export("SELECT row_to_json(e)::TEXT FROM " + validated(partitionName) + " e ORDER BY e.id",
+                null, file, partitionName);
+    }
+
+    /**
+     * 既定パーティションのうち指定月より前に作成され、処理を終えた行を 1 行 1 JSON の gzip ファイルへ書き出す
+     *
+     * @return 書き出した行数
+     */
+    @Transactional(readOnly = true)
+    public long exportDefaultPartitionRows(YearMonth before, Path file) {
+        return export("SELECT row_to_json(e)::TEXT FROM " + DEFAULT_PARTITION + " e "
+                        + "WHERE e.created_at < ? AND e.status NOT IN ('PENDING', 'PROCESSING') ORDER BY e.id",
+                monthStart(before), file, DEFAULT_PARTITION);
+    }
+
+    /**
+     * 書き出した既定パーティションの行を削除する
+     * （削除件数が書き出し件数と異なる場合は例外でロールバックし、次回の保守で書き出し直す）
+     */
+    @Transactional
+    public void deleteDefaultPartitionRows(YearMonth before, long expectedRows) {
+        int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE created_at < ? AND status NOT IN ('PENDING', 'PROCESSING')", monthStart(before));
+        if (deleted != expectedRows) {
+            throw new IllegalStateException("Outbox default partition changed after export: exported=%d, deleted=%d"
+                    .formatted(expectedRows, deleted));
+        }
+    }
+
+    /**
+     * パーティションを切り離し、書き出し後に行数が変わっていないことを確認してから削除する
+     * （変わっていた場合は例外でロールバックし、切り離しも取り消す）
+     */
+    @Transactional
+    public void dropPartition(String partitionName, long expectedRows) {
+        String table = validated(partitionName);
+        jdbcTemplate.execute("ALTER TABLE outbox_events DETACH PARTITION " + table);
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        if (rows == null || rows != expectedRows) {
+            throw new IllegalStateException("Outbox partition changed after export: partition=%s, exported=%d, current=%s"
+                    .formatted(partitionName, expectedRows, rows));
+        }
+        jdbcTemplate.execute("DROP TABLE " + table);
+    }
+
+    private long export(String sql, Timestamp createdBefore, Path file, String source) {
+        long[] exported = {0};
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                if (createdBefore != null) {
+                    statement.setTimestamp(1, createdBefore);
+                }
+                // トランザクション内でカーソル読みにし、パーティション全体をメモリに載せない
+                statement.setFetchSize(EXPORT_FETCH_SIZE);
+                return statement;
+            }, resultSet -> {
+                try {
+                    writer.write(resultSet.getString(1));
+                    writer.newLine();
+                    exported[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export outbox partition: " + source, e);
+        }
+        return exported[0];
+    }
+
+    private static Timestamp monthStart(YearMonth month) {
+        return Timestamp.from(month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+    }
+
+    private String validated(String partitionName) {
+        if (!PARTITION_NAME.matcher(partitionName).matches()) {
+            throw new IllegalArgumentException("Invalid outbox partition name: " + partitionName);
+        }
+        return partitionName;
+    }
+}
@@ -1,36 +1,58 @@
 package com.example.aiec.modules.shared.outbox.application;
 
 import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent;
-import com.example.aiec.modules.shared.outbox.domain.repository.OutboxEventRepository;
+import com.example.aiec.modules.shared.outbox.handler.BatchOutboxEventHandler;
 import com.example.aiec.modules.shared.outbox.handler.OutboxEventHandler;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Outboxイベントポーリングワーカー。
- * 5秒ごとに PENDING イベントを最大50件取得し OutboxEventDispatcher へ委譲する。
+ * app.outbox.workers 本のワーカースレッドが PENDING イベントをリース付きで確保し、
+ * OutboxDispatchLanes で集約ごとのレーンへ振り分けて OutboxEventDispatcher へ委譲する。
+ * BatchOutboxEventHandler が処理するイベントはタイプごとにまとめて一括処理する。
+ * 待機中のワーカーは OutboxNotificationListener からの wakeUp() で即座に起き、通知がなければポーリング間隔で起きる。
+ * 確保は FOR UPDATE SKIP LOCKED で行うため、スレッド数・ノード数を増やしても同じイベントを二重に処理しない。
+ * 処理中に停止したワーカーのイベントは、リース期限切れ後に recoverExpiredLeases() で PENDING へ戻す。
  */
 @Service
 @Slf4j
 public class OutboxProcessor {
 
-    private final OutboxEventRepository outboxEventRepository;
     private final OutboxEventDispatcher dispatcher;
+    private final OutboxDispatchLanes dispatchLanes;
     private final Map<String, OutboxEventHandler> handlerMap;
+    private final OutboxProperties outboxProperties;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+    private final Object wakeup = new Object();
+    private boolean wakeupRequested;
+    private volatile boolean running;
+    private ExecutorService workers;
 
     public OutboxProcessor(
-            OutboxEventRepository outboxEventRepository,
             OutboxEventDispatcher dispatcher,
-            List<OutboxEventHandler> handlers) {
-        this.outboxEventRepository = outboxEventRepository;
+            OutboxDispatchLanes dispatchLanes,
+            List<OutboxEventHandler> handlers,
+            OutboxProperties outboxProperties) {
         this.dispatcher = dispatcher;
+        this.dispatchLanes = dispatchLanes;
+        this.outboxProperties = outboxProperties;
         this.handlerMap = handlers.stream()
                 .collect(Collectors.toMap(
                         OutboxEventHandler::getSupportedEventType,
@@ -38,11 +60,124 @@ public class OutboxProcessor {
                 ));
     }
 
-    @Scheduled(fixedDelay = 5000)
-    public void process() {
-        List<OutboxEvent> events = outboxEventRepository.findPendingEvents(Instant.now());
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int workerCount = outboxProperties.getWorkers();
+        if (workerCount <= 0 || running) {
+            return;
+        }
+        running = true;
+        workers = Executors.newFixedThreadPool(workerCount,
+                Thread.ofPlatform().name("outbox-worker-", 0).daemon().factory());
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+        log.info("Outboxワーカー起動: workers={}, node={}", workerCount, nodeId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * 待機中のワーカーを起こす（待機していないワーカーは次回の待機をスキップする）
+     */
+    public void wakeUp() {
+        synchronized (wakeup) {
+            wakeupRequested = true;
+            wakeup.notifyAll();
+        }
+    }
+
+    /**
+     * イベントを 1 バッチ確保して処理する
+     *
+     * @return 処理したイベント件数
+     */
+    public int process() {
+        List<OutboxEvent> events = dispatcher.claim(
+                nodeId + "/" + Thread.currentThread().getName(),
+                outboxProperties.getBatchSize(),
+                Duration.ofSeconds(outboxProperties.getLeaseSeconds()));
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        Map<String, List<OutboxEvent>> batches = new LinkedHashMap<>();
         for (OutboxEvent event : events) {
-            dispatcher.processOne(event, handlerMap);
+            if (handlerMap.get(event.getEventType()) instanceof BatchOutboxEventHandler) {
+                batches.computeIfAbsent(event.getEventType(), type -> new ArrayList<>()).add(event);
+            } else {
+                tasks.add(dispatchLanes.submit(event.getAggregateId(),
+                        () -> dispatcher.processOne(event, handlerMap)));
+            }
+        }
+        // 確保時に集約ごとの先頭イベントだけを取得しているため、タイプ単位でまとめても集約内の順序は崩れない
+        batches.forEach((eventType, batch) -> tasks.add(dispatchLanes.submit(eventType,
+                () -> processBatch(batch, (BatchOutboxEventHandler) handlerMap.get(eventType)))));
+        // 確保したバッチの処理完了を待ってから次を確保する（リース期間内に処理を収める）
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        return events.size();
+    }
+
+    /**
+     * リース期限切れのイベントを回収する
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.lease-recovery-interval-millis:60000}")
+    public void recoverExpiredLeases() {
+        int released = dispatcher.releaseExpiredLeases();
+        if (released > 0) {
+            log.warn("Outboxイベントのリース期限切れを回収: count={}", released);
+        }
+    }
+
+    /**
+     * 一括処理が失敗した場合は、ロールバック済みのバッチを 1 件ずつ別トランザクションで処理し直す
+     * （リトライ回数・DEAD 判定をイベントごとに行い、1 件の失敗が他のイベントの結果を巻き戻さないようにする）
+     */
+    private void processBatch(List<OutboxEvent> batch, BatchOutboxEventHandler handler) {
+        try {
+            dispatcher.processBatch(batch, handler);
+        } catch (Exception e) {
+            log.warn("Outboxイベントの一括処理に失敗したため個別に処理します: type={}, count={}",
+                    handler.getSupportedEventType(), batch.size(), e);
+            for (OutboxEvent event : batch) {
+                try {
+                    dispatcher.processOne(event, handlerMap);
+                } catch (RuntimeException ex) {
+                    // 結果を記録できなかったイベントはリース期限切れ後に回収して再処理する
+                    log.error("Outboxイベントの個別処理に失敗しました: id={}", event.getId(), ex);
+                }
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                if (process() == 0) {
+                    idle();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Outboxワーカーでエラーが発生しました", e);
+                try {
+                    idle();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void idle() throws InterruptedException {
+        synchronized (wakeup) {
+            if (!wakeupRequested) {
+                wakeup.wait(Math.max(1, outboxProperties.getPollIntervalMillis()));
+            }
+            wakeupRequested = false;
         }
     }
 }
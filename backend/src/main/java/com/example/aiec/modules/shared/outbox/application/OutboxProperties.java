@@ -0,0 +1,54 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    /**
+     * イベントを処理するワーカースレッド数（0 でポーリングを行わない）
+     */
+    private int workers = 4;
+    /**
+     * イベントを集約 ID で振り分けて処理するレーン数（各レーンは 1 スレッドで順に処理する）
+     */
+    private int lanes = 8;
+    /**
+     * 1 回の取得でワーカーが確保するイベントの最大件数
+     */
+    private int batchSize = 50;
+    /**
+     * 処理対象がないときの待ち時間（ミリ秒）。NOTIFY を取りこぼした場合の予備のポーリング間隔
+     */
+    private long pollIntervalMillis = 30000;
+    /**
+     * 確保したイベントのリース期間（秒）。期限を過ぎると他のワーカーが再取得できる
+     */
+    private long leaseSeconds = 300;
+    /**
+     * 期限切れリースを回収する間隔（ミリ秒）
+     */
+    private long leaseRecoveryIntervalMillis = 60000;
+    /**
+     * PostgreSQL の LISTEN/NOTIFY でイベント書き込み直後にワーカーを起こすか
+     */
+    private boolean listenEnabled = true;
+    /**
+     * LISTEN 接続で通知を待つ 1 回あたりの最大時間（ミリ秒）
+     */
+    private long listenTimeoutMillis = 10000;
+    /**
+     * LISTEN 接続が切れたときの再接続までの待ち時間（ミリ秒）
+     */
+    private long listenReconnectDelayMillis = 5000;
+    /**
+     * PENDING 件数・遅延メトリクスを集計する間隔（ミリ秒）
+     */
+    private long metricsRefreshIntervalMillis = 15000;
+    /**
+     * 最古の処理待ちイベントの遅延がこの秒数以上になるとヘルスを DEGRADED にする
+     */
+    private long lagThresholdSeconds = 300;
+}
@@ -0,0 +1,150 @@
+package com.example.aiec.modules.shared.outbox.application.job;
+
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.JobRunnerBase;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import com.example.aiec.modules.shared.outbox.application.OutboxPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.jobrunr.jobs.annotations.Job;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Outboxパーティション保守ジョブ
+ * 当月から monthsAhead か月先（最低 MIN_MONTHS_AHEAD か月先）までの月次パーティションを作成し、
+ * retentionMonths より古いパーティションを NDJSON.gz に書き出してから切り離して削除する。
+ * 既定パーティションに入った行も、保持期間を過ぎて処理を終えたものは書き出してから削除する。
+ * 未処理・処理中のイベントが残っているパーティションは削除せず、次回以降に持ち越す。
+ * パーティションの作成に失敗してもアーカイブは続ける。
+ */
+@Service
+@Slf4j
+public class OutboxPartitionMaintenanceJob extends JobRunnerBase {
+
+    /**
+     * 保守ジョブが止まっても月境界までに既定パーティションへ行が入らないよう、常に作成しておく先の月数
+     */
+    static final int MIN_MONTHS_AHEAD = 2;
+
+    private final OutboxPartitionService outboxPartitionService;
+
+    public OutboxPartitionMaintenanceJob(JobRunHistoryRepository jobRunHistoryRepository,
+                                         JobProperties jobProperties,
+                                         OutboxPartitionService outboxPartitionService) {
+        super(jobRunHistoryRepository, jobProperties);
+        this.outboxPartitionService = outboxPartitionService;
+    }
+
+    @Job(name = "outbox-partition-maintenance", retries = 0)
+    public void run() {
+        execute(
+                "outbox-partition-maintenance",
+                getJobProperties().getEnabled().isOutboxPartitionMaintenance(),
+                () -> maintain(YearMonth.now(ZoneOffset.UTC))
+        );
+    }
+
+    /**
+     * @return 作成・アーカイブしたパーティション数
+     */
+    int maintain(YearMonth currentMonth) {
+        JobProperties.OutboxPartition config = getJobProperties().getOutboxPartition();
+        Set<String> existing = new HashSet<>(outboxPartitionService.findPartitionNames());
+
+        int created = 0;
+        for (int i = 0; i <= Math.max(MIN_MONTHS_AHEAD, config.getMonthsAhead()); i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            if (existing.contains(OutboxPartitionService.partitionName(month))) {
+                continue;
+            }
+            try {
+                outboxPartitionService.createPartition(month);
+                created++;
+            } catch (RuntimeException e) {
+                // 作成に失敗した月は次回に持ち越し、古いパーティションのアーカイブは続ける
+                log.error("Failed to create outbox partition: month={}", month, e);
+            }
+        }
+
+        YearMonth oldestRetained = currentMonth.minusMonths(Math.max(0, config.getRetentionMonths()));
+        int archived = 0;
+        for (String partition : existing) {
+            YearMonth month = OutboxPartitionService.partitionMonth(partition).orElse(null);
+            if (month == null || !month.isBefore(oldestRetained)) {
+                continue;
+            }
+            long activeEvents = outboxPartitionService.countActiveEvents(partition);
+            if (activeEvents > 0) {
+                log.warn("Outbox partition has unprocessed events, skip archiving: partition={}, active={}",
+                        partition, activeEvents);
+                continue;
+            }
+            archive(partition, Paths.get(config.getArchiveDir()));
+            archived++;
+        }
+        if (archiveDefaultPartitionRows(oldestRetained, Paths.get(config.getArchiveDir()))) {
+            archived++;
+        }
+
+        log.info("Outbox partition maintenance completed: created={}, archived={}", created, archived);
+        return created + archived;
+    }
+
+    private void archive(String partition, Path archiveDir) {
+        Path archiveFile = archiveDir.resolve(partition + ".ndjson.gz");
+        Path tempFile = archiveDir.resolve(partition + ".ndjson.gz.tmp");
+        try {
+            Files.createDirectories(archiveDir);
+            long exported = outboxPartitionService.exportPartition(partition, tempFile);
+            moveAtomically(tempFile, archiveFile);
+            outboxPartitionService.dropPartition(partition, exported);
+            log.info("Outbox partition archived: partition={}, rows={}, file={}", partition, exported, archiveFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive outbox partition: " + partition, e);
+        }
+    }
+
+    /**
+     * @return 既定パーティションの行を書き出して削除した場合 true
+     */
+    private boolean archiveDefaultPartitionRows(YearMonth before, Path archiveDir) {
+        String name = "%s_before%s_%d".formatted(OutboxPartitionService.DEFAULT_PARTITION,
+                before.format(DateTimeFormatter.ofPattern("yyyyMM")), System.currentTimeMillis());
+        Path archiveFile = archiveDir.resolve(name + ".ndjson.gz");
+        Path tempFile = archiveDir.resolve(name + ".ndjson.gz.tmp");
+        try {
+            Files.createDirectories(archiveDir);
+            long exported = outboxPartitionService.exportDefaultPartitionRows(before, tempFile);
+            if (exported == 0) {
+                Files.deleteIfExists(tempFile);
+                return false;
+            }
+            moveAtomically(tempFile, archiveFile);
+            outboxPartitionService.deleteDefaultPartitionRows(before, exported);
+            log.warn("Outbox default partition rows archived: rows={}, file={}", exported, archiveFile);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive outbox default partition rows", e);
+        }
+    }
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -48,6 +48,12 @@ public class OutboxEvent {
     @Column(name = "scheduled_at", nullable = false)
     private Instant scheduledAt = Instant.now();
 
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
     @Column(name = "processed_at")
     private Instant processedAt;
 
@@ -63,6 +69,23 @@ public class OutboxEvent {
         PENDING, PROCESSING, PROCESSED, DEAD
     }
 
+    /**
+     * 処理権（リース）を取得して PROCESSING にする
+     */
+    public void lease(String owner, Instant lockedUntil) {
+        this.status = OutboxStatus.PROCESSING;
+        this.lockedBy = owner;
+        this.lockedUntil = lockedUntil;
+    }
+
+    /**
+     * 処理権（リース）を手放す
+     */
+    public void releaseLease() {
+        this.lockedBy = null;
+        this.lockedUntil = null;
+    }
+
     public static OutboxEvent create(String eventType, String aggregateId, JsonNode payload) {
         OutboxEvent e = new OutboxEvent();
         e.eventType = eventType;
@@ -1,20 +1,123 @@
 package com.example.aiec.modules.shared.outbox.domain.repository;
 
 import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
 
-    @Query("""
-        SELECT e FROM OutboxEvent e
-        WHERE e.status = 'PENDING'
-          AND e.scheduledAt <= :now
-        ORDER BY e.scheduledAt ASC
-        LIMIT 50
-        """)
-    List<OutboxEvent> findPendingEvents(Instant now);
+    /**
+     * 処理可能な PENDING イベントを行ロック付きで取得（他ワーカーがロック中の行は読み飛ばす）。
+     * 同じ集約に先行する未処理・処理中のイベントがあるものは取得しない（集約内の処理順序を保つ）
+     * aggregate_id は集約種別を含むキー（例: order:123）のため、種別の異なる集約は同じ ID でも互いを待たない
+     * 取得したエンティティは変更を追跡しない（リースは lease() で created_at を指定して書き込む）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = """
+            SELECT * FROM outbox_events e
+            WHERE e.status = 'PENDING'
+              AND e.scheduled_at <= :now
+              AND NOT EXISTS (
+                  SELECT 1 FROM outbox_events p
+                  WHERE p.aggregate_id = e.aggregate_id
+                    AND p.id < e.id
+                    AND p.status IN ('PENDING', 'PROCESSING')
+              )
+            ORDER BY e.scheduled_at, e.id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> findPendingEventsForClaim(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * 取得済みのイベントに owner のリースを付けて PROCESSING にする
+     * created_at の範囲を条件に含め、該当する月次パーティションだけを更新対象にする
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE outbox_events
+            SET status = 'PROCESSING', locked_by = :owner, locked_until = :lockedUntil
+            WHERE id IN (:ids)
+              AND created_at BETWEEN :createdFrom AND :createdTo
+            """, nativeQuery = true)
+    int lease(@Param("ids") Collection<Long> ids,
+              @Param("createdFrom") Instant createdFrom,
+              @Param("createdTo") Instant createdTo,
+              @Param("owner") String owner,
+              @Param("lockedUntil") Instant lockedUntil);
+
+    /**
+     * リース期限を過ぎた PROCESSING イベントを PENDING へ戻す
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE outbox_events
+            SET status = 'PENDING', locked_by = NULL, locked_until = NULL
+            WHERE status = 'PROCESSING'
+              AND locked_until < :now
+            """, nativeQuery = true)
+    int releaseExpiredLeases(@Param("now") Instant now);
+
+    /**
+     * ID 指定で一括して処理完了にする（リースも解放する）
+     * owner のリースが付いた行だけを更新する（リース期限切れ後に他ワーカーが確保し直した行は上書きしない）
+     * created_at の範囲を条件に含め、該当する月次パーティションだけを更新対象にする
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE outbox_events
+            SET status = 'PROCESSED', processed_at = :processedAt, locked_by = NULL, locked_until = NULL
+            WHERE id IN (:ids)
+              AND created_at BETWEEN :createdFrom AND :createdTo
+              AND status = 'PROCESSING'
+              AND locked_by = :owner
+            """, nativeQuery = true)
+    int markProcessed(@Param("ids") Collection<Long> ids,
+                      @Param("createdFrom") Instant createdFrom,
+                      @Param("createdTo") Instant createdTo,
+                      @Param("owner") String owner,
+                      @Param("processedAt") Instant processedAt);
+
+    /**
+     * 処理失敗の結果（再試行待ちの PENDING または DEAD）を記録する（リースも解放する）
+     * owner のリースが付いた行だけを更新する
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE outbox_events
+            SET status = CAST(:status AS outbox_event_status), retry_count = :retryCount,
+                error_message = :errorMessage, scheduled_at = :scheduledAt,
+                locked_by = NULL, locked_until = NULL
+            WHERE id = :id
+              AND created_at = :createdAt
+              AND status = 'PROCESSING'
+              AND locked_by = :owner
+            """, nativeQuery = true)
+    int markFailed(@Param("id") Long id, @Param("createdAt") Instant createdAt,
+                   @Param("owner") String owner, @Param("status") String status,
+                   @Param("retryCount") int retryCount, @Param("errorMessage") String errorMessage,
+                   @Param("scheduledAt") Instant scheduledAt);
+
+    /**
+     * イベントタイプ別の PENDING 件数と、処理予定時刻を過ぎた最古のイベントの経過秒数
+     * 戻り値: [event_type, pending_count, oldest_due_age_seconds（期限到来分がなければ NULL）]
+     */
+    @Query(value = """
+            SELECT event_type,
+                   COUNT(*),
+                   CAST(EXTRACT(EPOCH FROM (:now - MIN(scheduled_at) FILTER (WHERE scheduled_at <= :now))) AS BIGINT)
+            FROM outbox_events
+            WHERE status = 'PENDING'
+            GROUP BY event_type
+            """, nativeQuery = true)
+    List<Object[]> summarizePendingEvents(@Param("now") Instant now);
 }
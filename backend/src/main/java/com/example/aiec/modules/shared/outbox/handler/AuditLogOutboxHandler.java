@@ -1,25 +1,42 @@
 package com.example.aiec.modules.shared.outbox.handler;
 
-import com.example.aiec.modules.shared.domain.entity.OperationHistory;
-import com.example.aiec.modules.shared.domain.repository.OperationHistoryRepository;
+import com.example.aiec.modules.shared.domain.model.ActorType;
 import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * OPERATION_PERFORMED イベントの処理ハンドラ（監査ログ記録）。
- * OutboxEventDispatcher.processOne() とは別トランザクション（REQUIRES_NEW）で実行する。
+ * OutboxEventDispatcher とは別トランザクション（REQUIRES_NEW）で実行する。
+ * まとめて受け取ったイベントは複数行 INSERT で operation_histories に書き込む。
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class AuditLogOutboxHandler implements OutboxEventHandler {
+public class AuditLogOutboxHandler implements BatchOutboxEventHandler {
+
+    /** 1 文あたりの最大行数（バインド変数の上限 65535 に収める） */
+    private static final int MAX_ROWS_PER_INSERT = 1000;
 
-    private final OperationHistoryRepository operationHistoryRepository;
+    private static final String INSERT_PREFIX = """
+            INSERT INTO operation_histories
+                (operation_type, performed_by, request_path, details, created_at, created_by_type, updated_at, is_deleted)
+            VALUES
+            """;
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public String getSupportedEventType() {
@@ -29,15 +46,29 @@ public class AuditLogOutboxHandler implements OutboxEventHandler {
     @Override
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void handle(OutboxEvent event) throws Exception {
-        JsonNode payload = event.getPayload();
-
-        OperationHistory history = new OperationHistory();
-        history.setOperationType(payload.path("operationType").asText());
-        history.setPerformedBy(payload.path("performedBy").asText());
-        history.setRequestPath(payload.path("requestPath").asText());
-        history.setDetails(payload.path("details").asText());
+        handleBatch(List.of(event));
+    }
 
-        operationHistoryRepository.save(history);
-        log.debug("監査ログ記録完了: outboxId={}, type={}", event.getId(), history.getOperationType());
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void handleBatch(List<OutboxEvent> events) throws Exception {
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int from = 0; from < events.size(); from += MAX_ROWS_PER_INSERT) {
+            List<OutboxEvent> chunk = events.subList(from, Math.min(events.size(), from + MAX_ROWS_PER_INSERT));
+            List<Object> args = new ArrayList<>(chunk.size() * 7);
+            for (OutboxEvent event : chunk) {
+                JsonNode payload = event.getPayload();
+                args.add(payload.path("operationType").asText());
+                args.add(payload.path("performedBy").asText());
+                args.add(payload.path("requestPath").asText());
+                args.add(payload.path("details").asText());
+                args.add(now);
+                args.add(ActorType.SYSTEM.name());
+                args.add(now);
+            }
+            jdbcTemplate.update(INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), ROW_PLACEHOLDER)),
+                    args.toArray());
+        }
+        log.debug("監査ログ記録完了: count={}", events.size());
     }
 }
@@ -0,0 +1,14 @@
+package com.example.aiec.modules.shared.outbox.handler;
+
+import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * 同じイベントタイプのイベントをまとめて処理できるハンドラ。
+ * handleBatch() が例外を投げた場合、バッチのトランザクションはロールバックされ、
+ * OutboxProcessor がバッチ内のイベントを handle() で 1 件ずつ別トランザクションで処理し直す。
+ */
+public interface BatchOutboxEventHandler extends OutboxEventHandler {
+    void handleBatch(List<OutboxEvent> events) throws Exception;
+}
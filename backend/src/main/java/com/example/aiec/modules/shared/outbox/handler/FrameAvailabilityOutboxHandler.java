@@ -1,20 +1,20 @@
 package com.example.aiec.modules.shared.outbox.handler;
 
-import com.example.aiec.modules.inventory.application.service.FrameAllocationService;
+import com.example.aiec.modules.inventory.application.service.FrameAllocationEngine;
 import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * 有効在庫増加イベントを契機に枠在庫商品の本引当を再試行する。
+ * 同一商品のイベントは FrameAllocationEngine で短時間まとめてから 1 回だけ本引当する。
+ * 本引当の失敗時の再試行は Outbox ではなく FrameAllocationEngine が行う。
  */
 @Component
 @RequiredArgsConstructor
 public class FrameAvailabilityOutboxHandler implements OutboxEventHandler {
 
-    private final FrameAllocationService frameAllocationService;
+    private final FrameAllocationEngine frameAllocationEngine;
 
     @Override
     public String getSupportedEventType() {
@@ -22,11 +22,10 @@ public class FrameAvailabilityOutboxHandler implements OutboxEventHandler {
     }
 
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void handle(OutboxEvent event) {
         Long productId = event.getPayload().path("productId").asLong();
         if (productId > 0) {
-            frameAllocationService.allocatePendingByProductId(productId);
+            frameAllocationEngine.submit(productId);
         }
     }
 }
@@ -0,0 +1,38 @@
+package com.example.aiec.modules.shared.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 現在のトランザクションに 1 つだけ登録する TransactionSynchronization の取得
+ * トランザクション内で溜めた変更をコミット前後にまとめて反映する処理で使う。
+ */
+public final class TransactionScoped {
+
+    private TransactionScoped() {
+    }
+
+    /**
+     * 現在のトランザクションに登録済みの type のインスタンスを返す（未登録なら factory で作成して登録する）
+     *
+     * @return トランザクション同期が有効でない場合は空
+     */
+    public static <T extends TransactionSynchronization> Optional<T> resource(Class<T> type, Supplier<T> factory) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.empty();
+        }
+        T registered = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(type::isInstance)
+                .map(type::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    T created = factory.get();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        return Optional.of(registered);
+    }
+}
@@ -0,0 +1,8 @@
+-- Outbox イベントの処理権（リース）を記録する列
+ALTER TABLE outbox_events ADD COLUMN locked_by VARCHAR(100);
+ALTER TABLE outbox_events ADD COLUMN locked_until TIMESTAMP WITH TIME ZONE;
+
+-- 期限切れリースの回収用（処理中のイベントのみ）
+CREATE INDEX idx_outbox_events_processing_lease
+    ON outbox_events (locked_until)
+    WHERE status = 'PROCESSING';
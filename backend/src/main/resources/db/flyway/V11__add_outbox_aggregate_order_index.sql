@@ -0,0 +1,4 @@
+-- 集約ごとの処理順序判定用（未処理・処理中のイベントのみ）
+CREATE INDEX idx_outbox_events_aggregate_active
+    ON outbox_events (aggregate_id, id)
+    WHERE status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,9 @@
+-- Outbox イベント ID を 50 件単位で払い出すシーケンスへ切り替える（Hibernate の pooled 採番で INSERT をバッチ化するため）
+CREATE SEQUENCE outbox_events_seq INCREMENT BY 50;
+
+-- pooled 採番は払い出した値を上限とする 50 件を使うため、既存の最大 ID + 50 から始める
+SELECT setval('outbox_events_seq', (SELECT COALESCE(MAX(id), 0) FROM outbox_events) + 50, false);
+
+ALTER TABLE outbox_events ALTER COLUMN id SET DEFAULT nextval('outbox_events_seq');
+ALTER SEQUENCE outbox_events_seq OWNED BY outbox_events.id;
+DROP SEQUENCE outbox_events_id_seq;
@@ -0,0 +1,70 @@
+-- outbox_events を created_at の月単位レンジパーティションへ移行する
+-- 古いパーティションは Outbox パーティション保守ジョブが NDJSON.gz に書き出してから削除する
+
+ALTER TABLE outbox_events RENAME TO outbox_events_legacy;
+ALTER TABLE outbox_events_legacy RENAME CONSTRAINT outbox_events_pkey TO outbox_events_legacy_pkey;
+ALTER SEQUENCE outbox_events_seq OWNED BY NONE;
+
+CREATE TABLE outbox_events (
+    id BIGINT NOT NULL DEFAULT nextval('outbox_events_seq'),
+    event_type VARCHAR(100) NOT NULL,
+    aggregate_id VARCHAR(255),
+    payload JSONB NOT NULL,
+    status outbox_event_status NOT NULL DEFAULT 'PENDING',
+    retry_count INT NOT NULL DEFAULT 0,
+    max_retries INT NOT NULL DEFAULT 3,
+    error_message TEXT,
+    scheduled_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_by VARCHAR(100),
+    locked_until TIMESTAMP WITH TIME ZONE,
+
+    -- パーティションキーを含める必要があるため (id, created_at) を主キーとする
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE outbox_events_seq OWNED BY outbox_events.id;
+
+-- 既存データの最古の月から 3 か月先までの月次パーティション（UTC 月境界）
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE(
+        (SELECT MIN(created_at) FROM outbox_events_legacy), CURRENT_TIMESTAMP) AT TIME ZONE 'UTC')::DATE;
+    last_month DATE := (date_trunc('month', CURRENT_TIMESTAMP AT TIME ZONE 'UTC') + INTERVAL '3 months')::DATE;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF outbox_events FOR VALUES FROM (%L) TO (%L)',
+            'outbox_events_p' || to_char(month_start, 'YYYYMM'),
+            month_start::TIMESTAMP AT TIME ZONE 'UTC',
+            (month_start + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC');
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END
+$$;
+
+-- 保守ジョブが止まっていても書き込みを失敗させないための受け皿
+CREATE TABLE outbox_events_default PARTITION OF outbox_events DEFAULT;
+
+INSERT INTO outbox_events
+    (id, event_type, aggregate_id, payload, status, retry_count, max_retries, error_message,
+     scheduled_at, processed_at, created_at, locked_by, locked_until)
+SELECT id, event_type, aggregate_id, payload, status, retry_count, max_retries, error_message,
+       scheduled_at, processed_at, created_at, locked_by, locked_until
+FROM outbox_events_legacy;
+
+DROP TABLE outbox_events_legacy;
+
+-- 処理待ちイベントのみの部分インデックス（履歴の量に関係なく取得対象の走査を小さく保つ）
+CREATE INDEX idx_outbox_events_pending
+    ON outbox_events (scheduled_at, id)
+    WHERE status = 'PENDING';
+
+CREATE INDEX idx_outbox_events_processing_lease
+    ON outbox_events (locked_until)
+    WHERE status = 'PROCESSING';
+
+CREATE INDEX idx_outbox_events_aggregate_active
+    ON outbox_events (aggregate_id, id)
+    WHERE status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,14 @@
+-- outbox_events.aggregate_id を集約種別付きのキー（order:123 / product:123）へ揃える
+-- 種別の異なる集約が同じ ID を持つ場合に、処理順序待ちやディスパッチレーンを共有しないようにする
+
+UPDATE outbox_events
+SET aggregate_id = 'order:' || aggregate_id
+WHERE event_type IN ('ORDER_PLACED', 'ORDER_CONFIRMED')
+  AND aggregate_id IS NOT NULL
+  AND aggregate_id NOT LIKE '%:%';
+
+UPDATE outbox_events
+SET aggregate_id = 'product:' || aggregate_id
+WHERE event_type = 'STOCK_AVAILABILITY_INCREASED'
+  AND aggregate_id IS NOT NULL
+  AND aggregate_id NOT LIKE '%:%';
@@ -0,0 +1,4 @@
+-- outbox_events_seq の増分を 1 に戻す
+-- Outbox イベントは JDBC のバッチ INSERT で列の既定値（nextval）から採番しており、
+-- Hibernate の pooled 採番は使われないため、増分 50 では 1 件ごとに 50 件分の ID を消費していた
+ALTER SEQUENCE outbox_events_seq INCREMENT BY 1;
@@ -0,0 +1,40 @@
+-- 仮引当数量の集計カウンタ（REAL: location_stocks / FRAME: sales_limits）
+ALTER TABLE location_stocks
+    ADD COLUMN reserved_tentative_qty INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE location_stocks
+    ADD CONSTRAINT ck_location_stocks_reserved_tentative_qty_non_negative CHECK (reserved_tentative_qty >= 0);
+
+ALTER TABLE sales_limits
+    ADD COLUMN reserved_tentative_qty INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE sales_limits
+    ADD CONSTRAINT ck_sales_limits_reserved_tentative_qty_non_negative CHECK (reserved_tentative_qty >= 0);
+
+-- 未削除の仮引当から初期値を設定（期限切れ未掃除分は release-reservations ジョブが減算するため含める）
+UPDATE location_stocks ls
+SET reserved_tentative_qty = agg.quantity
+FROM (
+    SELECT r.product_id, SUM(r.quantity) AS quantity
+    FROM stock_reservations r
+    JOIN products p ON p.id = r.product_id
+    WHERE r.reservation_type = 'TENTATIVE'
+      AND r.is_deleted = FALSE
+      AND p.allocation_type = 'REAL'
+    GROUP BY r.product_id
+) agg
+WHERE ls.product_id = agg.product_id
+  AND ls.location_id = 1;
+
+UPDATE sales_limits sl
+SET reserved_tentative_qty = agg.quantity
+FROM (
+    SELECT r.product_id, SUM(r.quantity) AS quantity
+    FROM stock_reservations r
+    JOIN products p ON p.id = r.product_id
+    WHERE r.reservation_type = 'TENTATIVE'
+      AND r.is_deleted = FALSE
+      AND p.allocation_type = 'FRAME'
+    GROUP BY r.product_id
+) agg
+WHERE sl.product_id = agg.product_id;
@@ -0,0 +1,21 @@
+-- 枠在庫の消費数量カウンタ（キャンセル以外の注文明細数量の合計）
+ALTER TABLE sales_limits
+    ADD COLUMN consumed_qty INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE sales_limits
+    ADD CONSTRAINT ck_sales_limits_consumed_qty_non_negative CHECK (consumed_qty >= 0);
+
+UPDATE sales_limits sl
+SET consumed_qty = agg.quantity
+FROM (
+    SELECT oi.product_id, SUM(oi.quantity) AS quantity
+    FROM order_items oi
+    JOIN orders o ON o.id = oi.order_id
+    JOIN products p ON p.id = oi.product_id
+    WHERE oi.is_deleted = FALSE
+      AND o.is_deleted = FALSE
+      AND o.status <> 'CANCELLED'
+      AND p.allocation_type = 'FRAME'
+    GROUP BY oi.product_id
+) agg
+WHERE sl.product_id = agg.product_id;
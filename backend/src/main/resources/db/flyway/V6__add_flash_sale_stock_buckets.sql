@@ -0,0 +1,32 @@
+-- フラッシュセール用の在庫バケット（拠点在庫の有効在庫を N 行に切り出して仮引当の行ロック競合を分散）
+CREATE TABLE stock_buckets (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    bucket_no INTEGER NOT NULL,
+    allocated_qty INTEGER NOT NULL DEFAULT 0,
+    reserved_qty INTEGER NOT NULL DEFAULT 0,
+
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_stock_buckets_product FOREIGN KEY (product_id)
+        REFERENCES products(id) ON DELETE CASCADE,
+    CONSTRAINT uk_stock_buckets_product_bucket UNIQUE (product_id, bucket_no),
+    CONSTRAINT ck_stock_buckets_allocated_qty_non_negative CHECK (allocated_qty >= 0),
+    CONSTRAINT ck_stock_buckets_reserved_qty_non_negative CHECK (reserved_qty >= 0)
+);
+
+CREATE TRIGGER update_stock_buckets_updated_at
+    BEFORE UPDATE ON stock_buckets
+    FOR EACH ROW
+    EXECUTE FUNCTION update_updated_at_column();
+
+-- 0 はフラッシュセール無効。切り出した数量は reserved_tentative_qty に含める
+ALTER TABLE location_stocks
+    ADD COLUMN flash_bucket_count INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE location_stocks
+    ADD CONSTRAINT ck_location_stocks_flash_bucket_count_non_negative CHECK (flash_bucket_count >= 0);
+
+ALTER TABLE stock_reservations
+    ADD COLUMN bucket_no INTEGER;
@@ -0,0 +1,14 @@
+-- 期限切れ仮引当の解放をチャンク単位で行うための部分インデックス
+CREATE INDEX idx_stock_reservations_active_expiry
+    ON stock_reservations (reservation_type, expires_at)
+    WHERE is_deleted = FALSE;
+
+-- 保持期間を過ぎた soft delete 済み引当の物理削除用
+CREATE INDEX idx_stock_reservations_deleted_at
+    ON stock_reservations (deleted_at)
+    WHERE is_deleted = TRUE;
+
+-- チャンク処理ジョブの実行中ステータス
+ALTER TABLE job_run_history DROP CONSTRAINT job_run_history_status_check;
+ALTER TABLE job_run_history ADD CONSTRAINT job_run_history_status_check
+    CHECK (status IN ('RUNNING', 'SUCCESS', 'FAILED', 'SKIPPED'));
@@ -0,0 +1,3 @@
+-- 仮引当・注文明細の引当拠点（NULL は既定拠点。拠点の優先順は app.inventory.locations.priority）
+ALTER TABLE stock_reservations ADD COLUMN location_id INTEGER;
+ALTER TABLE order_items ADD COLUMN location_id INTEGER;
@@ -0,0 +1,42 @@
+-- 在庫仕訳（拠点在庫の available / committed / reserved_tentative の増減を追記のみで記録する）
+CREATE TABLE inventory_journal (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    location_id INTEGER NOT NULL,
+    entry_type VARCHAR(30) NOT NULL,
+    available_delta INTEGER NOT NULL DEFAULT 0,
+    committed_delta INTEGER NOT NULL DEFAULT 0,
+    tentative_delta INTEGER NOT NULL DEFAULT 0,
+    order_id BIGINT,
+    recorded_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    CONSTRAINT fk_inventory_journal_product FOREIGN KEY (product_id)
+        REFERENCES products(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_inventory_journal_product_location ON inventory_journal (product_id, location_id, id);
+
+-- 拠点在庫の定期スナップショット（last_journal_id までの仕訳を反映済みの値）
+CREATE TABLE inventory_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    location_id INTEGER NOT NULL,
+    available_qty INTEGER NOT NULL,
+    committed_qty INTEGER NOT NULL,
+    reserved_tentative_qty INTEGER NOT NULL,
+    last_journal_id BIGINT NOT NULL,
+    taken_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    CONSTRAINT fk_inventory_snapshots_product FOREIGN KEY (product_id)
+        REFERENCES products(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_inventory_snapshots_product_location ON inventory_snapshots (product_id, location_id, taken_at);
+CREATE INDEX idx_inventory_snapshots_last_journal_id ON inventory_snapshots (last_journal_id);
+
+-- 仕訳の起点となる初回スナップショット
+INSERT INTO inventory_snapshots
+    (product_id, location_id, available_qty, committed_qty, reserved_tentative_qty, last_journal_id, taken_at)
+SELECT product_id, location_id, available_qty, committed_qty, reserved_tentative_qty, 0, CURRENT_TIMESTAMP
+FROM location_stocks
+WHERE is_deleted = FALSE;
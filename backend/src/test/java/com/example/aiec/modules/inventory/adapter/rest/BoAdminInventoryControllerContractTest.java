@@ -2,15 +2,24 @@ package com.example.aiec.modules.inventory.adapter.rest;
 
 import com.example.aiec.modules.backoffice.domain.entity.BoUser;
 import com.example.aiec.modules.backoffice.domain.service.BoAuthService;
+import com.example.aiec.modules.inventory.application.port.FlashSaleDto;
 import com.example.aiec.modules.inventory.application.port.InventoryCommandPort;
+import com.example.aiec.modules.inventory.application.port.InventoryJournalQueryPort;
 import com.example.aiec.modules.inventory.application.port.InventoryQueryPort;
 import com.example.aiec.modules.inventory.application.port.InventoryStatusDto;
+import com.example.aiec.modules.inventory.application.port.InventoryStatusListResponse;
+import com.example.aiec.modules.inventory.application.port.InventoryStatusSort;
+import com.example.aiec.modules.inventory.application.port.LocationStockBalanceDto;
+import com.example.aiec.modules.inventory.application.port.StockImportCommandPort;
+import com.example.aiec.modules.inventory.application.port.StockImportDto;
+import com.example.aiec.modules.inventory.application.port.StockImportFormat;
 import com.example.aiec.modules.inventory.domain.entity.InventoryAdjustment;
 import com.example.aiec.modules.inventory.domain.repository.InventoryAdjustmentRepository;
 import com.example.aiec.modules.product.domain.entity.Product;
 import com.example.aiec.modules.shared.domain.model.PermissionLevel;
 import com.example.aiec.modules.shared.exception.GlobalExceptionHandler;
 import com.example.aiec.modules.shared.outbox.application.OutboxEventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,16 +27,27 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +59,12 @@ class BoAdminInventoryControllerContractTest {
     @Mock
     InventoryCommandPort inventoryCommand;
 
+    @Mock
+    StockImportCommandPort stockImportCommand;
+
+    @Mock
+    InventoryJournalQueryPort inventoryJournalQuery;
+
     @Mock
     InventoryAdjustmentRepository adjustmentRepository;
 
@@ -55,9 +81,12 @@ class BoAdminInventoryControllerContractTest {
         BoAdminInventoryController controller = new BoAdminInventoryController(
                 inventoryQuery,
                 inventoryCommand,
+                stockImportCommand,
+                inventoryJournalQuery,
                 adjustmentRepository,
                 boAuthService,
-                outboxEventPublisher
+                outboxEventPublisher,
+                new ObjectMapper()
         );
         mockMvc = MockMvcBuilders
                 .standaloneSetup(controller)
@@ -93,6 +122,53 @@ class BoAdminInventoryControllerContractTest {
                 .andExpect(jsonPath("$.data[0].productId").value(1));
     }
 
+    @Test
+    void searchInventory_withAdmin_shouldReturnPagedInventory() throws Exception {
+        InventoryStatusDto dto = InventoryStatusDto.builder()
+                .productId(1L)
+                .productName("商品A")
+                .categoryId(3L)
+                .availableStock(0)
+                .build();
+        when(boAuthService.verifyToken("admin-token")).thenReturn(buildBoUser(PermissionLevel.ADMIN));
+        when(inventoryQuery.searchInventoryStatus(3L, InventoryStatusSort.LOW_STOCK, 2, 20))
+                .thenReturn(new InventoryStatusListResponse(List.of(dto), 21L, 2, 20));
+
+        mockMvc.perform(get("/api/bo/admin/inventory/status")
+                        .header("Authorization", "Bearer admin-token")
+                        .param("categoryId", "3")
+                        .param("page", "2")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.items[0].productId").value(1))
+                .andExpect(jsonPath("$.data.total").value(21));
+    }
+
+    @Test
+    void exportInventory_withAdmin_shouldStreamNdjsonLines() throws Exception {
+        when(boAuthService.verifyToken("admin-token")).thenReturn(buildBoUser(PermissionLevel.ADMIN));
+        doAnswer(invocation -> {
+            Consumer<InventoryStatusDto> consumer = invocation.getArgument(1);
+            consumer.accept(InventoryStatusDto.builder().productId(1L).availableStock(5).build());
+            consumer.accept(InventoryStatusDto.builder().productId(2L).availableStock(0).build());
+            return null;
+        }).when(inventoryQuery).exportInventoryStatus(eq(null), any());
+
+        MvcResult result = mockMvc.perform(get("/api/bo/admin/inventory/export")
+                        .header("Authorization", "Bearer admin-token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body.lines()).hasSize(2);
+        assertThat(body.lines().findFirst()).hasValueSatisfying(line -> assertThat(line).contains("\"productId\":1"));
+    }
+
     @Test
     void adjustStock_shouldReturnAdjustmentResult() throws Exception {
         InventoryAdjustment adjustment = new InventoryAdjustment();
@@ -107,7 +183,7 @@ class BoAdminInventoryControllerContractTest {
 
         BoUser admin = buildBoUser(PermissionLevel.ADMIN);
         when(boAuthService.verifyToken("admin-token")).thenReturn(admin);
-        when(inventoryCommand.adjustStock(eq(1L), eq(5), eq("棚卸調整"), eq(admin))).thenReturn(adjustment);
+        when(inventoryCommand.adjustStock(eq(1L), isNull(), eq(5), eq("棚卸調整"), eq(admin))).thenReturn(adjustment);
 
         mockMvc.perform(post("/api/bo/admin/inventory/adjust")
                         .header("Authorization", "Bearer admin-token")
@@ -124,6 +200,23 @@ class BoAdminInventoryControllerContractTest {
                 .andExpect(jsonPath("$.data.quantityDelta").value(5));
     }
 
+    @Test
+    void importStock_withNdjsonBody_shouldSubmitImportJob() throws Exception {
+        BoUser admin = buildBoUser(PermissionLevel.ADMIN);
+        when(boAuthService.verifyToken("admin-token")).thenReturn(admin);
+        when(stockImportCommand.submitStockImport(eq(StockImportFormat.NDJSON), any(), eq(admin)))
+                .thenReturn(new StockImportDto("job-1", "stock-import-1.ndjson", StockImportFormat.NDJSON));
+
+        mockMvc.perform(post("/api/bo/admin/inventory/import")
+                        .header("Authorization", "Bearer admin-token")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"productId\":1,\"quantityDelta\":5,\"reason\":\"入荷\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.jobId").value("job-1"))
+                .andExpect(jsonPath("$.data.format").value("NDJSON"));
+    }
+
     @Test
     void getAdjustments_withProductId_shouldUseFilteredRepositoryMethod() throws Exception {
         when(boAuthService.verifyToken("admin-token")).thenReturn(buildBoUser(PermissionLevel.ADMIN));
@@ -146,6 +239,55 @@ class BoAdminInventoryControllerContractTest {
                 .andExpect(jsonPath("$.error.code").value("UNAUTHORIZED"));
     }
 
+    @Test
+    void getStockAt_shouldReturnLocationBalancesAtRequestedInstant() throws Exception {
+        when(boAuthService.verifyToken("admin-token")).thenReturn(buildBoUser(PermissionLevel.ADMIN));
+        when(inventoryJournalQuery.getStockAt(1L, Instant.parse("2026-10-01T00:00:00Z")))
+                .thenReturn(List.of(new LocationStockBalanceDto(1, 10, 3, 2, 7)));
+
+        mockMvc.perform(get("/api/bo/admin/inventory/stock-at")
+                        .header("Authorization", "Bearer admin-token")
+                        .param("productId", "1")
+                        .param("at", "2026-10-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data[0].locationId").value(1))
+                .andExpect(jsonPath("$.data[0].committedQty").value(3))
+                .andExpect(jsonPath("$.data[0].remainingQty").value(7));
+    }
+
+    @Test
+    void enableFlashSale_shouldReturnCarvedBuckets() throws Exception {
+        when(boAuthService.verifyToken("admin-token")).thenReturn(buildBoUser(PermissionLevel.ADMIN));
+        when(inventoryCommand.enableFlashSale(1L, 4)).thenReturn(new FlashSaleDto(1L, 4, 100, 0));
+
+        mockMvc.perform(post("/api/bo/admin/inventory/flash-sale")
+                        .header("Authorization", "Bearer admin-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "productId": 1,
+                                  "bucketCount": 4
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.bucketCount").value(4))
+                .andExpect(jsonPath("$.data.allocatedQty").value(100));
+    }
+
+    @Test
+    void disableFlashSale_withAdmin_shouldMergeBuckets() throws Exception {
+        when(boAuthService.verifyToken("admin-token")).thenReturn(buildBoUser(PermissionLevel.ADMIN));
+
+        mockMvc.perform(delete("/api/bo/admin/inventory/flash-sale/1")
+                        .header("Authorization", "Bearer admin-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+
+        verify(inventoryCommand).disableFlashSale(1L);
+    }
+
     private BoUser buildBoUser(PermissionLevel permissionLevel) {
         BoUser user = new BoUser();
         user.setId(1L);
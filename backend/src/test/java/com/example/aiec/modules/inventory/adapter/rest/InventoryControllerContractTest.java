@@ -1,9 +1,12 @@
 package com.example.aiec.modules.inventory.adapter.rest;
 
+import com.example.aiec.modules.inventory.application.port.AvailabilityChangeDto;
 import com.example.aiec.modules.inventory.application.port.AvailabilityDto;
+import com.example.aiec.modules.inventory.application.port.AvailabilityStreamPort;
 import com.example.aiec.modules.inventory.application.port.InventoryCommandPort;
 import com.example.aiec.modules.inventory.application.port.InventoryQueryPort;
 import com.example.aiec.modules.inventory.application.port.ReservationDto;
+import com.example.aiec.modules.inventory.application.port.ReservationLineResultDto;
 import com.example.aiec.modules.shared.exception.GlobalExceptionHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,13 +18,21 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,11 +44,14 @@ class InventoryControllerContractTest {
     @Mock
     InventoryCommandPort inventoryCommand;
 
+    @Mock
+    AvailabilityStreamPort availabilityStream;
+
     private MockMvc mockMvc;
 
     @BeforeEach
     void setUp() {
-        InventoryController controller = new InventoryController(inventoryQuery, inventoryCommand);
+        InventoryController controller = new InventoryController(inventoryQuery, inventoryCommand, availabilityStream);
         mockMvc = MockMvcBuilders
                 .standaloneSetup(controller)
                 .setControllerAdvice(new GlobalExceptionHandler())
@@ -78,6 +92,33 @@ class InventoryControllerContractTest {
                 .andExpect(jsonPath("$.data.reservationId").value(11));
     }
 
+    @Test
+    void createReservations_shouldMergeDuplicateLinesAndReturnPerLineResults() throws Exception {
+        ReservationDto reservation = new ReservationDto(11L, 1L, 3, "TENTATIVE", Instant.parse("2026-02-20T00:00:00Z"), 7);
+        when(inventoryCommand.createReservations("session-1", Map.of(1L, 3, 2L, 1))).thenReturn(List.of(
+                ReservationLineResultDto.success(1L, 3, reservation),
+                ReservationLineResultDto.failure(2L, 1, "INSUFFICIENT_STOCK", "有効在庫が不足しています")
+        ));
+
+        mockMvc.perform(post("/api/inventory/reservations/batch")
+                        .header("X-Session-Id", "session-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "items": [
+                                    {"productId": 1, "quantity": 1},
+                                    {"productId": 2, "quantity": 1},
+                                    {"productId": 1, "quantity": 2}
+                                  ]
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data[0].reservation.quantity").value(3))
+                .andExpect(jsonPath("$.data[1].success").value(false))
+                .andExpect(jsonPath("$.data[1].errorCode").value("INSUFFICIENT_STOCK"));
+    }
+
     @Test
     void releaseReservation_shouldReturnSuccess() throws Exception {
         mockMvc.perform(delete("/api/inventory/reservations")
@@ -114,4 +155,21 @@ class InventoryControllerContractTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.availableStock").value(15));
     }
+
+    @Test
+    void streamAvailability_shouldSendAvailabilityEvents() throws Exception {
+        when(availabilityStream.getTimeoutMillis()).thenReturn(60_000L);
+        when(availabilityStream.subscribe(eq(List.of(1L, 2L)), any())).thenAnswer(invocation -> {
+            Consumer<AvailabilityChangeDto> listener = invocation.getArgument(1);
+            listener.accept(new AvailabilityChangeDto(1L, 15));
+            return (AvailabilityStreamPort.Subscription) () -> { };
+        });
+
+        mockMvc.perform(get("/api/inventory/availability/stream")
+                        .param("productIds", "1,2")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().string(containsString("event:availability")))
+                .andExpect(content().string(containsString("\"availableStock\":15")));
+    }
 }
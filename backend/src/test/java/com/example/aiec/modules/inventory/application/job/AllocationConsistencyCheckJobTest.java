@@ -1,13 +1,13 @@
 package com.example.aiec.modules.inventory.application.job;
 
-import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.application.service.CommittedQtyRepairService;
+import com.example.aiec.modules.inventory.application.service.StockLocations;
 import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
-import com.example.aiec.modules.product.domain.entity.Product;
-import com.example.aiec.modules.purchase.order.entity.Order;
-import com.example.aiec.modules.purchase.order.repository.OrderItemRepository;
 import com.example.aiec.modules.shared.job.JobProperties;
 import com.example.aiec.modules.shared.job.domain.entity.JobRunHistory;
 import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +19,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,28 +30,34 @@ class AllocationConsistencyCheckJobTest {
 
     @Mock private JobRunHistoryRepository jobRunHistoryRepository;
     @Mock private LocationStockRepository locationStockRepository;
-    @Mock private OrderItemRepository orderItemRepository;
+    @Mock private CommittedQtyRepairService committedQtyRepairService;
 
     @Captor private ArgumentCaptor<JobRunHistory> historyCaptor;
 
+    private JobProperties jobProperties;
+    private SimpleMeterRegistry meterRegistry;
     private AllocationConsistencyCheckJob job;
 
     @BeforeEach
     void setUp() {
+        jobProperties = new JobProperties();
+        jobProperties.getAllocationConsistency().setPartitions(2);
+        meterRegistry = new SimpleMeterRegistry();
         job = new AllocationConsistencyCheckJob(
                 jobRunHistoryRepository,
-                new JobProperties(),
+                jobProperties,
                 locationStockRepository,
-                orderItemRepository
+                committedQtyRepairService,
+                new StockLocations(new InventoryProperties()),
+                meterRegistry
         );
     }
 
     @Test
     void run_whenNoMismatch_shouldRecordSuccessWithZeroProcessed() {
-        LocationStock stock = buildLocationStock(1L, 3);
-        when(locationStockRepository.findAll()).thenReturn(List.of(stock));
-        when(orderItemRepository.sumCommittedQuantityByProductExcludingCancelled(1L, Order.OrderStatus.CANCELLED))
-                .thenReturn(3);
+        when(locationStockRepository.findProductIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 10L}));
+        when(locationStockRepository.findCommittedQtyMismatches(1L, 5L, 1)).thenReturn(List.of());
+        when(locationStockRepository.findCommittedQtyMismatches(6L, 10L, 1)).thenReturn(List.of());
 
         job.run();
 
@@ -59,29 +68,43 @@ class AllocationConsistencyCheckJobTest {
     }
 
     @Test
-    void run_whenMismatch_shouldRecordProcessedCount() {
-        LocationStock stock = buildLocationStock(1L, 5);
-        when(locationStockRepository.findAll()).thenReturn(List.of(stock));
-        when(orderItemRepository.sumCommittedQuantityByProductExcludingCancelled(1L, Order.OrderStatus.CANCELLED))
-                .thenReturn(2);
+    void run_whenMismatch_shouldRecordProcessedCountAndMetricsWithoutRepair() {
+        when(locationStockRepository.findProductIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 10L}));
+        when(locationStockRepository.findCommittedQtyMismatches(1L, 5L, 1))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 1, 5, 2L}));
+        when(locationStockRepository.findCommittedQtyMismatches(6L, 10L, 1))
+                .thenReturn(List.<Object[]>of(new Object[]{7L, 1, 0, 1L}));
 
         job.run();
 
+        verify(committedQtyRepairService, never()).repair(anyLong(), anyInt());
         verify(jobRunHistoryRepository).save(historyCaptor.capture());
         JobRunHistory history = historyCaptor.getValue();
         assertThat(history.getStatus()).isEqualTo(JobRunHistory.RunStatus.SUCCESS);
-        assertThat(history.getProcessedCount()).isEqualTo(1);
+        assertThat(history.getProcessedCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("inventory.allocation.mismatch").gauge().value()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("inventory.allocation.mismatch.detected").counter().count()).isEqualTo(2.0);
     }
 
-    private LocationStock buildLocationStock(Long productId, Integer committedQty) {
-        Product product = new Product();
-        product.setId(productId);
+    @Test
+    void repair_whenMismatch_shouldRepairEachProductUnderLock() {
+        when(locationStockRepository.findProductIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 1L}));
+        when(locationStockRepository.findCommittedQtyMismatches(1L, 1L, 1))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 1, 5, 2L}));
+        when(committedQtyRepairService.repair(1L, 1)).thenReturn(true);
+
+        job.repair();
+
+        verify(committedQtyRepairService).repair(1L, 1);
+        assertThat(meterRegistry.get("inventory.allocation.mismatch.repaired").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void run_whenNoLocationStock_shouldSkipComparison() {
+        when(locationStockRepository.findProductIdRange()).thenReturn(List.<Object[]>of(new Object[]{null, null}));
+
+        job.run();
 
-        LocationStock stock = new LocationStock();
-        stock.setProduct(product);
-        stock.setCommittedQty(committedQty);
-        stock.setAvailableQty(committedQty);
-        stock.setLocationId(1);
-        return stock;
+        verify(locationStockRepository, never()).findCommittedQtyMismatches(anyLong(), anyLong(), anyInt());
     }
 }
@@ -0,0 +1,96 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.application.service.StockBucketService;
+import com.example.aiec.modules.inventory.application.service.StockLocations;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.domain.entity.JobRunHistory;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FlashSaleBucketJobTest {
+
+    @Mock private JobRunHistoryRepository jobRunHistoryRepository;
+    @Mock private LocationStockRepository locationStockRepository;
+    @Mock private StockBucketService stockBucketService;
+
+    @Captor private ArgumentCaptor<JobRunHistory> historyCaptor;
+
+    private JobProperties jobProperties;
+
+    private FlashSaleBucketJob job;
+
+    @BeforeEach
+    void setUp() {
+        jobProperties = new JobProperties();
+        job = new FlashSaleBucketJob(
+                jobRunHistoryRepository,
+                jobProperties,
+                locationStockRepository,
+                stockBucketService,
+                new StockLocations(new InventoryProperties())
+        );
+    }
+
+    @Test
+    void run_shouldMergeEndedSalesAndRebalanceActiveOnes() {
+        Instant now = Instant.now();
+        when(locationStockRepository.findFlashSaleEnabled(1)).thenReturn(List.of(
+                flashStock(1L, now.minus(1, ChronoUnit.MINUTES)),
+                flashStock(2L, now.plus(1, ChronoUnit.HOURS))
+        ));
+        when(stockBucketService.merge(1L)).thenReturn(5);
+        when(stockBucketService.rebalance(2L)).thenReturn(true);
+
+        job.run();
+
+        verify(stockBucketService).merge(1L);
+        verify(stockBucketService, never()).rebalance(1L);
+        verify(stockBucketService).rebalance(2L);
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        assertThat(historyCaptor.getValue().getStatus()).isEqualTo(JobRunHistory.RunStatus.SUCCESS);
+        assertThat(historyCaptor.getValue().getProcessedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void run_shouldRecordSkippedWhenDisabled() {
+        jobProperties.getEnabled().setFlashSaleBuckets(false);
+
+        job.run();
+
+        verify(stockBucketService, never()).merge(anyLong());
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        assertThat(historyCaptor.getValue().getStatus()).isEqualTo(JobRunHistory.RunStatus.SKIPPED);
+    }
+
+    private LocationStock flashStock(Long productId, Instant saleEndAt) {
+        Product product = new Product();
+        product.setId(productId);
+        product.setSaleEndAt(saleEndAt);
+        LocationStock locationStock = new LocationStock();
+        locationStock.setProduct(product);
+        locationStock.setLocationId(1);
+        locationStock.setFlashBucketCount(4);
+        return locationStock;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.AvailabilityChangeTracker;
+import com.example.aiec.modules.inventory.domain.repository.SalesLimitRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.purchase.order.entity.Order;
+import com.example.aiec.modules.purchase.order.repository.OrderItemRepository;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.domain.entity.JobRunHistory;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FrameConsumedQtyConsistencyJobTest {
+
+    @Mock private JobRunHistoryRepository jobRunHistoryRepository;
+    @Mock private SalesLimitRepository salesLimitRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private OrderItemRepository orderItemRepository;
+    @Mock private AvailabilityChangeTracker availabilityChangeTracker;
+
+    @Captor private ArgumentCaptor<JobRunHistory> historyCaptor;
+
+    private FrameConsumedQtyConsistencyJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new FrameConsumedQtyConsistencyJob(
+                jobRunHistoryRepository,
+                new JobProperties(),
+                salesLimitRepository,
+                productRepository,
+                orderItemRepository,
+                availabilityChangeTracker
+        );
+    }
+
+    @Test
+    void run_whenDrift_shouldRecordMismatchCountWithoutRebuilding() {
+        when(salesLimitRepository.findConsumedQtyMismatches()).thenReturn(List.<Object[]>of(new Object[]{1L, 5, 3L}));
+
+        job.run();
+
+        verify(salesLimitRepository, never()).updateConsumedQty(anyLong(), anyInt());
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        assertThat(historyCaptor.getValue().getStatus()).isEqualTo(JobRunHistory.RunStatus.SUCCESS);
+        assertThat(historyCaptor.getValue().getProcessedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void run_whenDisabled_shouldRecordSkipped() {
+        JobProperties jobProperties = new JobProperties();
+        jobProperties.getEnabled().setFrameConsumedQtyConsistencyCheck(false);
+        job = new FrameConsumedQtyConsistencyJob(
+                jobRunHistoryRepository,
+                jobProperties,
+                salesLimitRepository,
+                productRepository,
+                orderItemRepository,
+                availabilityChangeTracker
+        );
+
+        job.run();
+
+        verify(salesLimitRepository, never()).findConsumedQtyMismatches();
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        assertThat(historyCaptor.getValue().getStatus()).isEqualTo(JobRunHistory.RunStatus.SKIPPED);
+    }
+
+    @Test
+    void rebuild_whenDrift_shouldResetCounterFromOrderItems() {
+        Product product = new Product();
+        product.setId(1L);
+        when(salesLimitRepository.findConsumedQtyMismatches()).thenReturn(List.<Object[]>of(new Object[]{1L, 5, 3L}));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(orderItemRepository.sumOrderedQuantityByProductExcludingCancelled(1L, Order.OrderStatus.CANCELLED))
+                .thenReturn(3);
+
+        job.rebuild();
+
+        verify(salesLimitRepository).updateConsumedQty(1L, 3);
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        assertThat(historyCaptor.getValue().getProcessedCount()).isEqualTo(1);
+    }
+}
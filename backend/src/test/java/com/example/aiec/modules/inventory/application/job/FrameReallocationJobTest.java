@@ -0,0 +1,96 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.FrameAllocationService;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.domain.entity.JobRunHistory;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FrameReallocationJobTest {
+
+    @Mock
+    private JobRunHistoryRepository jobRunHistoryRepository;
+
+    @Mock
+    private FrameAllocationService frameAllocationService;
+
+    @Captor
+    private ArgumentCaptor<JobRunHistory> historyCaptor;
+
+    private JobProperties jobProperties;
+
+    private FrameReallocationJob frameReallocationJob;
+
+    @BeforeEach
+    void setUp() {
+        jobProperties = new JobProperties();
+        frameReallocationJob = new FrameReallocationJob(jobRunHistoryRepository, jobProperties, frameAllocationService);
+    }
+
+    @Test
+    void run_shouldRecordSkippedWhenDisabled() {
+        jobProperties.getEnabled().setFrameReallocation(false);
+
+        frameReallocationJob.run();
+
+        verify(frameAllocationService, never()).findProductIdsWithPendingAllocation();
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        assertThat(historyCaptor.getValue().getStatus()).isEqualTo(JobRunHistory.RunStatus.SKIPPED);
+    }
+
+    @Test
+    void run_shouldAllocateEveryProductAndRecordProgress() {
+        // 記録順を決定的にするため 1 スレッドで実行する
+        jobProperties.getFrameReallocation().setParallelism(1);
+        jobProperties.getFrameReallocation().setProgressInterval(2);
+        List<Integer> recordedCounts = new CopyOnWriteArrayList<>();
+        when(jobRunHistoryRepository.save(any(JobRunHistory.class))).thenAnswer(invocation -> {
+            recordedCounts.add(invocation.<JobRunHistory>getArgument(0).getProcessedCount());
+            return invocation.getArgument(0);
+        });
+        when(frameAllocationService.findProductIdsWithPendingAllocation()).thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+        when(frameAllocationService.allocatePendingByProductId(anyLong())).thenReturn(1);
+
+        frameReallocationJob.run();
+
+        for (long productId = 1; productId <= 5; productId++) {
+            verify(frameAllocationService).allocatePendingByProductId(productId);
+        }
+        // RUNNING 開始, 2 件ごとの進捗, 完了時の進捗, SUCCESS
+        assertThat(recordedCounts).containsExactly(0, 2, 4, 5, 5);
+    }
+
+    @Test
+    void run_whenOneProductFails_shouldContinueWithOthers() {
+        when(frameAllocationService.findProductIdsWithPendingAllocation()).thenReturn(List.of(1L, 2L, 3L));
+        when(frameAllocationService.allocatePendingByProductId(1L)).thenReturn(2);
+        when(frameAllocationService.allocatePendingByProductId(2L)).thenThrow(new IllegalStateException("lock timeout"));
+        when(frameAllocationService.allocatePendingByProductId(3L)).thenReturn(1);
+
+        frameReallocationJob.run();
+
+        verify(frameAllocationService).allocatePendingByProductId(3L);
+        verify(jobRunHistoryRepository, atLeastOnce()).save(historyCaptor.capture());
+        JobRunHistory history = historyCaptor.getValue();
+        assertThat(history.getStatus()).isEqualTo(JobRunHistory.RunStatus.SUCCESS);
+        assertThat(history.getProcessedCount()).isEqualTo(3);
+    }
+}
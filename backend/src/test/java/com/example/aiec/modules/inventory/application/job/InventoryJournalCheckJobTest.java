@@ -0,0 +1,67 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.InventoryJournalService;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryJournalCheckJobTest {
+
+    @Mock private JobRunHistoryRepository jobRunHistoryRepository;
+    @Mock private InventoryJournalService inventoryJournalService;
+    @Mock private LocationStockRepository locationStockRepository;
+
+    private JobProperties jobProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryJournalCheckJob job;
+
+    @BeforeEach
+    void setUp() {
+        jobProperties = new JobProperties();
+        jobProperties.getInventoryJournal().setChunkSize(5);
+        meterRegistry = new SimpleMeterRegistry();
+        job = new InventoryJournalCheckJob(
+                jobRunHistoryRepository, jobProperties, inventoryJournalService, locationStockRepository, meterRegistry);
+    }
+
+    @Test
+    void check_shouldCompareEachProductRangeAndReportMismatches() {
+        when(locationStockRepository.findProductIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 8L}));
+        when(inventoryJournalService.findReplayMismatches(1L, 5L)).thenReturn(List.of());
+        when(inventoryJournalService.findReplayMismatches(6L, 8L))
+                .thenReturn(List.<Object[]>of(new Object[]{7L, 1, 10, 2, 12, 2}));
+
+        int mismatches = job.check(false);
+
+        assertThat(mismatches).isEqualTo(1);
+        assertThat(meterRegistry.get("inventory.journal.mismatch").gauge().value()).isEqualTo(1.0);
+        verify(inventoryJournalService, never()).replay(anyLong(), anyInt());
+    }
+
+    @Test
+    void check_withReplay_shouldReplayMismatchedLocationStocks() {
+        when(locationStockRepository.findProductIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 3L}));
+        when(inventoryJournalService.findReplayMismatches(1L, 3L))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, 1, 10, 2, 12, 2}));
+
+        job.check(true);
+
+        verify(inventoryJournalService).replay(2L, 1);
+    }
+}
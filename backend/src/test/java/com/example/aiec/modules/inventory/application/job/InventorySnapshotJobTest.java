@@ -0,0 +1,51 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.InventoryJournalService;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventorySnapshotJobTest {
+
+    @Mock private JobRunHistoryRepository jobRunHistoryRepository;
+    @Mock private InventoryJournalService inventoryJournalService;
+
+    private JobProperties jobProperties;
+    private InventorySnapshotJob job;
+
+    @BeforeEach
+    void setUp() {
+        jobProperties = new JobProperties();
+        jobProperties.getInventoryJournal().setChunkSize(2);
+        job = new InventorySnapshotJob(jobRunHistoryRepository, jobProperties, inventoryJournalService);
+    }
+
+    @Test
+    void takeSnapshots_shouldPageByProductIdFromWatermark() {
+        when(inventoryJournalService.findSnapshotWatermark()).thenReturn(50L);
+        when(inventoryJournalService.findProductIdsToSnapshot(50L, 0L, 2)).thenReturn(List.of(1L, 3L));
+        when(inventoryJournalService.findProductIdsToSnapshot(50L, 3L, 2)).thenReturn(List.of(8L));
+        when(inventoryJournalService.findProductIdsToSnapshot(50L, 8L, 2)).thenReturn(List.of());
+        when(inventoryJournalService.snapshot(List.of(1L, 3L))).thenReturn(3);
+        when(inventoryJournalService.snapshot(List.of(8L))).thenReturn(1);
+        List<Integer> progress = new ArrayList<>();
+
+        int count = job.takeSnapshots(progress::add);
+
+        assertThat(count).isEqualTo(4);
+        assertThat(progress).containsExactly(3, 4);
+        verify(inventoryJournalService).snapshot(List.of(8L));
+    }
+}
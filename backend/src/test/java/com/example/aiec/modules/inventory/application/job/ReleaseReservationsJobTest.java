@@ -1,8 +1,7 @@
 package com.example.aiec.modules.inventory.application.job;
 
-import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.application.service.ReservationExpiryService;
 import com.example.aiec.modules.inventory.domain.repository.StockReservationRepository;
-import com.example.aiec.modules.shared.domain.model.ActorType;
 import com.example.aiec.modules.shared.job.JobProperties;
 import com.example.aiec.modules.shared.job.domain.entity.JobRunHistory;
 import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
@@ -11,16 +10,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,6 +37,9 @@ class ReleaseReservationsJobTest {
     @Mock
     private StockReservationRepository stockReservationRepository;
 
+    @Mock
+    private ReservationExpiryService reservationExpiryService;
+
     @Captor
     private ArgumentCaptor<JobRunHistory> historyCaptor;
 
@@ -43,7 +50,12 @@ class ReleaseReservationsJobTest {
     @BeforeEach
     void setUp() {
         jobProperties = new JobProperties();
-        releaseReservationsJob = new ReleaseReservationsJob(jobRunHistoryRepository, jobProperties, stockReservationRepository);
+        releaseReservationsJob = new ReleaseReservationsJob(
+                jobRunHistoryRepository,
+                jobProperties,
+                stockReservationRepository,
+                reservationExpiryService
+        );
     }
 
     @Test
@@ -52,7 +64,7 @@ class ReleaseReservationsJobTest {
 
         releaseReservationsJob.run();
 
-        verify(stockReservationRepository, never()).softDeleteExpiredByType(any(), any(), any(), any());
+        verify(stockReservationRepository, never()).findExpiredTentativeIds(any(), anyInt());
         verify(jobRunHistoryRepository).save(historyCaptor.capture());
 
         JobRunHistory history = historyCaptor.getValue();
@@ -61,26 +73,51 @@ class ReleaseReservationsJobTest {
     }
 
     @Test
-    void run_shouldRecordProcessedCountWhenExecuted() {
-        when(stockReservationRepository.softDeleteExpiredByType(
-                eq(StockReservation.ReservationType.TENTATIVE),
-                any(Instant.class),
-                eq(ActorType.SYSTEM),
-                eq(null)
-        )).thenReturn(4);
+    void run_shouldReleaseInChunksThenPurgeAndRecordProgress() {
+        jobProperties.getReservations().setChunkSize(2);
+        List<Integer> recordedCounts = new ArrayList<>();
+        when(jobRunHistoryRepository.save(any(JobRunHistory.class))).thenAnswer(invocation -> {
+            recordedCounts.add(invocation.<JobRunHistory>getArgument(0).getProcessedCount());
+            return invocation.getArgument(0);
+        });
+        when(stockReservationRepository.findExpiredTentativeIds(any(Instant.class), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(reservationExpiryService.releaseExpired(eq(List.of(1L, 2L)), any(Instant.class)))
+                .thenReturn(new ReservationExpiryService.ReleaseResult(2, Map.of()));
+        when(reservationExpiryService.releaseExpired(eq(List.of(3L)), any(Instant.class)))
+                .thenReturn(new ReservationExpiryService.ReleaseResult(1, Map.of()));
+        when(reservationExpiryService.purgeDeletedBefore(any(Instant.class), eq(2))).thenReturn(2, 1);
 
         releaseReservationsJob.run();
 
-        verify(stockReservationRepository).softDeleteExpiredByType(
-                eq(StockReservation.ReservationType.TENTATIVE),
-                any(Instant.class),
-                eq(ActorType.SYSTEM),
-                eq(null)
-        );
-        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        verify(stockReservationRepository, times(2)).findExpiredTentativeIds(any(Instant.class), eq(2));
+        verify(reservationExpiryService, times(2)).purgeDeletedBefore(any(Instant.class), eq(2));
+        verify(jobRunHistoryRepository, times(6)).save(historyCaptor.capture());
+        assertThat(recordedCounts).containsExactly(0, 2, 3, 5, 6, 6);
 
         JobRunHistory history = historyCaptor.getValue();
         assertThat(history.getStatus()).isEqualTo(JobRunHistory.RunStatus.SUCCESS);
-        assertThat(history.getProcessedCount()).isEqualTo(4);
+        assertThat(history.getProcessedCount()).isEqualTo(6);
+    }
+
+    @Test
+    void run_whenChunkFails_shouldRecordFailedWithProgressSoFar() {
+        jobProperties.getReservations().setChunkSize(2);
+        when(stockReservationRepository.findExpiredTentativeIds(any(Instant.class), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L, 4L));
+        when(reservationExpiryService.releaseExpired(eq(List.of(1L, 2L)), any(Instant.class)))
+                .thenReturn(new ReservationExpiryService.ReleaseResult(2, Map.of()));
+        when(reservationExpiryService.releaseExpired(eq(List.of(3L, 4L)), any(Instant.class)))
+                .thenThrow(new IllegalStateException("boom"));
+
+        assertThatThrownBy(() -> releaseReservationsJob.run()).isInstanceOf(IllegalStateException.class);
+
+        verify(jobRunHistoryRepository, times(3)).save(historyCaptor.capture());
+        JobRunHistory history = historyCaptor.getValue();
+        assertThat(history.getStatus()).isEqualTo(JobRunHistory.RunStatus.FAILED);
+        assertThat(history.getProcessedCount()).isEqualTo(2);
+        verify(reservationExpiryService, never()).purgeDeletedBefore(any(), anyInt());
     }
 }
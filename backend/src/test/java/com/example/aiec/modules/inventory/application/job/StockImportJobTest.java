@@ -0,0 +1,137 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.service.StockImportBatchService;
+import com.example.aiec.modules.inventory.application.service.StockImportLine;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.domain.entity.JobRunHistory;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockImportJobTest {
+
+    @Mock
+    private JobRunHistoryRepository jobRunHistoryRepository;
+
+    @Mock
+    private StockImportBatchService stockImportBatchService;
+
+    @Captor
+    private ArgumentCaptor<List<StockImportLine>> batchCaptor;
+
+    @TempDir
+    Path tempDir;
+
+    private JobProperties jobProperties;
+
+    private StockImportJob stockImportJob;
+
+    @BeforeEach
+    void setUp() {
+        jobProperties = new JobProperties();
+        jobProperties.getStockImport().setProcessedDir(tempDir.resolve("processed").toString());
+        stockImportJob = new StockImportJob(jobRunHistoryRepository, jobProperties, stockImportBatchService, new ObjectMapper());
+    }
+
+    @Test
+    void run_withCsv_shouldApplyValidLinesInBatchesAndRecordProgress() throws Exception {
+        jobProperties.getStockImport().setBatchSize(2);
+        Path file = Files.writeString(tempDir.resolve("stock-import-1.csv"), """
+                product_id,quantity_delta,reason
+                1,10,入荷
+                2,abc,入荷
+                3,-2,"棚卸, 差異"
+
+                4,5,入荷
+                """);
+        List<Integer> recordedCounts = new ArrayList<>();
+        when(jobRunHistoryRepository.save(any(JobRunHistory.class))).thenAnswer(invocation -> {
+            recordedCounts.add(invocation.<JobRunHistory>getArgument(0).getProcessedCount());
+            return invocation.getArgument(0);
+        });
+        when(stockImportBatchService.applyBatch(anyList(), eq("admin@example.com")))
+                .thenReturn(new StockImportBatchService.BatchResult(2, List.of()))
+                .thenReturn(new StockImportBatchService.BatchResult(0, List.of(StockImportLine.invalid(6, "商品が見つかりません"))));
+
+        stockImportJob.run(file.toString(), "admin@example.com");
+
+        verify(stockImportBatchService, times(2)).applyBatch(batchCaptor.capture(), eq("admin@example.com"));
+        List<StockImportLine> firstBatch = batchCaptor.getAllValues().get(0);
+        assertThat(firstBatch).extracting(StockImportLine::productId).containsExactly(1L, 3L);
+        assertThat(firstBatch.get(1).reason()).isEqualTo("棚卸, 差異");
+        assertThat(batchCaptor.getAllValues().get(1)).extracting(StockImportLine::lineNumber).containsExactly(6);
+        // RUNNING 開始, 1 バッチ目の進捗, SUCCESS
+        assertThat(recordedCounts).containsExactly(0, 2, 2);
+        assertThat(file).doesNotExist();
+        assertThat(tempDir.resolve("processed").resolve("stock-import-1.csv")).exists();
+    }
+
+    @Test
+    void importFile_withNdjson_shouldParseEachLine() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("stock-import-2.ndjson"), """
+                {"productId":1,"quantityDelta":3,"reason":"入荷"}
+                {"productId":2,"quantityDelta":0,"reason":"入荷"}
+                not json
+                """);
+        when(stockImportBatchService.applyBatch(anyList(), eq("admin@example.com")))
+                .thenReturn(new StockImportBatchService.BatchResult(1, List.of()));
+
+        int applied = stockImportJob.importFile(file, "admin@example.com", count -> { });
+
+        assertThat(applied).isEqualTo(1);
+        verify(stockImportBatchService).applyBatch(batchCaptor.capture(), eq("admin@example.com"));
+        assertThat(batchCaptor.getValue()).extracting(StockImportLine::quantityDelta).containsExactly(3);
+    }
+
+    @Test
+    void importFile_whenRejectsExceedLimit_shouldAbortAndKeepFile() throws Exception {
+        jobProperties.getStockImport().setMaxRejects(1);
+        Path file = Files.writeString(tempDir.resolve("stock-import-3.csv"), """
+                product_id,quantity_delta,reason
+                x,1,入荷
+                y,1,入荷
+                1,1,入荷
+                """);
+
+        assertThatThrownBy(() -> stockImportJob.importFile(file, "admin@example.com", count -> { }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("上限");
+        verify(stockImportBatchService, never()).applyBatch(anyList(), any());
+        assertThat(file).exists();
+    }
+
+    @Test
+    void importFile_withInvalidCsvHeader_shouldFailBeforeApplying() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("stock-import-4.csv"), """
+                sku,qty
+                1,1
+                """);
+
+        assertThatThrownBy(() -> stockImportJob.importFile(file, "admin@example.com", count -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(stockImportBatchService, never()).applyBatch(anyList(), any());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.aiec.modules.inventory.application.job;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.application.service.StockLocations;
+import com.example.aiec.modules.inventory.application.service.TentativeReservationStore;
+import com.example.aiec.modules.inventory.domain.repository.StockReservationRepository;
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.domain.entity.JobRunHistory;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TentativeReservationConsistencyCheckJobTest {
+
+    @Mock private JobRunHistoryRepository jobRunHistoryRepository;
+    @Mock private StockReservationRepository stockReservationRepository;
+    @Mock private TentativeReservationStore tentativeReservationStore;
+
+    @Captor private ArgumentCaptor<JobRunHistory> historyCaptor;
+
+    private TentativeReservationConsistencyCheckJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new TentativeReservationConsistencyCheckJob(
+                jobRunHistoryRepository,
+                new JobProperties(),
+                stockReservationRepository,
+                tentativeReservationStore,
+                new StockLocations(new InventoryProperties())
+        );
+    }
+
+    @Test
+    void run_whenNoDrift_shouldRecordSuccessWithZeroProcessed() {
+        when(tentativeReservationStore.isDurable()).thenReturn(true);
+        when(stockReservationRepository.findTentativeCounterMismatches(List.of(1))).thenReturn(List.of());
+
+        job.run();
+
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        JobRunHistory history = historyCaptor.getValue();
+        assertThat(history.getStatus()).isEqualTo(JobRunHistory.RunStatus.SUCCESS);
+        assertThat(history.getProcessedCount()).isEqualTo(0);
+    }
+
+    @Test
+    void run_whenDrift_shouldRecordMismatchCount() {
+        when(tentativeReservationStore.isDurable()).thenReturn(true);
+        when(stockReservationRepository.findTentativeCounterMismatches(List.of(1))).thenReturn(List.of(
+                new Object[]{1L, 5, 3L},
+                new Object[]{2L, 0, 1L}
+        ));
+
+        job.run();
+
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        JobRunHistory history = historyCaptor.getValue();
+        assertThat(history.getStatus()).isEqualTo(JobRunHistory.RunStatus.SUCCESS);
+        assertThat(history.getProcessedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void run_whenStoreIsNotDurable_shouldRecordSkipped() {
+        when(tentativeReservationStore.isDurable()).thenReturn(false);
+
+        job.run();
+
+        verify(stockReservationRepository, never()).findTentativeCounterMismatches(List.of(1));
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        assertThat(historyCaptor.getValue().getStatus()).isEqualTo(JobRunHistory.RunStatus.SKIPPED);
+    }
+
+    @Test
+    void run_whenDisabled_shouldRecordSkipped() {
+        JobProperties jobProperties = new JobProperties();
+        jobProperties.getEnabled().setTentativeReservationConsistencyCheck(false);
+        job = new TentativeReservationConsistencyCheckJob(
+                jobRunHistoryRepository,
+                jobProperties,
+                stockReservationRepository,
+                tentativeReservationStore,
+                new StockLocations(new InventoryProperties())
+        );
+
+        job.run();
+
+        verify(stockReservationRepository, never()).findTentativeCounterMismatches(List.of(1));
+        verify(jobRunHistoryRepository).save(historyCaptor.capture());
+        assertThat(historyCaptor.getValue().getStatus()).isEqualTo(JobRunHistory.RunStatus.SKIPPED);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.util.Set;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityChangeListenerTest {
+
+    @Mock private AvailabilityChangeNotifier availabilityChangeNotifier;
+    @Mock private AvailabilityChangeTracker availabilityChangeTracker;
+    @Mock private AvailabilitySubscriptionRegistry availabilitySubscriptionRegistry;
+    @Mock private LocationAvailabilityIndex locationAvailabilityIndex;
+
+    private AvailabilityChangeListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new AvailabilityChangeListener(
+                availabilityChangeNotifier,
+                availabilityChangeTracker,
+                availabilitySubscriptionRegistry,
+                locationAvailabilityIndex,
+                new InventoryProperties(),
+                new DataSourceProperties()
+        );
+    }
+
+    @Test
+    void onNotification_fromOtherInstance_shouldRecordChangeForLocalSubscribers() {
+        when(availabilityChangeNotifier.remoteProductIds("other:1,2")).thenReturn(Set.of(1L, 2L));
+
+        listener.onNotification("other:1,2");
+
+        verify(availabilityChangeTracker).markChangedRemotely(Set.of(1L, 2L));
+    }
+
+    @Test
+    void onConnected_shouldRecheckAllWatchedProducts() {
+        when(availabilitySubscriptionRegistry.watchedProductIds()).thenReturn(Set.of(3L));
+
+        listener.onConnected();
+
+        verify(locationAvailabilityIndex).evictAll();
+        verify(availabilityChangeTracker).markChangedRemotely(Set.of(3L));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityChangeNotifierTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @Captor private ArgumentCaptor<String> payloadCaptor;
+
+    private AvailabilityChangeNotifier notifier;
+
+    @BeforeEach
+    void setUp() {
+        notifier = new AvailabilityChangeNotifier(jdbcTemplate, new InventoryProperties());
+    }
+
+    @Test
+    void notifyChanged_shouldSplitPayloadsAndIgnoreOwnNotifications() {
+        List<Long> productIds = LongStream.rangeClosed(1, AvailabilityChangeNotifier.MAX_PRODUCTS_PER_NOTIFICATION + 1)
+                .boxed().toList();
+
+        notifier.notifyChanged(productIds);
+
+        verify(jdbcTemplate, times(2)).query(anyString(), ArgumentMatchers.<ResultSetExtractor<Void>>any(),
+                eq(AvailabilityChangeNotifier.NOTIFY_CHANNEL), payloadCaptor.capture());
+        assertThat(payloadCaptor.getAllValues()).allSatisfy(payload -> assertThat(notifier.remoteProductIds(payload)).isEmpty());
+    }
+
+    @Test
+    void remoteProductIds_fromOtherInstance_shouldReturnProductIds() {
+        AvailabilityChangeNotifier otherInstance = new AvailabilityChangeNotifier(jdbcTemplate, new InventoryProperties());
+        otherInstance.notifyChanged(List.of(1L, 2L));
+        verify(jdbcTemplate).query(anyString(), ArgumentMatchers.<ResultSetExtractor<Void>>any(),
+                eq(AvailabilityChangeNotifier.NOTIFY_CHANNEL), payloadCaptor.capture());
+
+        assertThat(notifier.remoteProductIds(payloadCaptor.getValue())).isEqualTo(Set.of(1L, 2L));
+    }
+
+    @Test
+    void notifyChanged_whenDisabled_shouldNotNotify() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getChangeNotification().setEnabled(false);
+        notifier = new AvailabilityChangeNotifier(jdbcTemplate, properties);
+
+        notifier.notifyChanged(List.of(1L));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.port.AvailabilityChangeDto;
+import com.example.aiec.modules.inventory.application.port.AvailabilityStreamPort.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AvailabilitySubscriptionRegistryTest {
+
+    private final AvailabilitySubscriptionRegistry registry = new AvailabilitySubscriptionRegistry(Runnable::run);
+
+    @Test
+    void publish_shouldDeliverOnlyChangedStocks() {
+        List<AvailabilityChangeDto> received = new ArrayList<>();
+        registry.register(Set.of(1L, 2L), received::add);
+
+        registry.publish(Map.of(1L, 10));
+        registry.publish(Map.of(1L, 10));
+        registry.publish(Map.of(1L, 9, 3L, 5));
+
+        assertThat(received).extracting(AvailabilityChangeDto::getAvailableStock).containsExactly(10, 9);
+    }
+
+    @Test
+    void publish_whenListenerFails_shouldCancelOnlyFailedSubscription() {
+        List<AvailabilityChangeDto> received = new ArrayList<>();
+        registry.register(Set.of(1L), received::add);
+        registry.register(Set.of(1L), change -> {
+            throw new IllegalStateException("client gone");
+        });
+
+        registry.publish(Map.of(1L, 10));
+
+        assertThat(received).hasSize(1);
+        assertThat(registry.subscriberCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void publish_whenDeliveryIsPending_shouldNotBlockAndSendOnlyLatestStock() {
+        List<Runnable> deliveryTasks = new ArrayList<>();
+        AvailabilitySubscriptionRegistry deferredRegistry = new AvailabilitySubscriptionRegistry(deliveryTasks::add);
+        List<AvailabilityChangeDto> received = new ArrayList<>();
+        deferredRegistry.register(Set.of(1L, 2L), received::add);
+
+        deferredRegistry.publish(Map.of(1L, 10));
+        deferredRegistry.publish(Map.of(1L, 9, 2L, 4));
+
+        assertThat(received).isEmpty();
+        assertThat(deliveryTasks).hasSize(1);
+        deliveryTasks.getFirst().run();
+        assertThat(received)
+                .extracting(AvailabilityChangeDto::getProductId, AvailabilityChangeDto::getAvailableStock)
+                .containsExactlyInAnyOrder(tuple(1L, 9), tuple(2L, 4));
+    }
+
+    @Test
+    void cancel_shouldStopWatchingProducts() {
+        Subscription subscription = registry.register(Set.of(1L, 2L), change -> { });
+
+        subscription.cancel();
+
+        assertThat(registry.filterWatched(List.of(1L, 2L))).isEmpty();
+        assertThat(registry.subscriberCount(1L)).isZero();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.purchase.order.entity.Order;
+import com.example.aiec.modules.purchase.order.repository.OrderItemRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CommittedQtyRepairServiceTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private LocationStockRepository locationStockRepository;
+    @Mock private OrderItemRepository orderItemRepository;
+
+    @Mock private AvailabilityChangeTracker availabilityChangeTracker;
+    @Spy private StockLocations stockLocations = new StockLocations(new InventoryProperties());
+    @Mock private InventoryJournal inventoryJournal;
+    @InjectMocks
+    private CommittedQtyRepairService committedQtyRepairService;
+
+    @Test
+    void repair_whenDrifted_shouldOverwriteCommittedQtyFromOrderItems() {
+        LocationStock stock = locationStock(5);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(stock.getProduct()));
+        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1)).thenReturn(Optional.of(stock));
+        when(orderItemRepository.sumCommittedQuantityByProductAndLocationExcludingCancelled(1L, 1, 1, Order.OrderStatus.CANCELLED))
+                .thenReturn(2);
+
+        boolean repaired = committedQtyRepairService.repair(1L, 1);
+
+        assertThat(repaired).isTrue();
+        assertThat(stock.getCommittedQty()).isEqualTo(2);
+        verify(locationStockRepository).save(stock);
+    }
+
+    @Test
+    void repair_whenAlreadyConsistentUnderLock_shouldNotWrite() {
+        LocationStock stock = locationStock(2);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(stock.getProduct()));
+        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1)).thenReturn(Optional.of(stock));
+        when(orderItemRepository.sumCommittedQuantityByProductAndLocationExcludingCancelled(1L, 1, 1, Order.OrderStatus.CANCELLED))
+                .thenReturn(2);
+
+        boolean repaired = committedQtyRepairService.repair(1L, 1);
+
+        assertThat(repaired).isFalse();
+        verify(locationStockRepository, never()).save(any());
+    }
+
+    private LocationStock locationStock(int committedQty) {
+        Product product = new Product();
+        product.setId(1L);
+        LocationStock stock = new LocationStock();
+        stock.setProduct(product);
+        stock.setLocationId(1);
+        stock.setAvailableQty(10);
+        stock.setCommittedQty(committedQty);
+        return stock;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FrameAllocationEngineTest {
+
+    @Mock private FrameAllocationService frameAllocationService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FrameAllocationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getFrameAllocation().setCoalesceWindowMillis(100);
+        properties.getFrameAllocation().setParallelism(2);
+        properties.getFrameAllocation().setMaxRetries(2);
+        properties.getFrameAllocation().setRetryBackoffMillis(50);
+        engine = new FrameAllocationEngine(frameAllocationService, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void submit_whenSameProductRepeated_shouldAllocateOnce() {
+        for (int i = 0; i < 10; i++) {
+            engine.submit(1L);
+        }
+
+        verify(frameAllocationService, after(500).times(1)).allocatePendingByProductId(1L);
+    }
+
+    @Test
+    void submit_whenDifferentProducts_shouldAllocateInParallel() throws InterruptedException {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(frameAllocationService.allocatePendingByProductId(1L)).thenAnswer(invocation -> awaitPeer(bothStarted));
+        when(frameAllocationService.allocatePendingByProductId(2L)).thenAnswer(invocation -> awaitPeer(bothStarted));
+
+        engine.submit(1L);
+        engine.submit(2L);
+
+        verify(frameAllocationService, timeout(2000)).allocatePendingByProductId(1L);
+        verify(frameAllocationService, timeout(2000)).allocatePendingByProductId(2L);
+        assertThat(bothStarted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void submit_whenAllocationFails_shouldAcceptLaterSubmissions() {
+        when(frameAllocationService.allocatePendingByProductId(1L))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenReturn(0);
+
+        engine.submit(1L);
+        verify(frameAllocationService, timeout(2000).times(1)).allocatePendingByProductId(1L);
+        engine.submit(1L);
+
+        verify(frameAllocationService, timeout(2000).times(2)).allocatePendingByProductId(1L);
+    }
+
+    @Test
+    void submit_whenAllocationFails_shouldRetryWithBackoffAndCountFailure() {
+        when(frameAllocationService.allocatePendingByProductId(1L))
+                .thenThrow(new IllegalStateException("lock timeout"))
+                .thenReturn(1);
+
+        engine.submit(1L);
+
+        verify(frameAllocationService, timeout(2000).times(2)).allocatePendingByProductId(1L);
+        assertThat(meterRegistry.counter("inventory.frame_allocation.failed", "outcome", "retry").count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_whenAllocationKeepsFailing_shouldGiveUpAfterMaxRetries() {
+        when(frameAllocationService.allocatePendingByProductId(1L)).thenThrow(new IllegalStateException("deadlock"));
+
+        engine.submit(1L);
+
+        verify(frameAllocationService, after(1500).times(3)).allocatePendingByProductId(1L);
+        assertThat(meterRegistry.counter("inventory.frame_allocation.failed", "outcome", "gave_up").count()).isEqualTo(1);
+    }
+
+    private static int awaitPeer(CountDownLatch latch) throws InterruptedException {
+        latch.countDown();
+        latch.await(2, TimeUnit.SECONDS);
+        return 0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.aiec.modules.inventory.application.service;
 
+import com.example.aiec.modules.inventory.application.InventoryProperties;
 import com.example.aiec.modules.inventory.domain.entity.LocationStock;
 import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
 import com.example.aiec.modules.product.domain.entity.AllocationType;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
@@ -30,6 +32,8 @@ class FrameAllocationServiceTest {
     @Mock private OrderItemRepository orderItemRepository;
     @Mock private ProductRepository productRepository;
     @Mock private LocationStockRepository locationStockRepository;
+    @Spy private StockLocations stockLocations = new StockLocations(new InventoryProperties());
+    @Mock private InventoryJournal inventoryJournal;
 
     @InjectMocks
     private FrameAllocationService frameAllocationService;
@@ -83,7 +87,8 @@ class FrameAllocationServiceTest {
                 Order.OrderStatus.CONFIRMED,
                 Order.OrderStatus.PREPARING_SHIPMENT
         ))).thenReturn(List.of(item1, item2));
-        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1)).thenReturn(Optional.of(locationStock));
+        when(locationStockRepository.findByProductIdInAndLocationIdInForUpdate(List.of(1L), List.of(1)))
+                .thenReturn(List.of(locationStock));
 
         int allocated = frameAllocationService.allocatePendingByProductId(1L);
 
@@ -117,7 +122,8 @@ class FrameAllocationServiceTest {
                 Order.OrderStatus.CONFIRMED,
                 Order.OrderStatus.PREPARING_SHIPMENT
         ))).thenReturn(List.of(item));
-        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1)).thenReturn(Optional.empty());
+        when(locationStockRepository.findByProductIdInAndLocationIdInForUpdate(List.of(1L), List.of(1)))
+                .thenReturn(List.of());
         when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
 
         LocationStock created = new LocationStock();
@@ -131,4 +137,65 @@ class FrameAllocationServiceTest {
 
         verify(locationStockRepository, times(2)).save(any(LocationStock.class));
     }
+
+    @Test
+    void allocatePendingByProductId_shouldAllocateEachItemFromOneLocationInPriorityOrder() {
+        InventoryProperties inventoryProperties = new InventoryProperties();
+        inventoryProperties.getLocations().setPriority(List.of(1, 2));
+        FrameAllocationService service = new FrameAllocationService(
+                orderItemRepository, productRepository, locationStockRepository, new StockLocations(inventoryProperties), inventoryJournal);
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setAllocationType(AllocationType.FRAME);
+
+        Order order = new Order();
+        order.setId(100L);
+        order.setStatus(Order.OrderStatus.PENDING);
+
+        OrderItem committedItem = new OrderItem();
+        committedItem.setId(1L);
+        committedItem.setOrder(order);
+        committedItem.setProduct(product);
+        committedItem.setQuantity(3);
+        committedItem.setCommittedQty(1);
+        committedItem.setLocationId(1);
+
+        OrderItem newItem = new OrderItem();
+        newItem.setId(2L);
+        newItem.setOrder(order);
+        newItem.setProduct(product);
+        newItem.setQuantity(4);
+        newItem.setCommittedQty(0);
+
+        LocationStock primary = new LocationStock();
+        primary.setProduct(product);
+        primary.setLocationId(1);
+        primary.setAvailableQty(3);
+        primary.setCommittedQty(1);
+
+        LocationStock secondary = new LocationStock();
+        secondary.setProduct(product);
+        secondary.setLocationId(2);
+        secondary.setAvailableQty(5);
+        secondary.setCommittedQty(0);
+
+        when(orderItemRepository.findPendingItemsForAllocation(1L, AllocationType.FRAME, List.of(
+                Order.OrderStatus.PENDING,
+                Order.OrderStatus.CONFIRMED,
+                Order.OrderStatus.PREPARING_SHIPMENT
+        ))).thenReturn(List.of(committedItem, newItem));
+        when(locationStockRepository.findByProductIdInAndLocationIdInForUpdate(List.of(1L), List.of(1, 2)))
+                .thenReturn(List.of(secondary, primary));
+
+        int allocated = service.allocatePendingByProductId(1L);
+
+        assertThat(allocated).isEqualTo(6);
+        assertThat(committedItem.getCommittedQty()).isEqualTo(3);
+        assertThat(committedItem.getLocationId()).isEqualTo(1);
+        assertThat(newItem.getCommittedQty()).isEqualTo(4);
+        assertThat(newItem.getLocationId()).isEqualTo(2);
+        assertThat(primary.getCommittedQty()).isEqualTo(3);
+        assertThat(secondary.getCommittedQty()).isEqualTo(4);
+    }
 }
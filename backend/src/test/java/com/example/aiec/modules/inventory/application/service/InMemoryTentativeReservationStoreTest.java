@@ -0,0 +1,224 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation.ReservationType;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.inventory.domain.repository.SalesLimitRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.purchase.order.entity.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryTentativeReservationStoreTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private LocationStockRepository locationStockRepository;
+    @Mock private SalesLimitRepository salesLimitRepository;
+    @Mock private ReservationExpiryService reservationExpiryService;
+    @Mock private TentativeReservationCounter tentativeReservationCounter;
+
+    private InMemoryTentativeReservationStore store;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getExpiry().setTickMillis(10);
+        properties.getLocations().setPriority(List.of(1, 2));
+        store = new InMemoryTentativeReservationStore(
+                productRepository,
+                locationStockRepository,
+                salesLimitRepository,
+                reservationExpiryService,
+                tentativeReservationCounter,
+                new StockLocations(properties),
+                properties);
+        lenient().when(productRepository.getReferenceById(anyLong())).thenAnswer(invocation -> product(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void resetCounters_withoutSingleInstanceFlag_shouldFailWithoutClearingOtherInstancesHolds() {
+        assertThatThrownBy(() -> store.resetCounters()).isInstanceOf(IllegalStateException.class);
+
+        verify(tentativeReservationCounter, never()).resetToPersistedReservations();
+    }
+
+    @Test
+    void resetCounters_withSingleInstanceFlag_shouldRecalculateCounters() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getReservation().setSingleInstance(true);
+        InMemoryTentativeReservationStore singleInstanceStore = new InMemoryTentativeReservationStore(
+                productRepository, locationStockRepository, salesLimitRepository, reservationExpiryService,
+                tentativeReservationCounter, new StockLocations(properties), properties);
+
+        singleInstanceStore.resetCounters();
+
+        verify(tentativeReservationCounter).resetToPersistedReservations();
+    }
+
+    @Test
+    void save_shouldAssignIdAndBeFoundBySessionAndProduct() {
+        Instant now = Instant.now();
+        StockReservation saved = store.save(reservation("sess", 1L, 2, now.plus(30, ChronoUnit.MINUTES)));
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(store.findActive("sess", 1L, now)).get()
+                .extracting(StockReservation::getQuantity)
+                .isEqualTo(2);
+        assertThat(store.findActive("other", 1L, now)).isEmpty();
+        assertThat(store.findAllActiveBySession("sess", now)).hasSize(1);
+    }
+
+    @Test
+    void save_whenTransactionRolledBack_shouldRestorePreviousState() {
+        Instant now = Instant.now();
+        StockReservation saved = store.save(reservation("sess", 1L, 2, now.plus(30, ChronoUnit.MINUTES)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        StockReservation updated = store.findActive("sess", 1L, now).orElseThrow();
+        updated.setQuantity(5);
+        store.save(updated);
+        store.save(reservation("sess", 2L, 1, now.plus(30, ChronoUnit.MINUTES)));
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(store.findAllActiveBySession("sess", now))
+                .extracting(StockReservation::getId, StockReservation::getQuantity)
+                .containsExactly(tuple(saved.getId(), 2));
+    }
+
+    @Test
+    void commit_shouldMoveCountersPerProductAndLocationAndRemoveHolds() {
+        Instant now = Instant.now();
+        StockReservation real = store.save(reservation("sess", 1L, 2, now.plus(30, ChronoUnit.MINUTES)));
+        StockReservation secondary = reservation("sess", 3L, 4, now.plus(30, ChronoUnit.MINUTES));
+        secondary.setLocationId(2);
+        secondary = store.save(secondary);
+        StockReservation frame = store.save(reservation("sess", 2L, 3, now.plus(30, ChronoUnit.MINUTES)));
+        Order order = new Order();
+        order.setId(10L);
+
+        store.commit(List.of(real, secondary), List.of(frame), order);
+
+        verify(locationStockRepository).commitReservedQtyByProductId(1L, 1, 2);
+        verify(locationStockRepository).commitReservedQtyByProductId(3L, 2, 4);
+        verify(salesLimitRepository).commitReservedQtyByProductId(2L, 3, 10L);
+        assertThat(store.findAllActiveBySession("sess", now)).isEmpty();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void tick_shouldReleaseExpiredHoldsGroupedByProductAndSlot() throws InterruptedException {
+        Instant expiresAt = Instant.now().plusMillis(20);
+        store.save(reservation("a", 1L, 2, expiresAt));
+        StockReservation bucketed = reservation("b", 1L, 1, expiresAt);
+        bucketed.setBucketNo(3);
+        store.save(bucketed);
+        StockReservation secondary = reservation("d", 1L, 5, expiresAt);
+        secondary.setLocationId(2);
+        store.save(secondary);
+        store.save(reservation("c", 2L, 4, Instant.now().plus(30, ChronoUnit.MINUTES)));
+
+        Thread.sleep(60);
+        store.tick();
+
+        verify(reservationExpiryService).releaseQuantities(Map.of(1L, Map.of(
+                new TentativeSlot(null, null), 2,
+                new TentativeSlot(null, 3), 1,
+                new TentativeSlot(2, null), 5)));
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void tick_whenReleaseFails_shouldRetryOnNextTick() throws InterruptedException {
+        store.save(reservation("a", 1L, 2, Instant.now().plusMillis(20)));
+        Map<Long, Map<TentativeSlot, Integer>> expected = Map.of(1L, Map.of(new TentativeSlot(null, null), 2));
+        doThrow(new IllegalStateException("db down"))
+                .doNothing()
+                .when(reservationExpiryService).releaseQuantities(expected);
+
+        Thread.sleep(60);
+        store.tick();
+        store.tick();
+
+        verify(reservationExpiryService, times(2)).releaseQuantities(expected);
+    }
+
+    @Test
+    void clearBucketNo_shouldDetachHoldsFromBuckets() {
+        Instant now = Instant.now();
+        StockReservation bucketed = reservation("sess", 1L, 1, now.plus(30, ChronoUnit.MINUTES));
+        bucketed.setBucketNo(2);
+        store.save(bucketed);
+
+        store.clearBucketNo(1L);
+
+        assertThat(store.findActive("sess", 1L, now).orElseThrow().getBucketNo()).isNull();
+    }
+
+    @Test
+    void clearLocationId_whenTransactionRolledBack_shouldRestoreLocation() {
+        Instant now = Instant.now();
+        StockReservation located = reservation("sess", 1L, 1, now.plus(30, ChronoUnit.MINUTES));
+        located.setLocationId(2);
+        store.save(located);
+
+        TransactionSynchronizationManager.initSynchronization();
+        store.clearLocationId(1L);
+        assertThat(store.findActive("sess", 1L, now).orElseThrow().getLocationId()).isNull();
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(store.findActive("sess", 1L, now).orElseThrow().getLocationId()).isEqualTo(2);
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static StockReservation reservation(String sessionId, Long productId, int quantity, Instant expiresAt) {
+        StockReservation reservation = new StockReservation();
+        reservation.setSessionId(sessionId);
+        reservation.setProduct(product(productId));
+        reservation.setQuantity(quantity);
+        reservation.setType(ReservationType.TENTATIVE);
+        reservation.setExpiresAt(expiresAt);
+        return reservation;
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.service.InventoryJournalService.Balance;
+import com.example.aiec.modules.inventory.domain.entity.InventorySnapshot;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.InventoryJournalRepository;
+import com.example.aiec.modules.inventory.domain.repository.InventorySnapshotRepository;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryJournalServiceTest {
+
+    @Mock private InventoryJournalRepository inventoryJournalRepository;
+    @Mock private InventorySnapshotRepository inventorySnapshotRepository;
+    @Mock private LocationStockRepository locationStockRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private AvailabilityChangeTracker availabilityChangeTracker;
+
+    @InjectMocks
+    private InventoryJournalService inventoryJournalService;
+
+    @Test
+    void balancesAt_shouldAddJournalTailToLatestSnapshotPerLocation() {
+        Instant at = Instant.parse("2026-10-01T00:00:00Z");
+        when(inventorySnapshotRepository.findLatestByProductIdAt(1L, at)).thenReturn(List.of(buildSnapshot(1, 10, 2, 1)));
+        when(inventoryJournalRepository.sumDeltasSinceSnapshot(1L, at)).thenReturn(List.of(
+                new Object[]{1, 5L, 3L, -1L},
+                new Object[]{2, 4L, 0L, 2L}));
+
+        Map<Integer, Balance> balances = inventoryJournalService.balancesAt(1L, at);
+
+        assertThat(balances).containsExactly(
+                Map.entry(1, new Balance(15, 5, 0)),
+                Map.entry(2, new Balance(4, 0, 2)));
+    }
+
+    @Test
+    void snapshot_shouldLockLocationStocksBeforeInsert() {
+        when(inventorySnapshotRepository.insertFromLocationStocks(any(), any())).thenReturn(2);
+
+        int count = inventoryJournalService.snapshot(List.of(1L, 2L));
+
+        assertThat(count).isEqualTo(2);
+        verify(locationStockRepository).lockByProductIdInForShare(List.of(1L, 2L));
+    }
+
+    @Test
+    void replay_shouldOverwriteCountersWithReplayedBalance() {
+        LocationStock stock = buildLocationStock(7, 1);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Product()));
+        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1)).thenReturn(Optional.of(stock));
+        when(inventoryJournalRepository.findReplayedBalance(1L, 1)).thenReturn(List.<Object[]>of(new Object[]{7, 1, 10, 3}));
+
+        boolean replayed = inventoryJournalService.replay(1L, 1);
+
+        assertThat(replayed).isTrue();
+        assertThat(stock.getAvailableQty()).isEqualTo(10);
+        assertThat(stock.getCommittedQty()).isEqualTo(3);
+        verify(locationStockRepository).save(stock);
+        verify(availabilityChangeTracker).markChanged(1L);
+    }
+
+    @Test
+    void replay_whenAlreadyConsistent_shouldNotSave() {
+        LocationStock stock = buildLocationStock(10, 3);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(new Product()));
+        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1)).thenReturn(Optional.of(stock));
+        when(inventoryJournalRepository.findReplayedBalance(1L, 1)).thenReturn(List.<Object[]>of(new Object[]{10, 3, 10, 3}));
+
+        assertThat(inventoryJournalService.replay(1L, 1)).isFalse();
+        verify(locationStockRepository, never()).save(any());
+    }
+
+    private InventorySnapshot buildSnapshot(int locationId, int availableQty, int committedQty, int reservedTentativeQty) {
+        InventorySnapshot snapshot = new InventorySnapshot();
+        snapshot.setProductId(1L);
+        snapshot.setLocationId(locationId);
+        snapshot.setAvailableQty(availableQty);
+        snapshot.setCommittedQty(committedQty);
+        snapshot.setReservedTentativeQty(reservedTentativeQty);
+        snapshot.setLastJournalId(100L);
+        return snapshot;
+    }
+
+    private LocationStock buildLocationStock(int availableQty, int committedQty) {
+        LocationStock stock = new LocationStock();
+        stock.setLocationId(1);
+        stock.setAvailableQty(availableQty);
+        stock.setCommittedQty(committedQty);
+        return stock;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry.EntryType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryJournalTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @Captor private ArgumentCaptor<List<Object[]>> entriesCaptor;
+
+    @InjectMocks
+    private InventoryJournal inventoryJournal;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void record_withoutTransaction_shouldInsertImmediately() {
+        inventoryJournal.record(1L, 2, EntryType.ADJUSTMENT, 5, 0, 0);
+
+        verify(jdbcTemplate).batchUpdate(anyString(), entriesCaptor.capture());
+        Object[] entry = entriesCaptor.getValue().getFirst();
+        assertThat(entry).startsWith(1L, 2, "ADJUSTMENT", 5, 0, 0, null);
+        assertThat(entry[7]).isNotNull();
+    }
+
+    @Test
+    void record_inTransaction_shouldBatchInsertBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventoryJournal.record(1L, 1, EntryType.COMMIT, 0, 2, -2, 10L);
+        inventoryJournal.record(3L, 1, EntryType.RESERVATION, 0, 0, 1);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), entriesCaptor.capture());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), entriesCaptor.capture());
+        assertThat(entriesCaptor.getValue())
+                .extracting(entry -> entry[0], entry -> entry[2], entry -> entry[6])
+                .containsExactly(
+                        tuple(1L, "COMMIT", 10L),
+                        tuple(3L, "RESERVATION", null));
+    }
+
+    @Test
+    void record_whenAllDeltasAreZero_shouldSkip() {
+        inventoryJournal.record(1L, 1, EntryType.RELEASE, 0, 0, 0);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
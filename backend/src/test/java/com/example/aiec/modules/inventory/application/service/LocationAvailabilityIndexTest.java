@@ -0,0 +1,102 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.application.service.LocationAvailabilityIndex.LocationAvailability;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocationAvailabilityIndexTest {
+
+    @Mock private LocationStockRepository locationStockRepository;
+
+    private InventoryProperties inventoryProperties;
+    private LocationAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        inventoryProperties = new InventoryProperties();
+        inventoryProperties.getLocations().setPriority(List.of(2, 1));
+        index = new LocationAvailabilityIndex(
+                locationStockRepository, new StockLocations(inventoryProperties), inventoryProperties);
+    }
+
+    @Test
+    void get_shouldLoadMissingProductsOnceAndKeepPriorityOrder() {
+        when(locationStockRepository.findByProductIdInAndLocationIdIn(List.of(1L), List.of(2, 1)))
+                .thenReturn(List.of(buildLocationStock(1L, 1, 4, true), buildLocationStock(1L, 2, 3, false)));
+
+        LocationAvailability first = index.get(1L);
+        LocationAvailability second = index.get(1L);
+
+        assertThat(first.freeQtyByLocation()).containsExactly(Map.entry(2, 3), Map.entry(1, 4));
+        assertThat(first.totalFreeQty()).isEqualTo(7);
+        assertThat(first.flashSaleEnabled()).isFalse();
+        assertThat(second).isSameAs(first);
+        verify(locationStockRepository, times(1)).findByProductIdInAndLocationIdIn(List.of(1L), List.of(2, 1));
+    }
+
+    @Test
+    void get_afterEvict_shouldReload() {
+        when(locationStockRepository.findByProductIdInAndLocationIdIn(List.of(1L), List.of(2, 1)))
+                .thenReturn(List.of(buildLocationStock(1L, 2, 3, false)))
+                .thenReturn(List.of(buildLocationStock(1L, 2, 1, false)));
+
+        index.get(1L);
+        index.evict(List.of(1L));
+
+        assertThat(index.get(1L).freeQty(2)).isEqualTo(1);
+        assertThat(index.get(1L).freeQty(1)).isZero();
+    }
+
+    @Test
+    void get_whenTtlExpired_shouldReload() {
+        inventoryProperties.getLocations().setIndexTtlMillis(0);
+        index = new LocationAvailabilityIndex(
+                locationStockRepository, new StockLocations(inventoryProperties), inventoryProperties);
+        when(locationStockRepository.findByProductIdInAndLocationIdIn(List.of(1L), List.of(2, 1)))
+                .thenReturn(List.of(buildLocationStock(1L, 2, 3, false)));
+
+        index.get(1L);
+        index.get(1L);
+
+        verify(locationStockRepository, times(2)).findByProductIdInAndLocationIdIn(List.of(1L), List.of(2, 1));
+    }
+
+    @Test
+    void candidateLocations_whenNoLocationCoversQuantity_shouldReloadOnce() {
+        when(locationStockRepository.findByProductIdInAndLocationIdIn(List.of(1L), List.of(2, 1)))
+                .thenReturn(List.of(buildLocationStock(1L, 2, 1, false), buildLocationStock(1L, 1, 1, false)))
+                .thenReturn(List.of(buildLocationStock(1L, 2, 1, false), buildLocationStock(1L, 1, 5, false)));
+
+        assertThat(index.candidateLocations(1L, 2)).containsExactly(1);
+        assertThat(index.candidateLocations(1L, 1)).containsExactly(2, 1);
+        verify(locationStockRepository, times(2)).findByProductIdInAndLocationIdIn(List.of(1L), List.of(2, 1));
+    }
+
+    private LocationStock buildLocationStock(Long productId, int locationId, int availableQty, boolean flashSaleEnabled) {
+        Product product = new Product();
+        product.setId(productId);
+        LocationStock locationStock = new LocationStock();
+        locationStock.setProduct(product);
+        locationStock.setLocationId(locationId);
+        locationStock.setAvailableQty(availableQty);
+        locationStock.setCommittedQty(0);
+        locationStock.setFlashBucketCount(flashSaleEnabled ? 2 : 0);
+        return locationStock;
+    }
+}
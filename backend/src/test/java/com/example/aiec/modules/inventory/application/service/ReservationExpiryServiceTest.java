@@ -0,0 +1,111 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation;
+import com.example.aiec.modules.inventory.domain.entity.StockReservation.ReservationType;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.inventory.domain.repository.StockReservationRepository;
+import com.example.aiec.modules.product.domain.entity.AllocationType;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.shared.outbox.application.OutboxEventPublisher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpiryServiceTest {
+
+    @Mock private StockReservationRepository reservationRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private LocationStockRepository locationStockRepository;
+    @Spy private StockLocations stockLocations = new StockLocations(new InventoryProperties());
+    @Mock private TentativeReservationCounter tentativeReservationCounter;
+    @Mock private OutboxEventPublisher outboxEventPublisher;
+
+    @InjectMocks
+    private ReservationExpiryService reservationExpiryService;
+
+    @Test
+    void releaseExpired_shouldReleaseCountersAndPublishAvailabilityPerProduct() {
+        Instant now = Instant.now();
+        Product product = product(1L);
+        StockReservation plain = reservation(10L, product, 2, null, now.minusSeconds(1));
+        StockReservation bucket = reservation(11L, product, 3, 0, now.minusSeconds(1));
+        when(reservationRepository.findByIdInAndType(List.of(10L, 11L), ReservationType.TENTATIVE))
+                .thenReturn(List.of(plain, bucket));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product));
+        when(reservationRepository.findByIdInAndTypeForUpdate(List.of(10L, 11L), ReservationType.TENTATIVE))
+                .thenReturn(List.of(plain, bucket));
+
+        ReservationExpiryService.ReleaseResult result = reservationExpiryService.releaseExpired(List.of(10L, 11L), now);
+
+        assertThat(result.releasedCount()).isEqualTo(2);
+        assertThat(result.extended()).isEmpty();
+        InOrder lockOrder = inOrder(productRepository, locationStockRepository, reservationRepository);
+        lockOrder.verify(productRepository).findAllByIdInForUpdate(List.of(1L));
+        lockOrder.verify(locationStockRepository).findByProductIdInAndLocationIdInForUpdate(List.of(1L), Set.of(1));
+        lockOrder.verify(reservationRepository).findByIdInAndTypeForUpdate(List.of(10L, 11L), ReservationType.TENTATIVE);
+        verify(reservationRepository).softDeleteByIdIn(List.of(10L, 11L));
+        verify(tentativeReservationCounter).add(1L, AllocationType.REAL, new TentativeSlot(null, null), -2);
+        verify(tentativeReservationCounter).add(1L, AllocationType.REAL, new TentativeSlot(null, 0), -3);
+        verify(outboxEventPublisher).publish(eq("STOCK_AVAILABILITY_INCREASED"), eq("product:1"),
+                eq(Map.of("productId", 1L, "reason", "RESERVATION_EXPIRED", "increasedBy", 5)));
+    }
+
+    @Test
+    void releaseExpired_whenExpiryWasExtended_shouldKeepReservationAndReturnNewDeadline() {
+        Instant now = Instant.now();
+        Instant extendedAt = now.plusSeconds(1800);
+        Product product = product(1L);
+        StockReservation reservation = reservation(10L, product, 2, null, extendedAt);
+        when(reservationRepository.findByIdInAndType(List.of(10L), ReservationType.TENTATIVE))
+                .thenReturn(List.of(reservation));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product));
+        when(reservationRepository.findByIdInAndTypeForUpdate(List.of(10L), ReservationType.TENTATIVE))
+                .thenReturn(List.of(reservation));
+
+        ReservationExpiryService.ReleaseResult result = reservationExpiryService.releaseExpired(List.of(10L), now);
+
+        assertThat(result.releasedCount()).isZero();
+        assertThat(result.extended()).containsEntry(10L, extendedAt);
+        verify(reservationRepository, never()).softDeleteByIdIn(any());
+        verify(outboxEventPublisher, never()).publish(any(), any(), anyMap());
+    }
+
+    private Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setAllocationType(AllocationType.REAL);
+        return product;
+    }
+
+    private StockReservation reservation(Long id, Product product, int quantity, Integer bucketNo, Instant expiresAt) {
+        StockReservation reservation = new StockReservation();
+        reservation.setId(id);
+        reservation.setProduct(product);
+        reservation.setQuantity(quantity);
+        reservation.setBucketNo(bucketNo);
+        reservation.setType(ReservationType.TENTATIVE);
+        reservation.setExpiresAt(expiresAt);
+        return reservation;
+    }
+}
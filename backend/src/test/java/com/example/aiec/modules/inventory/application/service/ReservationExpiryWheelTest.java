@@ -0,0 +1,67 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReservationExpiryWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void advance_shouldReturnOnlyReservationsWhoseDeadlinePassed() {
+        ReservationExpiryWheel wheel = new ReservationExpiryWheel(1000, 8, 3, START);
+        wheel.schedule(1L, START + 2_500);
+        wheel.schedule(2L, START + 5_000);
+
+        assertThat(wheel.advance(START + 2_000)).isEmpty();
+        assertThat(wheel.advance(START + 3_000)).containsExactly(1L);
+        assertThat(wheel.advance(START + 5_000)).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_whenDeadlineIsOnUpperLevel_shouldCascadeAndExpireOnTime() {
+        ReservationExpiryWheel wheel = new ReservationExpiryWheel(1000, 8, 3, START);
+        wheel.schedule(1L, START + 30 * 60_000L);
+
+        assertThat(wheel.advance(START + 30 * 60_000L - 1_000)).isEmpty();
+        assertThat(wheel.advance(START + 30 * 60_000L)).containsExactly(1L);
+    }
+
+    @Test
+    void advance_whenDeadlineExceedsWheelSpan_shouldStillExpire() {
+        ReservationExpiryWheel wheel = new ReservationExpiryWheel(1000, 4, 2, START);
+        wheel.schedule(1L, START + 100_000);
+
+        assertThat(wheel.advance(START + 99_000)).isEmpty();
+        assertThat(wheel.advance(START + 100_000)).containsExactly(1L);
+    }
+
+    @Test
+    void schedule_whenRescheduled_shouldUseLatestDeadline() {
+        ReservationExpiryWheel wheel = new ReservationExpiryWheel(1000, 8, 3, START);
+        wheel.schedule(1L, START + 2_000);
+        wheel.schedule(1L, START + 40_000);
+
+        assertThat(wheel.advance(START + 39_000)).isEmpty();
+        assertThat(wheel.advance(START + 40_000)).containsExactly(1L);
+    }
+
+    @Test
+    void schedule_whenAlreadyExpired_shouldReturnOnNextAdvance() {
+        ReservationExpiryWheel wheel = new ReservationExpiryWheel(1000, 8, 3, START);
+        wheel.schedule(1L, START - 60_000);
+
+        assertThat(wheel.advance(START)).containsExactly(1L);
+    }
+
+    @Test
+    void cancel_shouldRemoveReservationFromWheel() {
+        ReservationExpiryWheel wheel = new ReservationExpiryWheel(1000, 8, 3, START);
+        wheel.schedule(1L, START + 2_000);
+        wheel.cancel(1L);
+
+        assertThat(wheel.advance(START + 10_000)).isEmpty();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.entity.StockBucket;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.inventory.domain.repository.StockBucketRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockBucketServiceTest {
+
+    @Mock private StockBucketRepository stockBucketRepository;
+    @Mock private TentativeReservationStore tentativeReservationStore;
+    @Mock private LocationStockRepository locationStockRepository;
+    @Mock private ProductRepository productRepository;
+
+    @Mock private AvailabilityChangeTracker availabilityChangeTracker;
+    @Spy private StockLocations stockLocations = new StockLocations(new InventoryProperties());
+    @Mock private InventoryJournal inventoryJournal;
+    @InjectMocks
+    private StockBucketService stockBucketService;
+
+    @Test
+    void carve_shouldSplitEffectiveStockEvenlyAndCountItAsTentative() {
+        Product product = product();
+        LocationStock locationStock = locationStock(product, 12, 1, 1);
+        when(stockBucketRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<StockBucket> buckets = stockBucketService.carve(product, locationStock, 3);
+
+        assertThat(buckets).extracting(StockBucket::getAllocatedQty).containsExactly(4, 3, 3);
+        assertThat(locationStock.getFlashBucketCount()).isEqualTo(3);
+        verify(locationStockRepository).addReservedTentativeQty(1L, 1, 10);
+    }
+
+    @Test
+    void reserve_whenHashedBucketIsShort_shouldFallBackToNextBucket() {
+        int start = Math.floorMod("session-1".hashCode(), 4);
+        int next = (start + 1) % 4;
+        when(stockBucketRepository.reserveIfAvailable(1L, start, 2)).thenReturn(0);
+        when(stockBucketRepository.reserveIfAvailable(1L, next, 2)).thenReturn(1);
+
+        Integer bucketNo = stockBucketService.reserve(1L, "session-1", 4, 2);
+
+        assertThat(bucketNo).isEqualTo(next);
+    }
+
+    @Test
+    void rebalance_shouldRedistributeFreeQtyKeepingReserved() {
+        StockBucket first = bucket(0, 10, 2);
+        StockBucket second = bucket(1, 1, 1);
+        when(stockBucketRepository.findByProductIdForUpdate(1L)).thenReturn(List.of(first, second));
+
+        boolean changed = stockBucketService.rebalance(1L);
+
+        assertThat(changed).isTrue();
+        assertThat(first.getAllocatedQty()).isEqualTo(6);
+        assertThat(second.getAllocatedQty()).isEqualTo(5);
+        verify(stockBucketRepository).saveAll(List.of(first, second));
+    }
+
+    @Test
+    void merge_shouldReturnFreeQtyToLocationStockAndDeleteBuckets() {
+        Product product = product();
+        LocationStock locationStock = locationStock(product, 20, 0, 4);
+        List<StockBucket> buckets = List.of(bucket(0, 5, 2), bucket(1, 5, 0));
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1)).thenReturn(Optional.of(locationStock));
+        when(stockBucketRepository.findByProductIdForUpdate(1L)).thenReturn(buckets);
+
+        int merged = stockBucketService.merge(1L);
+
+        assertThat(merged).isEqualTo(8);
+        assertThat(locationStock.getFlashBucketCount()).isZero();
+        verify(locationStockRepository).addReservedTentativeQty(1L, 1, -8);
+        verify(tentativeReservationStore).clearBucketNo(1L);
+        verify(stockBucketRepository).deleteAll(buckets);
+    }
+
+    @Test
+    void merge_whenNotEnabled_shouldDoNothing() {
+        Product product = product();
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1))
+                .thenReturn(Optional.of(locationStock(product, 20, 0, 0)));
+
+        int merged = stockBucketService.merge(1L);
+
+        assertThat(merged).isZero();
+        verify(tentativeReservationStore, never()).clearBucketNo(1L);
+    }
+
+    private Product product() {
+        Product product = new Product();
+        product.setId(1L);
+        return product;
+    }
+
+    private LocationStock locationStock(Product product, int availableQty, int committedQty, int flashBucketCount) {
+        LocationStock locationStock = new LocationStock();
+        locationStock.setProduct(product);
+        locationStock.setLocationId(1);
+        locationStock.setAvailableQty(availableQty);
+        locationStock.setCommittedQty(committedQty);
+        locationStock.setReservedTentativeQty(1);
+        locationStock.setFlashBucketCount(flashBucketCount);
+        return locationStock;
+    }
+
+    private StockBucket bucket(int bucketNo, int allocatedQty, int reservedQty) {
+        StockBucket bucket = new StockBucket();
+        bucket.setBucketNo(bucketNo);
+        bucket.setAllocatedQty(allocatedQty);
+        bucket.setReservedQty(reservedQty);
+        return bucket;
+    }
+}
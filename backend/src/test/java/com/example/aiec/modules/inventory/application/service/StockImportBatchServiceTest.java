@@ -0,0 +1,104 @@
+package com.example.aiec.modules.inventory.application.service;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.repository.LocationStockRepository;
+import com.example.aiec.modules.product.domain.entity.Product;
+import com.example.aiec.modules.product.domain.repository.ProductRepository;
+import com.example.aiec.modules.shared.outbox.application.OutboxEventPublisher;
+import com.example.aiec.modules.shared.outbox.application.OutboxMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockImportBatchServiceTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private LocationStockRepository locationStockRepository;
+    @Mock private OutboxEventPublisher outboxEventPublisher;
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @Captor private ArgumentCaptor<List<Object[]>> adjustmentsCaptor;
+
+    @Mock private AvailabilityChangeTracker availabilityChangeTracker;
+    @Spy private StockLocations stockLocations = new StockLocations(new InventoryProperties());
+    @Mock private InventoryJournal inventoryJournal;
+    @InjectMocks
+    private StockImportBatchService stockImportBatchService;
+
+    @Test
+    void applyBatch_shouldBatchInsertAdjustmentsAndPublishOneEventPerProduct() {
+        LocationStock stock = locationStock(product(1L), 5);
+        when(productRepository.findAllByIdInForUpdate(any())).thenReturn(List.of(stock.getProduct()));
+        when(locationStockRepository.findByProductIdInAndLocationIdForUpdate(List.of(1L), 1)).thenReturn(List.of(stock));
+
+        StockImportBatchService.BatchResult result = stockImportBatchService.applyBatch(List.of(
+                StockImportLine.valid(2, 1L, 10, "入荷"),
+                StockImportLine.valid(3, 1L, -3, "棚卸")
+        ), "admin@example.com");
+
+        assertThat(result.appliedCount()).isEqualTo(2);
+        assertThat(result.rejected()).isEmpty();
+        assertThat(stock.getAvailableQty()).isEqualTo(12);
+        verify(jdbcTemplate).batchUpdate(anyString(), adjustmentsCaptor.capture());
+        assertThat(adjustmentsCaptor.getValue()).hasSize(2);
+        assertThat(adjustmentsCaptor.getValue().get(1)).startsWith(1L, 15, 12, -3, "棚卸", "admin@example.com");
+        verify(outboxEventPublisher, times(1)).publishAll(List.of(new OutboxMessage("STOCK_AVAILABILITY_INCREASED", "product:1", Map.of(
+                "productId", 1L,
+                "reason", "INVENTORY_IMPORTED",
+                "increasedBy", 7))));
+    }
+
+    @Test
+    void applyBatch_shouldRejectUnknownProductsAndNegativeResults() {
+        LocationStock stock = locationStock(product(1L), 2);
+        when(productRepository.findAllByIdInForUpdate(any())).thenReturn(List.of(stock.getProduct()));
+        when(locationStockRepository.findByProductIdInAndLocationIdForUpdate(List.of(1L), 1)).thenReturn(List.of(stock));
+
+        StockImportBatchService.BatchResult result = stockImportBatchService.applyBatch(List.of(
+                StockImportLine.valid(2, 1L, -5, "出荷"),
+                StockImportLine.valid(3, 9L, 1, "入荷")
+        ), "admin@example.com");
+
+        assertThat(result.appliedCount()).isZero();
+        assertThat(result.rejected()).extracting(StockImportLine::lineNumber).containsExactly(2, 3);
+        assertThat(stock.getAvailableQty()).isEqualTo(2);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(outboxEventPublisher, never()).publish(anyString(), any(), any());
+        verify(outboxEventPublisher, never()).publishAll(any());
+    }
+
+    private Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+
+    private LocationStock locationStock(Product product, int availableQty) {
+        LocationStock stock = new LocationStock();
+        stock.setProduct(product);
+        stock.setLocationId(1);
+        stock.setAvailableQty(availableQty);
+        stock.setCommittedQty(0);
+        return stock;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.aiec.modules.inventory.application.usecase;
+
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.application.port.AvailabilityChangeDto;
+import com.example.aiec.modules.inventory.application.port.AvailabilityStreamPort;
+import com.example.aiec.modules.inventory.application.port.InventoryQueryPort;
+import com.example.aiec.modules.inventory.application.service.AvailabilityChangeTracker;
+import com.example.aiec.modules.inventory.application.service.AvailabilitySubscriptionRegistry;
+import com.example.aiec.modules.shared.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityStreamUseCaseTest {
+
+    @Mock
+    private InventoryQueryPort inventoryQuery;
+
+    @Mock
+    private AvailabilityChangeTracker availabilityChangeTracker;
+
+    private InventoryProperties inventoryProperties;
+    private AvailabilityStreamUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        inventoryProperties = new InventoryProperties();
+        useCase = new AvailabilityStreamUseCase(
+                inventoryQuery, availabilityChangeTracker, new AvailabilitySubscriptionRegistry(Runnable::run), inventoryProperties);
+    }
+
+    @Test
+    void subscribe_shouldSendCurrentStocksFirst() {
+        when(inventoryQuery.calculateEffectiveStocks(Set.of(1L, 2L))).thenReturn(Map.of(1L, 10, 2L, 0));
+        List<AvailabilityChangeDto> received = new ArrayList<>();
+
+        useCase.subscribe(List.of(2L, 1L, 2L), received::add);
+
+        assertThat(received)
+                .extracting(AvailabilityChangeDto::getProductId, AvailabilityChangeDto::getAvailableStock)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, 10),
+                        tuple(2L, 0));
+    }
+
+    @Test
+    void subscribe_whenTooManyProducts_shouldThrow() {
+        inventoryProperties.getAvailabilityStream().setMaxProductsPerSubscription(1);
+
+        assertThatThrownBy(() -> useCase.subscribe(List.of(1L, 2L), change -> { }))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode")
+                .isEqualTo("TOO_MANY_PRODUCTS");
+        verify(inventoryQuery, never()).calculateEffectiveStocks(any());
+    }
+
+    @Test
+    void flush_shouldRecalculateOnlyWatchedProductsAndSkipUnchangedStocks() {
+        when(inventoryQuery.calculateEffectiveStocks(Set.of(1L)))
+                .thenReturn(Map.of(1L, 10))
+                .thenReturn(Map.of(1L, 8));
+        List<AvailabilityChangeDto> received = new ArrayList<>();
+        useCase.subscribe(List.of(1L), received::add);
+
+        when(availabilityChangeTracker.drain())
+                .thenReturn(new HashSet<>(Set.of(1L, 99L)))
+                .thenReturn(new HashSet<>(Set.of(1L)));
+        useCase.flush();
+        useCase.flush();
+
+        assertThat(received).extracting(AvailabilityChangeDto::getAvailableStock).containsExactly(10, 8);
+    }
+
+    @Test
+    void cancel_shouldStopDeliveryAndSkipRecalculation() {
+        when(inventoryQuery.calculateEffectiveStocks(Set.of(1L))).thenReturn(Map.of(1L, 10));
+        AvailabilityStreamPort.Subscription subscription = useCase.subscribe(List.of(1L), change -> { });
+
+        subscription.cancel();
+        when(availabilityChangeTracker.drain()).thenReturn(new HashSet<>(Set.of(1L)));
+        useCase.flush();
+
+        verify(inventoryQuery).calculateEffectiveStocks(Set.of(1L));
+    }
+}
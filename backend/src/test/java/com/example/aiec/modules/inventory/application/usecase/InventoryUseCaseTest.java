@@ -1,6 +1,21 @@
 package com.example.aiec.modules.inventory.application.usecase;
 
+import com.example.aiec.modules.inventory.application.service.AvailabilityChangeTracker;
+import com.example.aiec.modules.inventory.application.service.InventoryJournal;
+import com.example.aiec.modules.inventory.application.service.LocationAvailabilityIndex;
+import com.example.aiec.modules.inventory.application.service.LocationAvailabilityIndex.LocationAvailability;
+import com.example.aiec.modules.inventory.application.service.JpaTentativeReservationStore;
+import com.example.aiec.modules.inventory.application.service.ReservationExpiryScheduler;
+import com.example.aiec.modules.inventory.application.service.StockBucketService;
+import com.example.aiec.modules.inventory.application.service.StockLocations;
+import com.example.aiec.modules.inventory.application.service.TentativeReservationCounter;
+import com.example.aiec.modules.inventory.application.InventoryProperties;
+import com.example.aiec.modules.inventory.application.port.ReservationDto;
+import com.example.aiec.modules.inventory.application.port.ReservationLineResultDto;
+import com.example.aiec.modules.inventory.application.port.UpdateItemInventoryRequest;
+import com.example.aiec.modules.inventory.domain.entity.InventoryJournalEntry.EntryType;
 import com.example.aiec.modules.inventory.domain.entity.LocationStock;
+import com.example.aiec.modules.inventory.domain.entity.SalesLimit;
 import com.example.aiec.modules.inventory.domain.entity.StockReservation;
 import com.example.aiec.modules.inventory.domain.entity.StockReservation.ReservationType;
 import com.example.aiec.modules.inventory.domain.repository.InventoryAdjustmentRepository;
@@ -18,23 +33,30 @@ import com.example.aiec.modules.shared.exception.BusinessException;
 import com.example.aiec.modules.shared.exception.ConflictException;
 import com.example.aiec.modules.shared.exception.InsufficientStockException;
 import com.example.aiec.modules.shared.outbox.application.OutboxEventPublisher;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -51,10 +73,44 @@ class InventoryUseCaseTest {
     @Mock LocationStockRepository locationStockRepository;
     @Mock SalesLimitRepository salesLimitRepository;
     @Mock OutboxEventPublisher outboxEventPublisher;
+    @Mock TentativeReservationCounter tentativeReservationCounter;
+    @Mock StockBucketService stockBucketService;
+    @Mock ReservationExpiryScheduler reservationExpiryScheduler;
+    @Mock AvailabilityChangeTracker availabilityChangeTracker;
+    @Mock LocationAvailabilityIndex locationAvailabilityIndex;
+    @Mock InventoryJournal inventoryJournal;
+    @Spy InventoryProperties inventoryProperties = new InventoryProperties();
 
-    @InjectMocks
     InventoryUseCase inventoryUseCase;
 
+    @BeforeEach
+    void setUp() {
+        inventoryProperties.getLocations().setPriority(List.of(1, 2));
+        StockLocations stockLocations = new StockLocations(inventoryProperties);
+        inventoryUseCase = new InventoryUseCase(
+                reservationRepository,
+                productRepository,
+                orderRepository,
+                orderItemRepository,
+                inventoryAdjustmentRepository,
+                locationStockRepository,
+                salesLimitRepository,
+                outboxEventPublisher,
+                tentativeReservationCounter,
+                inventoryProperties,
+                stockBucketService,
+                new JpaTentativeReservationStore(
+                        reservationRepository,
+                        locationStockRepository,
+                        salesLimitRepository,
+                        reservationExpiryScheduler,
+                        stockLocations),
+                availabilityChangeTracker,
+                stockLocations,
+                locationAvailabilityIndex,
+                inventoryJournal);
+    }
+
     private Product buildProduct(Long id, AllocationType allocationType) {
         Product p = new Product();
         p.setId(id);
@@ -67,9 +123,13 @@ class InventoryUseCaseTest {
     }
 
     private LocationStock buildLocationStock(Product product, int allocatable, int allocated) {
+        return buildLocationStock(product, 1, allocatable, allocated);
+    }
+
+    private LocationStock buildLocationStock(Product product, int locationId, int allocatable, int allocated) {
         LocationStock locationStock = new LocationStock();
         locationStock.setProduct(product);
-        locationStock.setLocationId(1);
+        locationStock.setLocationId(locationId);
         locationStock.setAvailableQty(allocatable);
         locationStock.setCommittedQty(allocated);
         return locationStock;
@@ -108,12 +168,361 @@ class InventoryUseCaseTest {
         Product product = buildProduct(1L, AllocationType.REAL);
         when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
         when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.empty());
-        when(locationStockRepository.findByProductIdAndLocationId(1L, 1)).thenReturn(Optional.empty());
-        when(reservationRepository.sumTentativeReserved(eq(1L), any())).thenReturn(0);
+        when(locationStockRepository.findByProductIdAndLocationIdIn(1L, List.of(1, 2))).thenReturn(List.of());
 
         assertThatExceptionOfType(ConflictException.class)
                 .isThrownBy(() -> inventoryUseCase.createReservation("sess", 1L, 1))
                 .satisfies(ex -> assertThat(ex.getErrorCode()).isEqualTo("INSUFFICIENT_STOCK"));
+        verify(tentativeReservationCounter, never()).add(any(StockReservation.class), anyInt());
+    }
+
+    @Test
+    void createReservation_realProductWithTentativeCounter_shouldIncrementCounter() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        LocationStock locationStock = buildLocationStock(product, 10, 3);
+        locationStock.setReservedTentativeQty(4);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.empty());
+        when(locationStockRepository.findByProductIdAndLocationIdIn(1L, List.of(1, 2))).thenReturn(List.of(locationStock));
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReservationDto reservation = inventoryUseCase.createReservation("sess", 1L, 2);
+
+        assertThat(reservation.getAvailableStock()).isEqualTo(1);
+        verify(tentativeReservationCounter).add(argThat(r -> Integer.valueOf(1).equals(r.getLocationId())), eq(2));
+    }
+
+    @Test
+    void createReservation_realProduct_shouldReserveAtFirstLocationInPriorityWithEnoughStock() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.empty());
+        when(locationStockRepository.findByProductIdAndLocationIdIn(1L, List.of(1, 2))).thenReturn(List.of(
+                buildLocationStock(product, 2, 5, 0),
+                buildLocationStock(product, 1, 1, 0)));
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReservationDto reservation = inventoryUseCase.createReservation("sess", 1L, 3);
+
+        assertThat(reservation.getAvailableStock()).isEqualTo(3);
+        verify(tentativeReservationCounter).add(argThat(r -> Integer.valueOf(2).equals(r.getLocationId())), eq(3));
+    }
+
+    @Test
+    void createReservation_frameProductExceedingCounter_shouldThrowConflictException() {
+        Product product = buildProduct(2L, AllocationType.FRAME);
+        SalesLimit salesLimit = new SalesLimit();
+        salesLimit.setProduct(product);
+        salesLimit.setFrameLimitQty(5);
+        salesLimit.setReservedTentativeQty(4);
+        when(productRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(product));
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(2L), any())).thenReturn(Optional.empty());
+        when(salesLimitRepository.findByProductId(2L)).thenReturn(Optional.of(salesLimit));
+
+        assertThatExceptionOfType(ConflictException.class)
+                .isThrownBy(() -> inventoryUseCase.createReservation("sess", 2L, 2))
+                .satisfies(ex -> assertThat(ex.getErrorCode()).isEqualTo("INSUFFICIENT_STOCK"));
+    }
+
+    @Test
+    void createReservation_atomicStrategy_shouldReserveWithoutProductLock() {
+        inventoryProperties.getReservation().setStrategy(InventoryProperties.ReservationStrategy.ATOMIC);
+        Product product = buildProduct(1L, AllocationType.REAL);
+        LocationStock locationStock = buildLocationStock(product, 10, 3);
+        locationStock.setReservedTentativeQty(2);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(tentativeReservationCounter.tryReserveByPriority(product, 2)).thenReturn(1);
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.empty());
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(locationStockRepository.findByProductIdAndLocationIdIn(1L, List.of(1, 2))).thenReturn(List.of(locationStock));
+
+        ReservationDto reservation = inventoryUseCase.createReservation("sess", 1L, 2);
+
+        assertThat(reservation.getQuantity()).isEqualTo(2);
+        assertThat(reservation.getAvailableStock()).isEqualTo(5);
+        verify(productRepository, never()).findByIdForUpdate(any());
+        verify(reservationRepository).save(argThat(r -> Integer.valueOf(1).equals(r.getLocationId())));
+    }
+
+    @Test
+    void createReservation_atomicStrategyWithExistingReservation_shouldMergeQuantity() {
+        inventoryProperties.getReservation().setStrategy(InventoryProperties.ReservationStrategy.ATOMIC);
+        Product product = buildProduct(1L, AllocationType.REAL);
+        StockReservation existing = buildTentativeReservation(product, 3);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(tentativeReservationCounter.tryReserveByPriority(product, 2)).thenReturn(1);
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.of(existing));
+        when(reservationRepository.save(existing)).thenReturn(existing);
+        when(locationStockRepository.findByProductIdAndLocationIdIn(1L, List.of(1, 2))).thenReturn(List.of());
+
+        ReservationDto reservation = inventoryUseCase.createReservation("sess", 1L, 2);
+
+        assertThat(reservation.getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void createReservation_atomicStrategyReservedAtOtherLocationThanExisting_shouldMoveToExistingLocation() {
+        inventoryProperties.getReservation().setStrategy(InventoryProperties.ReservationStrategy.ATOMIC);
+        Product product = buildProduct(1L, AllocationType.REAL);
+        StockReservation existing = buildTentativeReservation(product, 3);
+        existing.setLocationId(2);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(tentativeReservationCounter.tryReserveByPriority(product, 2)).thenReturn(1);
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.of(existing));
+        when(tentativeReservationCounter.tryReserve(product, 2, 2)).thenReturn(true);
+        when(reservationRepository.save(existing)).thenReturn(existing);
+
+        ReservationDto reservation = inventoryUseCase.createReservation("sess", 1L, 2);
+
+        assertThat(reservation.getQuantity()).isEqualTo(5);
+        verify(tentativeReservationCounter).add(1L, AllocationType.REAL, 1, -2);
+        assertThat(existing.getLocationId()).isEqualTo(2);
+    }
+
+    @Test
+    void createReservation_atomicStrategyWhenGuardFails_shouldThrowConflictException() {
+        inventoryProperties.getReservation().setStrategy(InventoryProperties.ReservationStrategy.ATOMIC);
+        Product product = buildProduct(1L, AllocationType.REAL);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(tentativeReservationCounter.tryReserveByPriority(product, 2)).thenReturn(null);
+
+        assertThatExceptionOfType(ConflictException.class)
+                .isThrownBy(() -> inventoryUseCase.createReservation("sess", 1L, 2))
+                .satisfies(ex -> assertThat(ex.getErrorCode()).isEqualTo("INSUFFICIENT_STOCK"));
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void createReservation_flashSaleProduct_shouldReserveFromBucketWithoutProductLock() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        LocationStock locationStock = buildLocationStock(product, 10, 0);
+        locationStock.setReservedTentativeQty(10);
+        locationStock.setFlashBucketCount(4);
+        when(locationStockRepository.findFlashBucketCount(1L, 1)).thenReturn(Optional.of(4));
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.empty());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(stockBucketService.reserve(1L, "sess", 4, 2)).thenReturn(3);
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(locationStockRepository.findByProductIdAndLocationIdIn(1L, List.of(1, 2))).thenReturn(List.of(locationStock));
+        when(stockBucketService.freeQty(1L)).thenReturn(8);
+
+        ReservationDto result = inventoryUseCase.createReservation("sess", 1L, 2);
+
+        assertThat(result.getAvailableStock()).isEqualTo(8);
+        verify(productRepository, never()).findByIdForUpdate(1L);
+        verify(tentativeReservationCounter, never()).add(any(StockReservation.class), anyInt());
+        verify(reservationRepository).save(argThat(r -> Integer.valueOf(3).equals(r.getBucketNo())));
+    }
+
+    @Test
+    void createReservation_flashSaleBucketsExhausted_shouldFallBackToLocationStock() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        LocationStock locationStock = buildLocationStock(product, 10, 0);
+        locationStock.setReservedTentativeQty(6);
+        locationStock.setFlashBucketCount(2);
+        when(locationStockRepository.findFlashBucketCount(1L, 1)).thenReturn(Optional.of(2));
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.empty());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(stockBucketService.reserve(1L, "sess", 2, 2)).thenReturn(null);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(locationStockRepository.findByProductIdAndLocationIdIn(1L, List.of(1, 2))).thenReturn(List.of(locationStock));
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        inventoryUseCase.createReservation("sess", 1L, 2);
+
+        verify(tentativeReservationCounter).add(any(StockReservation.class), eq(2));
+    }
+
+    @Test
+    void createReservation_flashSaleFallbackWithOnlyBucketStock_shouldThrowConflictException() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        LocationStock locationStock = buildLocationStock(product, 10, 0);
+        locationStock.setReservedTentativeQty(10);
+        locationStock.setFlashBucketCount(2);
+        when(locationStockRepository.findFlashBucketCount(1L, 1)).thenReturn(Optional.of(2));
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.empty());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(stockBucketService.reserve(1L, "sess", 2, 5)).thenReturn(null);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(locationStockRepository.findByProductIdAndLocationIdIn(1L, List.of(1, 2))).thenReturn(List.of(locationStock));
+
+        assertThatExceptionOfType(ConflictException.class)
+                .isThrownBy(() -> inventoryUseCase.createReservation("sess", 1L, 5))
+                .satisfies(ex -> assertThat(ex.getErrorCode()).isEqualTo("INSUFFICIENT_STOCK"));
+        verify(tentativeReservationCounter, never()).add(any(StockReservation.class), anyInt());
+    }
+
+    @Test
+    void updateReservation_bucketReservationWhenBucketShort_shouldThrowConflictException() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        StockReservation reservation = buildTentativeReservation(product, 1);
+        reservation.setBucketNo(2);
+        when(reservationRepository.findActiveTentative(eq("sess"), eq(1L), any())).thenReturn(Optional.of(reservation));
+        when(stockBucketService.reserveIn(1L, 2, 3)).thenReturn(false);
+
+        assertThatExceptionOfType(ConflictException.class)
+                .isThrownBy(() -> inventoryUseCase.updateReservation("sess", 1L, 4))
+                .satisfies(ex -> assertThat(ex.getErrorCode()).isEqualTo("INSUFFICIENT_STOCK"));
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void enableFlashSale_frameProduct_shouldThrowBusinessException() {
+        Product product = buildProduct(1L, AllocationType.FRAME);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> inventoryUseCase.enableFlashSale(1L, 4))
+                .satisfies(ex -> assertThat(ex.getErrorCode()).isEqualTo("FLASH_SALE_NOT_SUPPORTED"));
+        verify(stockBucketService, never()).carve(any(), any(), anyInt());
+    }
+
+    @Test
+    void updateAdminItemInventory_allocationTypeChangeDuringFlashSale_shouldThrowBusinessException() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        LocationStock locationStock = buildLocationStock(product, 10, 0);
+        locationStock.setFlashBucketCount(4);
+        SalesLimit salesLimit = new SalesLimit();
+        salesLimit.setProduct(product);
+        salesLimit.setFrameLimitQty(0);
+        UpdateItemInventoryRequest request = new UpdateItemInventoryRequest();
+        request.setAllocationType(AllocationType.FRAME);
+        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
+        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1)).thenReturn(Optional.of(locationStock));
+        when(salesLimitRepository.findByProductIdForUpdate(1L)).thenReturn(Optional.of(salesLimit));
+
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> inventoryUseCase.updateAdminItemInventory(1L, request, null))
+                .satisfies(ex -> assertThat(ex.getErrorCode()).isEqualTo("FLASH_SALE_ACTIVE"));
+        assertThat(product.getAllocationType()).isEqualTo(AllocationType.REAL);
+    }
+
+    @Test
+    void createReservations_shouldLockProductsOnceAndReturnPerLineResults() {
+        Product first = buildProduct(1L, AllocationType.REAL);
+        Product second = buildProduct(2L, AllocationType.FRAME);
+        StockReservation existing = buildTentativeReservation(first, 1);
+        when(productRepository.findAllByIdInForUpdate(List.of(1L, 2L, 3L))).thenReturn(List.of(first, second));
+        when(reservationRepository.findAllActiveTentativeBySession(eq("sess"), any())).thenReturn(List.of(existing));
+        when(tentativeReservationCounter.tryReserve(first, null, 2)).thenReturn(true);
+        when(tentativeReservationCounter.tryReserve(second, null, 5)).thenReturn(false);
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(locationStockRepository.findByProductIdAndLocationIdIn(1L, List.of(1, 2)))
+                .thenReturn(List.of(buildLocationStock(first, 10, 0)));
+
+        List<ReservationLineResultDto> results = inventoryUseCase.createReservations(
+                "sess", Map.of(3L, 1, 2L, 5, 1L, 2));
+
+        assertThat(results).extracting(ReservationLineResultDto::getProductId).containsExactly(1L, 2L, 3L);
+        assertThat(results).extracting(ReservationLineResultDto::getSuccess).containsExactly(true, false, false);
+        assertThat(results.get(0).getReservation().getQuantity()).isEqualTo(3);
+        assertThat(results.get(1).getErrorCode()).isEqualTo("INSUFFICIENT_STOCK");
+        assertThat(results.get(2).getErrorCode()).isEqualTo("ITEM_NOT_FOUND");
+        verify(productRepository, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    void createReservations_flashSaleProduct_shouldReserveFromBucketsWithoutLockingProduct() {
+        Product regular = buildProduct(1L, AllocationType.REAL);
+        Product flash = buildProduct(4L, AllocationType.REAL);
+        Product soldOutFlash = buildProduct(5L, AllocationType.REAL);
+        when(locationStockRepository.findFlashBucketCounts(List.of(1L, 4L, 5L), 1))
+                .thenReturn(List.of(new Object[]{4L, 8}, new Object[]{5L, 8}));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(regular));
+        when(productRepository.findAllById(List.of(4L, 5L))).thenReturn(List.of(flash, soldOutFlash));
+        when(stockBucketService.reserve(4L, "sess", 8, 2)).thenReturn(3);
+        when(stockBucketService.reserve(5L, "sess", 8, 1)).thenReturn(null);
+        when(tentativeReservationCounter.tryReserveByPriority(regular, 1)).thenReturn(1);
+        when(tentativeReservationCounter.tryReserveByPriority(soldOutFlash, 1)).thenReturn(1);
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ReservationLineResultDto> results = inventoryUseCase.createReservations(
+                "sess", Map.of(1L, 1, 4L, 2, 5L, 1));
+
+        assertThat(results).extracting(ReservationLineResultDto::getSuccess).containsExactly(true, true, true);
+        ArgumentCaptor<StockReservation> saved = ArgumentCaptor.forClass(StockReservation.class);
+        verify(reservationRepository, times(3)).save(saved.capture());
+        assertThat(saved.getAllValues()).extracting(StockReservation::getBucketNo).containsExactly(null, 3, null);
+        verify(tentativeReservationCounter, never()).tryReserveByPriority(eq(flash), anyInt());
+    }
+
+    @Test
+    void releaseAllReservations_shouldDecrementCounterPerReservation() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        StockReservation reservation = buildTentativeReservation(product, 3);
+        when(reservationRepository.findAllActiveTentativeBySession(eq("sess"), any())).thenReturn(List.of(reservation));
+
+        inventoryUseCase.releaseAllReservations("sess");
+
+        verify(tentativeReservationCounter).add(reservation, -3);
+        verify(reservationRepository).deleteAll(List.of(reservation));
+    }
+
+    @Test
+    void calculateEffectiveStocks_mixedAllocationTypes_shouldUseGroupedQueries() {
+        Product realProduct = buildProduct(1L, AllocationType.REAL);
+        Product frameProduct = buildProduct(2L, AllocationType.FRAME);
+        SalesLimit salesLimit = new SalesLimit();
+        salesLimit.setProduct(frameProduct);
+        salesLimit.setFrameLimitQty(10);
+        salesLimit.setReservedTentativeQty(1);
+        salesLimit.setConsumedQty(4);
+        LocationStock locationStock = buildLocationStock(realProduct, 10, 3);
+        locationStock.setReservedTentativeQty(2);
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(realProduct, frameProduct));
+        when(locationAvailabilityIndex.get(List.of(1L)))
+                .thenReturn(Map.of(1L, new LocationAvailability(Map.of(1, locationStock.effectiveQty()), false)));
+        when(salesLimitRepository.findByProductIdIn(List.of(2L))).thenReturn(List.of(salesLimit));
+
+        Map<Long, Integer> effectiveStocks = inventoryUseCase.calculateEffectiveStocks(List.of(1L, 2L, 1L));
+
+        assertThat(effectiveStocks).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 5, 2L, 5));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void commitReservations_frameProductSuccess_shouldIncrementConsumedQty() {
+        Product product = buildProduct(2L, AllocationType.FRAME);
+        StockReservation reservation = buildTentativeReservation(product, 2);
+        Order order = buildOrder(10L, Order.OrderStatus.PENDING, product, 2);
+        SalesLimit salesLimit = new SalesLimit();
+        salesLimit.setProduct(product);
+        salesLimit.setFrameLimitQty(5);
+        salesLimit.setConsumedQty(3);
+
+        reservation.setId(21L);
+
+        when(reservationRepository.findAllActiveTentativeBySession(any(), any())).thenReturn(List.of(reservation));
+        when(productRepository.findAllByIdInForUpdate(List.of(2L))).thenReturn(List.of(product));
+        when(salesLimitRepository.findByProductIdIn(List.of(2L))).thenReturn(List.of(salesLimit));
+        when(reservationRepository.softDeleteByIdIn(List.of(21L))).thenReturn(1);
+
+        inventoryUseCase.commitReservations("sess", order);
+
+        assertThat(order.getItems().getFirst().getCommittedQty()).isEqualTo(0);
+        verify(salesLimitRepository).commitReservedQty(List.of(21L), 10L);
+        verify(reservationRepository).softDeleteByIdIn(List.of(21L));
+        verify(orderItemRepository, never()).sumOrderedQuantityByProductAndAllocationTypeExcludingOrder(any(), any(), any(), any());
+    }
+
+    @Test
+    void commitReservations_frameProductOverLimit_shouldThrowInsufficientStockException() {
+        Product product = buildProduct(2L, AllocationType.FRAME);
+        StockReservation reservation = buildTentativeReservation(product, 3);
+        Order order = buildOrder(10L, Order.OrderStatus.PENDING, product, 3);
+        SalesLimit salesLimit = new SalesLimit();
+        salesLimit.setProduct(product);
+        salesLimit.setFrameLimitQty(5);
+        salesLimit.setConsumedQty(3);
+
+        when(reservationRepository.findAllActiveTentativeBySession(any(), any())).thenReturn(List.of(reservation));
+        when(productRepository.findAllByIdInForUpdate(List.of(2L))).thenReturn(List.of(product));
+        when(salesLimitRepository.findByProductIdIn(List.of(2L))).thenReturn(List.of(salesLimit));
+
+        assertThatExceptionOfType(InsufficientStockException.class)
+                .isThrownBy(() -> inventoryUseCase.commitReservations("sess", order));
+        verify(salesLimitRepository, never()).commitReservedQty(any(), any());
     }
 
     @Test
@@ -135,31 +544,110 @@ class InventoryUseCaseTest {
         Order order = buildOrder(10L, Order.OrderStatus.PENDING, product, 5);
 
         when(reservationRepository.findAllActiveTentativeBySession(any(), any())).thenReturn(List.of(reservation));
-        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
-        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1))
-                .thenReturn(Optional.of(buildLocationStock(product, 3, 0)));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product));
+        when(locationStockRepository.findByProductIdInAndLocationIdInForUpdate(List.of(1L), List.of(1, 2)))
+                .thenReturn(List.of(buildLocationStock(product, 3, 0)));
 
         assertThatExceptionOfType(InsufficientStockException.class)
                 .isThrownBy(() -> inventoryUseCase.commitReservations("sess", order));
+        verify(locationStockRepository, never()).commitReservedQty(any(), any());
     }
 
     @Test
-    void commitReservations_realProductSuccess_shouldIncreaseCommittedQty() {
+    void commitReservations_realProductSuccess_shouldCommitInBulk() {
         Product product = buildProduct(1L, AllocationType.REAL);
         StockReservation reservation = buildTentativeReservation(product, 2);
+        reservation.setId(11L);
         Order order = buildOrder(10L, Order.OrderStatus.PENDING, product, 2);
         LocationStock locationStock = buildLocationStock(product, 10, 1);
 
         when(reservationRepository.findAllActiveTentativeBySession(any(), any())).thenReturn(List.of(reservation));
-        when(productRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(product));
-        when(locationStockRepository.findByProductIdAndLocationIdForUpdate(1L, 1)).thenReturn(Optional.of(locationStock));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product));
+        when(locationStockRepository.findByProductIdInAndLocationIdInForUpdate(List.of(1L), List.of(1, 2))).thenReturn(List.of(locationStock));
+        when(reservationRepository.softDeleteByIdIn(List.of(11L))).thenReturn(1);
 
         inventoryUseCase.commitReservations("sess", order);
 
         assertThat(order.getItems().getFirst().getCommittedQty()).isEqualTo(2);
-        assertThat(locationStock.getCommittedQty()).isEqualTo(3);
-        verify(locationStockRepository).save(locationStock);
-        verify(reservationRepository).delete(reservation);
+        assertThat(order.getItems().getFirst().getLocationId()).isEqualTo(1);
+        verify(locationStockRepository).commitReservedQty(List.of(11L), 1);
+        verify(inventoryJournal).record(1L, 1, EntryType.COMMIT, 0, 2, -2, 10L);
+        verify(locationStockRepository, never()).save(any());
+        verify(reservationRepository).softDeleteByIdIn(List.of(11L));
+        verify(reservationRepository, never()).delete(any());
+    }
+
+    @Test
+    void commitReservations_whenReservationReleasedByExpiry_shouldThrowBusinessException() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        StockReservation reservation = buildTentativeReservation(product, 2);
+        reservation.setId(11L);
+        Order order = buildOrder(10L, Order.OrderStatus.PENDING, product, 2);
+
+        when(reservationRepository.findAllActiveTentativeBySession(any(), any())).thenReturn(List.of(reservation));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product));
+        when(locationStockRepository.findByProductIdInAndLocationIdInForUpdate(List.of(1L), List.of(1, 2)))
+                .thenReturn(List.of(buildLocationStock(product, 10, 0)));
+        when(reservationRepository.softDeleteByIdIn(List.of(11L))).thenReturn(0);
+
+        assertThatExceptionOfType(BusinessException.class)
+                .isThrownBy(() -> inventoryUseCase.commitReservations("sess", order))
+                .satisfies(ex -> assertThat(ex.getErrorCode()).isEqualTo("RESERVATION_EXPIRED"));
+    }
+
+    @Test
+    void commitReservations_realProductShortAtReservedLocation_shouldThrowInsufficientStockException() {
+        Product product = buildProduct(1L, AllocationType.REAL);
+        StockReservation reservation = buildTentativeReservation(product, 2);
+        reservation.setLocationId(2);
+        Order order = buildOrder(10L, Order.OrderStatus.PENDING, product, 2);
+
+        when(reservationRepository.findAllActiveTentativeBySession(any(), any())).thenReturn(List.of(reservation));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product));
+        when(locationStockRepository.findByProductIdInAndLocationIdInForUpdate(List.of(1L), List.of(1, 2)))
+                .thenReturn(List.of(buildLocationStock(product, 1, 10, 0), buildLocationStock(product, 2, 1, 0)));
+
+        assertThatExceptionOfType(InsufficientStockException.class)
+                .isThrownBy(() -> inventoryUseCase.commitReservations("sess", order))
+                .satisfies(ex -> assertThat(ex.getDetails().getFirst().getAvailableStock()).isEqualTo(1));
+        verify(locationStockRepository, never()).commitReservedQty(any(), any());
+    }
+
+    @Test
+    void commitReservations_mixedCart_shouldLockOnceAndIssueOneUpdatePerStockType() {
+        Product real = buildProduct(3L, AllocationType.REAL);
+        Product bucketed = buildProduct(1L, AllocationType.REAL);
+        Product frame = buildProduct(2L, AllocationType.FRAME);
+        StockReservation realReservation = buildTentativeReservation(real, 1);
+        realReservation.setId(13L);
+        StockReservation bucketReservation = buildTentativeReservation(bucketed, 2);
+        bucketReservation.setId(11L);
+        bucketReservation.setBucketNo(1);
+        StockReservation frameReservation = buildTentativeReservation(frame, 1);
+        frameReservation.setId(12L);
+        Order order = buildOrder(10L, Order.OrderStatus.PENDING, real, 1);
+        order.addItem(buildOrder(10L, Order.OrderStatus.PENDING, bucketed, 2).getItems().getFirst());
+        order.addItem(buildOrder(10L, Order.OrderStatus.PENDING, frame, 1).getItems().getFirst());
+        SalesLimit salesLimit = new SalesLimit();
+        salesLimit.setProduct(frame);
+        salesLimit.setFrameLimitQty(5);
+        salesLimit.setConsumedQty(0);
+
+        when(reservationRepository.findAllActiveTentativeBySession(any(), any()))
+                .thenReturn(List.of(realReservation, frameReservation, bucketReservation));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L, 2L, 3L))).thenReturn(List.of(bucketed, frame, real));
+        when(locationStockRepository.findByProductIdInAndLocationIdInForUpdate(List.of(1L, 3L), List.of(1, 2)))
+                .thenReturn(List.of(buildLocationStock(bucketed, 10, 0), buildLocationStock(real, 10, 0)));
+        when(salesLimitRepository.findByProductIdIn(List.of(2L))).thenReturn(List.of(salesLimit));
+        when(reservationRepository.softDeleteByIdIn(List.of(11L, 13L, 12L))).thenReturn(3);
+
+        inventoryUseCase.commitReservations("sess", order);
+
+        verify(productRepository, never()).findByIdForUpdate(any());
+        verify(stockBucketService).consume(1L, 1, 2);
+        verify(locationStockRepository).commitReservedQty(List.of(11L, 13L), 1);
+        verify(salesLimitRepository).commitReservedQty(List.of(12L), 10L);
+        verify(reservationRepository).softDeleteByIdIn(List.of(11L, 13L, 12L));
     }
 
     @Test
@@ -191,7 +679,23 @@ class InventoryUseCaseTest {
         assertThat(order.getItems().getFirst().getCommittedQty()).isEqualTo(0);
         assertThat(locationStock.getCommittedQty()).isEqualTo(1);
         verify(orderRepository).save(order);
-        verify(outboxEventPublisher).publish(eq("STOCK_AVAILABILITY_INCREASED"), eq("1"), any());
+        verify(outboxEventPublisher).publish(eq("STOCK_AVAILABILITY_INCREASED"), eq("product:1"), any());
+    }
+
+    @Test
+    void releaseCommittedReservations_frameProduct_shouldDecrementConsumedQty() {
+        Product product = buildProduct(2L, AllocationType.FRAME);
+        Order order = buildOrder(10L, Order.OrderStatus.PENDING, product, 2);
+
+        when(orderRepository.findByIdWithItems(10L)).thenReturn(Optional.of(order));
+        when(productRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(product));
+        when(reservationRepository.findByOrderIdAndType(10L, ReservationType.COMMITTED)).thenReturn(List.of());
+
+        inventoryUseCase.releaseCommittedReservations(10L);
+
+        assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+        verify(salesLimitRepository).addConsumedQty(2L, -2);
+        verify(outboxEventPublisher, never()).publish(any(), any(), any());
     }
 
     @Test
@@ -22,6 +22,7 @@ import org.springframework.data.domain.PageRequest;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -81,7 +82,7 @@ class ProductUseCaseTest {
         when(productRepository.findPublishedForCustomer(any(Instant.class), eq(PageRequest.of(0, 20))))
                 .thenReturn(new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1));
         when(productCategoryRepository.findAllById(any())).thenReturn(List.of(category));
-        when(inventoryQueryPort.calculateEffectiveStock(1L)).thenReturn(10);
+        when(inventoryQueryPort.calculateEffectiveStocks(List.of(1L))).thenReturn(Map.of(1L, 10));
 
         ProductListResponse response = productUseCase.getPublishedProducts(1, 20);
 
@@ -89,6 +90,7 @@ class ProductUseCaseTest {
         ProductDto dto = response.getItems().get(0);
         assertThat(dto.getProductCode()).isEqualTo("P000001");
         assertThat(dto.getCategoryName()).isEqualTo("ガジェット");
+        assertThat(dto.getEffectiveStock()).isEqualTo(10);
     }
 
     private CreateProductRequest validCreateRequest() {
@@ -92,7 +92,7 @@ class OrderUseCaseOutboxTest {
         orderUseCase.confirmOrder(100L);
 
         verify(orderRepository).save(pendingOrder);
-        verify(outboxEventPublisher).publish(eq("ORDER_CONFIRMED"), eq("100"), payloadCaptor.capture());
+        verify(outboxEventPublisher).publish(eq("ORDER_CONFIRMED"), eq("order:100"), payloadCaptor.capture());
 
         Map<String, Object> payload = payloadCaptor.getValue();
         assertThat(pendingOrder.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
@@ -172,7 +172,7 @@ class OrderUseCaseStateTransitionTest {
         OrderDto result = orderUseCase.confirmOrder(1L);
 
         assertThat(result.getStatus()).isEqualTo("CONFIRMED");
-        verify(outboxEventPublisher).publish(eq("ORDER_CONFIRMED"), any(), any());
+        verify(outboxEventPublisher).publish(eq("ORDER_CONFIRMED"), eq("order:1"), any());
     }
 
     @Test
@@ -0,0 +1,75 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OutboxDispatchLanes の単体テスト。
+ * 集約 ID によるレーン割り当てと、レーン内の処理順序・メトリクスを検証する。
+ */
+class OutboxDispatchLanesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxDispatchLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        OutboxProperties outboxProperties = new OutboxProperties();
+        outboxProperties.setLanes(4);
+        meterRegistry = new SimpleMeterRegistry();
+        lanes = new OutboxDispatchLanes(outboxProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    // ── レーン割り当て ──────────────────────────────────────────────────────
+
+    @Test
+    void laneOf_sameAggregate_shouldAlwaysUseSameLane() {
+        assertThat(lanes.laneOf("order-1")).isEqualTo(lanes.laneOf("order-1"));
+        assertThat(lanes.laneOf("order-1")).isBetween(0, 3);
+    }
+
+    @Test
+    void laneOf_withoutAggregate_shouldRotateLanes() {
+        assertThat(IntStream.range(0, 4).map(i -> lanes.laneOf(null)).boxed().toList())
+                .containsExactly(0, 1, 2, 3);
+    }
+
+    // ── 処理順序 ───────────────────────────────────────────────────────────
+
+    @Test
+    void submit_sameAggregate_shouldRunInSubmissionOrder() {
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+
+        CompletableFuture.allOf(IntStream.range(0, 20)
+                        .mapToObj(i -> lanes.submit("order-1", () -> processed.add(i)))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+
+        assertThat(processed).containsExactlyElementsOf(IntStream.range(0, 20).boxed().toList());
+    }
+
+    // ── メトリクス ─────────────────────────────────────────────────────────
+
+    @Test
+    void submit_shouldRecordLatencyPerLane() {
+        lanes.submit("order-1", () -> { }).join();
+
+        String lane = String.valueOf(lanes.laneOf("order-1"));
+        assertThat(meterRegistry.get("outbox.lane.latency").tag("lane", lane).timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("outbox.lane.depth").gauges()).hasSize(4);
+    }
+}
@@ -3,29 +3,43 @@ package com.example.aiec.modules.shared.outbox.application;
 import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent;
 import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent.OutboxStatus;
 import com.example.aiec.modules.shared.outbox.domain.repository.OutboxEventRepository;
+import com.example.aiec.modules.shared.outbox.handler.BatchOutboxEventHandler;
 import com.example.aiec.modules.shared.outbox.handler.OutboxEventHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
  * OutboxEventDispatcher の単体テスト。
- * JPA コンテキストなし。processOne() の4つのパスを網羅する。
+ * JPA コンテキストなし。processOne() の4つのパス、一括処理、イベントの確保を網羅する。
  */
 @ExtendWith(MockitoExtension.class)
 class OutboxEventDispatcherTest {
 
+    private static final Instant CREATED_AT = Instant.parse("2026-10-01T00:00:00Z");
+
     @Mock
     private OutboxEventRepository outboxEventRepository;
 
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private OutboxEventDispatcher dispatcher;
 
@@ -40,8 +54,10 @@ class OutboxEventDispatcherTest {
 
         assertThat(event.getStatus()).isEqualTo(OutboxStatus.DEAD);
         assertThat(event.getErrorMessage()).contains("UNKNOWN_TYPE");
-        // PROCESSING への更新 + DEAD への更新 = 2回
-        verify(outboxEventRepository, times(2)).save(event);
+        assertThat(meterRegistry.get("outbox.event.dead").tag("event_type", "UNKNOWN_TYPE").counter().count()).isEqualTo(1);
+        // 確保時に PROCESSING 済みのため、結果の保存 1 回のみ
+        verify(outboxEventRepository, times(1)).markFailed(any(), any(), any(), eq("DEAD"), eq(0), any(), any());
+        verify(outboxEventRepository, never()).save(any());
     }
 
     // ── ハンドラ成功 ──────────────────────────────────────────────────────────
@@ -57,6 +73,31 @@ class OutboxEventDispatcherTest {
         assertThat(event.getStatus()).isEqualTo(OutboxStatus.PROCESSED);
         assertThat(event.getProcessedAt()).isNotNull();
         verify(handler).handle(event);
+        assertThat(meterRegistry.get("outbox.handler.duration").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void processOne_leasedEvent_shouldReleaseLeaseAfterProcessing() {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType("TEST_EVENT");
+        event.lease("node-1/outbox-worker-0", Instant.now().plusSeconds(300));
+
+        dispatcher.processOne(event, Map.of("TEST_EVENT", mock(OutboxEventHandler.class)));
+
+        assertThat(event.getLockedBy()).isNull();
+        assertThat(event.getLockedUntil()).isNull();
+    }
+
+    @Test
+    void processOne_shouldRecordResultOnlyForLeaseOwner() {
+        OutboxEvent event = buildEvent(1L);
+        when(outboxEventRepository.markProcessed(eq(List.of(1L)), eq(CREATED_AT), eq(CREATED_AT),
+                eq("node-1/outbox-worker-0"), any(Instant.class))).thenReturn(1);
+
+        dispatcher.processOne(event, Map.of("TEST_EVENT", mock(OutboxEventHandler.class)));
+
+        verify(outboxEventRepository).markProcessed(eq(List.of(1L)), eq(CREATED_AT), eq(CREATED_AT),
+                eq("node-1/outbox-worker-0"), any(Instant.class));
     }
 
     // ── ハンドラ失敗・リトライ圏内 ─────────────────────────────────────────────
@@ -76,6 +117,9 @@ class OutboxEventDispatcherTest {
         assertThat(event.getRetryCount()).isEqualTo(1);
         assertThat(event.getScheduledAt()).isNotNull();
         assertThat(event.getErrorMessage()).isEqualTo("handler error");
+        verify(outboxEventRepository).markFailed(any(), any(), any(), eq("PENDING"), eq(1), eq("handler error"), any());
+        assertThat(meterRegistry.get("outbox.event.retry").tag("event_type", "TEST_EVENT").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("outbox.handler.duration").tag("outcome", "retry").timer().count()).isEqualTo(1);
     }
 
     // ── ハンドラ失敗・最大リトライ到達 ─────────────────────────────────────────
@@ -93,5 +137,81 @@ class OutboxEventDispatcherTest {
 
         assertThat(event.getStatus()).isEqualTo(OutboxStatus.DEAD);
         assertThat(event.getRetryCount()).isEqualTo(3);
+        assertThat(meterRegistry.get("outbox.event.dead").tag("event_type", "TEST_EVENT").counter().count()).isEqualTo(1);
+    }
+
+    // ── イベントの確保 ────────────────────────────────────────────────────────
+
+    @Test
+    void claim_shouldLeasePendingEventsToOwner() {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(1L);
+        event.setEventType("TEST_EVENT");
+        event.setCreatedAt(CREATED_AT);
+        when(outboxEventRepository.findPendingEventsForClaim(any(Instant.class), eq(10))).thenReturn(List.of(event));
+
+        List<OutboxEvent> claimed = dispatcher.claim("node-1/outbox-worker-0", 10, Duration.ofSeconds(300));
+
+        assertThat(claimed).containsExactly(event);
+        // created_at を条件に含め、該当パーティションだけを更新する
+        verify(outboxEventRepository).lease(eq(List.of(1L)), eq(CREATED_AT), eq(CREATED_AT),
+                eq("node-1/outbox-worker-0"), any(Instant.class));
+        verify(outboxEventRepository, never()).saveAll(any());
+        assertThat(event.getStatus()).isEqualTo(OutboxStatus.PROCESSING);
+        assertThat(event.getLockedBy()).isEqualTo("node-1/outbox-worker-0");
+        assertThat(event.getLockedUntil()).isAfter(Instant.now().plusSeconds(290));
+    }
+
+    @Test
+    void releaseExpiredLeases_shouldReleaseLeasesExpiredBeforeNow() {
+        when(outboxEventRepository.releaseExpiredLeases(any(Instant.class))).thenReturn(2);
+
+        assertThat(dispatcher.releaseExpiredLeases()).isEqualTo(2);
+    }
+
+    // ── 一括処理 ──────────────────────────────────────────────────────────────
+
+    @Test
+    void processBatch_handlerSucceeds_shouldMarkAllProcessedInOneUpdate() throws Exception {
+        OutboxEvent e1 = buildEvent(1L);
+        OutboxEvent e2 = buildEvent(2L);
+        e2.setCreatedAt(CREATED_AT.plusSeconds(1));
+        BatchOutboxEventHandler handler = mock(BatchOutboxEventHandler.class);
+        when(handler.getSupportedEventType()).thenReturn("TEST_EVENT");
+        when(outboxEventRepository.markProcessed(eq(List.of(1L, 2L)), eq(CREATED_AT), eq(CREATED_AT.plusSeconds(1)),
+                eq("node-1/outbox-worker-0"), any(Instant.class))).thenReturn(2);
+
+        dispatcher.processBatch(List.of(e1, e2), handler);
+
+        verify(handler).handleBatch(List.of(e1, e2));
+        verify(outboxEventRepository).markProcessed(eq(List.of(1L, 2L)), eq(CREATED_AT), eq(CREATED_AT.plusSeconds(1)),
+                eq("node-1/outbox-worker-0"), any(Instant.class));
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void processBatch_oneEventThrows_shouldRethrowWithoutRecordingAnyResult() throws Exception {
+        OutboxEvent e1 = buildEvent(1L);
+        OutboxEvent e2 = buildEvent(2L);
+        BatchOutboxEventHandler handler = mock(BatchOutboxEventHandler.class);
+        doThrow(new RuntimeException("bad event")).when(handler).handleBatch(any());
+
+        // トランザクションごとロールバックさせ、個別処理は呼び出し元が別トランザクションで行う
+        assertThatThrownBy(() -> dispatcher.processBatch(List.of(e1, e2), handler))
+                .hasMessage("bad event");
+
+        assertThat(meterRegistry.get("outbox.handler.duration").tag("outcome", "batch_failed").timer().count()).isEqualTo(1);
+        verify(handler, never()).handle(any());
+        verify(outboxEventRepository, never()).markProcessed(any(), any(), any(), any(), any());
+        verify(outboxEventRepository, never()).markFailed(any(), any(), any(), any(), anyInt(), any(), any());
+    }
+
+    private OutboxEvent buildEvent(Long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType("TEST_EVENT");
+        event.setCreatedAt(CREATED_AT);
+        event.lease("node-1/outbox-worker-0", Instant.now().plusSeconds(300));
+        return event;
     }
 }
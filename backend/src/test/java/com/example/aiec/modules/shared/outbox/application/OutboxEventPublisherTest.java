@@ -0,0 +1,97 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * OutboxEventPublisher の単体テスト。
+ * イベントのバッチ INSERT と NOTIFY 発行のタイミングを検証する。
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxEventPublisherTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> rowsCaptor;
+
+    private OutboxEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new OutboxEventPublisher(new ObjectMapper(), jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // ── トランザクション外 ────────────────────────────────────────────────────
+
+    @Test
+    void publish_withoutTransaction_shouldNotifyImmediately() {
+        publisher.publish("TEST_EVENT", "1", Map.of("key", "value"));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), rowsCaptor.capture());
+        assertThat(rowsCaptor.getValue()).singleElement()
+                .satisfies(row -> assertThat(row).containsExactly("TEST_EVENT", "1", "{\"key\":\"value\"}"));
+        verify(jdbcTemplate).execute("NOTIFY outbox_events");
+    }
+
+    // ── トランザクション内 ────────────────────────────────────────────────────
+
+    @Test
+    void publish_inTransaction_shouldNotifyOnceBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        publisher.publish("TEST_EVENT", "1", Map.of("key", "value"));
+        publisher.publish("TEST_EVENT", "2", Map.of("key", "value"));
+        verify(jdbcTemplate, never()).execute(anyString());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rowsCaptor.capture());
+        verify(jdbcTemplate, times(1)).execute("NOTIFY outbox_events");
+    }
+
+    // ── 一括書き込み ────────────────────────────────────────────────────────
+
+    @Test
+    void publishAll_shouldInsertAllEventsInOneBatch() {
+        publisher.publishAll(List.of(
+                new OutboxMessage("TYPE_A", "1", Map.of("n", 1)),
+                new OutboxMessage("TYPE_B", null, Map.of("n", 2))));
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rowsCaptor.capture());
+        assertThat(rowsCaptor.getValue()).extracting(row -> row[0], row -> row[2])
+                .containsExactly(tuple("TYPE_A", "{\"n\":1}"), tuple("TYPE_B", "{\"n\":2}"));
+    }
+
+    @Test
+    void publishAll_withNoEvents_shouldDoNothing() {
+        publisher.publishAll(List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
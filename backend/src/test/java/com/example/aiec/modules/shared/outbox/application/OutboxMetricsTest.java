@@ -0,0 +1,96 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import com.example.aiec.modules.shared.outbox.domain.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * OutboxMetrics と OutboxHealthIndicator の単体テスト。
+ * 集計結果のメトリクス反映と、遅延によるヘルスの劣化を検証する。
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxMetricsTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxProperties outboxProperties;
+    private OutboxMetrics outboxMetrics;
+    private OutboxHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxProperties = new OutboxProperties();
+        outboxProperties.setLagThresholdSeconds(300);
+        outboxMetrics = new OutboxMetrics(outboxEventRepository, meterRegistry);
+        healthIndicator = new OutboxHealthIndicator(outboxMetrics, outboxProperties);
+    }
+
+    // ── メトリクス ─────────────────────────────────────────────────────────
+
+    @Test
+    void refresh_shouldPublishBacklogPerEventTypeAndOldestAge() {
+        when(outboxEventRepository.summarizePendingEvents(any(Instant.class))).thenReturn(List.of(
+                new Object[]{"OPERATION_PERFORMED", 120L, 45L},
+                new Object[]{"ORDER_CONFIRMED", 3L, null}));
+
+        outboxMetrics.refresh();
+
+        assertThat(meterRegistry.get("outbox.pending").tag("event_type", "OPERATION_PERFORMED").gauge().value()).isEqualTo(120);
+        assertThat(meterRegistry.get("outbox.pending").tag("event_type", "ORDER_CONFIRMED").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("outbox.pending.oldest.age").gauge().value()).isEqualTo(45);
+        assertThat(outboxMetrics.getPendingCount()).isEqualTo(123);
+    }
+
+    @Test
+    void refresh_whenBacklogDrained_shouldResetGauges() {
+        when(outboxEventRepository.summarizePendingEvents(any(Instant.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{"ORDER_CONFIRMED", 3L, 10L}))
+                .thenReturn(List.of());
+
+        outboxMetrics.refresh();
+        outboxMetrics.refresh();
+
+        assertThat(meterRegistry.find("outbox.pending").tag("event_type", "ORDER_CONFIRMED").gauge()).isNull();
+        assertThat(meterRegistry.get("outbox.pending.oldest.age").gauge().value()).isZero();
+    }
+
+    // ── ヘルス ─────────────────────────────────────────────────────────────
+
+    @Test
+    void health_beforeFirstRefresh_shouldBeUnknown() {
+        assertThat(healthIndicator.health().getStatus().getCode()).isEqualTo("UNKNOWN");
+    }
+
+    @Test
+    void health_whenLagBelowThreshold_shouldBeUp() {
+        when(outboxEventRepository.summarizePendingEvents(any(Instant.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{"ORDER_CONFIRMED", 3L, 299L}));
+        outboxMetrics.refresh();
+
+        assertThat(healthIndicator.health().getStatus().getCode()).isEqualTo("UP");
+    }
+
+    @Test
+    void health_whenLagReachesThreshold_shouldBeDegraded() {
+        when(outboxEventRepository.summarizePendingEvents(any(Instant.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{"ORDER_CONFIRMED", 3L, 300L}));
+        outboxMetrics.refresh();
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(OutboxHealthIndicator.DEGRADED);
+        assertThat(healthIndicator.health().getDetails()).containsEntry("oldestPendingAgeSeconds", 300L);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.aiec.modules.shared.outbox.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxPartitionServiceTest {
+
+    private static final Timestamp FROM = Timestamp.from(Instant.parse("2026-10-01T00:00:00Z"));
+    private static final Timestamp TO = Timestamp.from(Instant.parse("2026-11-01T00:00:00Z"));
+    private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS outbox_events_p202610 PARTITION OF outbox_events "
+            + "FOR VALUES FROM ('2026-10-01T00:00:00Z') TO ('2026-11-01T00:00:00Z')";
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private OutboxPartitionService outboxPartitionService;
+
+    @Test
+    void createPartition_whenDefaultPartitionIsEmptyForMonth_shouldOnlyCreate() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), eq(FROM), eq(TO))).thenReturn(false);
+
+        outboxPartitionService.createPartition(YearMonth.of(2026, 10));
+
+        verify(jdbcTemplate).execute(CREATE_SQL);
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE"));
+    }
+
+    @Test
+    void createPartition_whenDefaultPartitionHasRowsForMonth_shouldMoveThemIntoNewPartition() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), eq(FROM), eq(TO))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(3);
+
+        outboxPartitionService.createPartition(YearMonth.of(2026, 10));
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("ALTER TABLE outbox_events DETACH PARTITION outbox_events_default");
+        order.verify(jdbcTemplate).execute(CREATE_SQL);
+        order.verify(jdbcTemplate).update(
+                "INSERT INTO outbox_events_p202610 SELECT * FROM outbox_events_default WHERE created_at >= ? AND created_at < ?",
+                FROM, TO);
+        order.verify(jdbcTemplate).update(
+                "DELETE FROM outbox_events_default WHERE created_at >= ? AND created_at < ?", FROM, TO);
+        order.verify(jdbcTemplate).execute("ALTER TABLE outbox_events ATTACH PARTITION outbox_events_default DEFAULT");
+    }
+}
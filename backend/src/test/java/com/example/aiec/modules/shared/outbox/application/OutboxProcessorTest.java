@@ -1,45 +1,56 @@
 package com.example.aiec.modules.shared.outbox.application;
 
 import com.example.aiec.modules.shared.outbox.domain.entity.OutboxEvent;
-import com.example.aiec.modules.shared.outbox.domain.repository.OutboxEventRepository;
+import com.example.aiec.modules.shared.outbox.handler.BatchOutboxEventHandler;
 import com.example.aiec.modules.shared.outbox.handler.OutboxEventHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
  * OutboxProcessor のポーリングロジック単体テスト。
- * OutboxProcessor は @Scheduled を持つが、ここでは process() を直接呼び出してテストする。
+ * OutboxProcessor はワーカースレッドから process() を呼ぶが、ここでは process() を直接呼び出してテストする。
  */
 @ExtendWith(MockitoExtension.class)
 class OutboxProcessorTest {
 
-    @Mock
-    private OutboxEventRepository outboxEventRepository;
-
     @Mock
     private OutboxEventDispatcher dispatcher;
 
+    private final OutboxProperties outboxProperties = new OutboxProperties();
+
+    private final OutboxDispatchLanes dispatchLanes = new OutboxDispatchLanes(outboxProperties, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        dispatchLanes.shutdown();
+    }
+
     // ── PENDING イベントなし ─────────────────────────────────────────────────
 
     @Test
     void process_noPendingEvents_shouldNotCallDispatcher() {
-        when(outboxEventRepository.findPendingEvents(any(Instant.class))).thenReturn(List.of());
+        when(dispatcher.claim(anyString(), anyInt(), any(Duration.class))).thenReturn(List.of());
 
-        OutboxProcessor processor = new OutboxProcessor(outboxEventRepository, dispatcher, List.of());
-        processor.process();
+        OutboxProcessor processor = new OutboxProcessor(dispatcher, dispatchLanes, List.of(), outboxProperties);
 
-        verifyNoInteractions(dispatcher);
+        assertThat(processor.process()).isZero();
+        verify(dispatcher, never()).processOne(any(), anyMap());
     }
 
     // ── PENDING イベントあり ─────────────────────────────────────────────────
@@ -50,14 +61,29 @@ class OutboxProcessorTest {
         e1.setEventType("TYPE_A");
         OutboxEvent e2 = new OutboxEvent();
         e2.setEventType("TYPE_B");
-        when(outboxEventRepository.findPendingEvents(any(Instant.class))).thenReturn(List.of(e1, e2));
+        when(dispatcher.claim(anyString(), anyInt(), any(Duration.class))).thenReturn(List.of(e1, e2));
 
-        OutboxProcessor processor = new OutboxProcessor(outboxEventRepository, dispatcher, List.of());
-        processor.process();
+        OutboxProcessor processor = new OutboxProcessor(dispatcher, dispatchLanes, List.of(), outboxProperties);
 
+        assertThat(processor.process()).isEqualTo(2);
         verify(dispatcher, times(2)).processOne(any(OutboxEvent.class), anyMap());
     }
 
+    // ── 確保条件 ────────────────────────────────────────────────────────────
+
+    @Test
+    void process_shouldClaimWithConfiguredBatchSizeAndLease() {
+        outboxProperties.setBatchSize(20);
+        outboxProperties.setLeaseSeconds(120);
+        when(dispatcher.claim(anyString(), anyInt(), any(Duration.class))).thenReturn(List.of());
+
+        OutboxProcessor processor = new OutboxProcessor(dispatcher, dispatchLanes, List.of(), outboxProperties);
+        processor.process();
+
+        verify(dispatcher).claim(argThat(owner -> owner.endsWith("/" + Thread.currentThread().getName())),
+                eq(20), eq(Duration.ofSeconds(120)));
+    }
+
     // ── ハンドラマップ構築 ──────────────────────────────────────────────────
 
     @Test
@@ -67,11 +93,70 @@ class OutboxProcessorTest {
 
         OutboxEvent event = new OutboxEvent();
         event.setEventType("TYPE_A");
-        when(outboxEventRepository.findPendingEvents(any())).thenReturn(List.of(event));
+        when(dispatcher.claim(anyString(), anyInt(), any(Duration.class))).thenReturn(List.of(event));
 
-        OutboxProcessor processor = new OutboxProcessor(outboxEventRepository, dispatcher, List.of(handlerA));
+        OutboxProcessor processor = new OutboxProcessor(dispatcher, dispatchLanes, List.of(handlerA), outboxProperties);
         processor.process();
 
         verify(dispatcher).processOne(eq(event), argThat(map -> map.containsKey("TYPE_A")));
     }
+
+    // ── 一括処理 ────────────────────────────────────────────────────────────
+
+    @Test
+    void process_batchCapableHandler_shouldDispatchEventsOfSameTypeTogether() throws Exception {
+        BatchOutboxEventHandler batchHandler = mock(BatchOutboxEventHandler.class);
+        when(batchHandler.getSupportedEventType()).thenReturn("AUDIT");
+        OutboxEvent audit1 = new OutboxEvent();
+        audit1.setEventType("AUDIT");
+        OutboxEvent audit2 = new OutboxEvent();
+        audit2.setEventType("AUDIT");
+        OutboxEvent other = new OutboxEvent();
+        other.setEventType("TYPE_A");
+        when(dispatcher.claim(anyString(), anyInt(), any(Duration.class))).thenReturn(List.of(audit1, other, audit2));
+
+        OutboxProcessor processor = new OutboxProcessor(dispatcher, dispatchLanes, List.of(batchHandler), outboxProperties);
+
+        assertThat(processor.process()).isEqualTo(3);
+        verify(dispatcher).processBatch(List.of(audit1, audit2), batchHandler);
+        verify(dispatcher).processOne(eq(other), anyMap());
+    }
+
+    @Test
+    void process_batchFails_shouldReprocessEachEventSeparatelyThroughDispatcher() throws Exception {
+        BatchOutboxEventHandler batchHandler = mock(BatchOutboxEventHandler.class);
+        when(batchHandler.getSupportedEventType()).thenReturn("AUDIT");
+        OutboxEvent audit1 = new OutboxEvent();
+        audit1.setId(1L);
+        audit1.setEventType("AUDIT");
+        OutboxEvent audit2 = new OutboxEvent();
+        audit2.setId(2L);
+        audit2.setEventType("AUDIT");
+        OutboxEvent audit3 = new OutboxEvent();
+        audit3.setId(3L);
+        audit3.setEventType("AUDIT");
+        when(dispatcher.claim(anyString(), anyInt(), any(Duration.class))).thenReturn(List.of(audit1, audit2, audit3));
+        doThrow(new RuntimeException("bad event")).when(dispatcher).processBatch(any(), eq(batchHandler));
+        lenient().doThrow(new RuntimeException("bad event")).when(dispatcher).processOne(eq(audit2), anyMap());
+
+        OutboxProcessor processor = new OutboxProcessor(dispatcher, dispatchLanes, List.of(batchHandler), outboxProperties);
+
+        assertThat(processor.process()).isEqualTo(3);
+        // 1 件ずつ別トランザクション（ディスパッチャのプロキシ経由）で処理し直すため、失敗したイベント以外の結果は残る
+        verify(dispatcher).processOne(eq(audit1), anyMap());
+        verify(dispatcher).processOne(eq(audit2), anyMap());
+        verify(dispatcher).processOne(eq(audit3), anyMap());
+    }
+
+    // ── リース回収 ──────────────────────────────────────────────────────────
+
+    @Test
+    void recoverExpiredLeases_shouldDelegateToDispatcher() {
+        when(dispatcher.releaseExpiredLeases()).thenReturn(3);
+
+        OutboxProcessor processor = new OutboxProcessor(dispatcher, dispatchLanes, List.of(), outboxProperties);
+        processor.recoverExpiredLeases();
+
+        verify(dispatcher).releaseExpiredLeases();
+    }
 }
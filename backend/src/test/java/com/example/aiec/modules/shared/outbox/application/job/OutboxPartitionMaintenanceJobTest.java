@@ -0,0 +1,142 @@
+package com.example.aiec.modules.shared.outbox.application.job;
+
+import com.example.aiec.modules.shared.job.JobProperties;
+import com.example.aiec.modules.shared.job.domain.repo.JobRunHistoryRepository;
+import com.example.aiec.modules.shared.outbox.application.OutboxPartitionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxPartitionMaintenanceJobTest {
+
+    @Mock private JobRunHistoryRepository jobRunHistoryRepository;
+    @Mock private OutboxPartitionService outboxPartitionService;
+
+    @TempDir
+    Path archiveDir;
+
+    private OutboxPartitionMaintenanceJob job;
+
+    @BeforeEach
+    void setUp() {
+        JobProperties jobProperties = new JobProperties();
+        jobProperties.getOutboxPartition().setMonthsAhead(2);
+        jobProperties.getOutboxPartition().setRetentionMonths(3);
+        jobProperties.getOutboxPartition().setArchiveDir(archiveDir.toString());
+        job = new OutboxPartitionMaintenanceJob(jobRunHistoryRepository, jobProperties, outboxPartitionService);
+    }
+
+    @Test
+    void maintain_shouldCreateMissingFuturePartitions() {
+        when(outboxPartitionService.findPartitionNames()).thenReturn(List.of("outbox_events_p202610"));
+
+        int processed = job.maintain(YearMonth.of(2026, 10));
+
+        assertThat(processed).isEqualTo(2);
+        verify(outboxPartitionService).createPartition(YearMonth.of(2026, 11));
+        verify(outboxPartitionService).createPartition(YearMonth.of(2026, 12));
+        verify(outboxPartitionService, never()).createPartition(YearMonth.of(2026, 10));
+    }
+
+    @Test
+    void maintain_shouldArchiveAndDropPartitionsOlderThanRetention() {
+        when(outboxPartitionService.findPartitionNames()).thenReturn(List.of(
+                "outbox_events_p202606", "outbox_events_p202607",
+                "outbox_events_p202610", "outbox_events_p202611", "outbox_events_p202612"));
+        when(outboxPartitionService.countActiveEvents("outbox_events_p202606")).thenReturn(0L);
+        when(outboxPartitionService.exportPartition(eq("outbox_events_p202606"), any(Path.class))).thenAnswer(invocation -> {
+            Files.writeString(invocation.getArgument(1), "exported");
+            return 42L;
+        });
+
+        int processed = job.maintain(YearMonth.of(2026, 10));
+
+        assertThat(processed).isEqualTo(1);
+        assertThat(archiveDir.resolve("outbox_events_p202606.ndjson.gz")).hasContent("exported");
+        verify(outboxPartitionService).dropPartition("outbox_events_p202606", 42L);
+        verify(outboxPartitionService, never()).countActiveEvents("outbox_events_p202607");
+    }
+
+    @Test
+    void maintain_whenPartitionCreationFails_shouldStillArchiveOldPartitions() {
+        when(outboxPartitionService.findPartitionNames()).thenReturn(List.of(
+                "outbox_events_p202606", "outbox_events_p202611", "outbox_events_p202612"));
+        doThrow(new IllegalStateException("partition constraint violated"))
+                .when(outboxPartitionService).createPartition(YearMonth.of(2026, 10));
+        when(outboxPartitionService.countActiveEvents("outbox_events_p202606")).thenReturn(0L);
+        when(outboxPartitionService.exportPartition(eq("outbox_events_p202606"), any(Path.class))).thenAnswer(invocation -> {
+            Files.writeString(invocation.getArgument(1), "exported");
+            return 5L;
+        });
+
+        int processed = job.maintain(YearMonth.of(2026, 10));
+
+        assertThat(processed).isEqualTo(1);
+        verify(outboxPartitionService).dropPartition("outbox_events_p202606", 5L);
+    }
+
+    @Test
+    void maintain_shouldArchiveDefaultPartitionRowsOlderThanRetention() throws Exception {
+        when(outboxPartitionService.findPartitionNames()).thenReturn(List.of(
+                "outbox_events_p202610", "outbox_events_p202611", "outbox_events_p202612"));
+        when(outboxPartitionService.exportDefaultPartitionRows(eq(YearMonth.of(2026, 7)), any(Path.class))).thenAnswer(invocation -> {
+            Files.writeString(invocation.getArgument(1), "exported");
+            return 7L;
+        });
+
+        int processed = job.maintain(YearMonth.of(2026, 10));
+
+        assertThat(processed).isEqualTo(1);
+        verify(outboxPartitionService).deleteDefaultPartitionRows(YearMonth.of(2026, 7), 7L);
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .singleElement()
+                    .satisfies(name -> assertThat(name).startsWith("outbox_events_default_before202607_").endsWith(".ndjson.gz"));
+        }
+    }
+
+    @Test
+    void maintain_whenNoOldDefaultPartitionRows_shouldNotDeleteOrKeepFile() throws Exception {
+        when(outboxPartitionService.findPartitionNames()).thenReturn(List.of(
+                "outbox_events_p202610", "outbox_events_p202611", "outbox_events_p202612"));
+
+        job.maintain(YearMonth.of(2026, 10));
+
+        verify(outboxPartitionService, never()).deleteDefaultPartitionRows(any(), anyLong());
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void maintain_whenPartitionHasUnprocessedEvents_shouldKeepIt() {
+        when(outboxPartitionService.findPartitionNames()).thenReturn(List.of(
+                "outbox_events_p202605", "outbox_events_p202610", "outbox_events_p202611", "outbox_events_p202612"));
+        when(outboxPartitionService.countActiveEvents("outbox_events_p202605")).thenReturn(3L);
+
+        int processed = job.maintain(YearMonth.of(2026, 10));
+
+        assertThat(processed).isZero();
+        verify(outboxPartitionService, never()).exportPartition(any(), any());
+        verify(outboxPartitionService, never()).dropPartition(any(), anyLong());
+    }
+}